@@ -0,0 +1,126 @@
+package com.example.countries.component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe Bloom filter of strings.
+ *
+ * <p>{@link #mightContain(CharSequence)} never returns false for a string that was added, and
+ * returns true for a string that was not added with a probability close to the false-positive
+ * rate the filter was sized for, as long as no more than the expected number of strings was
+ * added. Strings cannot be removed.
+ */
+public final class BloomFilter {
+  private static final double LN2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final long bitSize;
+  private final int hashCount;
+
+  /**
+   * Creates an empty filter.
+   *
+   * @param expectedInsertions the number of strings the filter is sized for
+   * @param falsePositiveRate  the false-positive rate at the expected number of strings
+   * @throws IllegalArgumentException if the arguments are out of range
+   */
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Expected insertions must be positive");
+    }
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+    }
+    long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+    int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+    this.words = new AtomicLongArray(wordCount);
+    this.bitSize = (long) wordCount * 64;
+    this.hashCount = (int) Math.max(1, Math.round((double) bitSize / expectedInsertions * LN2));
+  }
+
+  /**
+   * Adds a string.
+   *
+   * @param value the string to add
+   */
+  public void put(CharSequence value) {
+    long hash = hash(value);
+    int low = (int) hash;
+    int high = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = Math.floorMod(low + (long) i * high, bitSize);
+      long mask = 1L << bit;
+      int word = (int) (bit >>> 6);
+      long current = words.get(word);
+      while ((current & mask) == 0 && !words.weakCompareAndSetVolatile(word, current,
+          current | mask)) {
+        current = words.get(word);
+      }
+    }
+  }
+
+  /**
+   * Returns whether a string might have been added.
+   *
+   * @param value the string to check
+   * @return false if the string was definitely not added
+   */
+  public boolean mightContain(CharSequence value) {
+    long hash = hash(value);
+    int low = (int) hash;
+    int high = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = Math.floorMod(low + (long) i * high, bitSize);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of bits of the filter.
+   *
+   * @return the bit size
+   */
+  public long getBitSize() {
+    return bitSize;
+  }
+
+  /**
+   * Returns the number of bits set per string.
+   *
+   * @return the number of hash functions
+   */
+  public int getHashCount() {
+    return hashCount;
+  }
+
+  /**
+   * Returns the probability that a string that was not added is reported as present, estimated
+   * from the share of set bits.
+   *
+   * @return the expected false-positive rate
+   */
+  public double expectedFalsePositiveRate() {
+    long setBits = 0;
+    for (int i = 0; i < words.length(); i++) {
+      setBits += Long.bitCount(words.get(i));
+    }
+    return Math.pow((double) setBits / bitSize, hashCount);
+  }
+
+  private static long hash(CharSequence value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
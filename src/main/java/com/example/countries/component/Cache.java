@@ -1,26 +1,188 @@
 package com.example.countries.component;
 
+import com.example.countries.exception.CacheLoadException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import org.springframework.stereotype.Component;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
- * A simple cache implementation using a LinkedHashMap.
+ * A bounded, thread-safe cache with TinyLFU admission and segmented-LRU eviction, or plain LRU
+ * eviction when created with {@link EvictionPolicy#LRU}.
+ *
+ * <p>The key space is split into independently locked segments, so there is no global lock.
+ * Each segment keeps its entries in two LRU queues: new entries land in the probation queue and
+ * are promoted to the protected queue on their second access. When a segment is full, a
+ * candidate is admitted only if a frequency sketch estimates it is used more often than the
+ * probation victim it would replace.
+ *
+ * <p>Entries may carry dependency tags such as {@code country:42}. {@link #invalidateTag} evicts
+ * every entry carrying a tag, which lets writers drop only the entries they affect.
+ *
+ * <p>The loader-based {@link #get(Object, CacheLoader)} runs at most one load per key at a time;
+ * concurrent callers missing on the same key wait for the result of that load. A loaded value is
+ * not cached if an entry was invalidated or removed while it was loading, since the load may have
+ * read the data before the write that caused the invalidation.
+ *
+ * <p>{@link #getAll} and {@link #putAll} read and write many keys at once, taking the lock of
+ * each segment once per call rather than once per key, so a caller can load all its misses with
+ * one query.
+ *
+ * <p>An optional {@link OffHeapStore} acts as a second-level tier: entries evicted or refused by
+ * the heap tier are serialized off-heap, and a heap miss that finds its key there promotes the
+ * entry back to the heap.
+ *
+ * <p>Loader-based reads may pass a {@link RefreshPolicy}, or the cache may have a default one.
+ * Entries close to or past their time to live are then reloaded on the refresh executor while
+ * readers keep receiving the cached value, until the entry exceeds its maximum staleness.
+ *
+ * <p>Hits, misses, evictions and load latencies are counted with striped counters that do not
+ * allocate on the read path; {@link #stats()} copies them together with size estimates.
  *
  * @param <K> the type of keys maintained by this cache
  * @param <V> the type of mapped values
  */
-@Component
 public class Cache<K, V> {
-  private static final int MAX_ENTRIES = 10;
+  static final int DEFAULT_CAPACITY = 10;
+  static final long DEFAULT_LOAD_TIMEOUT_MILLIS = 5_000;
+  private static final String[] NO_TAGS = new String[0];
+  private static final int MAX_SEGMENTS = 16;
+  private static final int MIN_SEGMENT_CAPACITY = 64;
+  private static final int HEAP_ESTIMATE_SAMPLES = 32;
+  private static final int NODE_OVERHEAD = 56;
+
+  private final Segment<K>[] segments;
+  private final int segmentMask;
+  private final int capacity;
+  private final long loadTimeoutMillis;
+  private final TagIndex<K> tagIndex = new TagIndex<>();
+  private final OffHeapStore<K> offHeapStore;
+  private final Executor refreshExecutor;
+  private final RefreshPolicy refreshPolicy;
+  private final Map<K, CompletableFuture<Object>> loadsInFlight = new ConcurrentHashMap<>();
+  private final AtomicLong invalidations = new AtomicLong();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder[] evictionCounts = new LongAdder[EvictionCause.values().length];
+  private final LongAdder loadCount = new LongAdder();
+  private final LongAdder coalescedLoadCount = new LongAdder();
+  private final LatencyHistogram loadLatency = new LatencyHistogram();
+  private final LongAdder refreshCount = new LongAdder();
+  private final LongAdder refreshFailureCount = new LongAdder();
+  private final LongAdder refreshRejectedCount = new LongAdder();
+  private final LatencyHistogram refreshLatency = new LatencyHistogram();
+  private LongSupplier ticker = System::nanoTime;
+
+  /**
+   * Creates a cache with the default capacity.
+   */
+  public Cache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a cache holding at most the given number of entries.
+   *
+   * @param capacity the maximum number of entries kept in the cache
+   */
+  public Cache(int capacity) {
+    this(capacity, DEFAULT_LOAD_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Creates a cache holding at most the given number of entries.
+   *
+   * @param capacity          the maximum number of entries kept in the cache
+   * @param loadTimeoutMillis how long a caller waits for a load started by another caller
+   */
+  public Cache(int capacity, long loadTimeoutMillis) {
+    this(capacity, loadTimeoutMillis, null);
+  }
 
-  private final Map<K, Object> countryCache = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
-    @Override
-    protected boolean removeEldestEntry(Map.Entry eldest) {
-      return size() > MAX_ENTRIES;
+  /**
+   * Creates a cache backed by an off-heap second-level tier.
+   *
+   * @param capacity          the maximum number of entries kept on the heap
+   * @param loadTimeoutMillis how long a caller waits for a load started by another caller
+   * @param offHeapStore      the off-heap tier, or null to keep entries on the heap only
+   */
+  public Cache(int capacity, long loadTimeoutMillis, OffHeapStore<K> offHeapStore) {
+    this(capacity, loadTimeoutMillis, offHeapStore, null);
+  }
+
+  /**
+   * Creates a cache backed by an off-heap tier that refreshes entries in the background.
+   *
+   * @param capacity          the maximum number of entries kept on the heap
+   * @param loadTimeoutMillis how long a caller waits for a load started by another caller
+   * @param offHeapStore      the off-heap tier, or null to keep entries on the heap only
+   * @param refreshExecutor   runs background refreshes, or null to load expired entries
+   *                          synchronously
+   */
+  public Cache(int capacity, long loadTimeoutMillis, OffHeapStore<K> offHeapStore,
+               Executor refreshExecutor) {
+    this(capacity, loadTimeoutMillis, offHeapStore, refreshExecutor, EvictionPolicy.TINY_LFU,
+        null);
+  }
+
+  /**
+   * Creates a cache with the given eviction policy and default refresh policy.
+   *
+   * @param capacity          the maximum number of entries kept on the heap
+   * @param loadTimeoutMillis how long a caller waits for a load started by another caller
+   * @param offHeapStore      the off-heap tier, or null to keep entries on the heap only
+   * @param refreshExecutor   runs background refreshes, or null to load expired entries
+   *                          synchronously
+   * @param evictionPolicy    how full segments choose the entries to keep
+   * @param refreshPolicy     the expiry and refresh settings of reads that pass none, or null if
+   *                          entries do not expire
+   */
+  @SuppressWarnings("unchecked")
+  public Cache(int capacity, long loadTimeoutMillis, OffHeapStore<K> offHeapStore,
+               Executor refreshExecutor, EvictionPolicy evictionPolicy,
+               RefreshPolicy refreshPolicy) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.loadTimeoutMillis = loadTimeoutMillis;
+    this.offHeapStore = offHeapStore;
+    this.refreshExecutor = refreshExecutor;
+    this.refreshPolicy = refreshPolicy;
+    if (offHeapStore != null) {
+      offHeapStore.setEvictionListener(tagIndex::unregister);
     }
-  };
+    for (int i = 0; i < evictionCounts.length; i++) {
+      evictionCounts[i] = new LongAdder();
+    }
+    int segmentCount = Math.min(MAX_SEGMENTS,
+        Integer.highestOneBit(Math.max(1, capacity / MIN_SEGMENT_CAPACITY)));
+    this.segments = new Segment[segmentCount];
+    this.segmentMask = segmentCount - 1;
+    for (int i = 0; i < segmentCount; i++) {
+      int segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+      segments[i] = new Segment<>(segmentCapacity, evictionPolicy, tagIndex, offHeapStore,
+          this::now, evictionCounts);
+    }
+  }
 
   /**
    * Put a key-value pair into the cache.
@@ -29,7 +191,19 @@ public class Cache<K, V> {
    * @param value the value to be associated with the specified key
    */
   public void put(K key, V value) {
-    countryCache.put(key, value);
+    put(key, value, NO_TAGS);
+  }
+
+  /**
+   * Put a key-value pair into the cache and tag it with the entities it was built from.
+   *
+   * @param key   the key with which the specified value is to be associated
+   * @param value the value to be associated with the specified key
+   * @param tags  the dependency tags of the entry
+   */
+  public void put(K key, V value, String... tags) {
+    int hash = hash(key);
+    segmentFor(hash).put(key, hash, value, tags);
   }
 
   /**
@@ -39,7 +213,74 @@ public class Cache<K, V> {
    * @param valueList the list of values to be associated with the specified key
    */
   public void putList(K key, List<V> valueList) {
-    countryCache.put(key, valueList);
+    putList(key, valueList, NO_TAGS);
+  }
+
+  /**
+   * Put a key and a list of values into the cache and tag it with the entities it was built from.
+   *
+   * @param key       the key with which the specified list is to be associated
+   * @param valueList the list of values to be associated with the specified key
+   * @param tags      the dependency tags of the entry
+   */
+  public void putList(K key, List<V> valueList, String... tags) {
+    int hash = hash(key);
+    segmentFor(hash).put(key, hash, valueList, tags);
+  }
+
+  /**
+   * Put several key-value pairs into the cache, locking each segment once.
+   *
+   * @param entries the key-value pairs to put
+   */
+  public void putAll(Map<? extends K, ? extends V> entries) {
+    putAll(entries, value -> NO_TAGS);
+  }
+
+  /**
+   * Put several key-value pairs into the cache and tag each with the entities it was built from,
+   * locking each segment once.
+   *
+   * @param entries the key-value pairs to put
+   * @param tagger  returns the dependency tags of a value
+   */
+  public void putAll(Map<? extends K, ? extends V> entries,
+                     Function<? super V, String[]> tagger) {
+    List<List<K>> keys = bySegment(entries.keySet());
+    for (int i = 0; i < segments.length; i++) {
+      if (!keys.get(i).isEmpty()) {
+        segments[i].putAll(keys.get(i), key -> entries.get(key),
+            key -> tagger.apply(entries.get(key)));
+      }
+    }
+  }
+
+  /**
+   * Put several loaded key-value pairs into the cache unless an entry was invalidated or removed
+   * since the given generation was read. Callers read {@link #invalidationGeneration()} before
+   * loading the values, so values read before a concurrent write are not cached after the write
+   * invalidated them.
+   *
+   * @param entries    the key-value pairs to put
+   * @param tagger     returns the dependency tags of a value
+   * @param generation the invalidation generation read before loading
+   * @return true if the pairs were cached
+   */
+  public boolean putAll(Map<? extends K, ? extends V> entries,
+                        Function<? super V, String[]> tagger, long generation) {
+    if (invalidations.get() != generation) {
+      return false;
+    }
+    putAll(entries, tagger);
+    if (invalidations.get() == generation) {
+      return true;
+    }
+    // An invalidation ran between the check and the put and may have missed these entries
+    for (K key : entries.keySet()) {
+      int hash = hash(key);
+      segmentFor(hash).remove(key);
+    }
+    return false;
   }
 
   /**
@@ -49,8 +290,10 @@ public class Cache<K, V> {
    * @return the value to which the specified key is mapped, or null if the cache contains no
    *     mapping for the key
    */
+  @SuppressWarnings("unchecked")
   public V get(K key) {
-    return (V) countryCache.get(key);
+    int hash = hash(key);
+    return (V) recordAccess(read(segmentFor(hash), key, hash));
   }
 
   /**
@@ -60,18 +303,115 @@ public class Cache<K, V> {
    * @return the list of values to which the specified key is mapped, or null if the cache contains
    *     no mapping for the key
    */
+  @SuppressWarnings("unchecked")
   public List<V> getList(K key) {
-    return (List<V>) countryCache.get(key);
+    int hash = hash(key);
+    return (List<V>) recordAccess(read(segmentFor(hash), key, hash));
+  }
+
+  /**
+   * Retrieve the values associated with several keys, locking each segment once. Each key counts
+   * as a hit or a miss like a call of {@link #get(Object)}. Entries past the maximum age of the
+   * default refresh policy are dropped; entries due for a refresh are returned without one, as
+   * there is no loader to run.
+   *
+   * @param keys the keys whose associated values are to be returned
+   * @return the cached values by key, in the order of the keys, without the missing keys
+   */
+  @SuppressWarnings("unchecked")
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    List<List<K>> grouped = bySegment(keys);
+    Map<K, Object> found = new HashMap<>();
+    int requested = 0;
+    for (int i = 0; i < segments.length; i++) {
+      if (!grouped.get(i).isEmpty()) {
+        requested += grouped.get(i).size();
+        segments[i].getAll(grouped.get(i), refreshPolicy, found);
+      }
+    }
+    hitCount.add(found.size());
+    missCount.add(requested - found.size());
+    Map<K, V> values = new LinkedHashMap<>();
+    for (K key : keys) {
+      Object value = found.get(key);
+      if (value != null) {
+        values.put(key, (V) value);
+      }
+    }
+    return values;
   }
 
   /**
-   * Check if the cache contains the specified key.
+   * Retrieve the value associated with the specified key, loading it on a miss. Only one load
+   * runs per key at a time: concurrent callers wait for the running load and receive its value or
+   * its exception.
+   *
+   * @param key    the key whose associated value is to be returned
+   * @param loader computes the value and adds its dependency tags to the given list
+   * @param <E>    the type of exception thrown by the loader
+   * @return the cached or loaded value, or null if the loader returned null
+   * @throws E if the loader failed
+   */
+  public <E extends Exception> V get(K key, CacheLoader<V, E> loader) throws E {
+    return load(key, refreshPolicy, loader);
+  }
+
+  /**
+   * Retrieve the value associated with the specified key, loading it on a miss and refreshing it
+   * in the background according to the given policy.
+   *
+   * @param key    the key whose associated value is to be returned
+   * @param policy the expiry and refresh settings of the entry
+   * @param loader computes the value and adds its dependency tags to the given list
+   * @param <E>    the type of exception thrown by the loader
+   * @return the cached or loaded value, or null if the loader returned null
+   * @throws E if the loader failed
+   */
+  public <E extends Exception> V get(K key, RefreshPolicy policy, CacheLoader<V, E> loader)
+      throws E {
+    return load(key, policy, loader);
+  }
+
+  /**
+   * Retrieve the list of values associated with the specified key, loading it on a miss. Only one
+   * load runs per key at a time.
+   *
+   * @param key    the key whose associated list of values is to be returned
+   * @param loader computes the list and adds its dependency tags to the given list
+   * @param <E>    the type of exception thrown by the loader
+   * @return the cached or loaded list, or null if the loader returned null
+   * @throws E if the loader failed
+   */
+  public <E extends Exception> List<V> getList(K key, CacheLoader<List<V>, E> loader) throws E {
+    return load(key, refreshPolicy, loader);
+  }
+
+  /**
+   * Retrieve the list of values associated with the specified key, loading it on a miss and
+   * refreshing it in the background according to the given policy.
+   *
+   * @param key    the key whose associated list of values is to be returned
+   * @param policy the expiry and refresh settings of the entry
+   * @param loader computes the list and adds its dependency tags to the given list
+   * @param <E>    the type of exception thrown by the loader
+   * @return the cached or loaded list, or null if the loader returned null
+   * @throws E if the loader failed
+   */
+  public <E extends Exception> List<V> getList(K key, RefreshPolicy policy,
+                                               CacheLoader<List<V>, E> loader) throws E {
+    return load(key, policy, loader);
+  }
+
+  /**
+   * Check if the cache contains the specified key. Unlike {@link #get}, this does not count as an
+   * access of the entry.
    *
    * @param key the key whose presence in the cache is to be tested
    * @return true if the cache contains a mapping for the specified key, otherwise false
    */
   public boolean containsKey(K key) {
-    return countryCache.containsKey(key);
+    int hash = hash(key);
+    return segmentFor(hash).containsKey(key);
   }
 
   /**
@@ -80,13 +420,922 @@ public class Cache<K, V> {
    * @param key the key whose mapping is to be removed from the cache
    */
   public void remove(K key) {
-    countryCache.remove(key);
+    invalidations.incrementAndGet();
+    int hash = hash(key);
+    segmentFor(hash).remove(key);
+  }
+
+  /**
+   * Remove every entry tagged with the specified tag.
+   *
+   * @param tag the dependency tag whose entries are to be removed
+   * @return the number of removed entries
+   */
+  public int invalidateTag(String tag) {
+    invalidations.incrementAndGet();
+    int removed = 0;
+    for (K key : tagIndex.keysOf(tag)) {
+      int hash = hash(key);
+      if (segmentFor(hash).removeTagged(key, tag)) {
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Remove every entry tagged with any of the specified tags.
+   *
+   * @param tags the dependency tags whose entries are to be removed
+   * @return the number of removed entries
+   */
+  public int invalidateTags(Iterable<String> tags) {
+    int removed = 0;
+    for (String tag : tags) {
+      removed += invalidateTag(tag);
+    }
+    return removed;
   }
 
   /**
-   * Clear all entries from the cache.
+   * Clear all entries from the cache. Segments are cleared one at a time.
    */
   public void clear() {
-    countryCache.clear();
+    invalidations.incrementAndGet();
+    for (Segment<K> segment : segments) {
+      segment.clear();
+    }
+    if (offHeapStore != null) {
+      offHeapStore.clear();
+    }
+  }
+
+  /**
+   * Returns the invalidation generation, which grows with every invalidation, removal and clear.
+   * Read it before loading values that are later cached with
+   * {@link #putAll(Map, Function, long)}.
+   *
+   * @return the current invalidation generation
+   */
+  public long invalidationGeneration() {
+    return invalidations.get();
+  }
+
+  /**
+   * Returns the number of entries currently held by the heap tier of the cache.
+   *
+   * @return the number of cached entries
+   */
+  public int size() {
+    int size = 0;
+    for (Segment<K> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the most valuable entries of the heap tier, for saving a snapshot. Every segment
+   * contributes its protected entries before its probation entries, most recently used first.
+   *
+   * @param limit the maximum number of entries to return
+   * @return the entries, hottest first within each segment
+   */
+  public List<CacheEntry<K>> hottestEntries(int limit) {
+    List<List<CacheEntry<K>>> perSegment = new ArrayList<>(segments.length);
+    for (Segment<K> segment : segments) {
+      perSegment.add(segment.hottest(limit));
+    }
+    List<CacheEntry<K>> entries = new ArrayList<>(Math.min(limit, capacity));
+    for (int i = 0; entries.size() < limit; i++) {
+      boolean found = false;
+      for (List<CacheEntry<K>> segmentEntries : perSegment) {
+        if (i < segmentEntries.size() && entries.size() < limit) {
+          entries.add(segmentEntries.get(i));
+          found = true;
+        }
+      }
+      if (!found) {
+        break;
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Puts an entry taken from a snapshot back into the cache, keeping its age.
+   *
+   * @param entry the entry returned by {@link #hottestEntries(int)}
+   */
+  public void restore(CacheEntry<K> entry) {
+    int hash = hash(entry.key());
+    segmentFor(hash).restore(entry.key(), hash, entry.value(), entry.tags(), entry.ageNanos());
+  }
+
+  /**
+   * Returns the off-heap tier of the cache.
+   *
+   * @return the off-heap store, or null if the cache keeps entries on the heap only
+   */
+  public OffHeapStore<K> getOffHeapStore() {
+    return offHeapStore;
+  }
+
+  /**
+   * Returns the number of loads run by {@link #get(Object, CacheLoader)} and
+   * {@link #getList(Object, CacheLoader)}.
+   *
+   * @return the number of loader invocations
+   */
+  public long getLoadCount() {
+    return loadCount.sum();
+  }
+
+  /**
+   * Returns the number of cache misses that waited for a load already started by another caller
+   * instead of running their own.
+   *
+   * @return the number of coalesced loads
+   */
+  public long getCoalescedLoadCount() {
+    return coalescedLoadCount.sum();
+  }
+
+  /**
+   * Returns the number of completed background refreshes.
+   *
+   * @return the number of successful refreshes
+   */
+  public long getRefreshCount() {
+    return refreshCount.sum();
+  }
+
+  /**
+   * Returns the number of background refreshes whose loader failed. The cached value is kept.
+   *
+   * @return the number of failed refreshes
+   */
+  public long getRefreshFailureCount() {
+    return refreshFailureCount.sum();
+  }
+
+  /**
+   * Returns the number of background refreshes the refresh executor refused to queue.
+   *
+   * @return the number of rejected refreshes
+   */
+  public long getRefreshRejectedCount() {
+    return refreshRejectedCount.sum();
+  }
+
+  /**
+   * Returns the time spent in background refreshes, successful or not.
+   *
+   * @return the total refresh latency in nanoseconds
+   */
+  public long getTotalRefreshNanos() {
+    return refreshLatency.getTotalNanos();
+  }
+
+  /**
+   * Returns the latency of the slowest background refresh.
+   *
+   * @return the maximum refresh latency in nanoseconds
+   */
+  public long getMaxRefreshNanos() {
+    return refreshLatency.getMaxNanos();
+  }
+
+  /**
+   * Returns the number of reads that found a value in the cache.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * Returns the number of reads that found no value in the cache.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * Returns the number of entries that left the heap tier for the given reason.
+   *
+   * @param cause the eviction cause
+   * @return the eviction count
+   */
+  public long getEvictionCount(EvictionCause cause) {
+    return evictionCounts[cause.ordinal()].sum();
+  }
+
+  /**
+   * Copies the statistics of the cache. The heap estimate walks a sample of entries of every
+   * segment, so this is meant for monitoring rather than for the request path.
+   *
+   * @return the statistics
+   */
+  public CacheStats stats() {
+    long hits = hitCount.sum();
+    long misses = missCount.sum();
+    Map<EvictionCause, Long> evictions = new EnumMap<>(EvictionCause.class);
+    for (EvictionCause cause : EvictionCause.values()) {
+      evictions.put(cause, evictionCounts[cause.ordinal()].sum());
+    }
+    long estimatedHeapBytes = 0;
+    for (Segment<K> segment : segments) {
+      estimatedHeapBytes += segment.estimateHeapBytes(HEAP_ESTIMATE_SAMPLES);
+    }
+    boolean tiered = offHeapStore != null;
+    return new CacheStats(size(), capacity, hits, misses,
+        hits + misses == 0 ? 0 : (double) hits / (hits + misses), evictions,
+        loadCount.sum(), coalescedLoadCount.sum(), loadLatency.snapshot(),
+        refreshCount.sum(), refreshFailureCount.sum(), refreshRejectedCount.sum(),
+        refreshLatency.snapshot(), estimatedHeapBytes,
+        tiered ? offHeapStore.size() : 0, tiered ? offHeapStore.getEvictionCount() : 0,
+        tiered ? offHeapStore.getLiveBytes() : 0, tiered ? offHeapStore.getAllocatedBytes() : 0);
+  }
+
+  /**
+   * Returns the maximum number of entries the cache can hold.
+   *
+   * @return the cache capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Replaces the clock used for entry ages. Intended for tests.
+   *
+   * @param ticker returns the current time in nanoseconds
+   */
+  void setTicker(LongSupplier ticker) {
+    this.ticker = ticker;
+  }
+
+  private long now() {
+    return ticker.getAsLong();
+  }
+
+  private Object read(Segment<K> segment, K key, int hash) {
+    if (refreshPolicy == null) {
+      return segment.get(key, hash);
+    }
+    Lookup lookup = segment.lookup(key, hash, refreshPolicy);
+    return lookup == null ? null : lookup.value();
+  }
+
+  private Object recordAccess(Object cached) {
+    if (cached == null) {
+      missCount.increment();
+    } else {
+      hitCount.increment();
+    }
+    return cached;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T, E extends Exception> T load(K key, RefreshPolicy policy, CacheLoader<T, E> loader)
+      throws E {
+    int hash = hash(key);
+    Segment<K> segment = segmentFor(hash);
+    Object cached;
+    if (policy == null) {
+      cached = segment.get(key, hash);
+    } else {
+      Lookup lookup = segment.lookup(key, hash, policy);
+      cached = lookup == null ? null : lookup.value();
+      if (lookup != null && lookup.refresh()) {
+        refresh(key, hash, lookup.value(), loader);
+      }
+    }
+    if (recordAccess(cached) != null) {
+      return (T) cached;
+    }
+
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    CompletableFuture<Object> running = loadsInFlight.putIfAbsent(key, future);
+    if (running != null) {
+      coalescedLoadCount.increment();
+      return (T) await(key, running);
+    }
+    try {
+      cached = segment.peek(key);
+      if (cached != null) {
+        future.complete(cached);
+        return (T) cached;
+      }
+      loadCount.increment();
+      List<String> tags = new ArrayList<>();
+      long generation = invalidations.get();
+      long start = System.nanoTime();
+      T value;
+      try {
+        value = loader.load(tags);
+      } finally {
+        loadLatency.record(System.nanoTime() - start);
+      }
+      if (value != null) {
+        putLoaded(segment, key, hash, value, tags.toArray(NO_TAGS), generation);
+      }
+      future.complete(value);
+      return value;
+    } catch (Exception | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      loadsInFlight.remove(key, future);
+    }
+  }
+
+  private void putLoaded(Segment<K> segment, K key, int hash, Object value, String[] tags,
+                         long generation) {
+    if (invalidations.get() != generation) {
+      return;
+    }
+    segment.put(key, hash, value, tags);
+    if (invalidations.get() != generation) {
+      // An invalidation ran between the check and the put and may have missed the entry
+      segment.remove(key);
+    }
+  }
+
+  private void refresh(K key, int hash, Object current, CacheLoader<?, ?> loader) {
+    if (refreshExecutor == null) {
+      return;
+    }
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    if (loadsInFlight.putIfAbsent(key, future) != null) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> runRefresh(key, hash, current, loader, future));
+    } catch (RejectedExecutionException e) {
+      refreshRejectedCount.increment();
+      loadsInFlight.remove(key, future);
+      future.complete(current);
+    }
+  }
+
+  private void runRefresh(K key, int hash, Object current, CacheLoader<?, ?> loader,
+                          CompletableFuture<Object> future) {
+    long start = System.nanoTime();
+    try {
+      List<String> tags = new ArrayList<>();
+      Object value = loader.load(tags);
+      segmentFor(hash).replace(key, current, value, tags.toArray(NO_TAGS));
+      refreshCount.increment();
+      future.complete(value);
+    } catch (Exception | Error e) {
+      refreshFailureCount.increment();
+      future.completeExceptionally(e);
+    } finally {
+      refreshLatency.record(System.nanoTime() - start);
+      loadsInFlight.remove(key, future);
+    }
+  }
+
+  private <E extends Exception> Object await(K key, CompletableFuture<Object> running) throws E {
+    try {
+      return running.get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      throw Cache.<E>rethrow(e.getCause());
+    } catch (TimeoutException e) {
+      throw new CacheLoadException("Timed out waiting for the load of " + key, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheLoadException("Interrupted while waiting for the load of " + key, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Exception> E rethrow(Throwable cause) throws E {
+    if (cause instanceof Error error) {
+      throw error;
+    }
+    throw (E) cause;
+  }
+
+  private Segment<K> segmentFor(int hash) {
+    return segments[(hash >>> 16) & segmentMask];
+  }
+
+  private List<List<K>> bySegment(Collection<? extends K> keys) {
+    List<List<K>> grouped = new ArrayList<>(segments.length);
+    for (int i = 0; i < segments.length; i++) {
+      grouped.add(new ArrayList<>());
+    }
+    Set<K> seen = new HashSet<>();
+    for (K key : keys) {
+      if (seen.add(key)) {
+        grouped.get((hash(key) >>> 16) & segmentMask).add(key);
+      }
+    }
+    return grouped;
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * The result of a policy-aware read: the cached value and whether it is due for a refresh.
+   */
+  private record Lookup(Object value, boolean refresh) {
+  }
+
+  /**
+   * A node of one of the segment's LRU queues.
+   */
+  private static final class Node<K> {
+    final K key;
+    final int hash;
+    Object value;
+    String[] tags;
+    long loadedAtNanos;
+    boolean inProtected;
+    Node<K> prev;
+    Node<K> next;
+
+    Node(K key, int hash, Object value, String[] tags, long loadedAtNanos) {
+      this.key = key;
+      this.hash = hash;
+      this.value = value;
+      this.tags = tags;
+      this.loadedAtNanos = loadedAtNanos;
+    }
+
+    boolean hasTag(String tag) {
+      for (String t : tags) {
+        if (t.equals(tag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A doubly linked access-order queue; the head is the least recently used node.
+   */
+  private static final class AccessQueue<K> {
+    private Node<K> head;
+    private Node<K> tail;
+    private int size;
+
+    void addLast(Node<K> node) {
+      node.prev = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+    }
+
+    void unlink(Node<K> node) {
+      if (node.prev == null) {
+        head = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+      size--;
+    }
+
+    void moveToLast(Node<K> node) {
+      if (node != tail) {
+        unlink(node);
+        addLast(node);
+      }
+    }
+
+    Node<K> peekFirst() {
+      return head;
+    }
+
+    Node<K> peekLast() {
+      return tail;
+    }
+
+    int size() {
+      return size;
+    }
+
+    void clear() {
+      head = null;
+      tail = null;
+      size = 0;
+    }
+  }
+
+  /**
+   * Maps each dependency tag to the keys of the entries carrying it. Updates for one tag are
+   * atomic, so a key is never added to a key set that has already been dropped.
+   */
+  private static final class TagIndex<K> {
+    private final Map<String, Set<K>> keysByTag = new ConcurrentHashMap<>();
+
+    void register(K key, String[] tags) {
+      for (String tag : tags) {
+        keysByTag.compute(tag, (t, keys) -> {
+          Set<K> result = keys == null ? new HashSet<>() : keys;
+          result.add(key);
+          return result;
+        });
+      }
+    }
+
+    void unregister(K key, String[] tags) {
+      for (String tag : tags) {
+        keysByTag.computeIfPresent(tag, (t, keys) -> {
+          keys.remove(key);
+          return keys.isEmpty() ? null : keys;
+        });
+      }
+    }
+
+    Set<K> keysOf(String tag) {
+      Set<K> snapshot = new HashSet<>();
+      keysByTag.computeIfPresent(tag, (t, keys) -> {
+        snapshot.addAll(keys);
+        return keys;
+      });
+      return snapshot.isEmpty() ? Collections.emptySet() : snapshot;
+    }
+  }
+
+  /**
+   * An independently locked slice of the cache with its own SLRU queues and frequency sketch.
+   */
+  private static final class Segment<K> extends ReentrantLock {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<K, Node<K>> map = new HashMap<>();
+    private final transient AccessQueue<K> probation = new AccessQueue<>();
+    private final transient AccessQueue<K> protectedQueue = new AccessQueue<>();
+    private final transient FrequencySketch sketch;
+    private final transient TagIndex<K> tagIndex;
+    private final transient OffHeapStore<K> offHeapStore;
+    private final transient LongSupplier clock;
+    private final transient LongAdder[] evictionCounts;
+    private final int capacity;
+    private final int protectedCapacity;
+    private final boolean admissionFilter;
+
+    Segment(int capacity, EvictionPolicy evictionPolicy, TagIndex<K> tagIndex,
+            OffHeapStore<K> offHeapStore, LongSupplier clock, LongAdder[] evictionCounts) {
+      this.tagIndex = tagIndex;
+      this.offHeapStore = offHeapStore;
+      this.clock = clock;
+      this.evictionCounts = evictionCounts;
+      this.capacity = capacity;
+      this.admissionFilter = evictionPolicy == EvictionPolicy.TINY_LFU;
+      this.protectedCapacity = admissionFilter ? capacity * 4 / 5 : 0;
+      this.sketch = new FrequencySketch(capacity);
+    }
+
+    Object get(K key, int hash) {
+      lock();
+      try {
+        Node<K> node = access(key, hash);
+        return node == null ? null : node.value;
+      } finally {
+        unlock();
+      }
+    }
+
+    Lookup lookup(K key, int hash, RefreshPolicy policy) {
+      lock();
+      try {
+        Node<K> node = access(key, hash);
+        if (node == null) {
+          return null;
+        }
+        long age = clock.getAsLong() - node.loadedAtNanos;
+        if (age >= policy.maxAgeNanos()) {
+          removeNode(node, EvictionCause.EXPIRED);
+          return null;
+        }
+        return new Lookup(node.value, age >= policy.refreshAfterNanos());
+      } finally {
+        unlock();
+      }
+    }
+
+    void getAll(List<K> keys, RefreshPolicy policy, Map<K, Object> found) {
+      lock();
+      try {
+        for (K key : keys) {
+          Node<K> node = access(key, hash(key));
+          if (node != null && policy != null
+              && clock.getAsLong() - node.loadedAtNanos >= policy.maxAgeNanos()) {
+            removeNode(node, EvictionCause.EXPIRED);
+          } else if (node != null) {
+            found.put(key, node.value);
+          }
+        }
+      } finally {
+        unlock();
+      }
+    }
+
+    private Node<K> access(K key, int hash) {
+      sketch.increment(hash);
+      Node<K> node = map.get(key);
+      if (node != null) {
+        onAccess(node);
+        return node;
+      }
+      if (offHeapStore == null) {
+        return null;
+      }
+      OffHeapStore.Entry promoted = offHeapStore.take(key);
+      if (promoted == null) {
+        return null;
+      }
+      if (map.size() >= capacity) {
+        evict(victim());
+      }
+      return insert(key, hash, promoted.value(), promoted.tags(), promoted.loadedAtNanos());
+    }
+
+    Object peek(K key) {
+      lock();
+      try {
+        Node<K> node = map.get(key);
+        return node == null ? null : node.value;
+      } finally {
+        unlock();
+      }
+    }
+
+    boolean containsKey(K key) {
+      lock();
+      try {
+        return map.containsKey(key) || (offHeapStore != null && offHeapStore.containsKey(key));
+      } finally {
+        unlock();
+      }
+    }
+
+    void put(K key, int hash, Object value, String[] tags) {
+      lock();
+      try {
+        store(key, hash, value, tags);
+      } finally {
+        unlock();
+      }
+    }
+
+    void restore(K key, int hash, Object value, String[] tags, long ageNanos) {
+      lock();
+      try {
+        store(key, hash, value, tags, clock.getAsLong() - ageNanos);
+      } finally {
+        unlock();
+      }
+    }
+
+    void putAll(List<K> keys, Function<K, Object> values, Function<K, String[]> tags) {
+      lock();
+      try {
+        for (K key : keys) {
+          store(key, hash(key), values.apply(key), tags.apply(key));
+        }
+      } finally {
+        unlock();
+      }
+    }
+
+    private void store(K key, int hash, Object value, String[] tags) {
+      store(key, hash, value, tags, clock.getAsLong());
+    }
+
+    private void store(K key, int hash, Object value, String[] tags, long loadedAtNanos) {
+      sketch.increment(hash);
+      Node<K> node = map.get(key);
+      if (node != null) {
+        update(node, value, tags, loadedAtNanos);
+        onAccess(node);
+        return;
+      }
+      removeOffHeap(key);
+      tagIndex.register(key, tags);
+      if (map.size() >= capacity) {
+        Node<K> victim = victim();
+        if (admissionFilter && sketch.frequency(hash) <= sketch.frequency(victim.hash)) {
+          evictionCounts[EvictionCause.REJECTED.ordinal()].increment();
+          demote(key, value, tags, loadedAtNanos);
+          return;
+        }
+        evict(victim);
+      }
+      insert(key, hash, value, tags, loadedAtNanos);
+    }
+
+    void replace(K key, Object expected, Object value, String[] tags) {
+      lock();
+      try {
+        Node<K> node = map.get(key);
+        if (node == null || node.value != expected) {
+          return;
+        }
+        if (value == null) {
+          removeNode(node, EvictionCause.REMOVED);
+        } else {
+          update(node, value, tags, clock.getAsLong());
+        }
+      } finally {
+        unlock();
+      }
+    }
+
+    void remove(K key) {
+      lock();
+      try {
+        Node<K> node = map.get(key);
+        if (node != null) {
+          removeNode(node, EvictionCause.REMOVED);
+        } else if (removeOffHeap(key)) {
+          evictionCounts[EvictionCause.REMOVED.ordinal()].increment();
+        }
+      } finally {
+        unlock();
+      }
+    }
+
+    boolean removeTagged(K key, String tag) {
+      lock();
+      try {
+        Node<K> node = map.get(key);
+        if (node != null) {
+          if (node.hasTag(tag)) {
+            removeNode(node, EvictionCause.INVALIDATED);
+            return true;
+          }
+          return false;
+        }
+        String[] tags = offHeapStore == null ? null : offHeapStore.removeTagged(key, tag);
+        if (tags != null) {
+          tagIndex.unregister(key, tags);
+          evictionCounts[EvictionCause.INVALIDATED.ordinal()].increment();
+          return true;
+        }
+        return false;
+      } finally {
+        unlock();
+      }
+    }
+
+    void clear() {
+      lock();
+      try {
+        for (Node<K> node : map.values()) {
+          tagIndex.unregister(node.key, node.tags);
+        }
+        map.clear();
+        probation.clear();
+        protectedQueue.clear();
+      } finally {
+        unlock();
+      }
+    }
+
+    int size() {
+      lock();
+      try {
+        return map.size();
+      } finally {
+        unlock();
+      }
+    }
+
+    private void onAccess(Node<K> node) {
+      if (!admissionFilter) {
+        probation.moveToLast(node);
+        return;
+      }
+      if (node.inProtected) {
+        protectedQueue.moveToLast(node);
+        return;
+      }
+      probation.unlink(node);
+      node.inProtected = true;
+      protectedQueue.addLast(node);
+      if (protectedQueue.size() > protectedCapacity) {
+        Node<K> demoted = protectedQueue.peekFirst();
+        protectedQueue.unlink(demoted);
+        demoted.inProtected = false;
+        probation.addLast(demoted);
+      }
+    }
+
+    long estimateHeapBytes(int samples) {
+      lock();
+      try {
+        long sampledBytes = 0;
+        int sampled = 0;
+        for (AccessQueue<K> queue : List.of(protectedQueue, probation)) {
+          for (Node<K> node = queue.peekLast(); node != null && sampled < samples;
+              node = node.prev) {
+            sampledBytes += NODE_OVERHEAD + HeapEstimator.estimate(node.key)
+                + HeapEstimator.estimate(node.value);
+            sampled++;
+          }
+        }
+        return sampled == 0 ? 0 : sampledBytes * map.size() / sampled;
+      } finally {
+        unlock();
+      }
+    }
+
+    List<CacheEntry<K>> hottest(int limit) {
+      lock();
+      try {
+        List<CacheEntry<K>> entries = new ArrayList<>(Math.min(limit, map.size()));
+        long now = clock.getAsLong();
+        for (AccessQueue<K> queue : List.of(protectedQueue, probation)) {
+          for (Node<K> node = queue.peekLast(); node != null && entries.size() < limit;
+              node = node.prev) {
+            entries.add(new CacheEntry<>(node.key, node.value, node.tags,
+                now - node.loadedAtNanos));
+          }
+        }
+        return entries;
+      } finally {
+        unlock();
+      }
+    }
+
+    private Node<K> victim() {
+      return probation.size() > 0 ? probation.peekFirst() : protectedQueue.peekFirst();
+    }
+
+    private Node<K> insert(K key, int hash, Object value, String[] tags, long loadedAtNanos) {
+      Node<K> node = new Node<>(key, hash, value, tags, loadedAtNanos);
+      map.put(key, node);
+      probation.addLast(node);
+      return node;
+    }
+
+    private void update(Node<K> node, Object value, String[] tags, long loadedAtNanos) {
+      tagIndex.unregister(node.key, node.tags);
+      node.value = value;
+      node.tags = tags;
+      node.loadedAtNanos = loadedAtNanos;
+      tagIndex.register(node.key, tags);
+    }
+
+    private void evict(Node<K> node) {
+      evictionCounts[EvictionCause.SIZE.ordinal()].increment();
+      unlinkNode(node);
+      demote(node.key, node.value, node.tags, node.loadedAtNanos);
+    }
+
+    private void demote(K key, Object value, String[] tags, long loadedAtNanos) {
+      if (offHeapStore == null || !offHeapStore.put(key, value, tags, loadedAtNanos)) {
+        tagIndex.unregister(key, tags);
+      }
+    }
+
+    private boolean removeOffHeap(K key) {
+      String[] tags = offHeapStore == null ? null : offHeapStore.remove(key);
+      if (tags != null) {
+        tagIndex.unregister(key, tags);
+        return true;
+      }
+      return false;
+    }
+
+    private void removeNode(Node<K> node, EvictionCause cause) {
+      evictionCounts[cause.ordinal()].increment();
+      unlinkNode(node);
+      tagIndex.unregister(node.key, node.tags);
+    }
+
+    private void unlinkNode(Node<K> node) {
+      map.remove(node.key);
+      if (node.inProtected) {
+        protectedQueue.unlink(node);
+      } else {
+        probation.unlink(node);
+      }
+    }
   }
 }
@@ -0,0 +1,23 @@
+package com.example.countries.component;
+
+/**
+ * Converts cached values to and from the compact binary form kept by {@link OffHeapStore}.
+ */
+public interface CacheCodec {
+
+  /**
+   * Serializes a cached value.
+   *
+   * @param value the single value or list of values held by the cache
+   * @return the serialized value, or null if the value type is not supported
+   */
+  byte[] encode(Object value);
+
+  /**
+   * Restores a value serialized by {@link #encode(Object)}.
+   *
+   * @param bytes the serialized value
+   * @return the restored value
+   */
+  Object decode(byte[] bytes);
+}
@@ -0,0 +1,14 @@
+package com.example.countries.component;
+
+/**
+ * A cache entry copied out of a {@link Cache}, used to save and restore snapshots.
+ *
+ * @param key      the key of the entry
+ * @param value    the cached value or list of values
+ * @param tags     the dependency tags of the entry
+ * @param ageNanos the time since the value was loaded, in nanoseconds, so that a restored entry
+ *                 expires and refreshes when the original would have
+ * @param <K>      the type of the key
+ */
+public record CacheEntry<K>(K key, Object value, String[] tags, long ageNanos) {
+}
@@ -0,0 +1,22 @@
+package com.example.countries.component;
+
+/**
+ * Receives the invalidations made through a {@link CacheManager}.
+ */
+public interface CacheInvalidationListener {
+
+  /**
+   * Called after the entries tagged with a tag were removed from every region.
+   *
+   * @param tag the invalidated tag
+   */
+  void tagInvalidated(String tag);
+
+  /**
+   * Called after a key was removed from a region.
+   *
+   * @param region the region name
+   * @param key    the string form of the key
+   */
+  void keyInvalidated(String region, String key);
+}
@@ -0,0 +1,22 @@
+package com.example.countries.component;
+
+import java.util.List;
+
+/**
+ * Computes a value for a {@link Cache} miss.
+ *
+ * @param <T> the type of the loaded value
+ * @param <E> the type of exception thrown when the value cannot be loaded
+ */
+@FunctionalInterface
+public interface CacheLoader<T, E extends Exception> {
+
+  /**
+   * Loads the value and records the dependency tags of the entities it was built from.
+   *
+   * @param tags the list to which the dependency tags of the loaded value are added
+   * @return the loaded value, or null if nothing should be cached
+   * @throws E if the value cannot be loaded
+   */
+  T load(List<String> tags) throws E;
+}
@@ -0,0 +1,155 @@
+package com.example.countries.component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Owns one independently sized {@link Cache} per {@link CacheRegion}.
+ *
+ * <p>Regions are registered with their settings at startup. A region that was not registered is
+ * created on first use with the default cache settings. Tag invalidation reaches every region, so
+ * a writer does not need to know which regions hold entries built from the entity it changed.
+ *
+ * <p>Tag and key invalidations are also reported to the registered
+ * {@link CacheInvalidationListener}s, which is how an {@link InvalidationBus} forwards them to
+ * the other nodes of a cluster.
+ */
+public class CacheManager {
+  private final Map<String, Cache<?, ?>> regions = new ConcurrentHashMap<>();
+  private final Map<String, CacheRegion<?, ?>> definitions = new ConcurrentHashMap<>();
+  private final List<CacheInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Registers the cache of a region.
+   *
+   * @param region the region
+   * @param cache  the cache holding the region entries
+   * @param <K>    the type of the region keys
+   * @param <V>    the type of the region values
+   * @throws IllegalStateException if the region is already registered
+   */
+  public <K, V> void register(CacheRegion<K, V> region, Cache<K, V> cache) {
+    if (regions.putIfAbsent(region.name(), cache) != null) {
+      throw new IllegalStateException("Cache region already registered: " + region.name());
+    }
+    definitions.put(region.name(), region);
+  }
+
+  /**
+   * Returns the cache of a region, creating it with the default settings if it was not
+   * registered.
+   *
+   * @param region the region
+   * @param <K>    the type of the region keys
+   * @param <V>    the type of the region values
+   * @return the region cache
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> Cache<K, V> region(CacheRegion<K, V> region) {
+    definitions.putIfAbsent(region.name(), region);
+    return (Cache<K, V>) regions.computeIfAbsent(region.name(), name -> new Cache<K, V>());
+  }
+
+  /**
+   * Registers a listener notified of every tag and key invalidation.
+   *
+   * @param listener the listener
+   */
+  public void addInvalidationListener(CacheInvalidationListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Unregisters an invalidation listener.
+   *
+   * @param listener the listener
+   */
+  public void removeInvalidationListener(CacheInvalidationListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Removes every entry tagged with the specified tag from every region and notifies the
+   * invalidation listeners.
+   *
+   * @param tag the dependency tag whose entries are to be removed
+   * @return the number of removed entries
+   */
+  public int invalidateTag(String tag) {
+    int removed = invalidateTagLocally(tag);
+    for (CacheInvalidationListener listener : listeners) {
+      listener.tagInvalidated(tag);
+    }
+    return removed;
+  }
+
+  /**
+   * Removes a key from a region and notifies the invalidation listeners.
+   *
+   * @param region the region
+   * @param key    the key to remove
+   * @param <K>    the type of the region keys
+   */
+  public <K> void invalidate(CacheRegion<K, ?> region, K key) {
+    region(region).remove(key);
+    String keyString = String.valueOf(key);
+    for (CacheInvalidationListener listener : listeners) {
+      listener.keyInvalidated(region.name(), keyString);
+    }
+  }
+
+  /**
+   * Removes every entry tagged with the specified tag from every region without notifying the
+   * listeners. Used to apply invalidations received from other nodes.
+   *
+   * @param tag the dependency tag whose entries are to be removed
+   * @return the number of removed entries
+   */
+  int invalidateTagLocally(String tag) {
+    int removed = 0;
+    for (Cache<?, ?> cache : regions.values()) {
+      removed += cache.invalidateTag(tag);
+    }
+    return removed;
+  }
+
+  /**
+   * Removes a key from a region without notifying the listeners. Keys of regions this node has
+   * not used yet are ignored.
+   *
+   * @param regionName the region name
+   * @param key        the string form of the key
+   */
+  void invalidateKeyLocally(String regionName, String key) {
+    CacheRegion<?, ?> region = definitions.get(regionName);
+    if (region != null) {
+      removeKey(region, key);
+    }
+  }
+
+  /**
+   * Clears every region.
+   */
+  public void clear() {
+    regions.values().forEach(Cache::clear);
+  }
+
+  /**
+   * Returns the caches of every region.
+   *
+   * @return the region caches keyed by region name, in name order
+   */
+  public Map<String, Cache<?, ?>> getRegions() {
+    Map<String, Cache<?, ?>> sorted = new LinkedHashMap<>();
+    regions.keySet().stream().sorted().forEach(name -> sorted.put(name, regions.get(name)));
+    return Collections.unmodifiableMap(sorted);
+  }
+
+  private <K> void removeKey(CacheRegion<K, ?> region, String key) {
+    region(region).remove(region.parseKey(key));
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.countries.component;
+
+/**
+ * Identifies a typed region of a {@link CacheManager}.
+ *
+ * @param name    the region name used in properties and statistics
+ * @param keyType the type of the region keys, {@link String} or {@link Long}
+ * @param codec   serializes the region values for the off-heap tier and snapshots, or null if the
+ *                values stay on the heap only
+ * @param <K>     the type of the region keys
+ * @param <V>     the type of the region values
+ */
+public record CacheRegion<K, V>(String name, Class<K> keyType, CacheCodec codec) {
+
+  /**
+   * Restores a key from its string form, as written by {@link String#valueOf(Object)}.
+   *
+   * @param key the string form of the key
+   * @return the key
+   */
+  public K parseKey(String key) {
+    if (keyType == Long.class) {
+      return keyType.cast(Long.valueOf(key));
+    }
+    return keyType.cast(key);
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.countries.component;
+
+import com.example.countries.dto.CityDto;
+import com.example.countries.dto.CountryDto;
+import com.example.countries.dto.LanguageDto;
+import java.util.List;
+
+/**
+ * The cache regions of the application.
+ */
+public final class CacheRegions {
+  /** Countries by name. */
+  public static final CacheRegion<String, CountryDto> COUNTRY_BY_NAME =
+      new CacheRegion<>("country-by-name", String.class, new CountryDtoCodec());
+  /** Countries speaking a language, by language ID. */
+  public static final CacheRegion<Long, List<CountryDto>> COUNTRIES_BY_LANGUAGE =
+      new CacheRegion<>("countries-by-language", Long.class, new CountryDtoCodec());
+  /** Cities by ID. */
+  public static final CacheRegion<Long, CityDto> CITY_BY_ID =
+      new CacheRegion<>("city-by-id", Long.class, null);
+  /** Languages by ID. */
+  public static final CacheRegion<Long, LanguageDto> LANGUAGE_BY_ID =
+      new CacheRegion<>("language-by-id", Long.class, null);
+  /** Serialized GET responses by request. */
+  public static final CacheRegion<String, CachedResponse> RESPONSES =
+      new CacheRegion<>("responses", String.class, null);
+
+  private CacheRegions() {
+  }
+
+  /**
+   * Returns every region of the application.
+   *
+   * @return the regions
+   */
+  public static List<CacheRegion<?, ?>> all() {
+    return List.of(COUNTRY_BY_NAME, COUNTRIES_BY_LANGUAGE, CITY_BY_ID, LANGUAGE_BY_ID, RESPONSES);
+  }
+}
@@ -0,0 +1,192 @@
+package com.example.countries.component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A point-in-time copy of the entries of several cache regions stored in a memory-mapped file.
+ *
+ * <p>The file starts with a header holding the creation time and fingerprints of the tables the
+ * entries were built from, such as row counts and content checksums, so that a reader can
+ * discard a snapshot that no longer matches the database. It is followed by one section per
+ * region, where every entry keeps the age it had when the snapshot was taken. Keys are stored in
+ * their string form (see {@link CacheRegion#parseKey(String)}) and values are serialized with the
+ * {@link CacheCodec} of their region.
+ *
+ * @param createdAtMillis   the time the snapshot was taken, in epoch milliseconds
+ * @param tableFingerprints the fingerprints of the source tables when the snapshot was taken
+ * @param regions           the cache entries by region name
+ */
+public record CacheSnapshot(long createdAtMillis, long[] tableFingerprints,
+                            Map<String, List<CacheEntry<String>>> regions) {
+  private static final int MAGIC = 0x43534e50;
+  private static final int FORMAT_VERSION = 4;
+
+  /**
+   * Writes the snapshot to a file. The file is replaced atomically, so a crash while writing
+   * leaves the previous snapshot intact.
+   *
+   * @param path   the snapshot file
+   * @param codecs the codecs used to serialize values, by region name
+   * @return the number of entries written; entries the codec does not support are skipped
+   * @throws IOException if the file cannot be written
+   * @throws IllegalArgumentException if there is no codec for a region
+   */
+  public int write(Path path, Map<String, CacheCodec> codecs) throws IOException {
+    List<Section> sections = new ArrayList<>(regions.size());
+    long size = 4L + 4 + 8 + 4 + 8L * tableFingerprints.length + 4;
+    int written = 0;
+    for (Map.Entry<String, List<CacheEntry<String>>> region : regions.entrySet()) {
+      CacheCodec codec = codecs.get(region.getKey());
+      if (codec == null) {
+        throw new IllegalArgumentException("No codec for cache region " + region.getKey());
+      }
+      Section section = new Section(region.getKey().getBytes(StandardCharsets.UTF_8),
+          new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+      size += 4 + section.name().length + 4;
+      for (CacheEntry<String> entry : region.getValue()) {
+        byte[] value = codec.encode(entry.value());
+        if (value == null) {
+          continue;
+        }
+        byte[] key = entry.key().getBytes(StandardCharsets.UTF_8);
+        byte[][] entryTags = new byte[entry.tags().length][];
+        size += 4 + key.length + 8 + 4 + 4 + value.length;
+        for (int i = 0; i < entryTags.length; i++) {
+          entryTags[i] = entry.tags()[i].getBytes(StandardCharsets.UTF_8);
+          size += 4 + entryTags[i].length;
+        }
+        section.keys().add(key);
+        section.ages().add(entry.ageNanos());
+        section.tags().add(entryTags);
+        section.values().add(value);
+      }
+      sections.add(section);
+      written += section.keys().size();
+    }
+
+    Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(createdAtMillis);
+      buffer.putInt(tableFingerprints.length);
+      for (long fingerprint : tableFingerprints) {
+        buffer.putLong(fingerprint);
+      }
+      buffer.putInt(sections.size());
+      for (Section section : sections) {
+        putBytes(buffer, section.name());
+        buffer.putInt(section.keys().size());
+        for (int i = 0; i < section.keys().size(); i++) {
+          putBytes(buffer, section.keys().get(i));
+          buffer.putLong(section.ages().get(i));
+          buffer.putInt(section.tags().get(i).length);
+          for (byte[] tag : section.tags().get(i)) {
+            putBytes(buffer, tag);
+          }
+          putBytes(buffer, section.values().get(i));
+        }
+      }
+      buffer.force();
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return written;
+  }
+
+  /**
+   * Reads a snapshot from a file.
+   *
+   * @param path   the snapshot file
+   * @param codecs the codecs used to restore values, by region name
+   * @return the snapshot
+   * @throws IOException if the file cannot be read, is not a valid snapshot or holds a region
+   *                     without a codec
+   */
+  public static CacheSnapshot read(Path path, Map<String, CacheCodec> codecs)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+        throw new IOException("Unsupported cache snapshot format: " + path);
+      }
+      long createdAtMillis = buffer.getLong();
+      long[] tableFingerprints = new long[buffer.getInt()];
+      for (int i = 0; i < tableFingerprints.length; i++) {
+        tableFingerprints[i] = buffer.getLong();
+      }
+      int regionCount = buffer.getInt();
+      Map<String, List<CacheEntry<String>>> regions = new LinkedHashMap<>();
+      for (int r = 0; r < regionCount; r++) {
+        String name = new String(getBytes(buffer), StandardCharsets.UTF_8);
+        CacheCodec codec = codecs.get(name);
+        if (codec == null) {
+          throw new IOException("Unknown cache region " + name + " in snapshot: " + path);
+        }
+        int entryCount = buffer.getInt();
+        List<CacheEntry<String>> entries = new ArrayList<>(Math.min(entryCount, 1 << 16));
+        for (int i = 0; i < entryCount; i++) {
+          String key = new String(getBytes(buffer), StandardCharsets.UTF_8);
+          long ageNanos = buffer.getLong();
+          String[] tags = new String[buffer.getInt()];
+          for (int j = 0; j < tags.length; j++) {
+            tags[j] = new String(getBytes(buffer), StandardCharsets.UTF_8);
+          }
+          entries.add(new CacheEntry<>(key, codec.decode(getBytes(buffer)), tags, ageNanos));
+        }
+        regions.put(name, entries);
+      }
+      return new CacheSnapshot(createdAtMillis, tableFingerprints, regions);
+    } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException
+             | UncheckedIOException e) {
+      throw new IOException("Corrupted cache snapshot: " + path, e);
+    }
+  }
+
+  /**
+   * Returns the number of entries in all regions.
+   *
+   * @return the entry count
+   */
+  public int size() {
+    int size = 0;
+    for (List<CacheEntry<String>> entries : regions.values()) {
+      size += entries.size();
+    }
+    return size;
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static byte[] getBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private record Section(byte[] name, List<byte[]> keys, List<Long> ages, List<byte[][]> tags,
+                         List<byte[]> values) {
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.countries.component;
+
+import java.util.Map;
+
+/**
+ * A point-in-time copy of the statistics of one {@link Cache}.
+ *
+ * @param size                   the number of entries on the heap
+ * @param capacity               the maximum number of entries on the heap
+ * @param hitCount               the number of reads that found a value
+ * @param missCount              the number of reads that found no value
+ * @param hitRate                the share of reads that found a value
+ * @param evictions              the number of entries that left the heap, by cause
+ * @param loadCount              the number of loader invocations
+ * @param coalescedLoadCount     the number of misses that waited for another caller's load
+ * @param loadLatency            the latency of loader invocations
+ * @param refreshCount           the number of successful background refreshes
+ * @param refreshFailureCount    the number of failed background refreshes
+ * @param refreshRejectedCount   the number of background refreshes refused by the executor
+ * @param refreshLatency         the latency of background refreshes
+ * @param estimatedHeapBytes     the estimated heap taken by the entries
+ * @param offHeapSize            the number of entries in the off-heap tier
+ * @param offHeapEvictionCount   the number of entries evicted from the off-heap tier
+ * @param offHeapLiveBytes       the bytes taken by live off-heap entries
+ * @param offHeapAllocatedBytes  the direct memory allocated by the off-heap tier
+ */
+public record CacheStats(int size, int capacity, long hitCount, long missCount, double hitRate,
+                         Map<EvictionCause, Long> evictions, long loadCount,
+                         long coalescedLoadCount, LatencyHistogram.Snapshot loadLatency,
+                         long refreshCount, long refreshFailureCount, long refreshRejectedCount,
+                         LatencyHistogram.Snapshot refreshLatency, long estimatedHeapBytes,
+                         int offHeapSize, long offHeapEvictionCount, long offHeapLiveBytes,
+                         long offHeapAllocatedBytes) {
+}
@@ -0,0 +1,40 @@
+package com.example.countries.component;
+
+/**
+ * Builds the dependency tags attached to cache entries.
+ */
+public final class CacheTags {
+
+  private CacheTags() {
+  }
+
+  /**
+   * Returns the tag of entries built from the country with the given ID.
+   *
+   * @param countryId the ID of the country
+   * @return the country tag
+   */
+  public static String country(Long countryId) {
+    return "country:" + countryId;
+  }
+
+  /**
+   * Returns the tag of entries built from the city with the given ID.
+   *
+   * @param cityId the ID of the city
+   * @return the city tag
+   */
+  public static String city(Long cityId) {
+    return "city:" + cityId;
+  }
+
+  /**
+   * Returns the tag of entries built from the language with the given ID.
+   *
+   * @param languageId the ID of the language
+   * @return the language tag
+   */
+  public static String language(Long languageId) {
+    return "language:" + languageId;
+  }
+}
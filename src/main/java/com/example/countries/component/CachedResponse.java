@@ -0,0 +1,51 @@
+package com.example.countries.component;
+
+/**
+ * A response body serialized once and reused while the value it was built from stays cached.
+ *
+ * <p>The gzip-compressed body is a different representation than the JSON body, so it is sent
+ * with its own strong entity tag: the tag of the JSON body with a {@code -gzip} suffix.
+ *
+ * @param source      the value the body was serialized from, compared by identity
+ * @param body        the JSON body
+ * @param gzippedBody the gzip-compressed body, or null if the body is not worth compressing
+ * @param etag        the strong entity tag of the JSON body, including its quotes
+ */
+public record CachedResponse(Object source, byte[] body, byte[] gzippedBody, String etag) {
+  private static final String GZIP_SUFFIX = "-gzip";
+
+  /**
+   * Returns the entity tag of one representation of this response.
+   *
+   * @param gzipped whether the tag of the gzip-compressed body is returned
+   * @return the strong entity tag, including its quotes
+   */
+  public String etag(boolean gzipped) {
+    return gzipped ? etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + '"' : etag;
+  }
+
+  /**
+   * Checks whether an {@code If-None-Match} header matches the entity tag of one representation
+   * of this response. Weak comparison is used, as required for {@code If-None-Match}.
+   *
+   * @param ifNoneMatch the header value, or null if the request has none
+   * @param gzipped     whether the gzip-compressed body would be sent
+   * @return true if the client already holds this representation
+   */
+  public boolean matches(String ifNoneMatch, boolean gzipped) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    String expected = etag(gzipped);
+    for (String tag : ifNoneMatch.split(",")) {
+      String candidate = tag.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(expected)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.countries.component;
+
+import com.example.countries.dto.CountryDto;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Serializes {@link CountryDto} values and lists of them for the off-heap cache tier.
+ *
+ * <p>A value is a one-byte kind marker followed by the DTO fields; a list adds its size. Every
+ * field is written as a presence flag followed by the ID as a long or a string as modified
+ * UTF-8.
+ */
+public final class CountryDtoCodec implements CacheCodec {
+  private static final byte SINGLE = 1;
+  private static final byte LIST = 2;
+
+  @Override
+  public byte[] encode(Object value) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      if (value instanceof CountryDto countryDto) {
+        out.writeByte(SINGLE);
+        write(out, countryDto);
+      } else if (value instanceof List<?> list) {
+        out.writeByte(LIST);
+        out.writeInt(list.size());
+        for (Object item : list) {
+          if (!(item instanceof CountryDto countryDto)) {
+            return null;
+          }
+          write(out, countryDto);
+        }
+      } else {
+        return null;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      byte kind = in.readByte();
+      if (kind == SINGLE) {
+        return read(in);
+      }
+      int size = in.readInt();
+      List<CountryDto> list = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        list.add(read(in));
+      }
+      return Collections.unmodifiableList(list);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void write(DataOutputStream out, CountryDto countryDto) throws IOException {
+    out.writeBoolean(countryDto.getId() != null);
+    if (countryDto.getId() != null) {
+      out.writeLong(countryDto.getId());
+    }
+    writeString(out, countryDto.getName());
+    writeString(out, countryDto.getCapital());
+  }
+
+  private static CountryDto read(DataInputStream in) throws IOException {
+    CountryDto countryDto = new CountryDto();
+    if (in.readBoolean()) {
+      countryDto.setId(in.readLong());
+    }
+    countryDto.setName(readString(in));
+    countryDto.setCapital(readString(in));
+    return countryDto;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.countries.component;
+
+/**
+ * The reasons an entry leaves a {@link Cache}. {@link #SIZE} and {@link #REJECTED} count entries
+ * leaving the heap tier, which may still be kept off-heap; slabs recycled by the off-heap tier are
+ * counted by {@link OffHeapStore#getEvictionCount()}.
+ */
+public enum EvictionCause {
+  /** The entry was the victim chosen to make room for a new one. */
+  SIZE,
+  /** A new entry lost the TinyLFU admission check against the victim. */
+  REJECTED,
+  /** The entry exceeded the maximum staleness of its refresh policy. */
+  EXPIRED,
+  /** The entry carried an invalidated dependency tag. */
+  INVALIDATED,
+  /** The entry was removed explicitly or by a refresh that returned no value. */
+  REMOVED
+}
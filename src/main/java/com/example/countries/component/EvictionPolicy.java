@@ -0,0 +1,17 @@
+package com.example.countries.component;
+
+/**
+ * How a full {@link Cache} segment chooses which entries to keep.
+ */
+public enum EvictionPolicy {
+  /**
+   * Segmented LRU with TinyLFU admission: a new entry replaces the probation victim only if it is
+   * estimated to be used more often. Suits skewed workloads with one-off scans.
+   */
+  TINY_LFU,
+  /**
+   * Plain LRU: every new entry is admitted and the least recently used entry is evicted. Suits
+   * small regions whose recent entries are the ones read next.
+   */
+  LRU
+}
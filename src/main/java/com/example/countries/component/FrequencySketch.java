@@ -0,0 +1,88 @@
+package com.example.countries.component;
+
+/**
+ * A count-min sketch of 4-bit counters used by {@link Cache} for TinyLFU admission.
+ *
+ * <p>Every counter is halved once the number of recorded increments reaches ten times the
+ * sketch width, so that the estimated frequencies follow recent popularity. The sketch is not
+ * thread-safe; callers guard it with their own lock.
+ */
+final class FrequencySketch {
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  /**
+   * Creates a sketch sized for the given number of tracked entries.
+   *
+   * @param maximumSize the number of entries the owning cache can hold
+   */
+  FrequencySketch(int maximumSize) {
+    int width = Math.max(8, maximumSize);
+    int length = Integer.highestOneBit(width - 1) << 1;
+    this.table = new long[length];
+    this.tableMask = length - 1;
+    this.sampleSize = 10 * width;
+  }
+
+  /**
+   * Returns the estimated number of occurrences of an element, up to 15.
+   *
+   * @param hash the spread hash of the element
+   * @return the estimated frequency
+   */
+  int frequency(int hash) {
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int offset = (start + i) << 2;
+      int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Records one occurrence of an element, aging all counters when the sample is full.
+   *
+   * @param hash the spread hash of the element
+   */
+  void increment(int hash) {
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size >>>= 1;
+  }
+
+  private int indexOf(int hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+}
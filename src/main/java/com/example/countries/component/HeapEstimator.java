@@ -0,0 +1,116 @@
+package com.example.countries.component;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Roughly estimates the heap taken by cached values, assuming a 64-bit JVM with compressed
+ * references.
+ *
+ * <p>Strings, collections, arrays and boxed primitives are sized directly; other objects are sized
+ * from their instance fields, following references to strings, collections, arrays and nested
+ * objects up to a fixed depth. The estimate ignores sharing between values.
+ */
+final class HeapEstimator {
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int MAX_DEPTH = 4;
+  private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+  private HeapEstimator() {
+  }
+
+  /**
+   * Estimates the heap taken by a value and everything it references.
+   *
+   * @param value the value to measure
+   * @return the estimated size in bytes
+   */
+  static long estimate(Object value) {
+    return estimate(value, 0);
+  }
+
+  private static long estimate(Object value, int depth) {
+    if (value == null || depth > MAX_DEPTH) {
+      return 0;
+    }
+    if (value instanceof String string) {
+      return align(OBJECT_HEADER + 12) + align(ARRAY_HEADER + (long) string.length() * 2);
+    }
+    if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+      return 16 + (value instanceof Long || value instanceof Double ? 8 : 0);
+    }
+    if (value instanceof Collection<?> collection) {
+      long size = align(OBJECT_HEADER + 12)
+          + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+      for (Object element : collection) {
+        size += estimate(element, depth + 1);
+      }
+      return size;
+    }
+    Class<?> componentType = value.getClass().getComponentType();
+    if (componentType != null) {
+      int length = Array.getLength(value);
+      if (componentType.isPrimitive()) {
+        return align(ARRAY_HEADER + (long) length * primitiveSize(componentType));
+      }
+      long size = align(ARRAY_HEADER + (long) length * REFERENCE);
+      for (Object element : (Object[]) value) {
+        size += estimate(element, depth + 1);
+      }
+      return size;
+    }
+    long size = OBJECT_HEADER;
+    for (Field field : fieldsOf(value.getClass())) {
+      if (field.getType().isPrimitive()) {
+        size += primitiveSize(field.getType());
+        continue;
+      }
+      size += REFERENCE;
+      try {
+        size += estimate(field.get(value), depth + 1);
+      } catch (IllegalAccessException e) {
+        // Inaccessible fields are counted as references only
+      }
+    }
+    return align(size);
+  }
+
+  private static Field[] fieldsOf(Class<?> type) {
+    return FIELDS.computeIfAbsent(type, t -> {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers()) && field.trySetAccessible()) {
+            fields.add(field);
+          }
+        }
+      }
+      return fields.toArray(new Field[0]);
+    });
+  }
+
+  private static int primitiveSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.countries.component;
+
+import com.example.countries.dto.BulkResultDto;
+import com.example.countries.dto.ImportJobDto;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress of a bulk import. The job is updated by the thread running the import and read by
+ * status requests, so all access is synchronized. Only the first {@value #MAX_FAILURES} items
+ * that were not created are kept, so that the job stays small whatever the size of the import;
+ * the counts cover all items.
+ */
+public class ImportJob {
+  static final int MAX_FAILURES = 1_000;
+
+  private final String id;
+  private int total;
+  private final Instant submittedAt = Instant.now();
+  private final List<BulkResultDto.Item> failures = new ArrayList<>();
+  private Status status = Status.QUEUED;
+  private long startedAtNanos;
+  private long finishedAtNanos;
+  private int processed;
+  private int created;
+  private int skipped;
+  private int failed;
+  private String error;
+
+  /**
+   * States of an import job.
+   */
+  public enum Status {
+    /** Waiting for a worker. */
+    QUEUED,
+    /** Being processed. */
+    RUNNING,
+    /** All items were processed; some of them may have failed. */
+    COMPLETED,
+    /** Processing stopped on an unexpected error. */
+    FAILED
+  }
+
+  /**
+   * Creates a queued job.
+   *
+   * @param id    the ID of the job
+   * @param total the number of items to import, or -1 if it is only known at the end
+   */
+  public ImportJob(String id, int total) {
+    this.id = id;
+    this.total = total;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Marks the job as picked up by a worker.
+   */
+  public synchronized void start() {
+    status = Status.RUNNING;
+    startedAtNanos = System.nanoTime();
+  }
+
+  /**
+   * Adds the outcome of a processed chunk. Items that were not created are kept as failures.
+   *
+   * @param offset the position of the first item of the chunk in the job
+   * @param result the outcome of the chunk
+   */
+  public synchronized void record(int offset, BulkResultDto result) {
+    processed += result.getItems().size();
+    created += result.getCreated();
+    skipped += result.getSkipped();
+    failed += result.getFailed();
+    for (BulkResultDto.Item item : result.getItems()) {
+      if (item.outcome() != BulkResultDto.Outcome.CREATED && failures.size() < MAX_FAILURES) {
+        failures.add(new BulkResultDto.Item(offset + item.index(), item.name(), item.outcome(),
+            item.message()));
+      }
+    }
+  }
+
+  /**
+   * Marks the job as finished after all items were processed.
+   */
+  public synchronized void complete() {
+    status = Status.COMPLETED;
+    total = processed;
+    finishedAtNanos = System.nanoTime();
+  }
+
+  /**
+   * Marks the job as stopped by an unexpected error.
+   *
+   * @param error the description of the error
+   */
+  public synchronized void fail(String error) {
+    status = Status.FAILED;
+    this.error = error;
+    finishedAtNanos = System.nanoTime();
+  }
+
+  /**
+   * Tells whether the job finished longer ago than a given age.
+   *
+   * @param ageNanos the age in nanoseconds
+   * @return true if the job is completed or failed and finished more than {@code ageNanos} ago
+   */
+  public synchronized boolean finishedBefore(long ageNanos) {
+    return (status == Status.COMPLETED || status == Status.FAILED)
+        && System.nanoTime() - finishedAtNanos > ageNanos;
+  }
+
+  /**
+   * Returns a consistent view of the progress of the job.
+   *
+   * @return the DTO of the job
+   */
+  public synchronized ImportJobDto snapshot() {
+    long itemsPerSecond = 0;
+    if (status != Status.QUEUED) {
+      long end = status == Status.RUNNING ? System.nanoTime() : finishedAtNanos;
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(end - startedAtNanos);
+      itemsPerSecond = elapsedMillis > 0 ? processed * 1000L / elapsedMillis : processed;
+    }
+    return new ImportJobDto(id, status, submittedAt, total, processed, created, skipped, failed,
+        itemsPerSecond, error, List.copyOf(failures));
+  }
+}
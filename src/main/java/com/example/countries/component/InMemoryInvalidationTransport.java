@@ -0,0 +1,63 @@
+package com.example.countries.component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidation batches between nodes running in the same JVM, for example several
+ * application contexts started by one test.
+ *
+ * <p>Every transport joined to the same {@link Hub} receives the batches sent by the others.
+ * Batches are delivered synchronously on the sending thread.
+ */
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+  private static final Hub SHARED_HUB = new Hub();
+
+  private final Hub hub;
+  private volatile Consumer<InvalidationBatch> receiver;
+
+  /**
+   * Creates a transport joined to the hub shared by the whole JVM.
+   */
+  public InMemoryInvalidationTransport() {
+    this(SHARED_HUB);
+  }
+
+  /**
+   * Creates a transport joined to the specified hub.
+   *
+   * @param hub the hub connecting the transports of one cluster
+   */
+  public InMemoryInvalidationTransport(Hub hub) {
+    this.hub = hub;
+  }
+
+  @Override
+  public void start(Consumer<InvalidationBatch> receiver) {
+    this.receiver = receiver;
+    hub.members.add(this);
+  }
+
+  @Override
+  public void send(InvalidationBatch batch) {
+    for (InMemoryInvalidationTransport member : hub.members) {
+      Consumer<InvalidationBatch> memberReceiver = member.receiver;
+      if (member != this && memberReceiver != null) {
+        memberReceiver.accept(batch);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    hub.members.remove(this);
+  }
+
+  /**
+   * Connects the in-memory transports of one cluster.
+   */
+  public static class Hub {
+    private final List<InMemoryInvalidationTransport> members = new CopyOnWriteArrayList<>();
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.countries.component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A group of cache invalidations sent by one node to its peers.
+ *
+ * @param nodeId       the ID of the sending node
+ * @param sentAtMillis the time the batch was sent, in epoch milliseconds
+ * @param tags         the invalidated tags
+ * @param keys         the invalidated region keys
+ */
+public record InvalidationBatch(String nodeId, long sentAtMillis, List<String> tags,
+                                List<KeyInvalidation> keys) {
+  private static final int MAGIC = 0x43494e56;
+
+  /**
+   * Copies the lists so that the batch cannot change after it was created.
+   */
+  public InvalidationBatch {
+    tags = List.copyOf(tags);
+    keys = List.copyOf(keys);
+  }
+
+  /**
+   * Returns the number of invalidations in the batch.
+   *
+   * @return the number of tags and keys
+   */
+  public int size() {
+    return tags.size() + keys.size();
+  }
+
+  /**
+   * Splits the batch into two halves with the same sender and send time.
+   *
+   * @return the two halves
+   */
+  public List<InvalidationBatch> split() {
+    int tagHalf = tags.size() / 2;
+    int keyHalf = keys.size() / 2;
+    if (tagHalf + keyHalf == 0) {
+      tagHalf = tags.size();
+      keyHalf = keys.size();
+    }
+    return List.of(
+        new InvalidationBatch(nodeId, sentAtMillis, tags.subList(0, tagHalf),
+            keys.subList(0, keyHalf)),
+        new InvalidationBatch(nodeId, sentAtMillis, tags.subList(tagHalf, tags.size()),
+            keys.subList(keyHalf, keys.size())));
+  }
+
+  /**
+   * Serializes the batch.
+   *
+   * @return the serialized batch
+   */
+  public byte[] encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeUTF(nodeId);
+      out.writeLong(sentAtMillis);
+      out.writeInt(tags.size());
+      for (String tag : tags) {
+        out.writeUTF(tag);
+      }
+      out.writeInt(keys.size());
+      for (KeyInvalidation key : keys) {
+        out.writeUTF(key.region());
+        out.writeUTF(key.key());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Restores a batch serialized by {@link #encode()}.
+   *
+   * @param data   the buffer holding the serialized batch
+   * @param length the number of bytes of the serialized batch
+   * @return the batch
+   * @throws IOException if the data is not a valid batch
+   */
+  public static InvalidationBatch decode(byte[] data, int length) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, length))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not an invalidation batch");
+      }
+      String nodeId = in.readUTF();
+      long sentAtMillis = in.readLong();
+      int tagCount = in.readInt();
+      List<String> tags = new ArrayList<>(Math.min(tagCount, length));
+      for (int i = 0; i < tagCount; i++) {
+        tags.add(in.readUTF());
+      }
+      int keyCount = in.readInt();
+      List<KeyInvalidation> keys = new ArrayList<>(Math.min(keyCount, length));
+      for (int i = 0; i < keyCount; i++) {
+        keys.add(new KeyInvalidation(in.readUTF(), in.readUTF()));
+      }
+      return new InvalidationBatch(nodeId, sentAtMillis, tags, keys);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Corrupted invalidation batch", e);
+    }
+  }
+
+  /**
+   * A key removed from a region.
+   *
+   * @param region the region name
+   * @param key    the string form of the key
+   */
+  public record KeyInvalidation(String region, String key) {
+  }
+}
@@ -0,0 +1,249 @@
+package com.example.countries.component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Broadcasts the invalidations made through a {@link CacheManager} to the other nodes of the
+ * cluster and applies the invalidations received from them.
+ *
+ * <p>Invalidations are collected for a short interval and sent as one {@link InvalidationBatch},
+ * so that a bulk write costs a few messages instead of one per entry. A tag or key invalidated
+ * several times within the interval is sent once. Received invalidations are applied to the local
+ * regions only and are not broadcast again.
+ *
+ * <p>The bus also carries the names added to the {@link NameFilter}s of the nodes, which
+ * invalidate the "not stored" answer the filters of the peers would give for them. They travel as
+ * key invalidations of the pseudo-region {@code name-filter:<filter>}.
+ */
+public class InvalidationBus implements CacheInvalidationListener, AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+  private static final String NAME_FILTER_PREFIX = "name-filter:";
+
+  private final String nodeId;
+  private final CacheManager cacheManager;
+  private final InvalidationTransport transport;
+  private final int maxBatchSize;
+  private final ScheduledExecutorService flusher;
+  private final List<BiConsumer<String, String>> nameListeners = new CopyOnWriteArrayList<>();
+  private final Object lock = new Object();
+  private Set<String> pendingTags = new LinkedHashSet<>();
+  private Set<InvalidationBatch.KeyInvalidation> pendingKeys = new LinkedHashSet<>();
+  private boolean flushScheduled;
+
+  private final LongAdder publishedCount = new LongAdder();
+  private final LongAdder deduplicatedCount = new LongAdder();
+  private final LongAdder sentBatchCount = new LongAdder();
+  private final LongAdder sendFailureCount = new LongAdder();
+  private final LongAdder receivedCount = new LongAdder();
+  private final LatencyHistogram propagationLatency = new LatencyHistogram();
+
+  /**
+   * Creates the bus and starts receiving invalidations from the peers.
+   *
+   * @param nodeId          identifies this node; batches carrying it are ignored on receipt
+   * @param cacheManager    the cache manager whose invalidations are broadcast
+   * @param transport       carries the batches between the nodes
+   * @param batchIntervalMs how long invalidations are collected before they are sent
+   * @param maxBatchSize    the number of pending invalidations that triggers an early send
+   */
+  public InvalidationBus(String nodeId, CacheManager cacheManager,
+                         InvalidationTransport transport, long batchIntervalMs,
+                         int maxBatchSize) {
+    if (batchIntervalMs <= 0 || maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Batch interval and size must be positive");
+    }
+    this.nodeId = nodeId;
+    this.cacheManager = cacheManager;
+    this.transport = transport;
+    this.maxBatchSize = maxBatchSize;
+    this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cache-invalidation-" + nodeId);
+      thread.setDaemon(true);
+      return thread;
+    });
+    transport.start(this::receive);
+    flusher.scheduleWithFixedDelay(this::flush, batchIntervalMs, batchIntervalMs,
+        TimeUnit.MILLISECONDS);
+    cacheManager.addInvalidationListener(this);
+  }
+
+  @Override
+  public void tagInvalidated(String tag) {
+    synchronized (lock) {
+      count(pendingTags.add(tag));
+    }
+  }
+
+  @Override
+  public void keyInvalidated(String region, String key) {
+    synchronized (lock) {
+      count(pendingKeys.add(new InvalidationBatch.KeyInvalidation(region, key)));
+    }
+  }
+
+  /**
+   * Queues a name added to a name filter for broadcast to the peers.
+   *
+   * @param filter identifies the filter, for example the entity type
+   * @param name   the added name
+   */
+  public void nameAdded(String filter, String name) {
+    synchronized (lock) {
+      count(pendingKeys.add(
+          new InvalidationBatch.KeyInvalidation(NAME_FILTER_PREFIX + filter, name)));
+    }
+  }
+
+  /**
+   * Registers a listener receiving the names that the peers added to their name filters.
+   *
+   * @param listener called with the filter and the name
+   */
+  public void addNameListener(BiConsumer<String, String> listener) {
+    nameListeners.add(listener);
+  }
+
+  /**
+   * Sends the pending invalidations to the peers.
+   *
+   * @return the number of sent invalidations
+   */
+  public int flush() {
+    InvalidationBatch batch;
+    synchronized (lock) {
+      flushScheduled = false;
+      if (pendingTags.isEmpty() && pendingKeys.isEmpty()) {
+        return 0;
+      }
+      batch = new InvalidationBatch(nodeId, System.currentTimeMillis(),
+          new ArrayList<>(pendingTags), new ArrayList<>(pendingKeys));
+      pendingTags = new LinkedHashSet<>();
+      pendingKeys = new LinkedHashSet<>();
+    }
+    try {
+      transport.send(batch);
+      sentBatchCount.increment();
+      return batch.size();
+    } catch (IOException | RuntimeException e) {
+      sendFailureCount.increment();
+      logger.warn("Could not broadcast {} cache invalidations: {}", batch.size(),
+          e.getMessage());
+      return 0;
+    }
+  }
+
+  /**
+   * Returns the number of distinct invalidations queued for broadcast.
+   *
+   * @return the number of published invalidations
+   */
+  public long getPublishedCount() {
+    return publishedCount.sum();
+  }
+
+  /**
+   * Returns the number of invalidations dropped because they were already pending.
+   *
+   * @return the number of deduplicated invalidations
+   */
+  public long getDeduplicatedCount() {
+    return deduplicatedCount.sum();
+  }
+
+  /**
+   * Returns the number of batches sent to the peers.
+   *
+   * @return the number of sent batches
+   */
+  public long getSentBatchCount() {
+    return sentBatchCount.sum();
+  }
+
+  /**
+   * Returns the number of batches that could not be sent.
+   *
+   * @return the number of failed sends
+   */
+  public long getSendFailureCount() {
+    return sendFailureCount.sum();
+  }
+
+  /**
+   * Returns the number of invalidations received from the peers and applied.
+   *
+   * @return the number of received invalidations
+   */
+  public long getReceivedCount() {
+    return receivedCount.sum();
+  }
+
+  /**
+   * Returns the delay between a peer sending a batch and this node applying it, measured with
+   * the wall clocks of both nodes.
+   *
+   * @return the propagation latency snapshot
+   */
+  public LatencyHistogram.Snapshot getPropagationLatency() {
+    return propagationLatency.snapshot();
+  }
+
+  /**
+   * Sends the pending invalidations and stops the bus.
+   */
+  @Override
+  public void close() {
+    cacheManager.removeInvalidationListener(this);
+    flusher.shutdown();
+    flush();
+    transport.close();
+  }
+
+  private void count(boolean added) {
+    if (!added) {
+      deduplicatedCount.increment();
+      return;
+    }
+    publishedCount.increment();
+    if (!flushScheduled && pendingTags.size() + pendingKeys.size() >= maxBatchSize) {
+      try {
+        flusher.execute(this::flush);
+        flushScheduled = true;
+      } catch (RejectedExecutionException e) {
+        // The bus is closing; close() sends whatever is still pending.
+      }
+    }
+  }
+
+  private void receive(InvalidationBatch batch) {
+    if (nodeId.equals(batch.nodeId())) {
+      return;
+    }
+    for (String tag : batch.tags()) {
+      cacheManager.invalidateTagLocally(tag);
+    }
+    for (InvalidationBatch.KeyInvalidation key : batch.keys()) {
+      if (key.region().startsWith(NAME_FILTER_PREFIX)) {
+        String filter = key.region().substring(NAME_FILTER_PREFIX.length());
+        nameListeners.forEach(listener -> listener.accept(filter, key.key()));
+      } else {
+        cacheManager.invalidateKeyLocally(key.region(), key.key());
+      }
+    }
+    receivedCount.add(batch.size());
+    long delayMillis = Math.max(0, System.currentTimeMillis() - batch.sentAtMillis());
+    propagationLatency.record(TimeUnit.MILLISECONDS.toNanos(delayMillis));
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.countries.component;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationBatch}es between the nodes of a cluster.
+ *
+ * <p>Delivery is best effort: a batch may be lost, for example when a peer is restarting, so
+ * cached entries still need an expiry or a write-through path as a backstop.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+  /**
+   * Starts delivering the batches sent by peers to a receiver.
+   *
+   * @param receiver called with every batch received from a peer
+   */
+  void start(Consumer<InvalidationBatch> receiver);
+
+  /**
+   * Sends a batch to every peer.
+   *
+   * @param batch the batch to send
+   * @throws IOException if the batch cannot be sent
+   */
+  void send(InvalidationBatch batch) throws IOException;
+
+  /**
+   * Stops receiving batches and releases the transport resources.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,88 @@
+package com.example.countries.component;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads JSON objects one at a time from a stream holding either a JSON array of objects or
+ * newline-delimited JSON (one object per line). The format is told from the first token. Only the
+ * record being read is held in memory, so the stream may be of any size, and records are handed
+ * out as soon as their bytes have arrived.
+ *
+ * <p>Malformed input is reported by {@link #hasNext()} and {@link #next()} as an
+ * {@link UncheckedIOException} wrapping the parser error.
+ *
+ * @param <T> the type of the records
+ */
+public class JsonRecordReader<T> implements Iterator<T>, Closeable {
+  private final JsonParser parser;
+  private final ObjectReader reader;
+  private final boolean array;
+  private JsonToken token;
+
+  /**
+   * Opens a reader over a stream. The stream is closed with the reader.
+   *
+   * @param objectMapper the mapper whose settings the records are read with
+   * @param in           the stream to read
+   * @param type         the type of the records
+   * @throws IOException if the start of the stream cannot be read or parsed
+   */
+  public JsonRecordReader(ObjectMapper objectMapper, InputStream in, Class<T> type)
+      throws IOException {
+    this.parser = objectMapper.getFactory().createParser(in);
+    this.reader = objectMapper.readerFor(type);
+    JsonToken first = parser.nextToken();
+    this.array = first == JsonToken.START_ARRAY;
+    this.token = array ? parser.nextToken() : first;
+  }
+
+  /**
+   * Tells whether the reader uses the JSON array format.
+   *
+   * @return true for a JSON array, false for newline-delimited JSON
+   */
+  public boolean isArray() {
+    return array;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (token == JsonToken.START_OBJECT) {
+      return true;
+    }
+    if (token == null && !array || token == JsonToken.END_ARRAY && array) {
+      return false;
+    }
+    throw new UncheckedIOException(new JsonParseException(parser,
+        "Expected a JSON object but found " + token));
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    try {
+      T record = reader.readValue(parser);
+      token = parser.nextToken();
+      return record;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
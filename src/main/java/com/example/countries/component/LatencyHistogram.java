@@ -0,0 +1,107 @@
+package com.example.countries.component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies with power-of-two microsecond buckets.
+ *
+ * <p>Recording only increments striped counters and never allocates, so it is cheap enough for
+ * the cache read path. Bucket {@code i} counts latencies of at most {@code 2^i} microseconds; the
+ * last bucket also takes every longer latency.
+ */
+public final class LatencyHistogram {
+  private static final int BUCKETS = 26;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Creates an empty histogram.
+   */
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records one latency.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    long micros = Math.max(0, nanos) / 1_000;
+    int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+    buckets[Math.min(bucket, BUCKETS - 1)].increment();
+    count.increment();
+    totalNanos.add(nanos);
+    if (nanos > maxNanos.get()) {
+      maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+  }
+
+  /**
+   * Returns the number of recorded latencies.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the sum of the recorded latencies.
+   *
+   * @return the total latency in nanoseconds
+   */
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  /**
+   * Returns the largest recorded latency.
+   *
+   * @return the maximum latency in nanoseconds
+   */
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Copies the current state of the histogram.
+   *
+   * @return the snapshot
+   */
+  public Snapshot snapshot() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (int i = 0; i < BUCKETS; i++) {
+      long bucketCount = buckets[i].sum();
+      if (bucketCount > 0) {
+        String label = i == BUCKETS - 1 ? "gt_" + (1L << (i - 1)) : "le_" + (1L << i);
+        counts.put(label + "us", bucketCount);
+      }
+    }
+    long total = count.sum();
+    double meanMillis = total == 0 ? 0 : (double) totalNanos.sum() / total / 1_000_000;
+    double maxMillis = (double) maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    return new Snapshot(total, meanMillis, maxMillis, counts);
+  }
+
+  /**
+   * A point-in-time copy of a histogram.
+   *
+   * @param count      the number of recorded latencies
+   * @param meanMillis the mean latency in milliseconds
+   * @param maxMillis  the maximum latency in milliseconds
+   * @param buckets    the non-empty buckets, keyed by their bound in microseconds
+   */
+  public record Snapshot(long count, double meanMillis, double maxMillis,
+                         Map<String, Long> buckets) {
+  }
+}
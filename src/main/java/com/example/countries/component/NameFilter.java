@@ -0,0 +1,213 @@
+package com.example.countries.component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Tells apart the names that are definitely not stored from those that might be, so that a
+ * lookup of a missing name can be answered without a database query.
+ *
+ * <p>The names are kept in a {@link BloomFilter}. Until the first {@link #rebuild} every name
+ * might be stored. Added names are put into the filter as they are inserted. Deleted or renamed
+ * names stay in the filter and only cost a database query, until a rebuild from the database
+ * drops them. A rebuild swaps the filters under a lock that puts share, so a name put during a
+ * rebuild lands either in the pending filter or in the current one before the stored names are
+ * read; callers must put a name only once it is committed.
+ *
+ * <p>Names are folded into their {@link NameKey} before hashing: case, accents and whitespace
+ * are ignored. The folding has to be at least as lenient as the lookups, otherwise a name the
+ * database would find could be reported as missing.
+ */
+public class NameFilter {
+  private final double falsePositiveRate;
+  private final long minExpectedInsertions;
+  private volatile BloomFilter filter;
+  private volatile BloomFilter nextFilter;
+  private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+  private final AtomicLong insertions = new AtomicLong();
+  private final AtomicLong staleCount = new AtomicLong();
+  private final LongAdder checkCount = new LongAdder();
+  private final LongAdder definiteMissCount = new LongAdder();
+  private final LongAdder falsePositiveCount = new LongAdder();
+  private volatile long builtAtMillis;
+
+  /**
+   * Creates a filter that reports every name as possibly stored until it is built.
+   *
+   * @param falsePositiveRate     the false-positive rate the filter is sized for
+   * @param minExpectedInsertions the smallest number of names the filter is sized for
+   */
+  public NameFilter(double falsePositiveRate, long minExpectedInsertions) {
+    this.falsePositiveRate = falsePositiveRate;
+    this.minExpectedInsertions = Math.max(1, minExpectedInsertions);
+  }
+
+  /**
+   * Returns whether a name might be stored.
+   *
+   * @param name the name to check
+   * @return false if the name is definitely not stored
+   */
+  public boolean mightContain(String name) {
+    BloomFilter current = filter;
+    if (current == null || name == null) {
+      return true;
+    }
+    checkCount.increment();
+    if (current.mightContain(fold(name))) {
+      return true;
+    }
+    definiteMissCount.increment();
+    return false;
+  }
+
+  /**
+   * Looks a name up unless it is definitely not stored.
+   *
+   * @param name   the name to look up
+   * @param finder queries the database for the name, returning null if it is not stored
+   * @param <T>    the type of the stored entity
+   * @return the entity found by the finder, or null if the name is not stored
+   */
+  public <T> T find(String name, Function<String, T> finder) {
+    if (!mightContain(name)) {
+      return null;
+    }
+    T found = finder.apply(name);
+    if (found == null) {
+      recordFalsePositive();
+    }
+    return found;
+  }
+
+  /**
+   * Records that a name reported as possibly stored was not found in the database. Names
+   * deleted since the last rebuild are counted as well.
+   */
+  public void recordFalsePositive() {
+    if (filter != null) {
+      falsePositiveCount.increment();
+    }
+  }
+
+  /**
+   * Adds an inserted name. Call it once the name is stored, so that a concurrent rebuild either
+   * reads it from the database or receives it here.
+   *
+   * @param name the stored name
+   */
+  public void put(String name) {
+    if (name == null) {
+      return;
+    }
+    String key = fold(name);
+    swapLock.readLock().lock();
+    try {
+      BloomFilter current = filter;
+      if (current != null) {
+        current.put(key);
+      }
+      BloomFilter next = nextFilter;
+      if (next != null) {
+        next.put(key);
+      }
+      insertions.incrementAndGet();
+    } finally {
+      swapLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Records that a name was deleted or renamed, which leaves a stale name in the filter until
+   * the next rebuild.
+   */
+  public void markStale() {
+    staleCount.incrementAndGet();
+  }
+
+  /**
+   * Returns whether names were deleted or renamed since the last rebuild.
+   *
+   * @return true if a rebuild would drop stale names
+   */
+  public boolean isStale() {
+    return filter == null || staleCount.get() > 0;
+  }
+
+  /**
+   * Replaces the filter with one built from the stored names. Names added while the stored
+   * names are read go into both filters.
+   *
+   * @param storedCount the current number of stored names, used to size the filter
+   * @param storedNames reads the stored names
+   * @return the number of names in the new filter
+   */
+  public synchronized int rebuild(long storedCount,
+                                 Supplier<? extends Collection<String>> storedNames) {
+    long staleAtStart = staleCount.get();
+    BloomFilter next = new BloomFilter(Math.max(minExpectedInsertions, storedCount * 2),
+        falsePositiveRate);
+    swap(filter, next);
+    boolean built = false;
+    try {
+      Collection<String> names = storedNames.get();
+      for (String name : names) {
+        if (name != null) {
+          next.put(fold(name));
+        }
+      }
+      insertions.set(names.size());
+      swap(next, null);
+      built = true;
+      staleCount.addAndGet(-staleAtStart);
+      builtAtMillis = System.currentTimeMillis();
+      return names.size();
+    } finally {
+      if (!built) {
+        swap(filter, null);
+      }
+    }
+  }
+
+  private void swap(BloomFilter current, BloomFilter next) {
+    swapLock.writeLock().lock();
+    try {
+      filter = current;
+      nextFilter = next;
+    } finally {
+      swapLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the statistics of the filter.
+   *
+   * @return the statistics
+   */
+  public NameFilterStats stats() {
+    BloomFilter current = filter;
+    long misses = definiteMissCount.sum();
+    long falsePositives = falsePositiveCount.sum();
+    long absent = misses + falsePositives;
+    return new NameFilterStats(current != null, current == null ? 0 : current.getBitSize(),
+        current == null ? 0 : current.getHashCount(), insertions.get(),
+        current == null ? 1.0 : current.expectedFalsePositiveRate(), checkCount.sum(), misses,
+        falsePositives, absent == 0 ? 0.0 : (double) falsePositives / absent, staleCount.get(),
+        builtAtMillis);
+  }
+
+  /**
+   * Folds a name into the key hashed by the filter.
+   *
+   * @param name the name
+   * @return the folded name
+   */
+  static String fold(String name) {
+    return NameKey.of(name);
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.countries.component;
+
+/**
+ * A point-in-time copy of the statistics of one {@link NameFilter}.
+ *
+ * @param built                      whether the filter was built; an unbuilt filter lets every
+ *                                   lookup through
+ * @param bitSize                    the number of bits of the filter
+ * @param hashCount                  the number of bits set per name
+ * @param insertions                 the number of names added since the last rebuild, including
+ *                                   the names it read
+ * @param expectedFalsePositiveRate  the false-positive rate estimated from the set bits
+ * @param checkCount                 the number of lookups checked against the filter
+ * @param definiteMissCount          the number of lookups answered without a database query
+ * @param falsePositiveCount         the number of lookups let through that found nothing
+ * @param observedFalsePositiveRate  the share of lookups of missing names that were let through
+ * @param staleCount                 the number of deleted or renamed names since the last rebuild
+ * @param builtAtMillis              the time of the last rebuild, in epoch milliseconds
+ */
+public record NameFilterStats(boolean built, long bitSize, int hashCount, long insertions,
+                              double expectedFalsePositiveRate, long checkCount,
+                              long definiteMissCount, long falsePositiveCount,
+                              double observedFalsePositiveRate, long staleCount,
+                              long builtAtMillis) {
+}
@@ -0,0 +1,43 @@
+package com.example.countries.component;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Computes the normalized keys under which names are stored, looked up and cached.
+ *
+ * <p>A key is the name decomposed into base letters and combining marks with the marks dropped,
+ * case-folded and with every run of whitespace collapsed into one space and the ends trimmed, so
+ * {@code "  Côte  d'Ivoire"}, {@code "cote d'ivoire"} and {@code "COTE D'IVOIRE"} share a key. The
+ * compatibility decomposition also folds ligatures and full-width forms, and in Cyrillic names
+ * {@code ё} becomes {@code е} and {@code й} becomes {@code и}. Different scripts are not
+ * transliterated into each other.
+ *
+ * <p>The rules are part of the stored data: changing them requires recomputing the stored keys.
+ */
+public final class NameKey {
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern WHITESPACE =
+      Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+
+  private NameKey() {
+  }
+
+  /**
+   * Returns the key of a name.
+   *
+   * @param name the name, or null
+   * @return the normalized key, empty for a blank name, or null for a null name
+   */
+  public static String of(String name) {
+    if (name == null) {
+      return null;
+    }
+    String letters = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFKD))
+        .replaceAll("");
+    // Upper-casing first folds characters whose lower case is not their full case fold, like ß
+    String folded = letters.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    return WHITESPACE.matcher(folded).replaceAll(" ").strip();
+  }
+}
@@ -0,0 +1,307 @@
+package com.example.countries.component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * A second-level cache tier that keeps serialized values outside the Java heap.
+ *
+ * <p>Values are appended to fixed-size direct {@link ByteBuffer} slabs that are allocated on
+ * demand. When every slab is in use, the oldest slab is recycled and the entries still living in
+ * it are evicted, so the store never holds more than its configured number of bytes. Entries are
+ * taken out of the store when they are promoted back to the heap tier.
+ *
+ * @param <K> the type of keys maintained by this store
+ */
+public final class OffHeapStore<K> {
+
+  private final CacheCodec codec;
+  private final int slabSize;
+  private final ByteBuffer[] slabs;
+  private final List<List<K>> slabKeys;
+  private final Map<K, Location> index = new HashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private BiConsumer<K, String[]> evictionListener = (key, tags) -> { };
+  private int currentSlab = -1;
+  private int writeOffset;
+  private long liveBytes;
+  private long evictionCount;
+
+  /**
+   * Creates an off-heap store.
+   *
+   * @param codec         the codec used to serialize values
+   * @param capacityBytes the maximum number of bytes kept off-heap
+   * @param slabSize      the size of one slab in bytes, which also bounds the size of one value
+   */
+  public OffHeapStore(CacheCodec codec, long capacityBytes, int slabSize) {
+    if (slabSize <= 0 || capacityBytes < 2L * slabSize) {
+      throw new IllegalArgumentException(
+          "Off-heap capacity must hold at least two slabs of " + slabSize + " bytes");
+    }
+    this.codec = codec;
+    this.slabSize = slabSize;
+    int slabCount = (int) Math.min(Integer.MAX_VALUE, capacityBytes / slabSize);
+    this.slabs = new ByteBuffer[slabCount];
+    this.slabKeys = new ArrayList<>(slabCount);
+    for (int i = 0; i < slabCount; i++) {
+      slabKeys.add(new ArrayList<>());
+    }
+    this.writeOffset = slabSize;
+  }
+
+  /**
+   * Sets the callback notified with the key and tags of every entry evicted to make room.
+   *
+   * @param evictionListener the eviction callback
+   */
+  void setEvictionListener(BiConsumer<K, String[]> evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
+  /**
+   * Serializes and stores a value, replacing any previous value of the key.
+   *
+   * @param key           the key of the value
+   * @param value         the value to store
+   * @param tags          the dependency tags of the value
+   * @param loadedAtNanos the time the value was loaded, kept for expiry checks after promotion
+   * @return true if the value was stored, false if the codec does not support it or it is larger
+   *     than a slab
+   */
+  boolean put(K key, Object value, String[] tags, long loadedAtNanos) {
+    byte[] bytes = codec.encode(value);
+    if (bytes == null || bytes.length > slabSize) {
+      return false;
+    }
+    lock.lock();
+    try {
+      Location previous = index.remove(key);
+      if (previous != null) {
+        liveBytes -= previous.length;
+      }
+      if (writeOffset + bytes.length > slabSize) {
+        advanceSlab();
+      }
+      slabs[currentSlab].put(writeOffset, bytes);
+      index.put(key, new Location(currentSlab, writeOffset, bytes.length, tags, loadedAtNanos));
+      slabKeys.get(currentSlab).add(key);
+      writeOffset += bytes.length;
+      liveBytes += bytes.length;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes an entry from the store and returns its value, for promotion to the heap tier.
+   *
+   * @param key the key of the entry
+   * @return the value and tags of the entry, or null if the store does not hold the key
+   */
+  Entry take(K key) {
+    byte[] bytes;
+    Location location;
+    lock.lock();
+    try {
+      location = index.remove(key);
+      if (location == null) {
+        return null;
+      }
+      bytes = new byte[location.length];
+      slabs[location.slab].get(location.offset, bytes);
+      liveBytes -= location.length;
+    } finally {
+      lock.unlock();
+    }
+    return new Entry(codec.decode(bytes), location.tags, location.loadedAtNanos);
+  }
+
+  /**
+   * Removes an entry from the store.
+   *
+   * @param key the key of the entry
+   * @return the tags of the removed entry, or null if the store did not hold the key
+   */
+  String[] remove(K key) {
+    lock.lock();
+    try {
+      Location location = index.remove(key);
+      if (location == null) {
+        return null;
+      }
+      liveBytes -= location.length;
+      return location.tags;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes an entry from the store if it carries the given tag.
+   *
+   * @param key the key of the entry
+   * @param tag the dependency tag the entry must carry
+   * @return the tags of the removed entry, or null if nothing was removed
+   */
+  String[] removeTagged(K key, String tag) {
+    lock.lock();
+    try {
+      Location location = index.get(key);
+      if (location == null || !contains(location.tags, tag)) {
+        return null;
+      }
+      index.remove(key);
+      liveBytes -= location.length;
+      return location.tags;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Checks whether the store holds the given key.
+   *
+   * @param key the key to look up
+   * @return true if the store holds the key
+   */
+  boolean containsKey(K key) {
+    lock.lock();
+    try {
+      return index.containsKey(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes every entry, notifying the eviction listener of each. Allocated slabs are kept.
+   */
+  void clear() {
+    lock.lock();
+    try {
+      index.forEach((key, location) -> evictionListener.accept(key, location.tags));
+      index.clear();
+      slabKeys.forEach(List::clear);
+      liveBytes = 0;
+      currentSlab = -1;
+      writeOffset = slabSize;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of entries held off-heap.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    lock.lock();
+    try {
+      return index.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of bytes taken by live entries.
+   *
+   * @return the live bytes
+   */
+  public long getLiveBytes() {
+    lock.lock();
+    try {
+      return liveBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of direct memory bytes allocated for slabs.
+   *
+   * @return the allocated bytes
+   */
+  public long getAllocatedBytes() {
+    lock.lock();
+    try {
+      long allocated = 0;
+      for (ByteBuffer slab : slabs) {
+        if (slab != null) {
+          allocated += slab.capacity();
+        }
+      }
+      return allocated;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of entries evicted when their slab was recycled.
+   *
+   * @return the eviction count
+   */
+  public long getEvictionCount() {
+    lock.lock();
+    try {
+      return evictionCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void advanceSlab() {
+    currentSlab = (currentSlab + 1) % slabs.length;
+    writeOffset = 0;
+    if (slabs[currentSlab] == null) {
+      slabs[currentSlab] = ByteBuffer.allocateDirect(slabSize);
+      return;
+    }
+    List<K> keys = slabKeys.get(currentSlab);
+    for (K key : keys) {
+      Location location = index.get(key);
+      if (location != null && location.slab == currentSlab) {
+        index.remove(key);
+        liveBytes -= location.length;
+        evictionCount++;
+        evictionListener.accept(key, location.tags);
+      }
+    }
+    keys.clear();
+  }
+
+  private static boolean contains(String[] tags, String tag) {
+    for (String t : tags) {
+      if (t.equals(tag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The position of a serialized value inside a slab.
+   */
+  private record Location(int slab, int offset, int length, String[] tags,
+                          long loadedAtNanos) {
+  }
+
+  /**
+   * A value taken out of the store together with its dependency tags.
+   *
+   * @param value         the restored value
+   * @param tags          the dependency tags of the value
+   * @param loadedAtNanos the time the value was loaded
+   */
+  record Entry(Object value, String[] tags, long loadedAtNanos) {
+  }
+}
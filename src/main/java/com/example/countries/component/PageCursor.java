@@ -0,0 +1,57 @@
+package com.example.countries.component;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque continuation tokens of keyset-paginated lists.
+ *
+ * <p>A token holds the ID of the last row of the previous page, so the next page is read with
+ * {@code WHERE id > :afterId ORDER BY id} and costs the same however deep it is. The format
+ * carries a version byte and is not part of the API; clients must pass tokens back unchanged.
+ */
+public final class PageCursor {
+  private static final byte VERSION = 1;
+  private static final int LENGTH = 1 + Long.BYTES;
+
+  private PageCursor() {
+  }
+
+  /**
+   * Returns the token continuing after a row.
+   *
+   * @param lastId the ID of the last row of the current page
+   * @return the continuation token
+   */
+  public static String encode(long lastId) {
+    byte[] bytes = ByteBuffer.allocate(LENGTH).put(VERSION).putLong(lastId).array();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  /**
+   * Returns the ID after which a page starts.
+   *
+   * @param cursor the continuation token, or null or blank for the first page
+   * @return the ID of the last row of the previous page, or 0 for the first page
+   * @throws IllegalArgumentException if the token is malformed
+   */
+  public static long decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0;
+    }
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+    }
+    if (bytes.length != LENGTH || bytes[0] != VERSION) {
+      throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+    }
+    long lastId = ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+    if (lastId < 0) {
+      throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+    }
+    return lastId;
+  }
+}
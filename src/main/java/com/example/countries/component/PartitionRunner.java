@@ -0,0 +1,125 @@
+package com.example.countries.component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Writes large lists in partitions, several partitions at a time.
+ *
+ * <p>All callers share one fixed pool of threads, so the number of partitions written at once,
+ * and with it the number of database connections taken by bulk writes, never exceeds the size of
+ * the pool; partitions of concurrent callers wait in line. A partition whose write fails with an
+ * error accepted by the retry predicate is written again, up to the configured number of
+ * attempts, waiting a little longer before each new attempt. Other errors fail the partition at
+ * once. The caller waits for all its partitions and gets the outcome of each.
+ */
+public class PartitionRunner {
+  private final ExecutorService executor;
+  private final int threads;
+  private final int partitionSize;
+  private final int maxAttempts;
+  private final long backoffMillis;
+  private final Predicate<RuntimeException> retryable;
+
+  /**
+   * The outcome of writing one partition.
+   *
+   * @param offset the position of the first item of the partition in the written list
+   * @param items  the items of the partition
+   * @param error  the error of the last attempt, or null if the partition was written
+   * @param <T>    the type of the items
+   */
+  public record Partition<T>(int offset, List<T> items, RuntimeException error) {
+  }
+
+  /**
+   * Creates a runner with its own pool of daemon threads.
+   *
+   * @param threads       the maximum number of partitions written at once
+   * @param partitionSize the maximum number of items of a partition
+   * @param maxAttempts   the number of times a partition is tried
+   * @param backoffMillis the wait before the second attempt; it grows linearly with each attempt
+   * @param retryable     tells which errors are worth another attempt
+   */
+  public PartitionRunner(int threads, int partitionSize, int maxAttempts, long backoffMillis,
+                         Predicate<RuntimeException> retryable) {
+    if (threads < 1 || partitionSize < 1 || maxAttempts < 1) {
+      throw new IllegalArgumentException("Threads, partition size and attempts must be positive");
+    }
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "partition-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.threads = threads;
+    this.partitionSize = partitionSize;
+    this.maxAttempts = maxAttempts;
+    this.backoffMillis = backoffMillis;
+    this.retryable = retryable;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public int getPartitionSize() {
+    return partitionSize;
+  }
+
+  /**
+   * Splits a list into partitions and writes them in parallel.
+   *
+   * @param items  the items to write
+   * @param writer writes one partition, in its own transaction
+   * @param <T>    the type of the items
+   * @return the outcome of each partition, in the order of the list
+   */
+  public <T> List<Partition<T>> write(List<T> items, Consumer<List<T>> writer) {
+    List<CompletableFuture<Partition<T>>> futures = new ArrayList<>();
+    for (int from = 0; from < items.size(); from += partitionSize) {
+      int offset = from;
+      List<T> partition = items.subList(from, Math.min(from + partitionSize, items.size()));
+      futures.add(CompletableFuture.supplyAsync(
+          () -> new Partition<>(offset, partition, attempt(partition, writer)), executor));
+    }
+    List<Partition<T>> partitions = new ArrayList<>(futures.size());
+    for (CompletableFuture<Partition<T>> future : futures) {
+      partitions.add(future.join());
+    }
+    return partitions;
+  }
+
+  private <T> RuntimeException attempt(List<T> partition, Consumer<List<T>> writer) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        writer.accept(partition);
+        return null;
+      } catch (RuntimeException e) {
+        if (attempt == maxAttempts || !retryable.test(e)) {
+          return e;
+        }
+      }
+      try {
+        TimeUnit.MILLISECONDS.sleep(backoffMillis * attempt);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return new IllegalStateException("Interrupted before retrying a partition", e);
+      }
+    }
+  }
+
+  /**
+   * Stops the threads once the queued partitions are written.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.countries.component;
+
+import java.time.Duration;
+
+/**
+ * Per-entry expiry and refresh settings for the loader-based reads of {@link Cache}.
+ *
+ * <p>An entry is fresh for {@code timeToLive} after it was loaded. A read within the last
+ * {@code refreshAhead} of that period, or after it, starts an asynchronous reload and still
+ * returns the cached value. Once the entry is older than {@code timeToLive} plus
+ * {@code maxStaleness}, it is no longer served and the read loads it synchronously.
+ *
+ * @param timeToLive   how long a loaded entry is fresh
+ * @param refreshAhead how long before expiry a read triggers a background reload
+ * @param maxStaleness how long after expiry the old value may still be served
+ */
+public record RefreshPolicy(Duration timeToLive, Duration refreshAhead, Duration maxStaleness) {
+
+  /**
+   * Validates the durations.
+   *
+   * @throws IllegalArgumentException if a duration is negative or the refresh-ahead window is
+   *     longer than the time to live
+   */
+  public RefreshPolicy {
+    if (timeToLive.isNegative() || refreshAhead.isNegative() || maxStaleness.isNegative()) {
+      throw new IllegalArgumentException("Refresh policy durations must not be negative");
+    }
+    if (refreshAhead.compareTo(timeToLive) > 0) {
+      throw new IllegalArgumentException(
+          "Refresh-ahead window " + refreshAhead + " exceeds time to live " + timeToLive);
+    }
+  }
+
+  /**
+   * Returns the age after which a read triggers a background reload.
+   *
+   * @return the refresh age in nanoseconds
+   */
+  long refreshAfterNanos() {
+    return timeToLive.minus(refreshAhead).toNanos();
+  }
+
+  /**
+   * Returns the age after which the entry is no longer served.
+   *
+   * @return the maximum served age in nanoseconds
+   */
+  long maxAgeNanos() {
+    return timeToLive.plus(maxStaleness).toNanos();
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.countries.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the serialized JSON of GET responses together with their entity tag and, optionally, a
+ * gzip-compressed copy.
+ *
+ * <p>A cached body stays valid for as long as the service keeps returning the very same value
+ * object. The services hand out the instances held by their cache regions, so any write that
+ * invalidates or replaces a cached value also makes the serialized response stale, without a
+ * separate invalidation path.
+ */
+@Component
+public class ResponseCache {
+  private static final int ETAG_BYTES = 16;
+
+  private final ObjectMapper objectMapper;
+  private final Cache<String, CachedResponse> responses;
+  private final boolean gzipEnabled;
+  private final int gzipMinBytes;
+
+  /**
+   * Creates the response cache.
+   *
+   * @param objectMapper the mapper used to serialize values
+   * @param cacheManager the cache manager holding the {@link CacheRegions#RESPONSES} region
+   * @param gzipEnabled  whether compressed copies of the bodies are kept
+   * @param gzipMinBytes the smallest body that is compressed
+   */
+  @Autowired
+  public ResponseCache(ObjectMapper objectMapper,
+                       CacheManager cacheManager,
+                       @Value("${cache.response.gzip.enabled:true}") boolean gzipEnabled,
+                       @Value("${cache.response.gzip.min-bytes:512}") int gzipMinBytes) {
+    this.objectMapper = objectMapper;
+    this.responses = cacheManager.region(CacheRegions.RESPONSES);
+    this.gzipEnabled = gzipEnabled;
+    this.gzipMinBytes = gzipMinBytes;
+  }
+
+  /**
+   * Returns the serialized response of a value, serializing it only if the value differs from the
+   * one the cached response was built from.
+   *
+   * @param key   identifies the request, for example the endpoint and its parameters
+   * @param value the value to respond with
+   * @return the serialized response
+   * @throws JsonProcessingException if the value cannot be serialized
+   */
+  public CachedResponse get(String key, Object value) throws JsonProcessingException {
+    CachedResponse cached = responses.get(key);
+    if (cached != null && cached.source() == value) {
+      return cached;
+    }
+    byte[] body = objectMapper.writeValueAsBytes(value);
+    byte[] gzippedBody = gzipEnabled && body.length >= gzipMinBytes ? gzip(body) : null;
+    CachedResponse response = new CachedResponse(value, body, gzippedBody, etag(body));
+    responses.put(key, response);
+    return response;
+  }
+
+  private static String etag(byte[] body) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+      byte[] prefix = new byte[ETAG_BYTES];
+      System.arraycopy(digest, 0, prefix, 0, ETAG_BYTES);
+      return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(prefix) + '"';
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 2);
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+}
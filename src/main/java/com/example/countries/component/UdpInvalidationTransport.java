@@ -0,0 +1,108 @@
+package com.example.countries.component;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends invalidation batches to a fixed list of peers as UDP datagrams, one datagram per batch.
+ * Batches too large for one datagram are split.
+ *
+ * <p>Intended for nodes on one host or one trusted network segment: datagrams are neither
+ * authenticated nor retransmitted, so a lost datagram leaves the peer cache stale until the
+ * entry expires or is written again.
+ */
+public class UdpInvalidationTransport implements InvalidationTransport {
+  static final int MAX_DATAGRAM_BYTES = 65_507;
+  private static final Logger logger = LoggerFactory.getLogger(UdpInvalidationTransport.class);
+
+  private final DatagramSocket socket;
+  private final List<InetSocketAddress> peers;
+  private Thread receiverThread;
+
+  /**
+   * Creates a transport listening on the specified address.
+   *
+   * @param bindAddress the local address to receive datagrams on; port 0 picks a free port
+   * @param peers       the addresses of the peer nodes
+   * @throws SocketException if the socket cannot be bound
+   */
+  public UdpInvalidationTransport(InetSocketAddress bindAddress, List<InetSocketAddress> peers)
+      throws SocketException {
+    this.socket = new DatagramSocket(bindAddress);
+    this.peers = new CopyOnWriteArrayList<>(peers);
+  }
+
+  /**
+   * Returns the local port the transport receives datagrams on.
+   *
+   * @return the local port
+   */
+  public int getLocalPort() {
+    return socket.getLocalPort();
+  }
+
+  /**
+   * Adds a peer node.
+   *
+   * @param peer the address of the peer
+   */
+  public void addPeer(InetSocketAddress peer) {
+    peers.add(peer);
+  }
+
+  @Override
+  public synchronized void start(Consumer<InvalidationBatch> receiver) {
+    if (receiverThread != null) {
+      throw new IllegalStateException("Transport already started");
+    }
+    receiverThread = new Thread(() -> receive(receiver),
+        "cache-invalidation-udp-" + socket.getLocalPort());
+    receiverThread.setDaemon(true);
+    receiverThread.start();
+  }
+
+  @Override
+  public void send(InvalidationBatch batch) throws IOException {
+    byte[] data = batch.encode();
+    if (data.length > MAX_DATAGRAM_BYTES && batch.size() > 1) {
+      for (InvalidationBatch part : batch.split()) {
+        send(part);
+      }
+      return;
+    }
+    for (InetSocketAddress peer : peers) {
+      socket.send(new DatagramPacket(data, data.length, peer));
+    }
+  }
+
+  @Override
+  public void close() {
+    socket.close();
+  }
+
+  private void receive(Consumer<InvalidationBatch> receiver) {
+    byte[] buffer = new byte[MAX_DATAGRAM_BYTES];
+    while (!socket.isClosed()) {
+      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      try {
+        socket.receive(packet);
+        receiver.accept(InvalidationBatch.decode(packet.getData(), packet.getLength()));
+      } catch (IOException e) {
+        if (!socket.isClosed()) {
+          logger.warn("Dropped invalidation datagram from {}: {}", packet.getSocketAddress(),
+              e.getMessage());
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Could not apply invalidation batch: {}", e.getMessage());
+      }
+    }
+  }
+}
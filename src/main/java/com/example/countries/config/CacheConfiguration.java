@@ -0,0 +1,134 @@
+package com.example.countries.config;
+
+import com.example.countries.component.Cache;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegion;
+import com.example.countries.component.CacheRegions;
+import com.example.countries.component.InMemoryInvalidationTransport;
+import com.example.countries.component.InvalidationBus;
+import com.example.countries.component.InvalidationTransport;
+import com.example.countries.component.OffHeapStore;
+import com.example.countries.component.RefreshPolicy;
+import com.example.countries.component.UdpInvalidationTransport;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class for the application caches.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfiguration {
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+  private static final int BYTES_PER_KILOBYTE = 1024;
+
+  /**
+   * Creates the bounded executor that reloads cache entries in the background. When its queue
+   * is full, further refreshes are skipped and readers keep the cached value.
+   *
+   * @param threads       the number of refresh threads
+   * @param queueCapacity the maximum number of queued refreshes
+   * @return the refresh executor
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ThreadPoolExecutor cacheRefreshExecutor(
+      @Value("${cache.refresh.threads:2}") int threads,
+      @Value("${cache.refresh.queue-capacity:64}") int queueCapacity) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "cache-refresh-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Creates the cache manager with one cache per region, each sized and tuned from its
+   * {@code cache.regions.<name>.*} properties.
+   *
+   * @param properties      the cache properties
+   * @param refreshExecutor runs background refreshes of cached entries
+   * @return the cache manager
+   */
+  @Bean
+  public CacheManager cacheManager(CacheProperties properties,
+                                   @Qualifier("cacheRefreshExecutor")
+                                   ThreadPoolExecutor refreshExecutor) {
+    CacheManager cacheManager = new CacheManager();
+    for (CacheRegion<?, ?> region : CacheRegions.all()) {
+      register(cacheManager, region, properties, refreshExecutor);
+    }
+    return cacheManager;
+  }
+
+  /**
+   * Creates the bus that broadcasts the invalidations of the cache manager to the other
+   * instances of the application. With {@code cache.invalidation.transport=none} the bus is
+   * joined to a hub of its own, so invalidations stay on this instance.
+   *
+   * @param properties   the cache properties
+   * @param cacheManager the cache manager whose invalidations are broadcast
+   * @return the invalidation bus
+   * @throws SocketException if the UDP socket cannot be bound
+   */
+  @Bean(destroyMethod = "close")
+  public InvalidationBus invalidationBus(CacheProperties properties, CacheManager cacheManager)
+      throws SocketException {
+    CacheProperties.Invalidation settings = properties.getInvalidation();
+    InvalidationTransport transport = switch (settings.getTransport()) {
+      case NONE -> new InMemoryInvalidationTransport(new InMemoryInvalidationTransport.Hub());
+      case IN_MEMORY -> new InMemoryInvalidationTransport();
+      case UDP -> new UdpInvalidationTransport(
+          new InetSocketAddress(settings.getBindAddress(), settings.getPort()),
+          settings.getPeers().stream().map(CacheConfiguration::parseAddress).toList());
+    };
+    String nodeId = settings.getNodeId() != null ? settings.getNodeId()
+        : UUID.randomUUID().toString();
+    return new InvalidationBus(nodeId, cacheManager, transport, settings.getBatchIntervalMs(),
+        settings.getMaxBatchSize());
+  }
+
+  private static InetSocketAddress parseAddress(String address) {
+    int separator = address.lastIndexOf(':');
+    if (separator < 0) {
+      throw new IllegalArgumentException("Peer address must be host:port: " + address);
+    }
+    return new InetSocketAddress(address.substring(0, separator),
+        Integer.parseInt(address.substring(separator + 1)));
+  }
+
+  private static <K, V> void register(CacheManager cacheManager, CacheRegion<K, V> region,
+                                      CacheProperties properties,
+                                      ThreadPoolExecutor refreshExecutor) {
+    CacheProperties.Region settings = properties.region(region.name());
+    OffHeapStore<K> offHeapStore = null;
+    if (settings.getOffHeapMb() > 0 && region.codec() != null) {
+      offHeapStore = new OffHeapStore<>(region.codec(),
+          settings.getOffHeapMb() * BYTES_PER_MEGABYTE,
+          settings.getSlabSizeKb() * BYTES_PER_KILOBYTE);
+    }
+    RefreshPolicy refreshPolicy = null;
+    if (settings.getTtlSeconds() > 0) {
+      refreshPolicy = new RefreshPolicy(Duration.ofSeconds(settings.getTtlSeconds()),
+          Duration.ofSeconds(settings.getRefreshAheadSeconds()),
+          Duration.ofSeconds(settings.getMaxStalenessSeconds()));
+    }
+    cacheManager.register(region, new Cache<>(settings.getCapacity(),
+        properties.getLoadTimeoutMs(), offHeapStore, refreshExecutor,
+        settings.getEvictionPolicy(), refreshPolicy));
+  }
+}
@@ -0,0 +1,227 @@
+package com.example.countries.config;
+
+import com.example.countries.component.EvictionPolicy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cache settings bound from the {@code cache.*} properties.
+ */
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+  private long loadTimeoutMs = 5_000;
+  private Map<String, Region> regions = new HashMap<>();
+  private Invalidation invalidation = new Invalidation();
+
+  public long getLoadTimeoutMs() {
+    return loadTimeoutMs;
+  }
+
+  public void setLoadTimeoutMs(long loadTimeoutMs) {
+    this.loadTimeoutMs = loadTimeoutMs;
+  }
+
+  public Map<String, Region> getRegions() {
+    return regions;
+  }
+
+  public void setRegions(Map<String, Region> regions) {
+    this.regions = regions;
+  }
+
+  public Invalidation getInvalidation() {
+    return invalidation;
+  }
+
+  public void setInvalidation(Invalidation invalidation) {
+    this.invalidation = invalidation;
+  }
+
+  /**
+   * Returns the settings of a region, or the defaults if the region is not configured.
+   *
+   * @param name the region name
+   * @return the region settings
+   */
+  public Region region(String name) {
+    return regions.getOrDefault(name, new Region());
+  }
+
+  /**
+   * Settings of one cache region, bound from {@code cache.regions.<name>.*}.
+   */
+  public static class Region {
+    private int capacity = 1_000;
+    private EvictionPolicy evictionPolicy = EvictionPolicy.TINY_LFU;
+    private long ttlSeconds;
+    private long refreshAheadSeconds;
+    private long maxStalenessSeconds;
+    private long offHeapMb;
+    private int slabSizeKb = 1_024;
+
+    public int getCapacity() {
+      return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+      this.capacity = capacity;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+      return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+      this.evictionPolicy = evictionPolicy;
+    }
+
+    /**
+     * Returns how long a loaded entry is fresh; 0 means entries never expire.
+     *
+     * @return the time to live in seconds
+     */
+    public long getTtlSeconds() {
+      return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+      this.ttlSeconds = ttlSeconds;
+    }
+
+    public long getRefreshAheadSeconds() {
+      return refreshAheadSeconds;
+    }
+
+    public void setRefreshAheadSeconds(long refreshAheadSeconds) {
+      this.refreshAheadSeconds = refreshAheadSeconds;
+    }
+
+    public long getMaxStalenessSeconds() {
+      return maxStalenessSeconds;
+    }
+
+    public void setMaxStalenessSeconds(long maxStalenessSeconds) {
+      this.maxStalenessSeconds = maxStalenessSeconds;
+    }
+
+    /**
+     * Returns the capacity of the off-heap tier; 0 disables the tier.
+     *
+     * @return the off-heap capacity in megabytes
+     */
+    public long getOffHeapMb() {
+      return offHeapMb;
+    }
+
+    public void setOffHeapMb(long offHeapMb) {
+      this.offHeapMb = offHeapMb;
+    }
+
+    public int getSlabSizeKb() {
+      return slabSizeKb;
+    }
+
+    public void setSlabSizeKb(int slabSizeKb) {
+      this.slabSizeKb = slabSizeKb;
+    }
+  }
+
+  /**
+   * Settings of the cluster-wide invalidation bus, bound from {@code cache.invalidation.*}.
+   */
+  public static class Invalidation {
+    private Transport transport = Transport.NONE;
+    private String nodeId;
+    private long batchIntervalMs = 20;
+    private int maxBatchSize = 512;
+    private String bindAddress = "127.0.0.1";
+    private int port;
+    private List<String> peers = new ArrayList<>();
+
+    /**
+     * Returns how invalidations reach the other nodes.
+     *
+     * @return the transport
+     */
+    public Transport getTransport() {
+      return transport;
+    }
+
+    public void setTransport(Transport transport) {
+      this.transport = transport;
+    }
+
+    /**
+     * Returns the ID of this node; a random ID is used if none is set.
+     *
+     * @return the node ID, or null
+     */
+    public String getNodeId() {
+      return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+      this.nodeId = nodeId;
+    }
+
+    public long getBatchIntervalMs() {
+      return batchIntervalMs;
+    }
+
+    public void setBatchIntervalMs(long batchIntervalMs) {
+      this.batchIntervalMs = batchIntervalMs;
+    }
+
+    public int getMaxBatchSize() {
+      return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+    }
+
+    public String getBindAddress() {
+      return bindAddress;
+    }
+
+    public void setBindAddress(String bindAddress) {
+      this.bindAddress = bindAddress;
+    }
+
+    public int getPort() {
+      return port;
+    }
+
+    public void setPort(int port) {
+      this.port = port;
+    }
+
+    /**
+     * Returns the {@code host:port} addresses of the peer nodes of the UDP transport.
+     *
+     * @return the peer addresses
+     */
+    public List<String> getPeers() {
+      return peers;
+    }
+
+    public void setPeers(List<String> peers) {
+      this.peers = peers;
+    }
+  }
+
+  /**
+   * The transports of the invalidation bus.
+   */
+  public enum Transport {
+    /** Invalidations stay on the node that made them. */
+    NONE,
+    /** Invalidations reach the application contexts running in the same JVM. */
+    IN_MEMORY,
+    /** Invalidations are sent to the configured peers as UDP datagrams. */
+    UDP
+  }
+}
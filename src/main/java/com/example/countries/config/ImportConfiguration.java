@@ -0,0 +1,70 @@
+package com.example.countries.config;
+
+import com.example.countries.component.PartitionRunner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * Configuration class for the asynchronous bulk imports.
+ */
+@Configuration
+public class ImportConfiguration {
+
+  /**
+   * Creates the bounded executor running the import jobs. When all workers are busy and the queue
+   * is full, submissions are rejected, which bounds the payloads held in memory.
+   *
+   * @param threads       the number of import workers
+   * @param queueCapacity the maximum number of jobs waiting for a worker
+   * @return the import executor
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ThreadPoolExecutor importExecutor(
+      @Value("${import.threads:2}") int threads,
+      @Value("${import.queue-capacity:8}") int queueCapacity) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> new Thread(runnable, "import-" + threadNumber.incrementAndGet()));
+  }
+
+  /**
+   * Creates the runner writing bulk inputs in parallel partitions. Each partition holds a
+   * connection while it is written, so the number of partitions written at once is capped below
+   * the size of the connection pool, keeping the reserved connections free for online requests.
+   * Partitions failing on a lock, a deadlock, a timeout or an unavailable connection are retried.
+   *
+   * @param parallelism         the desired number of partitions written at once
+   * @param poolSize            the maximum size of the connection pool
+   * @param reservedConnections the connections never taken by bulk writes
+   * @param partitionSize       the number of items written in one transaction
+   * @param maxAttempts         the number of times a partition is tried
+   * @param backoffMillis       the wait before the first retry of a partition
+   * @return the partition runner
+   * @throws IllegalStateException if the reserved connections leave none for bulk writes
+   */
+  @Bean(destroyMethod = "shutdown")
+  public PartitionRunner partitionRunner(
+      @Value("${ingest.parallelism:8}") int parallelism,
+      @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+      @Value("${ingest.reserved-connections:5}") int reservedConnections,
+      @Value("${ingest.partition-size:250}") int partitionSize,
+      @Value("${ingest.max-attempts:3}") int maxAttempts,
+      @Value("${ingest.retry-backoff-ms:100}") long backoffMillis) {
+    int threads = Math.min(parallelism, poolSize - reservedConnections);
+    if (threads < 1) {
+      throw new IllegalStateException("No connections left for bulk writes: pool size " + poolSize
+          + ", reserved " + reservedConnections);
+    }
+    return new PartitionRunner(threads, partitionSize, maxAttempts, backoffMillis,
+        e -> e instanceof TransientDataAccessException
+            || e instanceof CannotCreateTransactionException);
+  }
+}
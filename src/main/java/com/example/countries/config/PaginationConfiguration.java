@@ -0,0 +1,12 @@
+package com.example.countries.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the paginated list endpoints.
+ */
+@Configuration
+@EnableConfigurationProperties(PaginationProperties.class)
+public class PaginationConfiguration {
+}
@@ -0,0 +1,45 @@
+package com.example.countries.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Page size settings of the list endpoints, bound from the {@code pagination.*} properties.
+ */
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationProperties {
+  private int defaultPageSize = 20;
+  private int maxPageSize = 100;
+
+  public int getDefaultPageSize() {
+    return defaultPageSize;
+  }
+
+  public void setDefaultPageSize(int defaultPageSize) {
+    this.defaultPageSize = defaultPageSize;
+  }
+
+  public int getMaxPageSize() {
+    return maxPageSize;
+  }
+
+  public void setMaxPageSize(int maxPageSize) {
+    this.maxPageSize = maxPageSize;
+  }
+
+  /**
+   * Returns the page size to use for a request.
+   *
+   * @param requested the page size asked for, or null for the default
+   * @return the requested page size capped at the maximum, or the default page size
+   * @throws IllegalArgumentException if the requested page size is not positive
+   */
+  public int pageSize(Integer requested) {
+    if (requested == null) {
+      return Math.min(defaultPageSize, maxPageSize);
+    }
+    if (requested < 1) {
+      throw new IllegalArgumentException("Page size must be positive: " + requested);
+    }
+    return Math.min(requested, maxPageSize);
+  }
+}
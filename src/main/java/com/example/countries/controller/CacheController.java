@@ -0,0 +1,58 @@
+package com.example.countries.controller;
+
+import com.example.countries.component.CacheStats;
+import com.example.countries.component.NameFilterStats;
+import com.example.countries.service.CacheStatsService;
+import com.example.countries.service.NameFilterService;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller class for cache introspection endpoints.
+ */
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+  private final CacheStatsService cacheStatsService;
+  private final NameFilterService nameFilterService;
+
+  /**
+   * Constructor for CacheController.
+   *
+   * @param cacheStatsService an instance of CacheStatsService collecting cache statistics
+   * @param nameFilterService an instance of NameFilterService holding the name filters
+   */
+  public CacheController(CacheStatsService cacheStatsService,
+                         NameFilterService nameFilterService) {
+    this.cacheStatsService = cacheStatsService;
+    this.nameFilterService = nameFilterService;
+  }
+
+  /**
+   * Endpoint to retrieve the statistics of every cache region.
+   *
+   * @return ResponseEntity with the statistics keyed by region name
+   */
+  @GetMapping("/stats")
+  @CrossOrigin
+  public ResponseEntity<Map<String, CacheStats>> getStats() {
+    return ResponseEntity.ok(cacheStatsService.getStats());
+  }
+
+  /**
+   * Endpoint to retrieve the statistics of the name filters, including the database calls they
+   * saved and their false-positive rate.
+   *
+   * @return ResponseEntity with the statistics keyed by entity type
+   */
+  @GetMapping("/name-filters")
+  @CrossOrigin
+  public ResponseEntity<Map<String, NameFilterStats>> getNameFilterStats() {
+    return ResponseEntity.ok(nameFilterService.getStats());
+  }
+}
@@ -1,10 +1,14 @@
 package com.example.countries.controller;
 
+import com.example.countries.dto.BulkResultDto;
+import com.example.countries.dto.CityDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.City;
 import com.example.countries.exception.CityAlreadyExistException;
 import com.example.countries.exception.CityNotFoundException;
 import com.example.countries.exception.CountryNotFoundException;
 import com.example.countries.service.CityService;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -62,6 +66,29 @@ public class CityController {
     }
   }
 
+  /**
+   * Endpoint to add many cities to a country at once.
+   *
+   * @param countryId the ID of the country to which the cities belong
+   * @param cities    the cities to be added
+   * @return ResponseEntity with the outcome of every city: 200 if at least one city is added,
+   *     otherwise 400
+   */
+  @PostMapping("/bulk")
+  public ResponseEntity<?> addCitiesBulk(@RequestParam Long countryId,
+                                         @RequestBody List<City> cities) {
+    log.info("post-запрос для списка City был вызван!");
+    try {
+      BulkResultDto result = cityService.addCitiesBulk(countryId, cities);
+      log.info("Добавлено городов: {}, пропущено: {}, с ошибкой: {}", result.getCreated(),
+          result.getSkipped(), result.getFailed());
+      return ResponseEntity.status(result.getCreated() > 0 ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+          .body(result);
+    } catch (CountryNotFoundException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
   /**
    * Endpoint to retrieve a city by its ID.
    *
@@ -82,6 +109,31 @@ public class CityController {
     }
   }
 
+  /**
+   * Endpoint to list cities page by page.
+   *
+   * @param countryId the ID of the country whose cities are listed, or absent for all cities
+   * @param cursor    the token returned with the previous page, or absent for the first page
+   * @param size      the page size, capped at the configured maximum
+   * @return ResponseEntity with the page of cities and the token of the next page, or error
+   *     message if the cursor or size is invalid or any exception occurs
+   */
+  @GetMapping("/page")
+  public ResponseEntity<?> getCities(@RequestParam(required = false) Long countryId,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(required = false) Integer size) {
+    log.info("get-запрос для списка City был вызван!");
+    try {
+      PageDto<CityDto> page = cityService.getCities(countryId, cursor, size);
+      log.info("Страница городов была успешно получена!");
+      return ResponseEntity.ok(page);
+    } catch (IllegalArgumentException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().body(ERROR_MESSAGE);
+    }
+  }
+
   /**
    * Endpoint to update an existing city.
    *
@@ -97,7 +149,7 @@ public class CityController {
       cityService.updateCity(id, updatedCity);
       log.info("Город был успешно изменен!");
       return ResponseEntity.ok("Город был успешно изсенен!");
-    } catch (CityNotFoundException e) {
+    } catch (CityNotFoundException | CityAlreadyExistException e) {
       throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.badRequest().body(ERROR_MESSAGE);
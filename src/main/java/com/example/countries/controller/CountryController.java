@@ -1,6 +1,10 @@
 package com.example.countries.controller;
 
+import com.example.countries.component.CachedResponse;
+import com.example.countries.component.NameKey;
+import com.example.countries.component.ResponseCache;
 import com.example.countries.dto.CountryDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.Country;
 import com.example.countries.exception.CountryAlreadyExistException;
 import com.example.countries.exception.CountryNotFoundException;
@@ -9,7 +13,9 @@ import com.example.countries.service.RequestCounterService;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +24,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -32,6 +39,7 @@ public class CountryController {
 
   private static final String ERROR_MESSAGE = "Произошла ошибка!";
   private final CountryService countryService;
+  private final ResponseCache responseCache;
   final RequestCounterService requestCounterService;
   private final Logger log = LoggerFactory.getLogger(CountryController.class);
 
@@ -39,10 +47,13 @@ public class CountryController {
    * Constructor for CountryController.
    *
    * @param countryService an instance of CountryService to handle country-related operations
+   * @param responseCache  an instance of ResponseCache holding serialized GET responses
    */
-  public CountryController(CountryService countryService, RequestCounterService requestCounterService) {
+  public CountryController(CountryService countryService, RequestCounterService requestCounterService,
+                           ResponseCache responseCache) {
     this.countryService = countryService;
     this.requestCounterService = requestCounterService;
+    this.responseCache = responseCache;
   }
 
   /**
@@ -67,44 +78,32 @@ public class CountryController {
     }
   }
 
-  /**
-   * Обрабатывает POST запрос для добавления стран в большом количестве.
-   *
-   * @param countries Список стран для добавления
-   * @return ResponseEntity с информацией о статусе операции
-   */
-  @PostMapping("/bulk")
-  @CrossOrigin
-  public ResponseEntity<?> addCountriesBulk(@RequestBody List<Country> countries) {
-    log.info("post-запрос для Country был вызван!");
-    try {
-      countryService.addCountriesBulk(countries);
-      log.info("Страны были успешно сохранены!");
-      return ResponseEntity.ok("Страны были успешно сохранены!");
-    } catch (CountryAlreadyExistException e) {
-      log.warn(e.getMessage());
-      return ResponseEntity.badRequest().body(e.getMessage());
-    } catch (Exception e) {
-      log.error("Произошла ошибка при добавлении стран", e);
-      return ResponseEntity.badRequest().body(ERROR_MESSAGE);
-    }
-  }
-
   /**
    * Endpoint to retrieve a country by its name.
    *
-   * @param name the name of the country to retrieve
-   * @return ResponseEntity with the retrieved country if found, or error message if the country is
-   * not found or any exception occurs
+   * @param name           the name of the country to retrieve
+   * @param ifNoneMatch    the entity tags the client already holds
+   * @param acceptEncoding the content codings the client accepts
+   * @return ResponseEntity with the retrieved country if found, 304 if the client already holds
+   *     it, or error message if the country is not found or any exception occurs
    */
   @GetMapping
   @CrossOrigin
-  public ResponseEntity<?> getCountry(@RequestParam(required = false) String name) {
+  public ResponseEntity<?> getCountry(
+      @RequestParam(required = false) String name,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+      String acceptEncoding) {
     log.info("get_country-запрос для Country был вызван!");
     try {
       requestCounterService.increment();
+      if (name == null || name.isBlank()) {
+        throw new CountryNotFoundException("Название страны не указано");
+      }
+      CountryDto country = countryService.getCountry(name);
       log.info("Страна была успешно получена!");
-      return ResponseEntity.ok(countryService.getCountry(name));
+      return toResponse(responseCache.get("country:" + NameKey.of(name), country), ifNoneMatch,
+          acceptEncoding);
     } catch (CountryNotFoundException e) {
       throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
     } catch (Exception e) {
@@ -112,6 +111,35 @@ public class CountryController {
     }
   }
 
+  /**
+   * Endpoint to retrieve several countries by their names at once.
+   *
+   * @param names the comma-separated names of the countries
+   * @return ResponseEntity with the countries found, in the order of the names, or error message
+   *     if too many names are requested or any exception occurs
+   */
+  @GetMapping("/batch")
+  @CrossOrigin
+  public ResponseEntity<?> getCountriesByNames(@RequestParam List<String> names) {
+    log.info("get_countries_batch-запрос для Country был вызван!");
+    return countriesByNames(names);
+  }
+
+  /**
+   * Endpoint to retrieve several countries by their names at once, for lists that are too long
+   * for a query string or names that contain commas.
+   *
+   * @param names the names of the countries
+   * @return ResponseEntity with the countries found, in the order of the names, or error message
+   *     if too many names are requested or any exception occurs
+   */
+  @PostMapping("/batch")
+  @CrossOrigin
+  public ResponseEntity<?> postCountriesByNames(@RequestBody List<String> names) {
+    log.info("post_countries_batch-запрос для Country был вызван!");
+    return countriesByNames(names);
+  }
+
   @GetMapping("/getRequestCount")
   public String getRequestCount() {
     int requestCount = requestCounterService.getCount();
@@ -121,18 +149,25 @@ public class CountryController {
   /**
    * Endpoint to retrieve countries with a specific language.
    *
-   * @param languageId the ID of the language
-   * @return ResponseEntity with the list of countries with the specified language, or error message
-   *     if any exception occurs
+   * @param languageId     the ID of the language
+   * @param ifNoneMatch    the entity tags the client already holds
+   * @param acceptEncoding the content codings the client accepts
+   * @return ResponseEntity with the list of countries with the specified language, 304 if the
+   *     client already holds it, or error message if any exception occurs
    */
   @GetMapping("/with-language")
   @CrossOrigin
-  public ResponseEntity<?> getCountriesWithLanguage(@RequestParam Long languageId) {
+  public ResponseEntity<?> getCountriesWithLanguage(
+      @RequestParam Long languageId,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+      String acceptEncoding) {
     log.info("get_countries_with_language-запрос был вызван!");
     try {
       List<CountryDto> countries = countryService.getCountriesWithLanguage(languageId);
       log.info("Страна c языками была успешно получена!");
-      return ResponseEntity.ok(countries);
+      return toResponse(responseCache.get("with-language:" + languageId, countries), ifNoneMatch,
+          acceptEncoding);
     } catch (CountryNotFoundException e) {
       throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
     } catch (Exception e) {
@@ -140,6 +175,57 @@ public class CountryController {
     }
   }
 
+  /**
+   * Endpoint to list countries page by page.
+   *
+   * @param cursor the token returned with the previous page, or absent for the first page
+   * @param size   the page size, capped at the configured maximum
+   * @return ResponseEntity with the page of countries and the token of the next page, or error
+   *     message if the cursor or size is invalid or any exception occurs
+   */
+  @GetMapping("/page")
+  @CrossOrigin
+  public ResponseEntity<?> getCountries(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size) {
+    log.info("get_countries-запрос для Country был вызван!");
+    try {
+      PageDto<CountryDto> page = countryService.getCountries(cursor, size);
+      log.info("Страница стран была успешно получена!");
+      return ResponseEntity.ok(page);
+    } catch (IllegalArgumentException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().body(ERROR_MESSAGE);
+    }
+  }
+
+  /**
+   * Endpoint to list the countries with a language page by page.
+   *
+   * @param languageId the ID of the language
+   * @param cursor     the token returned with the previous page, or absent for the first page
+   * @param size       the page size, capped at the configured maximum
+   * @return ResponseEntity with the page of countries and the token of the next page, or error
+   *     message if the cursor or size is invalid or any exception occurs
+   */
+  @GetMapping("/with-language/page")
+  @CrossOrigin
+  public ResponseEntity<?> getCountriesWithLanguagePage(
+      @RequestParam Long languageId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size) {
+    log.info("get_countries_with_language-запрос был вызван!");
+    try {
+      PageDto<CountryDto> page = countryService.getCountriesWithLanguage(languageId, cursor, size);
+      log.info("Страница стран c языком была успешно получена!");
+      return ResponseEntity.ok(page);
+    } catch (IllegalArgumentException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().body(ERROR_MESSAGE);
+    }
+  }
+
   /**
    * Endpoint to update an existing country.
    *
@@ -157,7 +243,7 @@ public class CountryController {
       countryService.updateCountry(name, updatedCountry);
       log.info("Страна была успешно изменена!");
       return ResponseEntity.ok("Страна была успешно изменена");
-    } catch (CountryNotFoundException e) {
+    } catch (CountryNotFoundException | CountryAlreadyExistException e) {
       throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.badRequest().body(ERROR_MESSAGE);
@@ -178,4 +264,49 @@ public class CountryController {
       return ResponseEntity.badRequest().body(ERROR_MESSAGE);
     }
   }
+
+  private ResponseEntity<?> countriesByNames(List<String> names) {
+    try {
+      requestCounterService.increment();
+      List<CountryDto> countries = countryService.getCountriesByNames(names);
+      log.info("Страны были успешно получены!");
+      return ResponseEntity.ok(countries);
+    } catch (IllegalArgumentException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().body(ERROR_MESSAGE);
+    }
+  }
+
+  private static ResponseEntity<?> toResponse(CachedResponse response, String ifNoneMatch,
+                                              String acceptEncoding) {
+    boolean gzipped = response.gzippedBody() != null && acceptsGzip(acceptEncoding);
+    if (response.matches(ifNoneMatch, gzipped)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(response.etag(gzipped))
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+          .build();
+    }
+    ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .eTag(response.etag(gzipped))
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzipped) {
+      return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.gzippedBody());
+    }
+    return builder.body(response.body());
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
 }
@@ -0,0 +1,66 @@
+package com.example.countries.controller;
+
+import com.example.countries.service.ExportService;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Controller class for the full data exports.
+ */
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+
+  private final ExportService exportService;
+  private final Logger log = LoggerFactory.getLogger(ExportController.class);
+
+  /**
+   * Constructor for ExportController.
+   *
+   * @param exportService an instance of ExportService writing the dumps
+   */
+  public ExportController(ExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  /**
+   * Endpoint to download all countries with their cities and languages. The body is streamed
+   * while it is read from the database.
+   *
+   * @param format the output format, {@code ndjson} or {@code csv}
+   * @return ResponseEntity streaming the dump
+   */
+  @GetMapping("/countries")
+  public ResponseEntity<StreamingResponseBody> exportCountries(
+      @RequestParam(defaultValue = "ndjson") String format) {
+    log.info("export-запрос для Country был вызван!");
+    ExportService.Format exportFormat;
+    try {
+      exportFormat = ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST,
+          "Неизвестный формат выгрузки: " + format);
+    }
+    StreamingResponseBody body = out -> {
+      long countries = exportService.export(exportFormat, out);
+      log.info("Выгружено стран: {}", countries);
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("countries." + exportFormat.getExtension()).build().toString())
+        .body(body);
+  }
+}
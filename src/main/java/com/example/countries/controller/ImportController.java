@@ -0,0 +1,132 @@
+package com.example.countries.controller;
+
+import com.example.countries.component.ImportJob;
+import com.example.countries.dto.ImportJobDto;
+import com.example.countries.dto.SyncReportDto;
+import com.example.countries.entity.Country;
+import com.example.countries.service.ImportJobService;
+import com.example.countries.service.RestCountriesSyncService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Controller class for the bulk imports of countries.
+ */
+@RestController
+@RequestMapping("/countries/bulk")
+public class ImportController {
+  static final String RETRY_AFTER_SECONDS = "30";
+  static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+  private final ImportJobService importJobService;
+  private final RestCountriesSyncService restCountriesSyncService;
+  private final Logger log = LoggerFactory.getLogger(ImportController.class);
+
+  /**
+   * Constructor for ImportController.
+   *
+   * @param importJobService         an instance of ImportJobService running the imports
+   * @param restCountriesSyncService an instance of RestCountriesSyncService synchronizing the
+   *                                 countries with a restcountries.com dump
+   */
+  public ImportController(ImportJobService importJobService,
+                          RestCountriesSyncService restCountriesSyncService) {
+    this.importJobService = importJobService;
+    this.restCountriesSyncService = restCountriesSyncService;
+  }
+
+  /**
+   * Обрабатывает POST запрос для добавления стран в большом количестве. The body is a JSON array
+   * of countries or newline-delimited JSON with one country per line; it is read one country at a
+   * time and stored in chunks while it is still arriving, so its size is not limited by memory.
+   *
+   * @param body the stream of the request body
+   * @return ResponseEntity с итогами импорта и странами, которые не были добавлены: 200, если
+   *     добавлена хотя бы одна страна, иначе 400
+   */
+  @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+  @CrossOrigin
+  public ResponseEntity<?> addCountriesBulk(InputStream body) {
+    log.info("post-запрос для Country был вызван!");
+    ImportJobDto result = importJobService.ingest(body).snapshot();
+    log.info("Добавлено стран: {}, пропущено: {}, с ошибкой: {}", result.getCreated(),
+        result.getSkipped(), result.getFailed());
+    boolean created = result.getStatus() == ImportJob.Status.COMPLETED && result.getCreated() > 0;
+    return ResponseEntity.status(created ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(result);
+  }
+
+  /**
+   * Endpoint to import a list of countries in the background.
+   *
+   * @param countries the countries to import
+   * @return ResponseEntity with status 202 and the queued job, whose URL is in the Location
+   *     header, or 429 if too many imports are already waiting
+   */
+  @PostMapping("/jobs")
+  @CrossOrigin
+  public ResponseEntity<?> submit(@RequestBody List<Country> countries) {
+    log.info("import-запрос для Country был вызван!");
+    try {
+      ImportJob job = importJobService.submit(countries);
+      return ResponseEntity.accepted()
+          .location(URI.create("/countries/bulk/jobs/" + job.getId()))
+          .body(job.snapshot());
+    } catch (RejectedExecutionException e) {
+      log.warn("Очередь импорта заполнена");
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+          .body("Слишком много импортов в очереди, повторите позже");
+    }
+  }
+
+  /**
+   * Endpoint to retrieve the progress of an import.
+   *
+   * @param id the ID of the job
+   * @return ResponseEntity with the progress, throughput and failed items of the job, or
+   *     400 if the job does not exist
+   */
+  @GetMapping("/jobs/{id}")
+  @CrossOrigin
+  public ResponseEntity<?> getJob(@PathVariable String id) {
+    ImportJob job = importJobService.getJob(id);
+    if (job == null) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Задача импорта не найдена");
+    }
+    return ResponseEntity.ok(job.snapshot());
+  }
+
+  /**
+   * Endpoint to synchronize the countries with the configured restcountries.com dump.
+   *
+   * @return ResponseEntity with the counts of new, changed and unchanged countries and the
+   *     elapsed time
+   */
+  @PostMapping("/rest-countries")
+  @CrossOrigin
+  public ResponseEntity<SyncReportDto> syncRestCountries() {
+    log.info("sync-запрос для Country был вызван!");
+    try {
+      return ResponseEntity.ok(restCountriesSyncService.sync());
+    } catch (IOException | IllegalStateException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+}
@@ -1,10 +1,14 @@
 package com.example.countries.controller;
 
+import com.example.countries.dto.BulkResultDto;
+import com.example.countries.dto.LanguageDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.Language;
 import com.example.countries.exception.CountryNotFoundException;
 import com.example.countries.exception.LanguageAlreadyExistException;
 import com.example.countries.exception.LanguageNotFoundException;
 import com.example.countries.service.LanguageService;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -64,6 +68,29 @@ public class LanguageController {
     }
   }
 
+  /**
+   * Endpoint to add many languages to a country at once.
+   *
+   * @param countryId the ID of the country to which the languages belong
+   * @param languages the languages to be added
+   * @return ResponseEntity with the outcome of every language: 200 if at least one language is
+   *     added, otherwise 400
+   */
+  @PostMapping("/bulk")
+  public ResponseEntity<?> addLanguagesBulk(@RequestParam Long countryId,
+                                            @RequestBody List<Language> languages) {
+    log.info("post-запрос для списка Language был вызван!");
+    try {
+      BulkResultDto result = languageService.addLanguagesBulk(countryId, languages);
+      log.info("Добавлено языков: {}, пропущено: {}, с ошибкой: {}", result.getCreated(),
+          result.getSkipped(), result.getFailed());
+      return ResponseEntity.status(result.getCreated() > 0 ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+          .body(result);
+    } catch (CountryNotFoundException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
   /**
    * Endpoint to retrieve a language by its ID.
    *
@@ -85,6 +112,30 @@ public class LanguageController {
     }
   }
 
+  /**
+   * Endpoint to list languages page by page.
+   *
+   * @param cursor the token returned with the previous page, or absent for the first page
+   * @param size   the page size, capped at the configured maximum
+   * @return ResponseEntity with the page of languages and the token of the next page, or error
+   *     message if the cursor or size is invalid or any exception occurs
+   */
+  @GetMapping("/page")
+  @CrossOrigin
+  public ResponseEntity<?> getLanguages(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size) {
+    log.info("get-запрос для списка Language был вызван!");
+    try {
+      PageDto<LanguageDto> page = languageService.getLanguages(cursor, size);
+      log.info("Страница языков была успешно получена!");
+      return ResponseEntity.ok(page);
+    } catch (IllegalArgumentException e) {
+      throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().body(ERROR_MESSAGE);
+    }
+  }
+
   /**
    * Endpoint to update an existing language.
    *
@@ -101,7 +152,7 @@ public class LanguageController {
       languageService.updateLanguage(id, updatedLanguage);
       log.info("Язык был успешно изменен!");
       return ResponseEntity.ok("Язык был успешно изменен!");
-    } catch (LanguageNotFoundException e) {
+    } catch (LanguageNotFoundException | LanguageAlreadyExistException e) {
       throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.badRequest().body(ERROR_MESSAGE);
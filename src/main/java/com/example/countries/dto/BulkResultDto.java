@@ -0,0 +1,107 @@
+package com.example.countries.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) class reporting the outcome of each item of a bulk request.
+ */
+public class BulkResultDto {
+  private final List<Item> items;
+  private int created;
+  private int skipped;
+  private int failed;
+
+  /**
+   * Outcomes of a bulk item.
+   */
+  public enum Outcome {
+    /** The item was stored. */
+    CREATED,
+    /** An item with the same name is already stored. */
+    ALREADY_EXISTS,
+    /** An earlier item of the same request has the same name. */
+    DUPLICATE,
+    /** The item has no name. */
+    INVALID,
+    /** The item could not be stored. */
+    FAILED
+  }
+
+  /**
+   * The outcome of one item of a bulk request.
+   *
+   * @param index   the position of the item in the request
+   * @param name    the name of the item
+   * @param outcome the outcome
+   * @param message the reason of a failure, or null
+   */
+  public record Item(int index, String name, Outcome outcome, String message) {
+  }
+
+  /**
+   * Constructs a new BulkResultDto instance.
+   *
+   * @param size the number of items in the request
+   */
+  public BulkResultDto(int size) {
+    this.items = new ArrayList<>(Collections.nCopies(size, null));
+  }
+
+  /**
+   * Records the outcome of an item.
+   *
+   * @param index   the position of the item in the request
+   * @param name    the name of the item
+   * @param outcome the outcome
+   * @param message the reason of a failure, or null
+   */
+  public void add(int index, String name, Outcome outcome, String message) {
+    items.set(index, new Item(index, name, outcome, message));
+    if (outcome == Outcome.CREATED) {
+      created++;
+    } else if (outcome == Outcome.FAILED) {
+      failed++;
+    } else {
+      skipped++;
+    }
+  }
+
+  /**
+   * Gets the outcomes of the items, in the order of the request.
+   *
+   * @return the outcomes of the items
+   */
+  public List<Item> getItems() {
+    return items;
+  }
+
+  /**
+   * Gets the number of stored items.
+   *
+   * @return the number of stored items
+   */
+  public int getCreated() {
+    return created;
+  }
+
+  /**
+   * Gets the number of items that were left out because they already exist, are repeated or are
+   * invalid.
+   *
+   * @return the number of skipped items
+   */
+  public int getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Gets the number of items that could not be stored.
+   *
+   * @return the number of failed items
+   */
+  public int getFailed() {
+    return failed;
+  }
+}
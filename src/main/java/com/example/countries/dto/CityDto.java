@@ -1,12 +1,15 @@
 package com.example.countries.dto;
 
 import com.example.countries.entity.City;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Data Transfer Object (DTO) class representing city information.
  */
 public class CityDto {
+  private Long id;
   private String name;
+  private Long countryId;
 
   /**
    * Converts a City entity to a CityDto model.
@@ -16,7 +19,11 @@ public class CityDto {
    */
   public static CityDto toModel(City entity) {
     CityDto model = new CityDto();
+    model.setId(entity.getId());
     model.setName(entity.getName());
+    if (entity.getCountry() != null) {
+      model.setCountryId(entity.getCountry().getId());
+    }
     return model;
   }
 
@@ -28,6 +35,40 @@ public class CityDto {
     // No initialization logic needed for this constructor
   }
 
+  /**
+   * Constructs a new CityDto instance from the selected columns of a city. Used by the
+   * constructor projections of the city repository.
+   *
+   * @param id        the ID of the city
+   * @param name      the name of the city
+   * @param countryId the ID of the country the city belongs to
+   */
+  public CityDto(Long id, String name, Long countryId) {
+    this.id = id;
+    this.name = name;
+    this.countryId = countryId;
+  }
+
+  /**
+   * Gets the ID of the city the DTO was read from. The ID is used to build page cursors and is
+   * not serialized.
+   *
+   * @return the ID of the city, or null if unknown
+   */
+  @JsonIgnore
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * Sets the ID of the city the DTO was read from.
+   *
+   * @param id the ID of the city
+   */
+  public void setId(Long id) {
+    this.id = id;
+  }
+
   /**
    * Gets the name of the city.
    *
@@ -45,4 +86,24 @@ public class CityDto {
   public void setName(String name) {
     this.name = name;
   }
+
+  /**
+   * Gets the ID of the country the city belongs to. The ID is used to tag cache entries and is
+   * not serialized.
+   *
+   * @return the ID of the country, or null if unknown
+   */
+  @JsonIgnore
+  public Long getCountryId() {
+    return countryId;
+  }
+
+  /**
+   * Sets the ID of the country the city belongs to.
+   *
+   * @param countryId the ID of the country
+   */
+  public void setCountryId(Long countryId) {
+    this.countryId = countryId;
+  }
 }
@@ -1,11 +1,13 @@
 package com.example.countries.dto;
 
 import com.example.countries.entity.Country;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Data Transfer Object (DTO) class representing country information.
  */
 public class CountryDto {
+  private Long id;
   private String name;
   private String capital;
 
@@ -17,6 +19,7 @@ public class CountryDto {
    */
   public static CountryDto toModel(Country entity) {
     CountryDto model = new CountryDto();
+    model.setId(entity.getId());
     model.setName(entity.getName());
     model.setCapital(entity.getCapital());
     return model;
@@ -30,6 +33,40 @@ public class CountryDto {
     // No initialization logic needed for this constructor
   }
 
+  /**
+   * Constructs a new CountryDto instance from the selected columns of a country. Used by the
+   * constructor projections of the country repository.
+   *
+   * @param id      the ID of the country
+   * @param name    the name of the country
+   * @param capital the capital of the country
+   */
+  public CountryDto(Long id, String name, String capital) {
+    this.id = id;
+    this.name = name;
+    this.capital = capital;
+  }
+
+  /**
+   * Gets the ID of the country the DTO was read from. The ID is used to tag cache entries and to
+   * build page cursors, and is not serialized.
+   *
+   * @return the ID of the country, or null if unknown
+   */
+  @JsonIgnore
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * Sets the ID of the country the DTO was read from.
+   *
+   * @param id the ID of the country
+   */
+  public void setId(Long id) {
+    this.id = id;
+  }
+
   /**
    * Gets the name of the country.
    *
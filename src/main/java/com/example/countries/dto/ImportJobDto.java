@@ -0,0 +1,97 @@
+package com.example.countries.dto;
+
+import com.example.countries.component.ImportJob;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) class representing the progress of an asynchronous bulk import.
+ */
+public class ImportJobDto {
+  private final String id;
+  private final ImportJob.Status status;
+  private final Instant submittedAt;
+  private final int total;
+  private final int processed;
+  private final int created;
+  private final int skipped;
+  private final int failed;
+  private final long itemsPerSecond;
+  private final String error;
+  private final List<BulkResultDto.Item> failures;
+
+  /**
+   * Constructs a new ImportJobDto instance.
+   *
+   * @param id             the ID of the job
+   * @param status         the state of the job
+   * @param submittedAt    when the job was submitted
+   * @param total          the number of items to import
+   * @param processed      the number of items processed so far
+   * @param created        the number of items stored
+   * @param skipped        the number of items left out as existing, repeated or invalid
+   * @param failed         the number of items that could not be stored
+   * @param itemsPerSecond the processing rate since the job started
+   * @param error          the error that stopped the job, or null
+   * @param failures       the outcomes of the items that were not stored
+   */
+  public ImportJobDto(String id, ImportJob.Status status, Instant submittedAt, int total,
+                      int processed, int created, int skipped, int failed, long itemsPerSecond,
+                      String error, List<BulkResultDto.Item> failures) {
+    this.id = id;
+    this.status = status;
+    this.submittedAt = submittedAt;
+    this.total = total;
+    this.processed = processed;
+    this.created = created;
+    this.skipped = skipped;
+    this.failed = failed;
+    this.itemsPerSecond = itemsPerSecond;
+    this.error = error;
+    this.failures = failures;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public ImportJob.Status getStatus() {
+    return status;
+  }
+
+  public Instant getSubmittedAt() {
+    return submittedAt;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public int getProcessed() {
+    return processed;
+  }
+
+  public int getCreated() {
+    return created;
+  }
+
+  public int getSkipped() {
+    return skipped;
+  }
+
+  public int getFailed() {
+    return failed;
+  }
+
+  public long getItemsPerSecond() {
+    return itemsPerSecond;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public List<BulkResultDto.Item> getFailures() {
+    return failures;
+  }
+}
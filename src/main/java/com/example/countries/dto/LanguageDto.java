@@ -1,11 +1,13 @@
 package com.example.countries.dto;
 
 import com.example.countries.entity.Language;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Data Transfer Object (DTO) class representing language information.
  */
 public class LanguageDto {
+  private Long id;
   private String name;
 
   /**
@@ -16,6 +18,7 @@ public class LanguageDto {
    */
   public static LanguageDto toModel(Language entity) {
     LanguageDto model = new LanguageDto();
+    model.setId(entity.getId());
     model.setName(entity.getName());
     return model;
   }
@@ -28,6 +31,38 @@ public class LanguageDto {
     // No initialization logic needed for this constructor
   }
 
+  /**
+   * Constructs a new LanguageDto instance from the selected columns of a language. Used by the
+   * constructor projections of the language repository.
+   *
+   * @param id   the ID of the language
+   * @param name the name of the language
+   */
+  public LanguageDto(Long id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  /**
+   * Gets the ID of the language the DTO was read from. The ID is used to build page cursors and
+   * is not serialized.
+   *
+   * @return the ID of the language, or null if unknown
+   */
+  @JsonIgnore
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * Sets the ID of the language the DTO was read from.
+   *
+   * @param id the ID of the language
+   */
+  public void setId(Long id) {
+    this.id = id;
+  }
+
   /**
    * Gets the name of the language.
    *
@@ -0,0 +1,62 @@
+package com.example.countries.dto;
+
+import com.example.countries.component.PageCursor;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Data Transfer Object (DTO) class representing one page of a keyset-paginated list.
+ *
+ * @param <T> the type of the items
+ */
+public class PageDto<T> {
+  private final List<T> items;
+  private final String nextCursor;
+
+  /**
+   * Builds a page from rows read with a limit of one more than the page size. The extra row is
+   * only used to tell whether another page follows and is dropped.
+   *
+   * @param rows     the rows read, ordered by ID
+   * @param pageSize the page size
+   * @param id       returns the ID of a row
+   * @param <T>      the type of the items
+   * @return the page
+   */
+  public static <T> PageDto<T> of(List<T> rows, int pageSize, ToLongFunction<T> id) {
+    if (rows.size() <= pageSize) {
+      return new PageDto<>(rows, null);
+    }
+    List<T> items = rows.subList(0, pageSize);
+    return new PageDto<>(items, PageCursor.encode(id.applyAsLong(items.get(pageSize - 1))));
+  }
+
+  /**
+   * Constructs a new PageDto instance.
+   *
+   * @param items      the items of the page
+   * @param nextCursor the token of the next page, or null if this is the last page
+   */
+  public PageDto(List<T> items, String nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Gets the items of the page.
+   *
+   * @return the items of the page
+   */
+  public List<T> getItems() {
+    return items;
+  }
+
+  /**
+   * Gets the token to pass as {@code cursor} to read the next page.
+   *
+   * @return the token of the next page, or null if this is the last page
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.countries.dto;
+
+/**
+ * Data Transfer Object (DTO) class reporting the outcome of a sync from a country dump.
+ */
+public class SyncReportDto {
+  private int created;
+  private int changed;
+  private int unchanged;
+  private int invalid;
+  private int failed;
+  private long elapsedMillis;
+
+  /**
+   * Adds the counts of another report, leaving the elapsed time unchanged.
+   *
+   * @param other the report to add
+   */
+  public void add(SyncReportDto other) {
+    created += other.created;
+    changed += other.changed;
+    unchanged += other.unchanged;
+    invalid += other.invalid;
+    failed += other.failed;
+  }
+
+  public int getCreated() {
+    return created;
+  }
+
+  public void setCreated(int created) {
+    this.created = created;
+  }
+
+  public int getChanged() {
+    return changed;
+  }
+
+  public void setChanged(int changed) {
+    this.changed = changed;
+  }
+
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  public void setUnchanged(int unchanged) {
+    this.unchanged = unchanged;
+  }
+
+  public int getInvalid() {
+    return invalid;
+  }
+
+  public void setInvalid(int invalid) {
+    this.invalid = invalid;
+  }
+
+  public int getFailed() {
+    return failed;
+  }
+
+  public void setFailed(int failed) {
+    this.failed = failed;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  public void setElapsedMillis(long elapsedMillis) {
+    this.elapsedMillis = elapsedMillis;
+  }
+}
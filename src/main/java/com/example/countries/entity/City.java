@@ -1,23 +1,33 @@
 package com.example.countries.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Entity class representing a city.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = City.NAME_CONSTRAINT, columnNames = "name"))
 public class City {
+  /** The unique constraint on the city name. */
+  public static final String NAME_CONSTRAINT = "uk_city_name";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(generator = "city_id")
+  @GenericGenerator(name = "city_id", type = PooledIdGenerator.class,
+      parameters = @Parameter(name = PooledIdGenerator.SEQUENCE_PARAM, value = "city_seq"))
   private Long id;
   private String name;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "countryId")
   private Country country;
 
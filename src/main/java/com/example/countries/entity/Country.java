@@ -1,35 +1,67 @@
 package com.example.countries.entity;
 
+import com.example.countries.component.NameKey;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.util.ArrayList;
 import java.util.List;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Entity class representing a country.
+ *
+ * <p>Cities and languages are loaded lazily. Flows that need the languages load the country with
+ * the {@value #WITH_LANGUAGES} entity graph.
  */
 @Entity
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = Country.NAME_CONSTRAINT, columnNames = "name"),
+    @UniqueConstraint(name = Country.NAME_KEY_CONSTRAINT, columnNames = "nameKey")})
+@NamedEntityGraph(name = Country.WITH_LANGUAGES,
+    attributeNodes = @NamedAttributeNode("languageList"))
 public class Country {
+  /** The entity graph loading a country together with its languages. */
+  public static final String WITH_LANGUAGES = "Country.withLanguages";
+  /** The unique constraint on the country name. */
+  public static final String NAME_CONSTRAINT = "uk_country_name";
+  /** The unique constraint on the normalized key of the country name. */
+  public static final String NAME_KEY_CONSTRAINT = "uk_country_name_key";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(generator = "country_id")
+  @GenericGenerator(name = "country_id", type = PooledIdGenerator.class,
+      parameters = @Parameter(name = PooledIdGenerator.SEQUENCE_PARAM, value = "country_seq"))
   private Long id;
   private String name;
   private String capital;
 
-  @OneToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE,
+  @JsonIgnore
+  private String nameKey;
+
+  @JsonIgnore
+  @Column(length = 64)
+  private String contentHash;
+
+  @OneToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE,
       CascadeType.REMOVE}, mappedBy = "country")
   private List<City> cityList = new ArrayList<>();
 
-  @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+  @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
   @JoinTable(name = "COUNTRY_LANGUAGE_MAPPING",
       joinColumns = @JoinColumn(name = "countryId"),
       inverseJoinColumns = @JoinColumn(name = "languageId"))
@@ -44,18 +76,22 @@ public class Country {
   }
 
   public Country(String name) {
-    this.name = name;
+    setName(name);
   }
 
 
   /**
-   * Constructs a new Country instance from a JSON node.
+   * Constructs a new Country instance from a record of the restcountries.com API. The capital is
+   * a list in that schema; the first entry is taken.
    *
    * @param jsonNode the JSON node representing country data
    */
   public Country(JsonNode jsonNode) {
-    this.name = jsonNode.get("name").get("common").asText();
+    setName(jsonNode.get("name").get("common").asText());
     JsonNode capitalNode = jsonNode.get("capital");
+    if (capitalNode != null && capitalNode.isArray()) {
+      capitalNode = capitalNode.get(0);
+    }
     this.capital = (capitalNode != null && !capitalNode.isNull()) ? capitalNode.asText() : null;
   }
 
@@ -87,12 +123,22 @@ public class Country {
   }
 
   /**
-   * Sets the name of the country.
+   * Sets the name of the country and its normalized key.
    *
    * @param name the name of the country
    */
   public void setName(String name) {
     this.name = name;
+    this.nameKey = NameKey.of(name);
+  }
+
+  /**
+   * Gets the normalized key of the name of the country, under which it is looked up and cached.
+   *
+   * @return the key computed by {@link NameKey#of}
+   */
+  public String getNameKey() {
+    return nameKey;
   }
 
   /**
@@ -113,6 +159,24 @@ public class Country {
     this.capital = capital;
   }
 
+  /**
+   * Gets the fingerprint of the imported content of the country.
+   *
+   * @return the content hash, or null if the country was not imported from a dump
+   */
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  /**
+   * Sets the fingerprint of the imported content of the country.
+   *
+   * @param contentHash the content hash
+   */
+  public void setContentHash(String contentHash) {
+    this.contentHash = contentHash;
+  }
+
   /**
    * Gets the list of cities in the country.
    *
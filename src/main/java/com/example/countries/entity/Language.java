@@ -3,25 +3,35 @@ package com.example.countries.entity;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.util.ArrayList;
 import java.util.List;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Entity class representing a language.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Language.NAME_CONSTRAINT,
+    columnNames = "name"))
 public class Language {
+  /** The unique constraint on the language name. */
+  public static final String NAME_CONSTRAINT = "uk_language_name";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(generator = "language_id")
+  @GenericGenerator(name = "language_id", type = PooledIdGenerator.class,
+      parameters = @Parameter(name = PooledIdGenerator.SEQUENCE_PARAM, value = "language_seq"))
   private Long id;
   private String name;
 
-  @ManyToMany(fetch = FetchType.EAGER)
+  @ManyToMany(fetch = FetchType.LAZY)
   @JoinTable(name = "COUNTRY_LANGUAGE_MAPPING",
       joinColumns = @JoinColumn(name = "languageId"),
       inverseJoinColumns = @JoinColumn(name = "countryId"))
@@ -0,0 +1,43 @@
+package com.example.countries.entity;
+
+import java.util.Properties;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Generates entity IDs from blocks reserved in the database, one round trip per block.
+ *
+ * <p>Each entity has its own sequence, named by the {@value #SEQUENCE_PARAM} parameter; databases
+ * without sequences, such as MySQL, get a one-row table of that name instead. Reserving a block
+ * advances the sequence by the block size atomically (the table is updated in a separate
+ * transaction with a compare-and-set on the current value), so any number of application
+ * instances can share the database without handing out the same ID. IDs are then assigned from
+ * the reserved block in memory with the pooled-lo optimizer: the value read is the lowest ID of
+ * the block. IDs left in a block when an instance stops are never used.
+ *
+ * <p>The block size is read from the {@value #BLOCK_SIZE_SETTING} Hibernate setting and defaults
+ * to {@value #DEFAULT_BLOCK_SIZE}. It may be changed between restarts: the stored value is always
+ * above every ID handed out, whatever block size reserved it.
+ */
+public class PooledIdGenerator extends SequenceStyleGenerator {
+  /** The Hibernate setting holding the number of IDs reserved at a time. */
+  public static final String BLOCK_SIZE_SETTING = "countries.id.block-size";
+  static final int DEFAULT_BLOCK_SIZE = 50;
+
+  @Override
+  public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+    int blockSize = ConfigurationHelper.getInt(BLOCK_SIZE_SETTING,
+        serviceRegistry.requireService(ConfigurationService.class).getSettings(),
+        DEFAULT_BLOCK_SIZE);
+    if (blockSize < 1) {
+      throw new IllegalArgumentException(BLOCK_SIZE_SETTING + " must be positive");
+    }
+    parameters.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+    parameters.setProperty(OPTIMIZER, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+    super.configure(type, parameters, serviceRegistry);
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.countries.exception;
+
+/**
+ * Exception indicating that a cache load could not be awaited.
+ */
+public class CacheLoadException extends RuntimeException {
+
+  /**
+   * Constructs a new CacheLoadException with the specified detail message and cause.
+   *
+   * @param message the detail message (which is saved for later retrieval by the getMessage()
+   *               method)
+   * @param cause   the cause of the failure
+   */
+  public CacheLoadException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
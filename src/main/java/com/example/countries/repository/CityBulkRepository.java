@@ -0,0 +1,22 @@
+package com.example.countries.repository;
+
+import com.example.countries.entity.City;
+import java.util.List;
+
+/**
+ * Repository fragment inserting cities in JDBC batches.
+ */
+public interface CityBulkRepository {
+
+  /**
+   * Inserts new cities of a country in one transaction. The country is referenced by its ID
+   * without being loaded. The inserts are flushed every {@code hibernate.jdbc.batch_size} cities,
+   * which Hibernate sends as JDBC batches, and the persistence context is cleared after each
+   * flush. If the insert fails, the generated IDs are removed again, so that the same cities can
+   * be passed to a retry.
+   *
+   * @param countryId the ID of the country the cities belong to
+   * @param cities    the cities to insert, none of which may have an ID
+   */
+  void insertAll(Long countryId, List<City> cities);
+}
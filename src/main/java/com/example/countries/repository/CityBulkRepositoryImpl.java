@@ -0,0 +1,43 @@
+package com.example.countries.repository;
+
+import com.example.countries.entity.City;
+import com.example.countries.entity.Country;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Implementation of {@link CityBulkRepository}, picked up by Spring Data through its name.
+ */
+public class CityBulkRepositoryImpl implements CityBulkRepository {
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1}")
+  private int batchSize;
+
+  @Override
+  @Transactional
+  public void insertAll(Long countryId, List<City> cities) {
+    try {
+      Country country = entityManager.getReference(Country.class, countryId);
+      for (int i = 0; i < cities.size(); i++) {
+        City city = cities.get(i);
+        city.setCountry(country);
+        entityManager.persist(city);
+        if ((i + 1) % batchSize == 0) {
+          entityManager.flush();
+          entityManager.clear();
+          country = entityManager.getReference(Country.class, countryId);
+        }
+      }
+      entityManager.flush();
+      entityManager.clear();
+    } catch (RuntimeException e) {
+      cities.forEach(city -> city.setId(null));
+      throw e;
+    }
+  }
+}
@@ -1,18 +1,86 @@
 package com.example.countries.repository;
 
+import com.example.countries.dto.CityDto;
 import com.example.countries.entity.City;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 /**
  * Repository interface for managing City entities.
  */
-public interface CityRepository extends CrudRepository<City, Long> {
+public interface CityRepository extends CrudRepository<City, Long>, CityBulkRepository {
 
   /**
-   * Finds a city by its name.
+   * Finds which of the given names are taken by stored cities. Callers pass the names in chunks,
+   * so that the statement stays within the parameter limits of the database.
    *
-   * @param name the name of the city to find
-   * @return the city with the specified name, or null if not found
+   * @param names the names to look up
+   * @return the names among {@code names} that stored cities have
    */
-  City findByName(String name);
+  @Query("SELECT c.name FROM City c WHERE c.name IN :names")
+  List<String> findExistingNames(Collection<String> names);
+
+  /**
+   * Finds a city by its ID together with its country and the cities of that country.
+   *
+   * @param id the ID of the city to find
+   * @return the city with its country and the country's cities loaded, or empty if not found
+   */
+  @Query("SELECT c FROM City c JOIN FETCH c.country co LEFT JOIN FETCH co.cityList "
+      + "WHERE c.id = :id")
+  Optional<City> findWithCountryCitiesById(Long id);
+
+  /**
+   * Reads the DTO of a city by its ID without loading the entity.
+   *
+   * @param id the ID of the city to find
+   * @return the DTO of the city, or empty if not found
+   */
+  @Query("SELECT new com.example.countries.dto.CityDto(c.id, c.name, c.country.id) FROM City c "
+      + "WHERE c.id = :id")
+  Optional<CityDto> findDtoById(Long id);
+
+  /**
+   * Reads a page of city DTOs ordered by ID, starting after a given ID.
+   *
+   * @param afterId the ID of the last city of the previous page, or 0 for the first page
+   * @param limit   the maximum number of cities to read
+   * @return the DTOs of the cities with an ID greater than {@code afterId}
+   */
+  @Query("SELECT new com.example.countries.dto.CityDto(c.id, c.name, c.country.id) FROM City c "
+      + "WHERE c.id > :afterId ORDER BY c.id")
+  List<CityDto> findDtosAfter(long afterId, Limit limit);
+
+  /**
+   * Reads a page of the DTOs of the cities of a country, ordered by ID, starting after a given
+   * ID.
+   *
+   * @param countryId the ID of the country
+   * @param afterId   the ID of the last city of the previous page, or 0 for the first page
+   * @param limit     the maximum number of cities to read
+   * @return the DTOs of the cities of the country with an ID greater than {@code afterId}
+   */
+  @Query("SELECT new com.example.countries.dto.CityDto(c.id, c.name, c.country.id) FROM City c "
+      + "WHERE c.country.id = :countryId AND c.id > :afterId ORDER BY c.id")
+  List<CityDto> findDtosByCountryAfter(Long countryId, long afterId, Limit limit);
+
+  /**
+   * Streams the DTOs of all cities that belong to a country, ordered by country ID and city ID,
+   * fetching rows from the database in batches. The stream must be consumed and closed within a
+   * transaction.
+   *
+   * @return the stream of city DTOs
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("SELECT new com.example.countries.dto.CityDto(c.id, c.name, c.country.id) FROM City c "
+      + "WHERE c.country.id IS NOT NULL ORDER BY c.country.id, c.id")
+  Stream<CityDto> streamAllByCountry();
 }
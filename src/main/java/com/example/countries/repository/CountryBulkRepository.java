@@ -0,0 +1,35 @@
+package com.example.countries.repository;
+
+import com.example.countries.entity.Country;
+import java.util.List;
+
+/**
+ * Repository fragment inserting and updating countries in JDBC batches.
+ */
+public interface CountryBulkRepository {
+
+  /**
+   * Inserts new countries in one transaction. The inserts are flushed every
+   * {@code hibernate.jdbc.batch_size} countries, which Hibernate sends as JDBC batches, and the
+   * persistence context is cleared after each flush so that it does not grow with the input. If
+   * the insert fails, the IDs generated for the new entities are removed again, so that the same
+   * countries can be passed to a retry.
+   *
+   * <p>Languages of the countries are linked, not copied: a language with an ID or with the name
+   * of a stored language is referenced by ID, and a new name is inserted once however many
+   * countries speak it. The language lists of the countries are replaced accordingly and restored
+   * if the insert fails.
+   *
+   * @param countries the countries to insert, none of which may have an ID
+   */
+  void insertAll(List<Country> countries);
+
+  /**
+   * Overwrites the name, name key, capital and content hash of stored countries in one
+   * transaction, without loading them. The {@code UPDATE} statements are sent directly in JDBC
+   * batches of {@code hibernate.jdbc.batch_size} rows.
+   *
+   * @param countries the new content of the countries, each with the ID of the row to overwrite
+   */
+  void updateContentAll(List<Country> countries);
+}
@@ -0,0 +1,130 @@
+package com.example.countries.repository;
+
+import com.example.countries.entity.City;
+import com.example.countries.entity.Country;
+import com.example.countries.entity.Language;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Implementation of {@link CountryBulkRepository}, picked up by Spring Data through its name.
+ */
+public class CountryBulkRepositoryImpl implements CountryBulkRepository {
+  private static final String UPDATE_CONTENT = "UPDATE country SET name = ?, name_key = ?, "
+      + "capital = ?, content_hash = ? WHERE id = ?";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1}")
+  private int batchSize;
+
+  @Override
+  @Transactional
+  public void insertAll(List<Country> countries) {
+    List<Runnable> idResets = new ArrayList<>();
+    Set<String> newLanguageNames = new LinkedHashSet<>();
+    for (Country country : countries) {
+      idResets.add(() -> country.setId(null));
+      for (City city : country.getCityList()) {
+        if (city.getId() == null) {
+          idResets.add(() -> city.setId(null));
+        }
+      }
+      List<Language> languages = country.getLanguageList();
+      idResets.add(() -> country.setLanguageList(languages));
+      for (Language language : languages) {
+        if (language.getId() == null) {
+          idResets.add(() -> language.setId(null));
+          if (language.getName() != null) {
+            newLanguageNames.add(language.getName());
+          }
+        }
+      }
+    }
+    try {
+      Map<String, Long> languageIds = storedLanguageIds(newLanguageNames);
+      for (int i = 0; i < countries.size(); i++) {
+        Country country = countries.get(i);
+        country.setLanguageList(resolveLanguages(country.getLanguageList(), languageIds));
+        entityManager.persist(country);
+        if ((i + 1) % batchSize == 0) {
+          entityManager.flush();
+          entityManager.clear();
+        }
+      }
+      entityManager.flush();
+      entityManager.clear();
+    } catch (RuntimeException e) {
+      idResets.forEach(Runnable::run);
+      throw e;
+    }
+  }
+
+  @Override
+  @Transactional
+  public void updateContentAll(List<Country> countries) {
+    entityManager.unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(UPDATE_CONTENT)) {
+        for (int i = 0; i < countries.size(); i++) {
+          Country country = countries.get(i);
+          statement.setString(1, country.getName());
+          statement.setString(2, country.getNameKey());
+          statement.setString(3, country.getCapital());
+          statement.setString(4, country.getContentHash());
+          statement.setLong(5, country.getId());
+          statement.addBatch();
+          if ((i + 1) % batchSize == 0) {
+            statement.executeBatch();
+          }
+        }
+        statement.executeBatch();
+      }
+    });
+  }
+
+  private Map<String, Long> storedLanguageIds(Set<String> names) {
+    Map<String, Long> ids = new HashMap<>();
+    if (!names.isEmpty()) {
+      entityManager.createQuery("SELECT l.id, l.name FROM Language l WHERE l.name IN :names",
+              Object[].class)
+          .setParameter("names", names)
+          .getResultList()
+          .forEach(row -> ids.put((String) row[1], (Long) row[0]));
+    }
+    return ids;
+  }
+
+  /**
+   * Replaces the languages of a country by references to stored rows, so that persisting the
+   * country cascades only to languages that are really new. Languages with an ID and languages
+   * whose name is stored or was inserted earlier in the call are referenced by ID; the first
+   * language of every other name is persisted and its ID remembered for the following countries.
+   */
+  private List<Language> resolveLanguages(List<Language> languages, Map<String, Long> ids) {
+    List<Language> resolved = new ArrayList<>(languages.size());
+    for (Language language : languages) {
+      Long id = language.getId() != null ? language.getId() : ids.get(language.getName());
+      if (id != null) {
+        resolved.add(entityManager.getReference(Language.class, id));
+        continue;
+      }
+      entityManager.persist(language);
+      if (language.getName() != null) {
+        ids.put(language.getName(), language.getId());
+      }
+      resolved.add(language);
+    }
+    return resolved;
+  }
+}
@@ -1,29 +1,176 @@
 package com.example.countries.repository;
 
+import com.example.countries.dto.CountryDto;
 import com.example.countries.entity.Country;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 /**
  * Repository interface for managing Country entities.
  */
-public interface CountryRepository extends CrudRepository<Country, Long> {
+public interface CountryRepository extends CrudRepository<Country, Long>,
+    CountryBulkRepository {
 
   /**
-   * Finds a country by its name.
+   * Finds a country by the normalized key of its name, with one seek of the unique index on the
+   * key.
    *
-   * @param name the name of the country to find
-   * @return the country with the specified name, or null if not found
+   * @param nameKey the key of the name of the country to find, as computed by
+   *                {@link com.example.countries.component.NameKey#of}
+   * @return the country with the specified name key, or null if not found
    */
-  Country findByName(String name);
+  Country findByNameKey(String nameKey);
 
   /**
-   * Finds countries by the ID of a language in their language list.
+   * Reads the DTO of a country by the normalized key of its name without loading the entity.
+   *
+   * @param nameKey the key of the name of the country to find
+   * @return the DTO of the country with the specified name key, or null if not found
+   */
+  @Query("SELECT new com.example.countries.dto.CountryDto(c.id, c.name, c.capital) "
+      + "FROM Country c WHERE c.nameKey = :nameKey")
+  CountryDto findDtoByNameKey(String nameKey);
+
+  /**
+   * Reads the DTOs of the countries with any of the given name keys in one query.
+   *
+   * @param nameKeys the keys of the names of the countries to find
+   * @return the DTOs of the countries found, in no particular order
+   */
+  @Query("SELECT new com.example.countries.dto.CountryDto(c.id, c.name, c.capital) "
+      + "FROM Country c WHERE c.nameKey IN :nameKeys")
+  List<CountryDto> findDtosByNameKeys(Collection<String> nameKeys);
+
+  /**
+   * Finds a country by its ID together with its languages.
+   *
+   * @param id the ID of the country to find
+   * @return the country with its languages loaded, or empty if not found
+   */
+  @EntityGraph(Country.WITH_LANGUAGES)
+  Optional<Country> findWithLanguagesById(Long id);
+
+  /**
+   * Reads the DTOs of the countries having a language in their language list, without loading
+   * the entities.
    *
    * @param languageId the ID of the language to search for in the language list of countries
-   * @return a list of countries having the specified language in their language list
+   * @return the DTOs of the countries having the specified language in their language list
+   */
+  @Query("SELECT new com.example.countries.dto.CountryDto(d.id, d.name, d.capital) "
+      + "FROM Country d JOIN d.languageList i WHERE i.id = :languageId")
+  List<CountryDto> findDtosByLanguageList_Id(Long languageId);
+
+  /**
+   * Reads a page of country DTOs ordered by ID, starting after a given ID.
+   *
+   * @param afterId the ID of the last country of the previous page, or 0 for the first page
+   * @param limit   the maximum number of countries to read
+   * @return the DTOs of the countries with an ID greater than {@code afterId}
+   */
+  @Query("SELECT new com.example.countries.dto.CountryDto(c.id, c.name, c.capital) "
+      + "FROM Country c WHERE c.id > :afterId ORDER BY c.id")
+  List<CountryDto> findDtosAfter(long afterId, Limit limit);
+
+  /**
+   * Reads a page of the DTOs of the countries having a language, ordered by ID, starting after a
+   * given ID.
+   *
+   * @param languageId the ID of the language
+   * @param afterId    the ID of the last country of the previous page, or 0 for the first page
+   * @param limit      the maximum number of countries to read
+   * @return the DTOs of the countries with the language and an ID greater than {@code afterId}
+   */
+  @Query("SELECT new com.example.countries.dto.CountryDto(d.id, d.name, d.capital) "
+      + "FROM Country d JOIN d.languageList i WHERE i.id = :languageId AND d.id > :afterId "
+      + "ORDER BY d.id")
+  List<CountryDto> findDtosByLanguageAfter(Long languageId, long afterId, Limit limit);
+
+  /**
+   * Streams all countries ordered by ID as read-only entities, fetching rows from the database in
+   * batches. The stream must be consumed and closed within a transaction.
+   *
+   * @return the stream of all countries
+   */
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT c FROM Country c ORDER BY c.id")
+  Stream<Country> streamAll();
+
+  /**
+   * Streams the ID of each country with the name of each of its languages, ordered by country ID.
+   * The stream must be consumed and closed within a transaction.
+   *
+   * @return the stream of {@code [countryId, languageName]} rows
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("SELECT c.id, l.name FROM Country c JOIN c.languageList l ORDER BY c.id")
+  Stream<Object[]> streamLanguageNames();
+
+  /**
+   * Counts the links between countries and languages, the rows of the country-language mapping
+   * table.
+   *
+   * @return the number of links between countries and languages
+   */
+  @Query("SELECT COUNT(*) FROM Country c JOIN c.languageList l")
+  long countLanguageMappings();
+
+  /**
+   * Sums a CRC32 checksum of the ID, name and capital of every country. The sum changes with
+   * almost every insert, update or delete of a country, unlike the row count.
+   *
+   * @return the checksum of the country rows
+   */
+  @Query(value = "SELECT CAST(COALESCE(SUM(CRC32(CONCAT_WS('|', id, name, capital))), 0) "
+      + "AS SIGNED) FROM country", nativeQuery = true)
+  long checksumContent();
+
+  /**
+   * Sums a CRC32 checksum of every link between a country and a language, so that a link moved
+   * to another country or language changes it.
+   *
+   * @return the checksum of the links between countries and languages
+   */
+  @Query(value = "SELECT CAST(COALESCE(SUM(CRC32(CONCAT_WS('|', country_id, language_id))), 0) "
+      + "AS SIGNED) FROM country_language_mapping", nativeQuery = true)
+  long checksumLanguageMappings();
+
+  /**
+   * Finds which of the given name keys are taken by stored countries. Callers pass the keys in
+   * chunks, so that the statement stays within the parameter limits of the database.
+   *
+   * @param nameKeys the name keys to look up
+   * @return the keys among {@code nameKeys} that stored countries have
+   */
+  @Query("SELECT c.nameKey FROM Country c WHERE c.nameKey IN :nameKeys")
+  List<String> findExistingNameKeys(Collection<String> nameKeys);
+
+  /**
+   * Reads the ID, name key and content hash of the countries with the given name keys. Callers
+   * pass the keys in chunks, like for {@link #findExistingNameKeys}.
+   *
+   * @param nameKeys the name keys to look up
+   * @return the {@code [id, nameKey, contentHash]} rows of the stored countries among
+   *     {@code nameKeys}
+   */
+  @Query("SELECT c.id, c.nameKey, c.contentHash FROM Country c WHERE c.nameKey IN :nameKeys")
+  List<Object[]> findContentHashes(Collection<String> nameKeys);
+
+  /**
+   * Finds the name keys of all countries.
+   *
+   * @return the name keys of all countries
    */
-  @Query("SELECT d FROM Country d JOIN d.languageList i WHERE i.id = :languageId")
-  List<Country> findCountriesByLanguageList_Id(Long languageId);
+  @Query("SELECT c.nameKey FROM Country c")
+  List<String> findAllNameKeys();
 }
@@ -0,0 +1,23 @@
+package com.example.countries.repository;
+
+import com.example.countries.entity.Language;
+import java.util.List;
+
+/**
+ * Repository fragment inserting languages and their links to a country in JDBC batches.
+ */
+public interface LanguageBulkRepository {
+
+  /**
+   * Links languages to a country in one transaction, inserting the languages that are not stored
+   * yet. New languages are persisted in JDBC batches; the rows of the
+   * {@code country_language_mapping} join table are then inserted directly in JDBC batches,
+   * without loading the country or its language list. If the insert fails, the IDs generated for
+   * the new languages are removed again, so that the same languages can be passed to a retry.
+   *
+   * @param countryId the ID of the country
+   * @param languages the languages to link; those with an ID are stored already and are only
+   *                  linked, none of them may be linked to the country yet
+   */
+  void linkAll(Long countryId, List<Language> languages);
+}
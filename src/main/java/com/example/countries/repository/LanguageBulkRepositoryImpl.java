@@ -0,0 +1,58 @@
+package com.example.countries.repository;
+
+import com.example.countries.entity.Language;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.util.List;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Implementation of {@link LanguageBulkRepository}, picked up by Spring Data through its name.
+ */
+public class LanguageBulkRepositoryImpl implements LanguageBulkRepository {
+  private static final String INSERT_LINK =
+      "INSERT INTO country_language_mapping (country_id, language_id) VALUES (?, ?)";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1}")
+  private int batchSize;
+
+  @Override
+  @Transactional
+  public void linkAll(Long countryId, List<Language> languages) {
+    List<Language> created = languages.stream().filter(language -> language.getId() == null)
+        .toList();
+    try {
+      for (int i = 0; i < created.size(); i++) {
+        entityManager.persist(created.get(i));
+        if ((i + 1) % batchSize == 0) {
+          entityManager.flush();
+          entityManager.clear();
+        }
+      }
+      entityManager.flush();
+      entityManager.clear();
+      entityManager.unwrap(Session.class).doWork(connection -> {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_LINK)) {
+          for (int i = 0; i < languages.size(); i++) {
+            statement.setLong(1, countryId);
+            statement.setLong(2, languages.get(i).getId());
+            statement.addBatch();
+            if ((i + 1) % batchSize == 0) {
+              statement.executeBatch();
+            }
+          }
+          statement.executeBatch();
+        }
+      });
+    } catch (RuntimeException e) {
+      created.forEach(language -> language.setId(null));
+      throw e;
+    }
+  }
+}
@@ -1,12 +1,20 @@
 package com.example.countries.repository;
 
+import com.example.countries.dto.LanguageDto;
 import com.example.countries.entity.Language;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 /**
  * Repository interface for managing Language entities.
  */
-public interface LanguageRepository extends CrudRepository<Language, Long> {
+public interface LanguageRepository extends CrudRepository<Language, Long>,
+    LanguageBulkRepository {
 
   /**
    * Finds a language by its name.
@@ -15,4 +23,73 @@ public interface LanguageRepository extends CrudRepository<Language, Long> {
    * @return the language with the specified name, or null if not found
    */
   Language findByName(String name);
+
+  /**
+   * Saves a language and flushes it at once, so that a violated constraint is reported by this
+   * call rather than by the commit of the surrounding transaction.
+   *
+   * @param language the language to save
+   * @param <S>      the type of the language
+   * @return the saved language
+   */
+  <S extends Language> S saveAndFlush(S language);
+
+  /**
+   * Reads the ID and name of the languages with the given names. Callers pass the names in
+   * chunks, so that the statement stays within the parameter limits of the database.
+   *
+   * @param names the names to look up
+   * @return the ID and name of each stored language whose name is among {@code names}
+   */
+  @Query("SELECT l.id, l.name FROM Language l WHERE l.name IN :names")
+  List<Object[]> findIdsByNames(Collection<String> names);
+
+  /**
+   * Finds which of the given languages are already linked to a country.
+   *
+   * @param countryId the ID of the country
+   * @param ids       the IDs of the languages to look up
+   * @return the IDs among {@code ids} of the languages spoken in the country
+   */
+  @Query("SELECT l.id FROM Country c JOIN c.languageList l WHERE c.id = :countryId "
+      + "AND l.id IN :ids")
+  List<Long> findLinkedIds(Long countryId, Collection<Long> ids);
+
+  /**
+   * Finds a language by its ID together with the countries speaking it.
+   *
+   * @param id the ID of the language to find
+   * @return the language with its countries loaded, or empty if not found
+   */
+  @EntityGraph(attributePaths = "countryList")
+  Optional<Language> findWithCountriesById(Long id);
+
+  /**
+   * Reads the DTO of a language by its ID without loading the entity.
+   *
+   * @param id the ID of the language to find
+   * @return the DTO of the language, or empty if not found
+   */
+  @Query("SELECT new com.example.countries.dto.LanguageDto(l.id, l.name) FROM Language l "
+      + "WHERE l.id = :id")
+  Optional<LanguageDto> findDtoById(Long id);
+
+  /**
+   * Reads a page of language DTOs ordered by ID, starting after a given ID.
+   *
+   * @param afterId the ID of the last language of the previous page, or 0 for the first page
+   * @param limit   the maximum number of languages to read
+   * @return the DTOs of the languages with an ID greater than {@code afterId}
+   */
+  @Query("SELECT new com.example.countries.dto.LanguageDto(l.id, l.name) FROM Language l "
+      + "WHERE l.id > :afterId ORDER BY l.id")
+  List<LanguageDto> findDtosAfter(long afterId, Limit limit);
+
+  /**
+   * Finds the names of all languages.
+   *
+   * @return the names of all languages
+   */
+  @Query("SELECT l.name FROM Language l")
+  List<String> findAllNames();
 }
@@ -0,0 +1,34 @@
+package com.example.countries.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers side effects of a write until the transaction that made it commits.
+ */
+final class AfterCommit {
+
+  private AfterCommit() {
+  }
+
+  /**
+   * Runs an action once the current transaction commits, or at once outside a transaction. The
+   * action is dropped if the transaction rolls back. Cache invalidations and name filter updates
+   * run this way, so that a concurrent read cannot load the uncommitted state into a cache or
+   * rebuild a filter from it between the action and the commit.
+   *
+   * @param action the action
+   */
+  static void run(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
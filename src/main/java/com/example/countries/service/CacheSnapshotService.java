@@ -0,0 +1,222 @@
+package com.example.countries.service;
+
+import com.example.countries.component.Cache;
+import com.example.countries.component.CacheCodec;
+import com.example.countries.component.CacheEntry;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegion;
+import com.example.countries.component.CacheRegions;
+import com.example.countries.component.CacheSnapshot;
+import com.example.countries.repository.CityRepository;
+import com.example.countries.repository.CountryRepository;
+import com.example.countries.repository.LanguageRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+/**
+ * Saves the hottest entries of the country cache regions (countries by name and countries by
+ * language) to a snapshot file on shutdown and loads them back on startup, so that a restarted
+ * instance does not begin with an empty cache.
+ *
+ * <p>The snapshot is loaded by an {@link ApplicationRunner}, which completes before the
+ * application reports itself ready. A snapshot is discarded when it is older than the configured
+ * maximum age or when the fingerprints of the tables differ from the ones recorded in it: the row
+ * counts of the country, city, language and country-language tables, and checksums of the
+ * country rows and country-language links, which the cached values are built from, so that an
+ * update that keeps the row counts still invalidates the snapshot. A snapshot that cannot be
+ * validated is discarded as well, so the application then starts with a cold cache instead of
+ * failing. Restored entries keep the age they had when the snapshot was taken plus the time
+ * since, so they expire and refresh when the saved ones would have.
+ */
+@Service
+public class CacheSnapshotService implements ApplicationRunner {
+  private static final Logger logger = LoggerFactory.getLogger(CacheSnapshotService.class);
+
+  private static final List<CacheRegion<?, ?>> REGIONS =
+      List.of(CacheRegions.COUNTRY_BY_NAME, CacheRegions.COUNTRIES_BY_LANGUAGE);
+
+  private final CacheManager cacheManager;
+  private final CountryRepository countryRepository;
+  private final CityRepository cityRepository;
+  private final LanguageRepository languageRepository;
+  private final Map<String, CacheCodec> codecs = new LinkedHashMap<>();
+  private final boolean enabled;
+  private final Path path;
+  private final int maxEntries;
+  private final long maxAgeMillis;
+
+  /**
+   * Creates the snapshot service.
+   *
+   * @param cacheManager       the cache manager whose country regions are saved and warmed
+   * @param countryRepository  the repository of countries
+   * @param cityRepository     the repository of cities
+   * @param languageRepository the repository of languages
+   * @param enabled            whether snapshots are saved and loaded
+   * @param path               the snapshot file
+   * @param maxEntries         the maximum number of entries saved per region
+   * @param maxAgeMinutes      the age after which a snapshot is discarded
+   */
+  @Autowired
+  public CacheSnapshotService(CacheManager cacheManager,
+                              CountryRepository countryRepository,
+                              CityRepository cityRepository,
+                              LanguageRepository languageRepository,
+                              @Value("${cache.snapshot.enabled:false}") boolean enabled,
+                              @Value("${cache.snapshot.path:cache/country-cache.snapshot}")
+                              Path path,
+                              @Value("${cache.snapshot.max-entries:1000}") int maxEntries,
+                              @Value("${cache.snapshot.max-age-minutes:1440}") long maxAgeMinutes) {
+    this.cacheManager = cacheManager;
+    this.countryRepository = countryRepository;
+    this.cityRepository = cityRepository;
+    this.languageRepository = languageRepository;
+    this.enabled = enabled;
+    this.path = path;
+    this.maxEntries = maxEntries;
+    this.maxAgeMillis = TimeUnit.MINUTES.toMillis(maxAgeMinutes);
+    for (CacheRegion<?, ?> region : REGIONS) {
+      codecs.put(region.name(), region.codec());
+    }
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (enabled) {
+      warmUp();
+    }
+  }
+
+  /**
+   * Saves the snapshot when the application context is closed by the shutdown hook.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (enabled) {
+      save();
+    }
+  }
+
+  /**
+   * Loads the snapshot file into the cache if it is still valid.
+   *
+   * @return the number of loaded entries
+   */
+  public int warmUp() {
+    if (!Files.exists(path)) {
+      logger.info("No cache snapshot found at {}", path);
+      return 0;
+    }
+    long start = System.nanoTime();
+    CacheSnapshot snapshot;
+    try {
+      snapshot = CacheSnapshot.read(path, codecs);
+    } catch (IOException e) {
+      logger.warn("Discarding unreadable cache snapshot {}: {}", path, e.getMessage());
+      deleteSnapshot();
+      return 0;
+    }
+    long age = System.currentTimeMillis() - snapshot.createdAtMillis();
+    if (age > maxAgeMillis) {
+      logger.info("Discarding cache snapshot {} taken {} minutes ago", path,
+          TimeUnit.MILLISECONDS.toMinutes(age));
+      deleteSnapshot();
+      return 0;
+    }
+    long[] tableFingerprints;
+    try {
+      tableFingerprints = tableFingerprints();
+    } catch (RuntimeException e) {
+      logger.warn("Discarding cache snapshot {}: table fingerprints cannot be read: {}", path,
+          e.getMessage());
+      deleteSnapshot();
+      return 0;
+    }
+    if (!Arrays.equals(snapshot.tableFingerprints(), tableFingerprints)) {
+      logger.info("Discarding stale cache snapshot {}: table fingerprints {} differ from {}",
+          path, Arrays.toString(snapshot.tableFingerprints()),
+          Arrays.toString(tableFingerprints));
+      deleteSnapshot();
+      return 0;
+    }
+    long downtimeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(age, 0));
+    for (CacheRegion<?, ?> region : REGIONS) {
+      restore(region, snapshot.regions().getOrDefault(region.name(), List.of()), downtimeNanos);
+    }
+    logger.info("Warmed country cache with {} entries from {} in {} ms", snapshot.size(), path,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return snapshot.size();
+  }
+
+  /**
+   * Writes the hottest cache entries to the snapshot file.
+   *
+   * @return the number of saved entries
+   */
+  public int save() {
+    long start = System.nanoTime();
+    try {
+      Map<String, List<CacheEntry<String>>> regions = new LinkedHashMap<>();
+      for (CacheRegion<?, ?> region : REGIONS) {
+        regions.put(region.name(), hottestEntries(region));
+      }
+      CacheSnapshot snapshot = new CacheSnapshot(System.currentTimeMillis(),
+          tableFingerprints(), regions);
+      int saved = snapshot.write(path, codecs);
+      logger.info("Saved {} country cache entries to {} in {} ms", saved, path,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      return saved;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Could not save cache snapshot {}: {}", path, e.getMessage());
+      return 0;
+    }
+  }
+
+  private <K> List<CacheEntry<String>> hottestEntries(CacheRegion<K, ?> region) {
+    List<CacheEntry<K>> entries = cacheManager.region(region).hottestEntries(maxEntries);
+    List<CacheEntry<String>> stringKeyed = new ArrayList<>(entries.size());
+    for (CacheEntry<K> entry : entries) {
+      stringKeyed.add(new CacheEntry<>(String.valueOf(entry.key()), entry.value(), entry.tags(),
+          entry.ageNanos()));
+    }
+    return stringKeyed;
+  }
+
+  private <K> void restore(CacheRegion<K, ?> region, List<CacheEntry<String>> entries,
+                           long downtimeNanos) {
+    Cache<K, ?> cache = cacheManager.region(region);
+    for (CacheEntry<String> entry : entries) {
+      cache.restore(new CacheEntry<>(region.parseKey(entry.key()), entry.value(), entry.tags(),
+          entry.ageNanos() + downtimeNanos));
+    }
+  }
+
+  private long[] tableFingerprints() {
+    return new long[] {countryRepository.count(), countryRepository.checksumContent(),
+        cityRepository.count(), languageRepository.count(),
+        countryRepository.countLanguageMappings(), countryRepository.checksumLanguageMappings()};
+  }
+
+  private void deleteSnapshot() {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Could not delete cache snapshot {}: {}", path, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.countries.service;
+
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheStats;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Collects the statistics of every cache region and logs them periodically.
+ */
+@Service
+public class CacheStatsService {
+  private static final Logger logger = LoggerFactory.getLogger(CacheStatsService.class);
+
+  private final CacheManager cacheManager;
+
+  /**
+   * Creates the statistics service.
+   *
+   * @param cacheManager the cache manager owning the regions
+   */
+  @Autowired
+  public CacheStatsService(CacheManager cacheManager) {
+    this.cacheManager = cacheManager;
+  }
+
+  /**
+   * Returns the statistics of every cache region.
+   *
+   * @return the statistics keyed by region name
+   */
+  public Map<String, CacheStats> getStats() {
+    Map<String, CacheStats> stats = new TreeMap<>();
+    cacheManager.getRegions().forEach((name, cache) -> stats.put(name, cache.stats()));
+    return stats;
+  }
+
+  /**
+   * Logs a summary line for every cache region.
+   */
+  @Scheduled(fixedRateString = "${cache.stats.log-interval-ms:60000}",
+      initialDelayString = "${cache.stats.log-interval-ms:60000}")
+  public void logStats() {
+    getStats().forEach((name, stats) -> logger.info(
+        "Cache {}: size={}/{} hits={} misses={} hitRate={} evictions={} loads={} "
+            + "loadMeanMs={} loadMaxMs={} refreshes={} heapBytes~{} offHeapBytes={}",
+        name, stats.size(), stats.capacity(), stats.hitCount(), stats.missCount(),
+        String.format("%.3f", stats.hitRate()), stats.evictions(), stats.loadCount(),
+        String.format("%.3f", stats.loadLatency().meanMillis()),
+        String.format("%.3f", stats.loadLatency().maxMillis()), stats.refreshCount(),
+        stats.estimatedHeapBytes(), stats.offHeapLiveBytes()));
+  }
+}
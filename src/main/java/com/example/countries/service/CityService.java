@@ -1,6 +1,15 @@
 package com.example.countries.service;
 
+import com.example.countries.component.Cache;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegions;
+import com.example.countries.component.CacheTags;
+import com.example.countries.component.PageCursor;
+import com.example.countries.component.PartitionRunner;
+import com.example.countries.config.PaginationProperties;
+import com.example.countries.dto.BulkResultDto;
 import com.example.countries.dto.CityDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.City;
 import com.example.countries.entity.Country;
 import com.example.countries.exception.CityAlreadyExistException;
@@ -9,7 +18,15 @@ import com.example.countries.exception.CountryNotFoundException;
 import com.example.countries.repository.CityRepository;
 import com.example.countries.repository.CountryRepository;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 /**
@@ -19,16 +36,37 @@ import org.springframework.stereotype.Service;
 public class CityService {
   private final CityRepository cityRepository;
   private final CountryRepository countryRepository;
+  private final CacheManager cacheManager;
+  private final Cache<Long, CityDto> cityCache;
+  private final PaginationProperties paginationProperties;
+  private final PartitionRunner partitionRunner;
+  private static final Logger logger = LoggerFactory.getLogger(CityService.class);
   private static final String CITY_NOT_FOUND_STRING = "Город не найден!";
 
+  /**
+   * Creates the city service.
+   *
+   * @param cityRepository       the repository of cities
+   * @param countryRepository    the repository of countries
+   * @param cacheManager         the application cache manager
+   * @param paginationProperties the page size settings of the list endpoints
+   * @param partitionRunner      writes bulk inputs in parallel partitions
+   */
   @Autowired
-  public CityService(CityRepository cityRepository, CountryRepository countryRepository) {
+  public CityService(CityRepository cityRepository, CountryRepository countryRepository,
+                     CacheManager cacheManager, PaginationProperties paginationProperties,
+                     PartitionRunner partitionRunner) {
     this.cityRepository = cityRepository;
+    this.paginationProperties = paginationProperties;
+    this.partitionRunner = partitionRunner;
     this.countryRepository = countryRepository;
+    this.cacheManager = cacheManager;
+    this.cityCache = cacheManager.region(CacheRegions.CITY_BY_ID);
   }
 
   /**
-   * Adds a new city to the specified country.
+   * Adds a new city to the specified country. The city is inserted without looking up its name
+   * first; a duplicate name is detected by the unique index on the name.
    *
    * @param id   the ID of the country to which the city belongs
    * @param city the city to add
@@ -40,15 +78,89 @@ public class CityService {
     Country country = countryRepository.findById(id).orElse(null);
     if (country != null) {
       city.setCountry(country);
-      if (cityRepository.findByName(city.getName()) != null) {
-        throw new CityAlreadyExistException("Такой город уже существует!");
+      try {
+        cityRepository.save(city);
+      } catch (DataIntegrityViolationException e) {
+        if (UniqueConstraints.isViolated(e, City.NAME_CONSTRAINT)) {
+          throw new CityAlreadyExistException("Такой город уже существует!");
+        }
+        throw e;
       }
-      cityRepository.save(city);
     } else {
       throw new CountryNotFoundException("Не удалось добавить город. Город не найден!");
     }
   }
 
+  /**
+   * Adds many cities to a country and reports the outcome of each of them.
+   *
+   * <p>The country is checked once, existing names are looked up with {@code name IN (...)}
+   * queries of {@value CountryService#BULK_CHUNK_SIZE} names, and the new cities are inserted in
+   * JDBC batches by the {@link PartitionRunner}, one transaction per partition. A partition that
+   * fails is rolled back and its cities are reported as failed.
+   *
+   * @param countryId the ID of the country to which the cities belong
+   * @param cities    the cities to add
+   * @return the outcome of every city, in request order
+   * @throws CountryNotFoundException if the country with the specified ID is not found
+   */
+  public BulkResultDto addCitiesBulk(Long countryId, List<City> cities)
+      throws CountryNotFoundException {
+    if (!countryRepository.existsById(countryId)) {
+      throw new CountryNotFoundException("Не удалось добавить города. Страна не найдена!");
+    }
+    BulkResultDto result = new BulkResultDto(cities.size());
+    Map<String, Integer> candidates = new LinkedHashMap<>();
+    for (int i = 0; i < cities.size(); i++) {
+      String name = cities.get(i).getName();
+      if (name == null || name.isBlank()) {
+        result.add(i, name, BulkResultDto.Outcome.INVALID, "Не указано название города");
+      } else if (candidates.putIfAbsent(name, i) != null) {
+        result.add(i, name, BulkResultDto.Outcome.DUPLICATE, null);
+      }
+    }
+
+    List<String> names = new ArrayList<>(candidates.keySet());
+    for (int from = 0; from < names.size(); from += CountryService.BULK_CHUNK_SIZE) {
+      List<String> chunk = names.subList(from,
+          Math.min(from + CountryService.BULK_CHUNK_SIZE, names.size()));
+      for (String existing : cityRepository.findExistingNames(chunk)) {
+        Integer index = candidates.remove(existing);
+        if (index != null) {
+          result.add(index, existing, BulkResultDto.Outcome.ALREADY_EXISTS, null);
+        }
+      }
+    }
+
+    for (PartitionRunner.Partition<Integer> partition : partitionRunner.write(
+        new ArrayList<>(candidates.values()),
+        partition -> cityRepository.insertAll(countryId, citiesAt(cities, partition)))) {
+      for (Integer index : partition.items()) {
+        String name = cities.get(index).getName();
+        if (partition.error() == null) {
+          result.add(index, name, BulkResultDto.Outcome.CREATED, null);
+        } else {
+          result.add(index, name, BulkResultDto.Outcome.FAILED, "Ошибка при добавлении города");
+        }
+      }
+      if (partition.error() != null) {
+        logger.error("Ошибка при добавлении {} городов: {}", partition.items().size(),
+            partition.error().getMessage());
+      }
+    }
+    logger.info("В страну {} добавлено {} городов, пропущено {}, с ошибкой {}.", countryId,
+        result.getCreated(), result.getSkipped(), result.getFailed());
+    return result;
+  }
+
+  private static List<City> citiesAt(List<City> cities, List<Integer> indexes) {
+    List<City> selected = new ArrayList<>(indexes.size());
+    for (Integer index : indexes) {
+      selected.add(cities.get(index));
+    }
+    return selected;
+  }
+
   /**
    * Retrieves a city by its ID.
    *
@@ -57,26 +169,61 @@ public class CityService {
    * @throws CityNotFoundException if the city with the specified ID is not found
    */
   public CityDto getCity(Long id) throws CityNotFoundException {
-    City cityEntity = cityRepository.findById(id).orElse(null);
-    if (cityEntity != null) {
-      return CityDto.toModel(cityEntity);
-    } else {
-      throw new CityNotFoundException(CITY_NOT_FOUND_STRING);
-    }
+    return cityCache.get(id, tags -> {
+      CityDto city = cityRepository.findDtoById(id).orElse(null);
+      if (city == null) {
+        throw new CityNotFoundException(CITY_NOT_FOUND_STRING);
+      }
+      tags.add(CacheTags.city(id));
+      if (city.getCountryId() != null) {
+        tags.add(CacheTags.country(city.getCountryId()));
+      }
+      return city;
+    });
   }
 
   /**
-   * Updates an existing city.
+   * Retrieves a page of cities ordered by ID, optionally restricted to one country.
+   *
+   * @param countryId the ID of the country whose cities are listed, or null for all cities
+   * @param cursor    the token returned with the previous page, or null for the first page
+   * @param size      the requested page size, or null for the default; capped at the maximum
+   * @return the page of DTO representations of cities
+   * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+   */
+  public PageDto<CityDto> getCities(Long countryId, String cursor, Integer size) {
+    int pageSize = paginationProperties.pageSize(size);
+    long afterId = PageCursor.decode(cursor);
+    Limit limit = Limit.of(pageSize + 1);
+    List<CityDto> rows = countryId == null
+        ? cityRepository.findDtosAfter(afterId, limit)
+        : cityRepository.findDtosByCountryAfter(countryId, afterId, limit);
+    return PageDto.of(rows, pageSize, CityDto::getId);
+  }
+
+  /**
+   * Updates an existing city. A rename to a name that is already stored is detected by the
+   * unique index on the name.
    *
    * @param id   the ID of the city to update
    * @param city the updated city data
-   * @throws CityNotFoundException if the city with the specified ID is not found
+   * @throws CityNotFoundException     if the city with the specified ID is not found
+   * @throws CityAlreadyExistException if another city already has the new name
    */
-  public void updateCity(Long id, City city) throws CityNotFoundException {
+  public void updateCity(Long id, City city)
+      throws CityNotFoundException, CityAlreadyExistException {
     City cityEntity = cityRepository.findById(id).orElse(null);
     if (cityEntity != null) {
       cityEntity.setName(city.getName());
-      cityRepository.save(cityEntity);
+      try {
+        cityRepository.save(cityEntity);
+      } catch (DataIntegrityViolationException e) {
+        if (UniqueConstraints.isViolated(e, City.NAME_CONSTRAINT)) {
+          throw new CityAlreadyExistException("Такой город уже существует!");
+        }
+        throw e;
+      }
+      cacheManager.invalidateTag(CacheTags.city(id));
     } else {
       throw new CityNotFoundException(CITY_NOT_FOUND_STRING);
     }
@@ -90,11 +237,12 @@ public class CityService {
    */
   @Transactional
   public void deleteCity(Long id) throws CityNotFoundException {
-    City cityEntity = cityRepository.findById(id).orElse(null);
+    City cityEntity = cityRepository.findWithCountryCitiesById(id).orElse(null);
     if (cityEntity != null) {
       cityEntity.getCountry().getCityList().remove(cityEntity);
       countryRepository.save(cityEntity.getCountry());
       cityRepository.deleteById(id);
+      AfterCommit.run(() -> cacheManager.invalidateTag(CacheTags.city(id)));
     } else {
       throw new CityNotFoundException(CITY_NOT_FOUND_STRING);
     }
@@ -1,18 +1,36 @@
 package com.example.countries.service;
 
 import com.example.countries.component.Cache;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegions;
+import com.example.countries.component.CacheTags;
+import com.example.countries.component.NameFilter;
+import com.example.countries.component.NameKey;
+import com.example.countries.component.PageCursor;
+import com.example.countries.component.PartitionRunner;
+import com.example.countries.config.PaginationProperties;
+import com.example.countries.dto.BulkResultDto;
 import com.example.countries.dto.CountryDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.Country;
+import com.example.countries.entity.Language;
 import com.example.countries.exception.CountryAlreadyExistException;
 import com.example.countries.exception.CountryNotFoundException;
 import com.example.countries.repository.CountryRepository;
+import com.example.countries.repository.LanguageRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
@@ -25,10 +43,18 @@ import org.slf4j.LoggerFactory;
 @Component
 public class CountryService {
   private final CountryRepository countryRepository;
+  private final LanguageRepository languageRepository;
 
+  private final CacheManager cacheManager;
   private final Cache<String, CountryDto> countryCache;
+  private final Cache<Long, List<CountryDto>> languageCountriesCache;
+  private final NameFilter countryNames;
+  private final NameFilterService nameFilterService;
+  private final PaginationProperties paginationProperties;
+  private final PartitionRunner partitionRunner;
   private static final Logger logger = LoggerFactory.getLogger(CountryService.class);
   private static final String COUNTRY_NOT_FOUND_STRING = "Страна не найдена";
+  static final int BULK_CHUNK_SIZE = 1_000;
 
   /**
    * Аннотация, которая позволяет Spring автоматически проводить внедрение (инъекцию) зависимостей
@@ -37,81 +63,278 @@ public class CountryService {
    */
   @Autowired
   public CountryService(ObjectMapper objectMapper, CountryRepository countryRepository,
-                        Cache<String, CountryDto> countryCache) {
+                        LanguageRepository languageRepository, CacheManager cacheManager,
+                        NameFilterService nameFilterService,
+                        PaginationProperties paginationProperties,
+                        PartitionRunner partitionRunner) {
     this.countryRepository = countryRepository;
-    this.countryCache = countryCache;
+    this.languageRepository = languageRepository;
+    this.paginationProperties = paginationProperties;
+    this.partitionRunner = partitionRunner;
+    this.countryNames = nameFilterService.countries();
+    this.nameFilterService = nameFilterService;
+    this.cacheManager = cacheManager;
+    this.countryCache = cacheManager.region(CacheRegions.COUNTRY_BY_NAME);
+    this.languageCountriesCache = cacheManager.region(CacheRegions.COUNTRIES_BY_LANGUAGE);
   }
 
   /**
-   * Adds a new country.
+   * Adds a new country. The country is inserted without looking up its name first; a duplicate
+   * name is detected by the unique index on the name.
    *
    * @param country the country to add
    * @throws CountryAlreadyExistException if a country with the same name already exists
    */
   public void addCountry(Country country) throws CountryAlreadyExistException {
-    if (countryRepository.findByName(country.getName()) != null) {
-      throw new CountryAlreadyExistException("Такая страна уже существует!");
+    try {
+      countryRepository.save(country);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, Country.NAME_CONSTRAINT)
+          || UniqueConstraints.isViolated(e, Country.NAME_KEY_CONSTRAINT)) {
+        throw new CountryAlreadyExistException("Такая страна уже существует!");
+      }
+      throw e;
     }
-    countryRepository.save(country);
+    nameFilterService.countryAdded(country.getNameKey());
 
-    countryCache.clear();
+    for (Language language : country.getLanguageList()) {
+      if (language.getId() != null) {
+        cacheManager.invalidateTag(CacheTags.language(language.getId()));
+      }
+    }
   }
 
   /**
-   * Добавляет список стран в базу данных, игнорируя те, которые уже существуют.
+   * Добавляет список стран в базу данных, пропуская те, которые уже существуют, повторяются в
+   * списке или не имеют названия.
+   *
+   * <p>Names are compared by their normalized keys, so names differing only in case, accents or
+   * whitespace are duplicates. Existing keys are looked up with {@code name_key IN (...)} queries
+   * of {@value #BULK_CHUNK_SIZE} keys. Languages are compared by name across the whole list:
+   * every name is looked up once, stored languages are reused, and each missing one is inserted
+   * once before the countries, so that countries sharing a language link the same row whichever
+   * partition they end up in. The new countries are split into partitions inserted in
+   * parallel by the {@link PartitionRunner}, each in JDBC batches in its own transaction and
+   * retried on transient errors. A partition that still fails is rolled back and its countries
+   * are reported as failed; the other partitions are kept.
    *
    * @param countries Список стран для добавления
-   * @throws CountryAlreadyExistException Если некоторые страны уже существуют в базе данных
+   * @return the outcome of each country, in the order of the list
    */
-  public void addCountriesBulk(List<Country> countries) throws CountryAlreadyExistException {
-    Set<String> existingCountryNames = new HashSet<>();
-    for (Country country : countryRepository.findAll()) {
-      existingCountryNames.add(country.getName());
-    }
-
-    List<Country> newCountries = new ArrayList<>(countries.stream()
-        .filter(country -> !existingCountryNames.contains(country.getName()))
-        .collect(Collectors.toMap(Country::getName, country -> country,
-            (country1, country2) -> country1))
-        .values());
-
-    List<Country> savedCountries = new ArrayList<>();
-    countryRepository.saveAll(newCountries).forEach(savedCountries::add);
-    int countSavedCountries = savedCountries.size();
-
-    if (countSavedCountries == 0) {
-      throw new CountryAlreadyExistException("Все страны из списка уже есть в базе.");
-    } else if (newCountries.size() == countSavedCountries) {
-      logger.info("Успешно добавлено {} новых стран.", countSavedCountries);
+  public BulkResultDto addCountriesBulk(List<Country> countries) {
+    BulkResultDto result = new BulkResultDto(countries.size());
+    Map<String, Integer> candidates = new LinkedHashMap<>();
+    for (int i = 0; i < countries.size(); i++) {
+      Country country = countries.get(i);
+      String name = country.getName();
+      if (name == null || name.isBlank()) {
+        result.add(i, name, BulkResultDto.Outcome.INVALID, "Не указано название страны");
+      } else if (candidates.putIfAbsent(country.getNameKey(), i) != null) {
+        result.add(i, name, BulkResultDto.Outcome.DUPLICATE, null);
+      }
+    }
+
+    List<String> keys = new ArrayList<>(candidates.keySet());
+    for (int from = 0; from < keys.size(); from += BULK_CHUNK_SIZE) {
+      List<String> chunk = keys.subList(from, Math.min(from + BULK_CHUNK_SIZE, keys.size()));
+      for (String existing : countryRepository.findExistingNameKeys(chunk)) {
+        Integer index = candidates.remove(existing);
+        if (index != null) {
+          result.add(index, countries.get(index).getName(), BulkResultDto.Outcome.ALREADY_EXISTS,
+              null);
+        }
+      }
+    }
+
+    List<Integer> indexes = new ArrayList<>(candidates.values());
+    resolveLanguages(countriesAt(countries, indexes));
+    for (PartitionRunner.Partition<Integer> partition : partitionRunner.write(indexes,
+        partition -> countryRepository.insertAll(countriesAt(countries, partition)))) {
+      record(countries, partition, result);
+    }
+
+    if (result.getFailed() == 0) {
+      logger.info("Успешно добавлено {} новых стран.", result.getCreated());
     } else {
-      logger.error("Ошибка при добавлении новых стран. Добавлено {} из {} стран.", countSavedCountries, newCountries.size());
-      throw new RuntimeException("Ошибка при добавлении новых стран.");
+      logger.error("Ошибка при добавлении новых стран. Добавлено {} из {} стран.",
+          result.getCreated(), result.getCreated() + result.getFailed());
     }
+    return result;
   }
 
   /**
-   * Retrieves a country by its name.
+   * Replaces the languages of the countries by one language per name with the ID of its stored
+   * row, inserting the names that are not stored yet. A name inserted concurrently by another
+   * request is read back instead.
+   */
+  private void resolveLanguages(List<Country> countries) {
+    Map<String, Language> byName = new LinkedHashMap<>();
+    for (Country country : countries) {
+      for (Language language : country.getLanguageList()) {
+        if (language.getId() == null && language.getName() != null) {
+          byName.putIfAbsent(language.getName(), language);
+        }
+      }
+    }
+    List<String> names = new ArrayList<>(byName.keySet());
+    for (int from = 0; from < names.size(); from += BULK_CHUNK_SIZE) {
+      List<String> chunk = names.subList(from, Math.min(from + BULK_CHUNK_SIZE, names.size()));
+      for (Object[] row : languageRepository.findIdsByNames(chunk)) {
+        Language language = byName.get((String) row[1]);
+        if (language != null) {
+          language.setId((Long) row[0]);
+        }
+      }
+    }
+    for (Language language : byName.values()) {
+      if (language.getId() == null) {
+        insertLanguage(language);
+      }
+    }
+
+    for (Country country : countries) {
+      Map<Object, Language> linked = new LinkedHashMap<>();
+      for (Language language : country.getLanguageList()) {
+        Language resolved = language.getId() == null && language.getName() != null
+            ? byName.get(language.getName()) : language;
+        linked.putIfAbsent(resolved.getId() != null ? resolved.getId() : resolved, resolved);
+      }
+      country.setLanguageList(new ArrayList<>(linked.values()));
+    }
+  }
+
+  private void insertLanguage(Language language) {
+    try {
+      languageRepository.save(language);
+      nameFilterService.languageAdded(language.getName());
+    } catch (DataIntegrityViolationException e) {
+      if (!UniqueConstraints.isViolated(e, Language.NAME_CONSTRAINT)) {
+        throw e;
+      }
+      Language stored = languageRepository.findByName(language.getName());
+      if (stored == null) {
+        throw e;
+      }
+      language.setId(stored.getId());
+    }
+  }
+
+  private static List<Country> countriesAt(List<Country> countries, List<Integer> indexes) {
+    List<Country> selected = new ArrayList<>(indexes.size());
+    for (Integer index : indexes) {
+      selected.add(countries.get(index));
+    }
+    return selected;
+  }
+
+  private void record(List<Country> countries, PartitionRunner.Partition<Integer> partition,
+                      BulkResultDto result) {
+    if (partition.error() != null) {
+      logger.error("Ошибка при добавлении {} стран: {}", partition.items().size(),
+          partition.error().getMessage());
+      for (Integer index : partition.items()) {
+        result.add(index, countries.get(index).getName(), BulkResultDto.Outcome.FAILED,
+            "Ошибка при добавлении страны");
+      }
+      return;
+    }
+    for (Integer index : partition.items()) {
+      Country country = countries.get(index);
+      result.add(index, country.getName(), BulkResultDto.Outcome.CREATED, null);
+      nameFilterService.countryAdded(country.getNameKey());
+      for (Language language : country.getLanguageList()) {
+        if (language.getId() != null) {
+          cacheManager.invalidateTag(CacheTags.language(language.getId()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Retrieves a country by its name, ignoring case, accents and whitespace. The country is
+   * looked up and cached under the normalized key of the name, so every spelling sharing the key
+   * hits the same cache entry and the same index seek.
    *
    * @param name the name of the country to retrieve
    * @return the DTO representation of the country
-   * @throws CountryNotFoundException if the country with the specified name is not found
+   * @throws CountryNotFoundException if the name is null or blank or the country with the
+   *                                  specified name is not found
    */
   public CountryDto getCountry(String name) throws CountryNotFoundException {
-    if (countryCache.containsKey(name)) {
-      return countryCache.get(name);
-    } else {
-      Country country = countryRepository.findByName(name);
+    if (name == null || name.isBlank()) {
+      throw new CountryNotFoundException(COUNTRY_NOT_FOUND_STRING);
+    }
+    String key = NameKey.of(name);
+    return countryCache.get(key, tags -> {
+      CountryDto country = countryNames.find(key, countryRepository::findDtoByNameKey);
       if (country == null) {
         throw new CountryNotFoundException(COUNTRY_NOT_FOUND_STRING);
       }
-      CountryDto countryDto = CountryDto.toModel(country);
-      countryCache.put(name, countryDto);
-      return countryDto;
+      tags.add(CacheTags.country(country.getId()));
+      return country;
+    });
+  }
+
+  /**
+   * Retrieves several countries by their names at once. The cache is read for all name keys
+   * together, the misses that the name filter does not rule out are read with one
+   * {@code name_key IN (...)} query, and the countries found are cached together unless a country
+   * was invalidated while the query ran.
+   *
+   * @param names the names of the countries; blank names are skipped and names sharing a key
+   *              are looked up once
+   * @return the DTOs of the countries found, in the order of the names; names that are not
+   *     stored are left out
+   * @throws IllegalArgumentException if there are more distinct names than the maximum page size
+   */
+  public List<CountryDto> getCountriesByNames(Collection<String> names) {
+    Set<String> keys = new LinkedHashSet<>();
+    for (String name : names) {
+      if (name != null && !name.isBlank()) {
+        keys.add(NameKey.of(name));
+      }
     }
+    if (keys.size() > paginationProperties.getMaxPageSize()) {
+      throw new IllegalArgumentException("At most " + paginationProperties.getMaxPageSize()
+          + " names can be requested at once: " + keys.size());
+    }
+
+    Map<String, CountryDto> found = new HashMap<>(countryCache.getAll(keys));
+    List<String> missing = new ArrayList<>();
+    for (String key : keys) {
+      if (!found.containsKey(key) && countryNames.mightContain(key)) {
+        missing.add(key);
+      }
+    }
+    if (!missing.isEmpty()) {
+      long generation = countryCache.invalidationGeneration();
+      Map<String, CountryDto> loaded = new HashMap<>();
+      for (CountryDto country : countryRepository.findDtosByNameKeys(missing)) {
+        // The stored key was computed from the stored name, so it is recomputed rather than read
+        loaded.put(NameKey.of(country.getName()), country);
+      }
+      for (int i = loaded.size(); i < missing.size(); i++) {
+        countryNames.recordFalsePositive();
+      }
+      countryCache.putAll(loaded, country -> new String[] {CacheTags.country(country.getId())},
+          generation);
+      found.putAll(loaded);
+    }
+
+    List<CountryDto> countries = new ArrayList<>(found.size());
+    for (String key : keys) {
+      CountryDto country = found.get(key);
+      if (country != null) {
+        countries.add(country);
+      }
+    }
+    return countries;
   }
 
   /**
-   * Retrieves a list of countries with the specified language.
+   * Retrieves a list of countries with the specified language. Cached lists close to the expiry
+   * configured for the region are reloaded in the background while the cached list is still
+   * returned.
    *
    * @param languageId the ID of the language
    * @return the list of DTO representations of countries
@@ -119,45 +342,94 @@ public class CountryService {
    */
   public List<CountryDto> getCountriesWithLanguage(Long languageId)
       throws CountryNotFoundException {
-    String cacheKey = "language_" + languageId;
-    if (countryCache.containsKey(cacheKey)) {
-      return countryCache.getList(cacheKey);
-    } else {
-      List<Country> countries = countryRepository.findCountriesByLanguageList_Id(languageId);
+    return languageCountriesCache.get(languageId, tags -> {
+      List<CountryDto> countries = countryRepository.findDtosByLanguageList_Id(languageId);
       if (countries.isEmpty()) {
         throw new CountryNotFoundException(COUNTRY_NOT_FOUND_STRING);
       }
-      List<CountryDto> countryDtos = countries.stream().map(CountryDto::toModel).toList();
-      countryCache.putList(cacheKey, countryDtos);
-      return countryDtos;
-    }
+      tags.add(CacheTags.language(languageId));
+      for (CountryDto country : countries) {
+        tags.add(CacheTags.country(country.getId()));
+      }
+      return countries;
+    });
+  }
+
+  /**
+   * Retrieves a page of countries ordered by ID.
+   *
+   * @param cursor the token returned with the previous page, or null for the first page
+   * @param size   the requested page size, or null for the default; capped at the maximum
+   * @return the page of DTO representations of countries
+   * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+   */
+  public PageDto<CountryDto> getCountries(String cursor, Integer size) {
+    int pageSize = paginationProperties.pageSize(size);
+    List<CountryDto> rows = countryRepository.findDtosAfter(PageCursor.decode(cursor),
+        Limit.of(pageSize + 1));
+    return PageDto.of(rows, pageSize, CountryDto::getId);
   }
 
   /**
-   * Updates an existing country.
+   * Retrieves a page of the countries with the specified language, ordered by ID.
+   *
+   * @param languageId the ID of the language
+   * @param cursor     the token returned with the previous page, or null for the first page
+   * @param size       the requested page size, or null for the default; capped at the maximum
+   * @return the page of DTO representations of countries
+   * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+   */
+  public PageDto<CountryDto> getCountriesWithLanguage(Long languageId, String cursor,
+                                                      Integer size) {
+    int pageSize = paginationProperties.pageSize(size);
+    List<CountryDto> rows = countryRepository.findDtosByLanguageAfter(languageId,
+        PageCursor.decode(cursor), Limit.of(pageSize + 1));
+    return PageDto.of(rows, pageSize, CountryDto::getId);
+  }
+
+  /**
+   * Updates an existing country. A rename to a name that is already stored is detected by the
+   * unique indexes on the name and its key.
    *
    * @param name    the name of the country to update
    * @param country the updated country data
-   * @throws CountryNotFoundException if the country with the specified name is not found
+   * @throws CountryNotFoundException     if the country with the specified name is not found
+   * @throws CountryAlreadyExistException if another country already has the new name
    */
-  public CountryDto updateCountry(String name, Country country) throws CountryNotFoundException {
-    Country countryEntity = countryRepository.findByName(name);
+  public CountryDto updateCountry(String name, Country country)
+      throws CountryNotFoundException, CountryAlreadyExistException {
+    Country countryEntity = countryRepository.findByNameKey(NameKey.of(name));
     if (countryEntity == null) {
       throw new CountryNotFoundException(COUNTRY_NOT_FOUND_STRING);
     }
+    String oldKey = countryEntity.getNameKey();
     countryEntity.setName(country.getName());
     countryEntity.setCapital(country.getCapital());
-    countryRepository.save(countryEntity);
+    try {
+      countryRepository.save(countryEntity);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, Country.NAME_CONSTRAINT)
+          || UniqueConstraints.isViolated(e, Country.NAME_KEY_CONSTRAINT)) {
+        throw new CountryAlreadyExistException("Такая страна уже существует!");
+      }
+      throw e;
+    }
+    if (!Objects.equals(oldKey, countryEntity.getNameKey())) {
+      nameFilterService.countryAdded(countryEntity.getNameKey());
+    }
 
-    countryCache.clear();
-    return null;
+    String countryTag = CacheTags.country(countryEntity.getId());
+    cacheManager.invalidateTag(countryTag);
+    CountryDto countryDto = CountryDto.toModel(countryEntity);
+    countryCache.put(countryEntity.getNameKey(), countryDto, countryTag);
+    return countryDto;
   }
 
   public void deleteCountryByName(String name) throws CountryNotFoundException {
-    Country country = countryRepository.findByName(name);
+    Country country = countryRepository.findByNameKey(NameKey.of(name));
     if (country != null) {
       countryRepository.delete(country);
-      countryCache.clear();
+      cacheManager.invalidateTag(CacheTags.country(country.getId()));
     } else {
       throw new CountryNotFoundException(COUNTRY_NOT_FOUND_STRING);
     }
@@ -0,0 +1,235 @@
+package com.example.countries.service;
+
+import com.example.countries.dto.CityDto;
+import com.example.countries.entity.Country;
+import com.example.countries.repository.CityRepository;
+import com.example.countries.repository.CountryRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes full dumps of the countries with their cities and languages.
+ *
+ * <p>The dump is produced by merging three database cursors ordered by country ID: the countries,
+ * the cities and the country-language links. Rows are written to the output as they are read and
+ * each country is detached once written, so memory use does not depend on the number of rows.
+ * The output is flushed every {@value #FLUSH_EVERY} records, so the client starts receiving data
+ * right away.
+ */
+@Service
+public class ExportService {
+  static final int FLUSH_EVERY = 1_000;
+
+  private final CountryRepository countryRepository;
+  private final CityRepository cityRepository;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Output formats of the dump.
+   */
+  public enum Format {
+    /** One JSON object per country and line, holding its cities and languages. */
+    NDJSON("application/x-ndjson", "ndjson"),
+    /** One line per city, repeating the country name, capital and languages. */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public String getExtension() {
+      return extension;
+    }
+  }
+
+  /**
+   * Creates the export service.
+   *
+   * @param countryRepository the repository of countries
+   * @param cityRepository    the repository of cities
+   * @param entityManager     the entity manager whose persistence context is kept empty
+   * @param objectMapper      the mapper whose settings the JSON output uses
+   */
+  @Autowired
+  public ExportService(CountryRepository countryRepository, CityRepository cityRepository,
+                       EntityManager entityManager, ObjectMapper objectMapper) {
+    this.countryRepository = countryRepository;
+    this.cityRepository = cityRepository;
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Writes the dump of all countries to a stream. The stream is flushed but not closed.
+   *
+   * @param format the output format
+   * @param out    the stream to write to
+   * @return the number of countries written
+   * @throws IOException if the stream cannot be written
+   */
+  @Transactional
+  public long export(Format format, OutputStream out) throws IOException {
+    try (Stream<Country> countries = countryRepository.streamAll();
+         Stream<CityDto> cities = cityRepository.streamAllByCountry();
+         Stream<Object[]> languages = countryRepository.streamLanguageNames()) {
+      Rows<CityDto> cityRows = new Rows<>(cities.iterator(), CityDto::getCountryId);
+      Rows<Object[]> languageRows = new Rows<>(languages.iterator(), row -> (Long) row[0]);
+      return format == Format.NDJSON
+          ? writeNdjson(countries.iterator(), cityRows, languageRows, out)
+          : writeCsv(countries.iterator(), cityRows, languageRows, out);
+    }
+  }
+
+  private long writeNdjson(Iterator<Country> countries, Rows<CityDto> cities,
+                           Rows<Object[]> languages, OutputStream out) throws IOException {
+    long written = 0;
+    long records = 0;
+    try (JsonGenerator generator = objectMapper.getFactory()
+        .createGenerator(out, JsonEncoding.UTF8)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+      generator.setRootValueSeparator(null);
+      while (countries.hasNext()) {
+        Country country = countries.next();
+        generator.writeStartObject();
+        generator.writeStringField("name", country.getName());
+        generator.writeStringField("capital", country.getCapital());
+        generator.writeArrayFieldStart("languages");
+        for (Object[] language : languages.takeAll(country.getId())) {
+          generator.writeString((String) language[1]);
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("cities");
+        while (cities.hasNext(country.getId())) {
+          generator.writeString(cities.take().getName());
+          records = flushPeriodically(generator, records);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        entityManager.detach(country);
+        records = flushPeriodically(generator, records);
+        written++;
+      }
+      generator.flush();
+    }
+    return written;
+  }
+
+  private long writeCsv(Iterator<Country> countries, Rows<CityDto> cities,
+                        Rows<Object[]> languages, OutputStream out) throws IOException {
+    long written = 0;
+    long records = 0;
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writer.write("country,capital,languages,city\n");
+    while (countries.hasNext()) {
+      Country country = countries.next();
+      List<String> languageNames = new ArrayList<>();
+      for (Object[] language : languages.takeAll(country.getId())) {
+        languageNames.add((String) language[1]);
+      }
+      String prefix = csv(country.getName()) + ',' + csv(country.getCapital()) + ','
+          + csv(String.join(";", languageNames)) + ',';
+      if (!cities.hasNext(country.getId())) {
+        writer.write(prefix + '\n');
+        records++;
+      }
+      while (cities.hasNext(country.getId())) {
+        writer.write(prefix + csv(cities.take().getName()) + '\n');
+        if (++records % FLUSH_EVERY == 0) {
+          writer.flush();
+        }
+      }
+      entityManager.detach(country);
+      written++;
+    }
+    writer.flush();
+    return written;
+  }
+
+  private static long flushPeriodically(JsonGenerator generator, long records)
+      throws IOException {
+    if (++records % FLUSH_EVERY == 0) {
+      generator.flush();
+    }
+    return records;
+  }
+
+  static String csv(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  /**
+   * A cursor over rows ordered by country ID that hands out the rows of one country at a time.
+   * Rows of countries that are not asked for, for example because they were deleted while the
+   * export was running, are skipped.
+   */
+  private static final class Rows<T> {
+    private final Iterator<T> iterator;
+    private final Function<T, Long> countryId;
+    private T next;
+
+    Rows(Iterator<T> iterator, Function<T, Long> countryId) {
+      this.iterator = iterator;
+      this.countryId = countryId;
+      this.next = iterator.hasNext() ? iterator.next() : null;
+    }
+
+    boolean hasNext(Long id) {
+      while (next != null && countryId.apply(next) < id) {
+        advance();
+      }
+      return next != null && Objects.equals(countryId.apply(next), id);
+    }
+
+    T take() {
+      T row = next;
+      advance();
+      return row;
+    }
+
+    List<T> takeAll(Long id) {
+      List<T> rows = new ArrayList<>();
+      while (hasNext(id)) {
+        rows.add(take());
+      }
+      return rows;
+    }
+
+    private void advance() {
+      next = iterator.hasNext() ? iterator.next() : null;
+    }
+  }
+}
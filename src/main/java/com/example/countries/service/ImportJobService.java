@@ -0,0 +1,137 @@
+package com.example.countries.service;
+
+import com.example.countries.component.ImportJob;
+import com.example.countries.component.JsonRecordReader;
+import com.example.countries.entity.Country;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs bulk imports of countries, in the background or while a request body is arriving.
+ *
+ * <p>Either way the countries are passed to {@link CountryService#addCountriesBulk} in chunks of
+ * the configured size and the outcome of each chunk is recorded in an {@link ImportJob}. A
+ * submitted payload is queued on the bounded import executor and its job is returned right away,
+ * so the progress can be polled while the import runs; finished jobs are kept for the configured
+ * retention time. A streamed body is read one record at a time on the calling thread, so only one
+ * chunk of countries is held in memory.
+ */
+@Service
+public class ImportJobService {
+  private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+  private final CountryService countryService;
+  private final ObjectMapper objectMapper;
+  private final ThreadPoolExecutor importExecutor;
+  private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+  private final int chunkSize;
+  private final long retentionNanos;
+
+  /**
+   * Creates the import job service.
+   *
+   * @param countryService   the service storing the countries
+   * @param objectMapper     the mapper reading streamed countries
+   * @param importExecutor   the bounded executor running the jobs
+   * @param chunkSize        the number of countries stored at a time
+   * @param retentionMinutes how long finished jobs can still be queried
+   */
+  @Autowired
+  public ImportJobService(CountryService countryService, ObjectMapper objectMapper,
+                          @Qualifier("importExecutor") ThreadPoolExecutor importExecutor,
+                          @Value("${import.chunk-size:1000}") int chunkSize,
+                          @Value("${import.retention-minutes:60}") long retentionMinutes) {
+    this.countryService = countryService;
+    this.objectMapper = objectMapper;
+    this.importExecutor = importExecutor;
+    this.chunkSize = chunkSize;
+    this.retentionNanos = TimeUnit.MINUTES.toNanos(retentionMinutes);
+  }
+
+  /**
+   * Queues the import of a list of countries.
+   *
+   * @param countries the countries to import
+   * @return the queued job
+   * @throws RejectedExecutionException if the queue of the import executor is full
+   */
+  public ImportJob submit(List<Country> countries) {
+    jobs.values().removeIf(job -> job.finishedBefore(retentionNanos));
+    ImportJob job = new ImportJob(UUID.randomUUID().toString(), countries.size());
+    jobs.put(job.getId(), job);
+    try {
+      importExecutor.execute(() -> run(job, countries.iterator()));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(job.getId());
+      throw e;
+    }
+    logger.info("Поставлен в очередь импорт {} стран, задача {}", countries.size(), job.getId());
+    return job;
+  }
+
+  /**
+   * Finds an import job by its ID.
+   *
+   * @param id the ID of the job
+   * @return the job, or null if it does not exist or is no longer retained
+   */
+  public ImportJob getJob(String id) {
+    return jobs.get(id);
+  }
+
+  /**
+   * Imports the countries of a body holding a JSON array or newline-delimited JSON, storing each
+   * chunk as soon as it has been read. Chunks stored before a malformed record are kept.
+   *
+   * @param body the stream of the body
+   * @return the finished job, failed if the body could not be read or parsed
+   */
+  public ImportJob ingest(InputStream body) {
+    ImportJob job = new ImportJob(UUID.randomUUID().toString(), -1);
+    try (JsonRecordReader<Country> countries =
+             new JsonRecordReader<>(objectMapper, body, Country.class)) {
+      run(job, countries);
+    } catch (IOException e) {
+      logger.warn("Не удалось прочитать импорт {}: {}", job.getId(), e.getMessage());
+      job.fail(e.getMessage());
+    }
+    return job;
+  }
+
+  void run(ImportJob job, Iterator<Country> countries) {
+    job.start();
+    try {
+      int offset = 0;
+      List<Country> chunk = new ArrayList<>(chunkSize);
+      while (countries.hasNext()) {
+        chunk.add(countries.next());
+        if (chunk.size() == chunkSize || !countries.hasNext()) {
+          job.record(offset, countryService.addCountriesBulk(chunk));
+          offset += chunk.size();
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+      job.complete();
+      logger.info("Импорт {} завершён", job.getId());
+    } catch (RuntimeException e) {
+      logger.error("Импорт {} прерван", job.getId(), e);
+      job.fail(e.getMessage());
+    }
+  }
+}
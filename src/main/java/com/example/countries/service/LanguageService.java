@@ -1,8 +1,15 @@
 package com.example.countries.service;
 
 import com.example.countries.component.Cache;
-import com.example.countries.dto.CountryDto;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegions;
+import com.example.countries.component.CacheTags;
+import com.example.countries.component.PageCursor;
+import com.example.countries.component.PartitionRunner;
+import com.example.countries.config.PaginationProperties;
+import com.example.countries.dto.BulkResultDto;
 import com.example.countries.dto.LanguageDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.Country;
 import com.example.countries.entity.Language;
 import com.example.countries.exception.CountryNotFoundException;
@@ -11,7 +18,16 @@ import com.example.countries.exception.LanguageNotFoundException;
 import com.example.countries.repository.CountryRepository;
 import com.example.countries.repository.LanguageRepository;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 /**
@@ -22,36 +38,53 @@ public class LanguageService {
 
   private final LanguageRepository languageRepository;
   private final CountryRepository countryRepository;
-  private final Cache<String, CountryDto> countryCache;
+  private final CacheManager cacheManager;
+  private final Cache<Long, LanguageDto> languageCache;
+  private final NameFilterService nameFilterService;
+  private final PaginationProperties paginationProperties;
+  private final PartitionRunner partitionRunner;
+  private static final Logger logger = LoggerFactory.getLogger(LanguageService.class);
   private static final String LANGUAGE_NOT_FOUND_STRING = "Язык не найден!";
 
   /**
    * Конструктор сервисного класса LanguageService.
    *
-   * @param languageRepository Репозиторий для объектов Language.
-   * @param countryRepository  Репозиторий для объектов Country.
-   * @param countryCache       Кэш для хранения информации о странах.
+   * @param languageRepository   Репозиторий для объектов Language.
+   * @param countryRepository    Репозиторий для объектов Country.
+   * @param cacheManager         Менеджер кэшей приложения.
+   * @param nameFilterService    Сервис фильтров существующих имён.
+   * @param paginationProperties Настройки размера страниц списков.
+   * @param partitionRunner      Исполнитель параллельной записи больших списков по частям.
    */
   @Autowired
   public LanguageService(LanguageRepository languageRepository, CountryRepository countryRepository,
-                         Cache<String, CountryDto> countryCache) {
+                         CacheManager cacheManager, NameFilterService nameFilterService,
+                         PaginationProperties paginationProperties,
+                         PartitionRunner partitionRunner) {
     this.languageRepository = languageRepository;
+    this.paginationProperties = paginationProperties;
+    this.partitionRunner = partitionRunner;
     this.countryRepository = countryRepository;
-    this.countryCache = countryCache;
+    this.cacheManager = cacheManager;
+    this.languageCache = cacheManager.region(CacheRegions.LANGUAGE_BY_ID);
+    this.nameFilterService = nameFilterService;
   }
 
   /**
-   * Добавляет язык к стране.
+   * Добавляет язык к стране. Новый язык сохраняется сразу, поэтому одновременная вставка языка
+   * с тем же названием обнаруживается по уникальному индексу до фиксации транзакции.
    *
    * @param countryId Идентификатор страны.
    * @param language  Объект Language, который необходимо добавить.
    * @throws CountryNotFoundException      Если страна не найдена.
-   * @throws LanguageAlreadyExistException Если язык уже существует в данной стране.
+   * @throws LanguageAlreadyExistException Если язык уже существует в данной стране или язык с
+   *                                       таким названием был одновременно добавлен другим
+   *                                       запросом.
    */
-  @Transactional
+  @Transactional(rollbackOn = LanguageAlreadyExistException.class)
   public void addLanguage(Long countryId, Language language)
       throws CountryNotFoundException, LanguageAlreadyExistException {
-    Country countryEntity = countryRepository.findById(countryId).orElse(null);
+    Country countryEntity = countryRepository.findWithLanguagesById(countryId).orElse(null);
     if (countryEntity == null) {
       throw new CountryNotFoundException("Не удpалось добавить язык. Язык не найден!");
     }
@@ -61,18 +94,124 @@ public class LanguageService {
       throw new LanguageAlreadyExistException("Язык уже существует в данной стране!");
     }
 
+    // Запись не доверяет фильтру имён: он может ещё не знать язык, добавленный другим узлом.
     Language existingLanguage = languageRepository.findByName(language.getName());
 
+    Language linkedLanguage;
     if (existingLanguage != null) {
-      countryEntity.getLanguageList().add(existingLanguage);
+      linkedLanguage = existingLanguage;
     } else {
-      languageRepository.save(language);
-      countryEntity.getLanguageList().add(language);
+      try {
+        languageRepository.saveAndFlush(language);
+      } catch (DataIntegrityViolationException e) {
+        if (UniqueConstraints.isViolated(e, Language.NAME_CONSTRAINT)) {
+          throw new LanguageAlreadyExistException("Такой язык уже существует!");
+        }
+        throw e;
+      }
+      nameFilterService.languageAdded(language.getName());
+      linkedLanguage = language;
     }
+    countryEntity.getLanguageList().add(linkedLanguage);
 
     countryRepository.save(countryEntity);
 
-    countryCache.clear();
+    String languageTag = CacheTags.language(linkedLanguage.getId());
+    AfterCommit.run(() -> cacheManager.invalidateTag(languageTag));
+  }
+
+  /**
+   * Добавляет к стране много языков и сообщает результат по каждому из них.
+   *
+   * <p>Страна проверяется один раз. Сохранённые языки ищутся запросами {@code name IN (...)} по
+   * {@value CountryService#BULK_CHUNK_SIZE} названий, а уже связанные со страной отсеиваются
+   * одним запросом на такую же часть. Новые языки и строки таблицы
+   * {@code country_language_mapping} вставляются пакетами JDBC через {@link PartitionRunner}, по
+   * одной транзакции на часть; часть с ошибкой откатывается, и её языки помечаются как
+   * неудавшиеся.
+   *
+   * @param countryId Идентификатор страны.
+   * @param languages Языки, которые необходимо добавить.
+   * @return Результат по каждому языку в порядке запроса.
+   * @throws CountryNotFoundException Если страна не найдена.
+   */
+  public BulkResultDto addLanguagesBulk(Long countryId, List<Language> languages)
+      throws CountryNotFoundException {
+    if (!countryRepository.existsById(countryId)) {
+      throw new CountryNotFoundException("Не удалось добавить языки. Страна не найдена!");
+    }
+    BulkResultDto result = new BulkResultDto(languages.size());
+    Map<String, Integer> candidates = new LinkedHashMap<>();
+    for (int i = 0; i < languages.size(); i++) {
+      String name = languages.get(i).getName();
+      if (name == null || name.isBlank()) {
+        result.add(i, name, BulkResultDto.Outcome.INVALID, "Не указано название языка");
+      } else if (candidates.putIfAbsent(name, i) != null) {
+        result.add(i, name, BulkResultDto.Outcome.DUPLICATE, null);
+      }
+    }
+
+    Map<Integer, Language> targets = new HashMap<>();
+    List<String> names = new ArrayList<>(candidates.keySet());
+    for (int from = 0; from < names.size(); from += CountryService.BULK_CHUNK_SIZE) {
+      List<String> chunk = names.subList(from,
+          Math.min(from + CountryService.BULK_CHUNK_SIZE, names.size()));
+      Map<Long, String> stored = new HashMap<>();
+      for (Object[] row : languageRepository.findIdsByNames(chunk)) {
+        stored.put((Long) row[0], (String) row[1]);
+      }
+      if (!stored.isEmpty()) {
+        for (Long linkedId : languageRepository.findLinkedIds(countryId, stored.keySet())) {
+          String name = stored.remove(linkedId);
+          Integer index = candidates.remove(name);
+          if (index != null) {
+            result.add(index, name, BulkResultDto.Outcome.ALREADY_EXISTS, null);
+          }
+        }
+      }
+      stored.forEach((id, name) -> {
+        Integer index = candidates.get(name);
+        if (index != null) {
+          Language language = new Language();
+          language.setId(id);
+          language.setName(name);
+          targets.put(index, language);
+        }
+      });
+    }
+    candidates.values().forEach(index -> targets.putIfAbsent(index, languages.get(index)));
+
+    for (PartitionRunner.Partition<Integer> partition : partitionRunner.write(
+        new ArrayList<>(candidates.values()),
+        partition -> languageRepository.linkAll(countryId, languagesAt(targets, partition)))) {
+      for (Integer index : partition.items()) {
+        Language language = targets.get(index);
+        if (partition.error() == null) {
+          result.add(index, language.getName(), BulkResultDto.Outcome.CREATED, null);
+          nameFilterService.languageAdded(language.getName());
+          cacheManager.invalidateTag(CacheTags.language(language.getId()));
+        } else {
+          result.add(index, language.getName(), BulkResultDto.Outcome.FAILED,
+              "Ошибка при добавлении языка");
+        }
+      }
+      if (partition.error() != null) {
+        logger.error("Ошибка при добавлении {} языков: {}", partition.items().size(),
+            partition.error().getMessage());
+      }
+    }
+    logger.info("К стране {} добавлено {} языков, пропущено {}, с ошибкой {}.", countryId,
+        result.getCreated(), result.getSkipped(), result.getFailed());
+    return result;
+  }
+
+  private static List<Language> languagesAt(Map<Integer, Language> targets,
+                                            List<Integer> indexes) {
+    List<Language> selected = new ArrayList<>(indexes.size());
+    for (Integer index : indexes) {
+      selected.add(targets.get(index));
+    }
+    return selected;
   }
 
   /**
@@ -83,28 +222,61 @@ public class LanguageService {
    * @throws LanguageNotFoundException Если язык не найден.
    */
   public LanguageDto getLanguage(Long id) throws LanguageNotFoundException {
-    Language language = languageRepository.findById(id).orElse(null);
-    if (language != null) {
-      return LanguageDto.toModel(language);
-    } else {
-      throw new LanguageNotFoundException(LANGUAGE_NOT_FOUND_STRING);
-    }
+    return languageCache.get(id, tags -> {
+      LanguageDto language = languageRepository.findDtoById(id).orElse(null);
+      if (language == null) {
+        throw new LanguageNotFoundException(LANGUAGE_NOT_FOUND_STRING);
+      }
+      tags.add(CacheTags.language(id));
+      return language;
+    });
   }
 
   /**
-   * Обновляет информацию о языке.
+   * Возвращает страницу языков, упорядоченных по идентификатору.
+   *
+   * @param cursor Маркер, полученный вместе с предыдущей страницей, или null для первой страницы.
+   * @param size   Запрошенный размер страницы или null для размера по умолчанию; не больше
+   *               максимального.
+   * @return Страница объектов LanguageDto.
+   * @throws IllegalArgumentException Если маркер повреждён или размер не положителен.
+   */
+  public PageDto<LanguageDto> getLanguages(String cursor, Integer size) {
+    int pageSize = paginationProperties.pageSize(size);
+    List<LanguageDto> rows = languageRepository.findDtosAfter(PageCursor.decode(cursor),
+        Limit.of(pageSize + 1));
+    return PageDto.of(rows, pageSize, LanguageDto::getId);
+  }
+
+  /**
+   * Обновляет информацию о языке. Переименование в уже сохранённое название обнаруживается по
+   * уникальному индексу на названии.
    *
    * @param id       Идентификатор языка.
    * @param language Объект Language с обновленными данными.
-   * @throws LanguageNotFoundException Если язык не найден.
+   * @throws LanguageNotFoundException     Если язык не найден.
+   * @throws LanguageAlreadyExistException Если язык с новым названием уже существует.
    */
-  public void updateLanguage(Long id, Language language) throws LanguageNotFoundException {
+  public void updateLanguage(Long id, Language language)
+      throws LanguageNotFoundException, LanguageAlreadyExistException {
     Language languageEntity = languageRepository.findById(id).orElse(null);
     if (languageEntity != null) {
+      String oldName = languageEntity.getName();
       languageEntity.setName(language.getName());
-      languageRepository.save(languageEntity);
-
-      countryCache.clear();
+      try {
+        languageRepository.save(languageEntity);
+      } catch (DataIntegrityViolationException e) {
+        if (UniqueConstraints.isViolated(e, Language.NAME_CONSTRAINT)) {
+          throw new LanguageAlreadyExistException("Такой язык уже существует!");
+        }
+        throw e;
+      }
+      if (oldName != null && !oldName.equals(languageEntity.getName())) {
+        nameFilterService.languageAdded(languageEntity.getName());
+      }
+      // Cached country entries hold only country names and capitals, so a renamed language
+      // leaves every one of them valid; only the cached language itself is replaced.
+      cacheManager.invalidate(CacheRegions.LANGUAGE_BY_ID, id);
     } else {
       throw new LanguageNotFoundException(LANGUAGE_NOT_FOUND_STRING);
     }
@@ -121,12 +293,12 @@ public class LanguageService {
   @Transactional
   public void deleteLanguage(Long countryId, Long languageId)
       throws LanguageNotFoundException, CountryNotFoundException {
-    Country countryEntity = countryRepository.findById(countryId).orElse(null);
+    Country countryEntity = countryRepository.findWithLanguagesById(countryId).orElse(null);
     if (countryEntity == null) {
       throw new CountryNotFoundException("Блюдо не найдено");
     }
 
-    Language languageEntity = languageRepository.findById(languageId).orElse(null);
+    Language languageEntity = languageRepository.findWithCountriesById(languageId).orElse(null);
     if (languageEntity == null) {
       throw new LanguageNotFoundException(LANGUAGE_NOT_FOUND_STRING);
     }
@@ -136,6 +308,6 @@ public class LanguageService {
     languageEntity.getCountryList().remove(countryEntity);
     languageRepository.save(languageEntity);
 
-    countryCache.clear();
+    AfterCommit.run(() -> cacheManager.invalidateTag(CacheTags.language(languageId)));
   }
 }
@@ -0,0 +1,207 @@
+package com.example.countries.service;
+
+import com.example.countries.component.InvalidationBus;
+import com.example.countries.component.NameFilter;
+import com.example.countries.component.NameFilterStats;
+import com.example.countries.repository.CountryRepository;
+import com.example.countries.repository.LanguageRepository;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps one {@link NameFilter} per entity type looked up by name, so that lookups of country and
+ * language names that do not exist are answered without a database query. Cities are looked up
+ * by ID only, so they have no filter.
+ *
+ * <p>The filters are built from the database on startup. The services add inserted names once
+ * they are committed, and the names are sent to the other instances over the
+ * {@link InvalidationBus}, so that their filters stop reporting the names as missing. Both
+ * filters are also rebuilt periodically, which drops deleted and renamed names and recovers the
+ * names whose broadcast was lost.
+ */
+@Service
+public class NameFilterService implements ApplicationRunner {
+  private static final Logger logger = LoggerFactory.getLogger(NameFilterService.class);
+  private static final String COUNTRY_FILTER = "country";
+  private static final String LANGUAGE_FILTER = "language";
+
+  private final CountryRepository countryRepository;
+  private final LanguageRepository languageRepository;
+  private final NameFilter countryNames;
+  private final NameFilter languageNames;
+  private final boolean enabled;
+  private final InvalidationBus invalidationBus;
+
+  /**
+   * Creates the name filter service of a single instance, which does not share its names.
+   *
+   * @param countryRepository  the repository of countries
+   * @param languageRepository the repository of languages
+   * @param enabled            whether the filters are built; unbuilt filters let every lookup
+   *                           through
+   * @param falsePositiveRate  the false-positive rate the filters are sized for
+   * @param minExpectedNames   the smallest number of names a filter is sized for
+   */
+  public NameFilterService(CountryRepository countryRepository,
+                           LanguageRepository languageRepository, boolean enabled,
+                           double falsePositiveRate, long minExpectedNames) {
+    this(countryRepository, languageRepository, null, enabled, falsePositiveRate,
+        minExpectedNames);
+  }
+
+  /**
+   * Creates the name filter service.
+   *
+   * @param countryRepository  the repository of countries
+   * @param languageRepository the repository of languages
+   * @param invalidationBus    the bus the inserted names are shared over, or {@code null}
+   * @param enabled            whether the filters are built; unbuilt filters let every lookup
+   *                           through
+   * @param falsePositiveRate  the false-positive rate the filters are sized for
+   * @param minExpectedNames   the smallest number of names a filter is sized for
+   */
+  @Autowired
+  public NameFilterService(CountryRepository countryRepository,
+                           LanguageRepository languageRepository,
+                           InvalidationBus invalidationBus,
+                           @Value("${cache.name-filter.enabled:true}") boolean enabled,
+                           @Value("${cache.name-filter.false-positive-rate:0.01}")
+                           double falsePositiveRate,
+                           @Value("${cache.name-filter.min-expected-names:10000}")
+                           long minExpectedNames) {
+    this.countryRepository = countryRepository;
+    this.languageRepository = languageRepository;
+    this.invalidationBus = invalidationBus;
+    this.enabled = enabled;
+    this.countryNames = new NameFilter(falsePositiveRate, minExpectedNames);
+    this.languageNames = new NameFilter(falsePositiveRate, minExpectedNames);
+    if (invalidationBus != null) {
+      invalidationBus.addNameListener(this::putRemote);
+    }
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (enabled) {
+      rebuildCountries();
+      rebuildLanguages();
+    }
+  }
+
+  public NameFilter countries() {
+    return countryNames;
+  }
+
+  public NameFilter languages() {
+    return languageNames;
+  }
+
+  /**
+   * Adds an inserted country to the country filters of all instances.
+   *
+   * @param nameKey the normalized name of the country
+   * @see #putAfterCommit(String, NameFilter, String)
+   */
+  public void countryAdded(String nameKey) {
+    putAfterCommit(COUNTRY_FILTER, countryNames, nameKey);
+  }
+
+  /**
+   * Adds an inserted language to the language filters of all instances.
+   *
+   * @param name the name of the language
+   * @see #putAfterCommit(String, NameFilter, String)
+   */
+  public void languageAdded(String name) {
+    putAfterCommit(LANGUAGE_FILTER, languageNames, name);
+  }
+
+  /**
+   * Adds an inserted name to a filter and sends it to the other instances once the current
+   * transaction commits, or at once outside a transaction. A name put before the commit could be
+   * missed by a rebuild that reads the database in between, and the filter would then report a
+   * stored name as missing.
+   */
+  private void putAfterCommit(String filter, NameFilter names, String name) {
+    AfterCommit.run(() -> {
+      names.put(name);
+      if (invalidationBus != null) {
+        invalidationBus.nameAdded(filter, name);
+      }
+    });
+  }
+
+  private void putRemote(String filter, String name) {
+    if (COUNTRY_FILTER.equals(filter)) {
+      countryNames.put(name);
+    } else if (LANGUAGE_FILTER.equals(filter)) {
+      languageNames.put(name);
+    }
+  }
+
+  /**
+   * Rebuilds the country name filter from the database.
+   */
+  public void rebuildCountries() {
+    long start = System.nanoTime();
+    int count = countryNames.rebuild(countryRepository.count(),
+        countryRepository::findAllNameKeys);
+    logRebuild(COUNTRY_FILTER, count, start);
+  }
+
+  /**
+   * Rebuilds the language name filter from the database.
+   */
+  public void rebuildLanguages() {
+    long start = System.nanoTime();
+    int count = languageNames.rebuild(languageRepository.count(),
+        languageRepository::findAllNames);
+    logRebuild(LANGUAGE_FILTER, count, start);
+  }
+
+  /**
+   * Rebuilds both filters and logs the filter statistics. The filters are rebuilt even when this
+   * instance saw no deletes or renames, because another instance may have made them, and a lost
+   * broadcast of an inserted name is recovered within one interval.
+   */
+  @Scheduled(fixedDelayString = "${cache.name-filter.rebuild-interval-ms:300000}",
+      initialDelayString = "${cache.name-filter.rebuild-interval-ms:300000}")
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+    rebuildCountries();
+    rebuildLanguages();
+    getStats().forEach((name, stats) -> logger.info(
+        "Name filter {}: checks={} dbCallsSaved={} falsePositives={} observedFpr={} "
+            + "expectedFpr={}", name, stats.checkCount(), stats.definiteMissCount(),
+        stats.falsePositiveCount(), String.format("%.4f", stats.observedFalsePositiveRate()),
+        String.format("%.4f", stats.expectedFalsePositiveRate())));
+  }
+
+  /**
+   * Returns the statistics of every name filter.
+   *
+   * @return the statistics keyed by entity type
+   */
+  public Map<String, NameFilterStats> getStats() {
+    Map<String, NameFilterStats> stats = new LinkedHashMap<>();
+    stats.put(COUNTRY_FILTER, countryNames.stats());
+    stats.put(LANGUAGE_FILTER, languageNames.stats());
+    return stats;
+  }
+
+  private static void logRebuild(String entity, int count, long start) {
+    logger.info("Built {} name filter with {} names in {} ms", entity, count,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+}
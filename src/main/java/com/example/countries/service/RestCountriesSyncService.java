@@ -0,0 +1,252 @@
+package com.example.countries.service;
+
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheTags;
+import com.example.countries.component.JsonRecordReader;
+import com.example.countries.component.PartitionRunner;
+import com.example.countries.dto.SyncReportDto;
+import com.example.countries.entity.Country;
+import com.example.countries.repository.CountryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Synchronizes the countries with a local dump of the restcountries.com API, a JSON array of
+ * country records.
+ *
+ * <p>The dump is read with a streaming parser in chunks. The records of a chunk are mapped in
+ * parallel to countries, each fingerprinted with a SHA-256 hash of the imported fields, and the
+ * hashes stored under the same name keys are read with one query. Countries that are not stored
+ * yet are inserted, countries whose hash differs are updated, and the rest are not touched, so a
+ * repeated sync of an unchanged dump writes nothing. Inserts and updates are written in JDBC
+ * batches by the {@link PartitionRunner}, each partition in its own transaction; the countries of
+ * a partition that fails, for example on a name inserted concurrently, are counted as failed and
+ * the rest of the sync goes on.
+ *
+ * <p>The configured dump is synchronized on the {@code sync.rest-countries.cron} schedule, which
+ * is disabled by default.
+ */
+@Service
+public class RestCountriesSyncService {
+  private static final Logger logger = LoggerFactory.getLogger(RestCountriesSyncService.class);
+
+  private final CountryRepository countryRepository;
+  private final CacheManager cacheManager;
+  private final NameFilterService nameFilterService;
+  private final PartitionRunner partitionRunner;
+  private final ObjectMapper objectMapper;
+  private final String dump;
+  private final int chunkSize;
+
+  /**
+   * Creates the sync service.
+   *
+   * @param countryRepository the repository of countries
+   * @param cacheManager      the cache manager whose entries of updated countries are dropped
+   * @param nameFilterService the service holding the filter of stored country names
+   * @param partitionRunner   the runner writing the inserts and updates in partitions
+   * @param objectMapper      the mapper reading the dump
+   * @param dump              the path of the dump synchronized on schedule, or empty for none
+   * @param chunkSize         the number of records synchronized at a time
+   */
+  @Autowired
+  public RestCountriesSyncService(CountryRepository countryRepository, CacheManager cacheManager,
+                                  NameFilterService nameFilterService,
+                                  PartitionRunner partitionRunner, ObjectMapper objectMapper,
+                                  @Value("${sync.rest-countries.file:}") String dump,
+                                  @Value("${import.chunk-size:1000}") int chunkSize) {
+    this.countryRepository = countryRepository;
+    this.cacheManager = cacheManager;
+    this.nameFilterService = nameFilterService;
+    this.partitionRunner = partitionRunner;
+    this.objectMapper = objectMapper;
+    this.dump = dump;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Synchronizes the configured dump, if any, on the configured schedule.
+   */
+  @Scheduled(cron = "${sync.rest-countries.cron:-}")
+  public void scheduledSync() {
+    try {
+      sync();
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Синхронизация стран не выполнена: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Synchronizes the countries with the configured dump.
+   *
+   * @return the counts of new, changed, unchanged, invalid and failed records and the elapsed
+   *     time
+   * @throws IOException           if the dump cannot be read or parsed
+   * @throws IllegalStateException if no dump is configured
+   */
+  public SyncReportDto sync() throws IOException {
+    if (dump == null || dump.isBlank()) {
+      throw new IllegalStateException("Файл выгрузки стран не задан");
+    }
+    return sync(Path.of(dump));
+  }
+
+  /**
+   * Synchronizes the countries with a dump. Chunks synchronized before a malformed record are
+   * kept.
+   *
+   * @param file the dump
+   * @return the counts of new, changed, unchanged, invalid and failed records and the elapsed
+   *     time
+   * @throws IOException if the dump cannot be read or parsed
+   */
+  public SyncReportDto sync(Path file) throws IOException {
+    long start = System.nanoTime();
+    SyncReportDto report = new SyncReportDto();
+    try (InputStream in = Files.newInputStream(file);
+         JsonRecordReader<JsonNode> records =
+             new JsonRecordReader<>(objectMapper, in, JsonNode.class)) {
+      List<JsonNode> chunk = new ArrayList<>(chunkSize);
+      while (records.hasNext()) {
+        chunk.add(records.next());
+        if (chunk.size() == chunkSize || !records.hasNext()) {
+          report.add(syncChunk(chunk));
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    logger.info("Синхронизация стран из {}: новых {}, изменённых {}, без изменений {}, "
+        + "с ошибкой {}, не записано {}, {} мс", file, report.getCreated(), report.getChanged(),
+        report.getUnchanged(), report.getInvalid(), report.getFailed(),
+        report.getElapsedMillis());
+    return report;
+  }
+
+  SyncReportDto syncChunk(List<JsonNode> records) {
+    SyncReportDto report = new SyncReportDto();
+    Map<String, Country> countries = new LinkedHashMap<>();
+    for (Country country : records.parallelStream().map(RestCountriesSyncService::parse)
+        .toList()) {
+      if (country == null || countries.putIfAbsent(country.getNameKey(), country) != null) {
+        report.setInvalid(report.getInvalid() + 1);
+      }
+    }
+
+    Map<String, Object[]> stored = new HashMap<>();
+    // Keyed by the normalized name key, which is compared exactly whatever the column collation
+    if (!countries.isEmpty()) {
+      for (Object[] row : countryRepository.findContentHashes(countries.keySet())) {
+        stored.put((String) row[1], row);
+      }
+    }
+
+    List<Country> created = new ArrayList<>();
+    List<Country> changed = new ArrayList<>();
+    for (Country country : countries.values()) {
+      Object[] row = stored.get(country.getNameKey());
+      if (row == null) {
+        created.add(country);
+      } else if (Objects.equals(row[2], country.getContentHash())) {
+        report.setUnchanged(report.getUnchanged() + 1);
+      } else {
+        country.setId((Long) row[0]);
+        changed.add(country);
+      }
+    }
+
+    for (PartitionRunner.Partition<Country> partition :
+        partitionRunner.write(changed, countryRepository::updateContentAll)) {
+      if (failed(partition, report)) {
+        continue;
+      }
+      for (Country country : partition.items()) {
+        cacheManager.invalidateTag(CacheTags.country(country.getId()));
+      }
+      report.setChanged(report.getChanged() + partition.items().size());
+    }
+    for (PartitionRunner.Partition<Country> partition :
+        partitionRunner.write(created, countryRepository::insertAll)) {
+      if (failed(partition, report)) {
+        continue;
+      }
+      for (Country country : partition.items()) {
+        nameFilterService.countryAdded(country.getNameKey());
+      }
+      report.setCreated(report.getCreated() + partition.items().size());
+    }
+    return report;
+  }
+
+  private static boolean failed(PartitionRunner.Partition<Country> partition,
+                                SyncReportDto report) {
+    if (partition.error() == null) {
+      return false;
+    }
+    logger.error("Ошибка при синхронизации {} стран: {}", partition.items().size(),
+        partition.error().getMessage());
+    report.setFailed(report.getFailed() + partition.items().size());
+    return true;
+  }
+
+  /**
+   * Maps a restcountries.com record to a country carrying its content hash.
+   *
+   * @param record the record
+   * @return the country, or null if the record has no common name
+   */
+  static Country parse(JsonNode record) {
+    JsonNode name = record.path("name").path("common");
+    if (!name.isTextual() || name.asText().isBlank()) {
+      return null;
+    }
+    Country country = new Country(record);
+    country.setContentHash(contentHash(country));
+    return country;
+  }
+
+  /**
+   * Fingerprints the imported fields of a country.
+   *
+   * @param country the country
+   * @return the hex-encoded SHA-256 hash of the name and capital
+   */
+  static String contentHash(Country country) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update(country.getName().getBytes(StandardCharsets.UTF_8));
+    if (country.getCapital() != null) {
+      digest.update((byte) 0);
+      digest.update(country.getCapital().getBytes(StandardCharsets.UTF_8));
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+}
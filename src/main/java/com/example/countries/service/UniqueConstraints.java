@@ -0,0 +1,32 @@
+package com.example.countries.service;
+
+import java.util.Locale;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Tells which unique constraint an insert violated.
+ */
+final class UniqueConstraints {
+
+  private UniqueConstraints() {
+  }
+
+  /**
+   * Tells whether an integrity violation was raised by a given constraint. The database reports
+   * the constraint only in the message of the driver exception, in its own letter case and
+   * sometimes prefixed with the table name, so the messages of the causes are searched for it.
+   *
+   * @param e          the integrity violation
+   * @param constraint the name of the constraint
+   * @return true if the violation names the constraint
+   */
+  static boolean isViolated(DataIntegrityViolationException e, String constraint) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      String message = cause.getMessage();
+      if (message != null && message.toLowerCase(Locale.ROOT).contains(constraint)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,46 @@
+package db.migration;
+
+import com.example.countries.component.NameKey;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Adds the normalized key of the country name, under which countries are looked up and cached.
+ * The keys of the stored countries are computed by {@link NameKey}, which SQL cannot express,
+ * before the unique index on the key is created. Countries whose names differ only in case,
+ * accents or whitespace must be merged before this version is applied.
+ */
+public class V4__Add_country_name_key extends BaseJavaMigration {
+  private static final int BATCH_SIZE = 1000;
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ALTER TABLE country ADD COLUMN name_key VARCHAR(255)");
+    }
+    try (Statement select = connection.createStatement();
+         ResultSet rows = select.executeQuery("SELECT id, name FROM country");
+         PreparedStatement update =
+             connection.prepareStatement("UPDATE country SET name_key = ? WHERE id = ?")) {
+      int pending = 0;
+      while (rows.next()) {
+        update.setString(1, NameKey.of(rows.getString(2)));
+        update.setLong(2, rows.getLong(1));
+        update.addBatch();
+        if (++pending % BATCH_SIZE == 0) {
+          update.executeBatch();
+        }
+      }
+      update.executeBatch();
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "ALTER TABLE country ADD CONSTRAINT uk_country_name_key UNIQUE (name_key)");
+    }
+  }
+}
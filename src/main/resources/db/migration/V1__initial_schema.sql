@@ -0,0 +1,48 @@
+-- Schema as generated by Hibernate for the last release before migrations were introduced.
+-- Databases created by that release are baselined at this version
+-- (spring.flyway.baseline-on-migrate), so this script only runs on empty databases. Later changes
+-- go into the following versions, which run on baselined databases too.
+
+CREATE TABLE country (
+  id      BIGINT       NOT NULL,
+  name    VARCHAR(255),
+  capital VARCHAR(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE city (
+  id         BIGINT       NOT NULL,
+  name       VARCHAR(255),
+  country_id BIGINT,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_city_country FOREIGN KEY (country_id) REFERENCES country (id)
+);
+
+CREATE TABLE language (
+  id   BIGINT       NOT NULL,
+  name VARCHAR(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE country_language_mapping (
+  country_id  BIGINT NOT NULL,
+  language_id BIGINT NOT NULL,
+  CONSTRAINT fk_country_language_country FOREIGN KEY (country_id) REFERENCES country (id),
+  CONSTRAINT fk_country_language_language FOREIGN KEY (language_id) REFERENCES language (id)
+);
+
+-- One-row tables holding the next block of IDs of each entity (see PooledIdGenerator)
+CREATE TABLE country_seq (
+  next_val BIGINT
+);
+INSERT INTO country_seq VALUES (1);
+
+CREATE TABLE city_seq (
+  next_val BIGINT
+);
+INSERT INTO city_seq VALUES (1);
+
+CREATE TABLE language_seq (
+  next_val BIGINT
+);
+INSERT INTO language_seq VALUES (1);
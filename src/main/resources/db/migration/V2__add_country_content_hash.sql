@@ -0,0 +1,5 @@
+-- Fingerprint of the imported fields of a country, compared by the restcountries.com sync to skip
+-- unchanged records. Countries stored before this version have none and are updated by the next
+-- sync.
+
+ALTER TABLE country ADD COLUMN content_hash VARCHAR(64);
@@ -0,0 +1,9 @@
+-- Names are unique per entity. The unique indexes replace the lookups by name that used to run
+-- before every insert, and also serve those lookups. Duplicate names stored before this version
+-- must be removed before it is applied.
+
+ALTER TABLE country ADD CONSTRAINT uk_country_name UNIQUE (name);
+
+ALTER TABLE city ADD CONSTRAINT uk_city_name UNIQUE (name);
+
+ALTER TABLE language ADD CONSTRAINT uk_language_name UNIQUE (name);
@@ -0,0 +1,50 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+  @Test
+  void testAddedValuesAreAlwaysFound() {
+    BloomFilter filter = new BloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.put("country-" + i);
+    }
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(filter.mightContain("country-" + i));
+    }
+  }
+
+  @Test
+  void testFalsePositiveRateStaysNearTarget() {
+    BloomFilter filter = new BloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.put("country-" + i);
+    }
+    int falsePositives = 0;
+    int probes = 100_000;
+    for (int i = 0; i < probes; i++) {
+      if (filter.mightContain("missing-" + i)) {
+        falsePositives++;
+      }
+    }
+    double rate = (double) falsePositives / probes;
+    assertTrue(rate < 0.02, "False-positive rate " + rate);
+    assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+  }
+
+  @Test
+  void testEmptyFilterContainsNothing() {
+    BloomFilter filter = new BloomFilter(100, 0.01);
+
+    assertFalse(filter.mightContain("Belarus"));
+    assertEquals(0.0, filter.expectedFalsePositiveRate());
+  }
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import com.example.countries.dto.CountryDto;
+
+/**
+ * Compares GC activity of a large heap-only cache with a small heap tier backed by off-heap
+ * memory. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class CacheGcBenchmarkTest {
+
+  private static final int ENTRIES = 200_000;
+  private static final int REQUESTS = 2_000_000;
+  private static final int HEAP_ONLY_CAPACITY = ENTRIES;
+  private static final int TIERED_HEAP_CAPACITY = ENTRIES / 20;
+
+  @Test
+  void testOffHeapTierReducesGcWork() {
+    long[] heapOnly = run(new Cache<>(HEAP_ONLY_CAPACITY, 5_000));
+    OffHeapStore<Integer> offHeap = new OffHeapStore<>(new CountryDtoCodec(), 64L << 20, 1 << 20);
+    long[] tiered = run(new Cache<>(TIERED_HEAP_CAPACITY, 5_000, offHeap));
+
+    System.out.printf("heap only: %d collections, %d ms, %d MB retained%n",
+        heapOnly[0], heapOnly[1], heapOnly[2] >> 20);
+    System.out.printf("off-heap tier: %d collections, %d ms, %d MB retained, %d MB off-heap%n",
+        tiered[0], tiered[1], tiered[2] >> 20, offHeap.getAllocatedBytes() >> 20);
+    assertTrue(tiered[2] < heapOnly[2]);
+  }
+
+  private static long[] run(Cache<Integer, CountryDto> cache) {
+    for (int i = 0; i < ENTRIES; i++) {
+      cache.putList(i, countries(i), "country:" + i);
+    }
+    System.gc();
+    long[] before = gcTotals();
+    Random random = new Random(42);
+    for (int i = 0; i < REQUESTS; i++) {
+      int key = random.nextInt(ENTRIES);
+      if (cache.getList(key) == null) {
+        cache.putList(key, countries(key), "country:" + key);
+      }
+    }
+    long[] after = gcTotals();
+    System.gc();
+    Runtime runtime = Runtime.getRuntime();
+    long retained = runtime.totalMemory() - runtime.freeMemory();
+    cache.clear();
+    return new long[] {after[0] - before[0], after[1] - before[1], retained};
+  }
+
+  private static long[] gcTotals() {
+    long count = 0;
+    long time = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, gc.getCollectionCount());
+      time += Math.max(0, gc.getCollectionTime());
+    }
+    return new long[] {count, time};
+  }
+
+  private static List<CountryDto> countries(int seed) {
+    List<CountryDto> countries = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      CountryDto countryDto = new CountryDto();
+      countryDto.setName("Country " + seed + "-" + i);
+      countryDto.setCapital("Capital " + seed + "-" + i);
+      countries.add(countryDto);
+    }
+    return countries;
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+class CacheManagerTest {
+
+  private static final CacheRegion<String, String> NAMES =
+      new CacheRegion<>("names", String.class, null);
+  private static final CacheRegion<Long, String> IDS =
+      new CacheRegion<>("ids", Long.class, null);
+
+  private CacheManager cacheManager;
+
+  @BeforeEach
+  public void setUp() {
+    cacheManager = new CacheManager();
+  }
+
+  @Test
+  void testRegisteredCacheIsReturned() {
+    Cache<String, String> cache = new Cache<>(5);
+    cacheManager.register(NAMES, cache);
+
+    assertSame(cache, cacheManager.region(NAMES));
+    assertEquals(5, cacheManager.region(NAMES).getCapacity());
+  }
+
+  @Test
+  void testUnregisteredRegionIsCreatedOnce() {
+    Cache<Long, String> cache = cacheManager.region(IDS);
+
+    assertSame(cache, cacheManager.region(IDS));
+  }
+
+  @Test
+  void testDuplicateRegistrationIsRejected() {
+    cacheManager.register(NAMES, new Cache<>());
+
+    assertThrows(IllegalStateException.class,
+        () -> cacheManager.register(NAMES, new Cache<>()));
+  }
+
+  @Test
+  void testRegionsAreIndependent() {
+    cacheManager.region(NAMES).put("1", "name");
+    cacheManager.region(IDS).put(1L, "id");
+
+    cacheManager.region(NAMES).clear();
+
+    assertNull(cacheManager.region(NAMES).get("1"));
+    assertEquals("id", cacheManager.region(IDS).get(1L));
+  }
+
+  @Test
+  void testInvalidateTagReachesEveryRegion() {
+    cacheManager.region(NAMES).put("Belarus", "Minsk", "country:1");
+    cacheManager.region(NAMES).put("Poland", "Warsaw", "country:2");
+    cacheManager.region(IDS).put(1L, "Minsk", "country:1");
+
+    assertEquals(2, cacheManager.invalidateTag("country:1"));
+
+    assertNull(cacheManager.region(NAMES).get("Belarus"));
+    assertNull(cacheManager.region(IDS).get(1L));
+    assertEquals("Warsaw", cacheManager.region(NAMES).get("Poland"));
+  }
+
+  @Test
+  void testRegionsAreListedByName() {
+    cacheManager.region(NAMES);
+    cacheManager.region(IDS);
+
+    assertEquals(List.of("ids", "names"), List.copyOf(cacheManager.getRegions().keySet()));
+  }
+
+  @Test
+  void testRegionParsesKeys() {
+    assertEquals(42L, IDS.parseKey("42"));
+    assertEquals("Belarus", NAMES.parseKey("Belarus"));
+  }
+
+  @Test
+  void testEveryApplicationRegionHasUniqueName() {
+    for (CacheRegion<?, ?> region : CacheRegions.all()) {
+      cacheManager.register(region, new Cache<>());
+    }
+
+    assertEquals(CacheRegions.all().size(), cacheManager.getRegions().size());
+  }
+}
@@ -0,0 +1,129 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import com.example.countries.dto.CountryDto;
+
+class CacheSnapshotTest {
+  private static final Map<String, CacheCodec> CODECS =
+      Map.of("names", new CountryDtoCodec(), "languages", new CountryDtoCodec());
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testWriteAndReadRoundTrip() throws IOException {
+    Path file = directory.resolve("cache.snapshot");
+    CacheSnapshot snapshot = new CacheSnapshot(123L, new long[] {3, 5, 7, 9}, Map.of(
+        "names", List.of(
+            new CacheEntry<>("Беларусь", country(1L, "Беларусь", "Минск"),
+                new String[] {"country:1"}, 42L),
+            new CacheEntry<>("unsupported", "text", new String[0], 0L)),
+        "languages", List.of(
+            new CacheEntry<>("2", List.of(country("Poland", "Warsaw")),
+                new String[] {"language:2", "country:4"}, 7L))));
+
+    assertEquals(2, snapshot.write(file, CODECS));
+    CacheSnapshot restored = CacheSnapshot.read(file, CODECS);
+
+    assertEquals(123L, restored.createdAtMillis());
+    assertArrayEquals(new long[] {3, 5, 7, 9}, restored.tableFingerprints());
+    assertEquals(2, restored.size());
+    CacheEntry<String> first = restored.regions().get("names").get(0);
+    assertEquals("Беларусь", first.key());
+    assertEquals("Минск", ((CountryDto) first.value()).getCapital());
+    assertEquals(1L, ((CountryDto) first.value()).getId());
+    assertArrayEquals(new String[] {"country:1"}, first.tags());
+    assertEquals(42L, first.ageNanos());
+    CacheEntry<String> second = restored.regions().get("languages").get(0);
+    assertEquals("2", second.key());
+    assertEquals("Warsaw", ((CountryDto) ((List<?>) second.value()).get(0)).getCapital());
+    assertNull(((CountryDto) ((List<?>) second.value()).get(0)).getId());
+    assertArrayEquals(new String[] {"language:2", "country:4"}, second.tags());
+    assertEquals(7L, second.ageNanos());
+  }
+
+  @Test
+  void testCorruptedFileIsRejected() throws IOException {
+    Path file = directory.resolve("cache.snapshot");
+    new CacheSnapshot(1L, new long[] {1}, Map.of("names", List.of(
+        new CacheEntry<>("belarus", country("Belarus", "Minsk"), new String[0], 0L))))
+        .write(file, CODECS);
+    assertThrows(IOException.class,
+        () -> CacheSnapshot.read(file, Map.of("languages", new CountryDtoCodec())));
+
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+    assertThrows(IOException.class, () -> CacheSnapshot.read(file, CODECS));
+
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    assertThrows(IOException.class, () -> CacheSnapshot.read(file, CODECS));
+  }
+
+  @Test
+  void testHottestEntriesRestoreIntoEmptyCache() {
+    Cache<String, CountryDto> cache = new Cache<>(10);
+    cache.put("belarus", country("Belarus", "Minsk"), "country:1");
+    cache.put("poland", country("Poland", "Warsaw"), "country:2");
+    cache.get("belarus");
+
+    List<CacheEntry<String>> entries = cache.hottestEntries(10);
+    assertEquals("belarus", entries.get(0).key());
+    assertEquals(1, cache.hottestEntries(1).size());
+
+    Cache<String, CountryDto> restored = new Cache<>(10);
+    entries.forEach(restored::restore);
+    assertEquals("Warsaw", restored.get("poland").getCapital());
+    assertEquals(1, restored.invalidateTag("country:1"));
+    assertNull(restored.get("belarus"));
+  }
+
+  @Test
+  void testRestoredEntriesKeepTheirAge() {
+    RefreshPolicy policy = new RefreshPolicy(Duration.ofSeconds(10), Duration.ofSeconds(2),
+        Duration.ofSeconds(5));
+    AtomicLong clock = new AtomicLong();
+    Cache<String, CountryDto> cache =
+        new Cache<>(10, 50, null, Runnable::run, EvictionPolicy.TINY_LFU, policy);
+    cache.setTicker(clock::get);
+    cache.put("belarus", country("Belarus", "Minsk"));
+    clock.set(TimeUnit.SECONDS.toNanos(12));
+    List<CacheEntry<String>> entries = cache.hottestEntries(10);
+    assertEquals(TimeUnit.SECONDS.toNanos(12), entries.get(0).ageNanos());
+
+    Cache<String, CountryDto> restored =
+        new Cache<>(10, 50, null, Runnable::run, EvictionPolicy.TINY_LFU, policy);
+    restored.setTicker(clock::get);
+    clock.set(TimeUnit.SECONDS.toNanos(100));
+    entries.forEach(restored::restore);
+
+    clock.set(TimeUnit.SECONDS.toNanos(102));
+    assertEquals("Minsk", restored.get("belarus").getCapital());
+    clock.set(TimeUnit.SECONDS.toNanos(103));
+    assertNull(restored.get("belarus"));
+  }
+
+  private static CountryDto country(Long id, String name, String capital) {
+    CountryDto countryDto = country(name, capital);
+    countryDto.setId(id);
+    return countryDto;
+  }
+
+  private static CountryDto country(String name, String capital) {
+    CountryDto countryDto = new CountryDto();
+    countryDto.setName(name);
+    countryDto.setCapital(capital);
+    return countryDto;
+  }
+}
@@ -4,11 +4,31 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import com.example.countries.dto.CountryDto;
+import com.example.countries.exception.CacheLoadException;
+import com.example.countries.exception.CountryNotFoundException;
 
 class CacheTest {
 
+  private static final RefreshPolicy POLICY = new RefreshPolicy(Duration.ofSeconds(10),
+      Duration.ofSeconds(2), Duration.ofSeconds(5));
+
   private Cache<String, String> cache;
 
   @BeforeEach
@@ -50,4 +70,564 @@ class CacheTest {
     cache.clear();
     assertNull(cache.get("key5"));
   }
+
+  @Test
+  void testInvalidateTagRemovesOnlyTaggedEntries() {
+    cache.put("belarus", "Minsk", "country:1");
+    cache.put("poland", "Warsaw", "country:2");
+    cache.putList("language_7", List.of("Minsk", "Warsaw"), "language:7", "country:1",
+        "country:2");
+
+    assertEquals(2, cache.invalidateTag("country:1"));
+
+    assertNull(cache.get("belarus"));
+    assertNull(cache.getList("language_7"));
+    assertEquals("Warsaw", cache.get("poland"));
+    assertEquals(0, cache.invalidateTag("country:1"));
+  }
+
+  @Test
+  void testRetaggedEntryIsNotInvalidatedByOldTag() {
+    cache.put("belarus", "Minsk", "country:1");
+    cache.put("belarus", "Minsk", "country:3");
+
+    assertEquals(0, cache.invalidateTag("country:1"));
+    assertEquals("Minsk", cache.get("belarus"));
+    assertEquals(1, cache.invalidateTag("country:3"));
+  }
+
+  @Test
+  void testLoaderResultIsCachedWithTags() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CacheLoader<String, RuntimeException> loader = tags -> {
+      loads.incrementAndGet();
+      tags.add("country:1");
+      return "Minsk";
+    };
+
+    assertEquals("Minsk", cache.get("belarus", loader));
+    assertEquals("Minsk", cache.get("belarus", loader));
+    assertEquals(1, loads.get());
+
+    cache.invalidateTag("country:1");
+    assertFalse(cache.containsKey("belarus"));
+  }
+
+  @Test
+  void testValueLoadedAcrossInvalidationIsNotCached() throws Exception {
+    String value = cache.get("belarus", tags -> {
+      tags.add("country:1");
+      cache.invalidateTag("country:1");
+      return "Minsk";
+    });
+
+    assertEquals("Minsk", value);
+    assertFalse(cache.containsKey("belarus"));
+    assertEquals("Minsk", cache.get("belarus", tags -> "Minsk"));
+    assertTrue(cache.containsKey("belarus"));
+  }
+
+  @Test
+  void testConcurrentMissesRunLoaderOnce() throws Exception {
+    int callers = 16;
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < callers; i++) {
+      results.add(executor.submit(() -> cache.get("belarus", tags -> {
+        loads.incrementAndGet();
+        release.await();
+        return "Minsk";
+      })));
+    }
+    awaitCoalesced(cache, callers - 1);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertEquals("Minsk", result.get(10, TimeUnit.SECONDS));
+    }
+    executor.shutdown();
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getLoadCount());
+    assertEquals(callers - 1, cache.getCoalescedLoadCount());
+  }
+
+  @Test
+  void testLoaderExceptionReachesEveryWaiter() throws Exception {
+    int callers = 4;
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < callers; i++) {
+      results.add(executor.submit(() -> cache.get("atlantis", tags -> {
+        release.await();
+        throw new CountryNotFoundException("Страна не найдена");
+      })));
+    }
+    awaitCoalesced(cache, callers - 1);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof CountryNotFoundException);
+    }
+    executor.shutdown();
+    assertFalse(cache.containsKey("atlantis"));
+  }
+
+  @Test
+  void testWaiterTimesOut() throws Exception {
+    Cache<String, String> impatient = new Cache<>(10, 50);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<String> leader = executor.submit(() -> impatient.get("slow", tags -> {
+      release.await();
+      return "value";
+    }));
+    while (impatient.getLoadCount() == 0) {
+      Thread.onSpinWait();
+    }
+
+    assertThrows(CacheLoadException.class, () -> impatient.get("slow", tags -> "other"));
+
+    release.countDown();
+    assertEquals("value", leader.get(10, TimeUnit.SECONDS));
+    executor.shutdown();
+  }
+
+  @Test
+  void testCapacityIsNeverExceeded() {
+    Cache<Integer, String> bounded = new Cache<>(100);
+    for (int i = 0; i < 10_000; i++) {
+      bounded.put(i, "value" + i);
+      bounded.get(i % 50);
+    }
+    assertTrue(bounded.size() <= 100);
+  }
+
+  @Test
+  void testFrequentKeySurvivesScan() {
+    Cache<Integer, String> bounded = new Cache<>(10);
+    for (int i = 0; i < 5; i++) {
+      bounded.put(-1, "hot");
+      bounded.get(-1);
+    }
+    for (int i = 0; i < 1_000; i++) {
+      bounded.put(i, "cold" + i);
+    }
+    assertEquals("hot", bounded.get(-1));
+  }
+
+  @Test
+  void testLruEvictsLeastRecentlyUsedEntry() {
+    Cache<Integer, String> lru = new Cache<>(2, 50, null, Runnable::run, EvictionPolicy.LRU, null);
+    lru.put(1, "one");
+    lru.put(2, "two");
+    lru.get(1);
+    lru.put(3, "three");
+
+    assertEquals("one", lru.get(1));
+    assertNull(lru.get(2));
+    assertEquals("three", lru.get(3));
+    assertEquals(0, lru.getEvictionCount(EvictionCause.REJECTED));
+  }
+
+  @Test
+  void testDefaultRefreshPolicyExpiresPlainReads() {
+    AtomicLong clock = new AtomicLong();
+    Cache<String, String> expiring = new Cache<>(10, 50, null, runnable -> {
+      throw new RejectedExecutionException("queue is full");
+    }, EvictionPolicy.TINY_LFU, POLICY);
+    expiring.setTicker(clock::get);
+    AtomicInteger loads = new AtomicInteger();
+
+    expiring.get("key", tags -> "v" + loads.incrementAndGet());
+    clock.set(seconds(14));
+    assertEquals("v1", expiring.get("key"));
+
+    clock.set(seconds(15));
+    assertNull(expiring.get("key"));
+    assertEquals("v2", expiring.get("key", tags -> "v" + loads.incrementAndGet()));
+  }
+
+  @Test
+  void testGetAllReturnsHitsInKeyOrder() {
+    Cache<String, String> large = new Cache<>(1_000);
+    Map<String, String> entries = new LinkedHashMap<>();
+    for (int i = 0; i < 100; i++) {
+      entries.put("key" + i, "value" + i);
+    }
+    large.putAll(entries);
+
+    Map<String, String> found = large.getAll(List.of("key7", "missing", "key3", "key7"));
+
+    assertEquals(List.of("key7", "key3"), new ArrayList<>(found.keySet()));
+    assertEquals("value3", found.get("key3"));
+    assertEquals(2, large.getHitCount());
+    assertEquals(1, large.getMissCount());
+  }
+
+  @Test
+  void testPutAllTagsEachEntry() {
+    Cache<String, CountryDto> countries = new Cache<>(100);
+    countries.putAll(Map.of("Belarus", country("Belarus"), "Poland", country("Poland")),
+        country -> new String[] {"country:" + country.getName()});
+
+    countries.invalidateTag("country:Belarus");
+
+    assertEquals(List.of("Poland"),
+        new ArrayList<>(countries.getAll(List.of("Belarus", "Poland")).keySet()));
+  }
+
+  @Test
+  void testPutAllSkipsValuesLoadedAcrossInvalidation() {
+    long generation = cache.invalidationGeneration();
+    cache.invalidateTag("country:1");
+
+    assertFalse(cache.putAll(Map.of("belarus", "Minsk"), value -> new String[] {"country:1"},
+        generation));
+    assertFalse(cache.containsKey("belarus"));
+    assertTrue(cache.putAll(Map.of("belarus", "Minsk"), value -> new String[] {"country:1"},
+        cache.invalidationGeneration()));
+    assertTrue(cache.containsKey("belarus"));
+  }
+
+  @Test
+  void testGetAllDropsExpiredEntries() {
+    AtomicLong clock = new AtomicLong();
+    Cache<String, String> expiring = new Cache<>(10, 50, null, null, EvictionPolicy.TINY_LFU,
+        POLICY);
+    expiring.setTicker(clock::get);
+    expiring.put("old", "v1");
+    clock.set(seconds(12));
+    expiring.put("new", "v2");
+
+    clock.set(seconds(15));
+
+    assertEquals(Map.of("new", "v2"), expiring.getAll(List.of("old", "new")));
+    assertFalse(expiring.containsKey("old"));
+  }
+
+  @Test
+  void testInvalidCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new Cache<String, String>(0));
+  }
+
+  @Test
+  void testConcurrentAccessKeepsCacheConsistent() throws Exception {
+    int capacity = 512;
+    int keySpace = 4_096;
+    int threads = 8;
+    Cache<Integer, String> shared = new Cache<>(capacity);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int seed = t;
+      results.add(executor.submit(() -> {
+        Random random = new Random(seed);
+        int corrupted = 0;
+        start.await();
+        for (int i = 0; i < 200_000; i++) {
+          int key = random.nextInt(keySpace);
+          switch (random.nextInt(10)) {
+            case 0 -> shared.remove(key);
+            case 1, 2, 3 -> shared.put(key, "value" + key);
+            default -> {
+              String value = shared.get(key);
+              if (value != null && !value.equals("value" + key)) {
+                corrupted++;
+              }
+            }
+          }
+        }
+        return corrupted;
+      }));
+    }
+    start.countDown();
+    for (Future<Integer> result : results) {
+      assertEquals(0, result.get(60, TimeUnit.SECONDS));
+    }
+    executor.shutdown();
+
+    int present = 0;
+    for (int key = 0; key < keySpace; key++) {
+      if (shared.containsKey(key)) {
+        present++;
+        assertEquals("value" + key, shared.get(key));
+      }
+    }
+    assertEquals(present, shared.size());
+    assertTrue(shared.size() <= capacity);
+  }
+
+  @Test
+  void testHitRateBeatsLruOnSkewedWorkload() {
+    int capacity = 200;
+    int keySpace = 20_000;
+    int requests = 500_000;
+    double[] cumulative = zipfCumulative(keySpace, 0.9);
+
+    Cache<Integer, Integer> tinyLfu = new Cache<>(capacity);
+    Map<Integer, Integer> lru = new LinkedHashMap<>(capacity, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+        return size() > capacity;
+      }
+    };
+
+    Random random = new Random(42);
+    int tinyLfuHits = 0;
+    int lruHits = 0;
+    for (int i = 0; i < requests; i++) {
+      int key = sample(cumulative, random.nextDouble());
+      if (tinyLfu.get(key) != null) {
+        tinyLfuHits++;
+      } else {
+        tinyLfu.put(key, key);
+      }
+      if (lru.get(key) != null) {
+        lruHits++;
+      } else {
+        lru.put(key, key);
+      }
+    }
+
+    double tinyLfuHitRate = (double) tinyLfuHits / requests;
+    double lruHitRate = (double) lruHits / requests;
+    assertTrue(tinyLfuHitRate > lruHitRate,
+        "TinyLFU hit rate " + tinyLfuHitRate + " should beat LRU hit rate " + lruHitRate);
+  }
+
+  @Test
+  void testEvictedEntryIsPromotedFromOffHeap() {
+    OffHeapStore<Integer> offHeap = new OffHeapStore<>(new CountryDtoCodec(), 1 << 16, 1 << 12);
+    Cache<Integer, CountryDto> tiered = new Cache<>(10, 50, offHeap);
+    for (int i = 0; i < 100; i++) {
+      tiered.put(i, country("Country" + i), "country:" + i);
+    }
+
+    assertTrue(tiered.size() <= 10);
+    assertEquals(100, tiered.size() + offHeap.size());
+    for (int i = 0; i < 100; i++) {
+      assertTrue(tiered.containsKey(i));
+      assertEquals("Country" + i, tiered.get(i).getName());
+    }
+    assertTrue(tiered.size() <= 10);
+  }
+
+  @Test
+  void testInvalidateTagReachesOffHeapEntries() {
+    OffHeapStore<Integer> offHeap = new OffHeapStore<>(new CountryDtoCodec(), 1 << 16, 1 << 12);
+    Cache<Integer, CountryDto> tiered = new Cache<>(10, 50, offHeap);
+    for (int i = 0; i < 100; i++) {
+      tiered.put(i, country("Country" + i), "country:" + (i % 2));
+    }
+
+    assertEquals(50, tiered.invalidateTag("country:1"));
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i % 2 == 0, tiered.get(i) != null);
+    }
+    tiered.clear();
+    assertEquals(0, offHeap.size());
+    assertEquals(0, tiered.invalidateTag("country:0"));
+  }
+
+  @Test
+  void testReplacedOffHeapEntryKeepsOnlyNewTags() {
+    OffHeapStore<Integer> offHeap = new OffHeapStore<>(new CountryDtoCodec(), 1 << 16, 1 << 12);
+    Cache<Integer, CountryDto> tiered = new Cache<>(10, 50, offHeap);
+    for (int i = 0; i < 100; i++) {
+      tiered.put(i, country("Country" + i), "country:" + i);
+    }
+    int demoted = 0;
+    while (!offHeap.containsKey(demoted)) {
+      demoted++;
+    }
+
+    tiered.put(demoted, country("Renamed"), "country:renamed");
+
+    assertEquals(0, tiered.invalidateTag("country:" + demoted));
+    assertEquals("Renamed", tiered.get(demoted).getName());
+  }
+
+  @Test
+  void testRefreshAheadServesCachedValueWhileReloading() {
+    AtomicLong clock = new AtomicLong();
+    Queue<Runnable> refreshes = new ArrayDeque<>();
+    Cache<String, String> refreshing = new Cache<>(10, 50, null, refreshes::add);
+    refreshing.setTicker(clock::get);
+    AtomicInteger loads = new AtomicInteger();
+    CacheLoader<String, RuntimeException> loader = tags -> {
+      tags.add("language:1");
+      return "v" + loads.incrementAndGet();
+    };
+
+    assertEquals("v1", refreshing.get("key", POLICY, loader));
+    clock.set(seconds(7));
+    assertEquals("v1", refreshing.get("key", POLICY, loader));
+    assertTrue(refreshes.isEmpty());
+
+    clock.set(seconds(9));
+    assertEquals("v1", refreshing.get("key", POLICY, loader));
+    assertEquals("v1", refreshing.get("key", POLICY, loader));
+    assertEquals(1, refreshes.size());
+
+    refreshes.poll().run();
+    assertEquals("v2", refreshing.get("key", POLICY, loader));
+    assertEquals(1, refreshing.getRefreshCount());
+    assertTrue(refreshing.getTotalRefreshNanos() >= refreshing.getMaxRefreshNanos());
+    assertEquals(1, refreshing.invalidateTag("language:1"));
+  }
+
+  @Test
+  void testExpiredEntryIsServedUntilMaxStaleness() {
+    AtomicLong clock = new AtomicLong();
+    Cache<String, String> refreshing = new Cache<>(10, 50, null, runnable -> {
+      throw new RejectedExecutionException("queue is full");
+    });
+    refreshing.setTicker(clock::get);
+    AtomicInteger loads = new AtomicInteger();
+    CacheLoader<String, RuntimeException> loader = tags -> "v" + loads.incrementAndGet();
+
+    refreshing.get("key", POLICY, loader);
+    clock.set(seconds(14));
+    assertEquals("v1", refreshing.get("key", POLICY, loader));
+
+    clock.set(seconds(15));
+    assertEquals("v2", refreshing.get("key", POLICY, loader));
+    assertEquals(2, refreshing.getLoadCount());
+  }
+
+  @Test
+  void testFailedRefreshKeepsCachedValue() {
+    AtomicLong clock = new AtomicLong();
+    Queue<Runnable> refreshes = new ArrayDeque<>();
+    Cache<String, String> refreshing = new Cache<>(10, 50, null, refreshes::add);
+    refreshing.setTicker(clock::get);
+
+    refreshing.get("key", POLICY, tags -> "v1");
+    clock.set(seconds(9));
+    refreshing.get("key", POLICY, tags -> {
+      throw new IllegalStateException("database is down");
+    });
+    refreshes.poll().run();
+
+    assertEquals("v1", refreshing.get("key", POLICY, tags -> "v2"));
+    assertEquals(1, refreshing.getRefreshFailureCount());
+    assertEquals(0, refreshing.getRefreshCount());
+  }
+
+  @Test
+  void testRefreshDoesNotRestoreInvalidatedEntry() {
+    AtomicLong clock = new AtomicLong();
+    Queue<Runnable> refreshes = new ArrayDeque<>();
+    Cache<String, String> refreshing = new Cache<>(10, 50, null, refreshes::add);
+    refreshing.setTicker(clock::get);
+
+    refreshing.get("key", POLICY, tags -> {
+      tags.add("language:1");
+      return "v1";
+    });
+    clock.set(seconds(9));
+    refreshing.get("key", POLICY, tags -> "v2");
+    refreshing.invalidateTag("language:1");
+    refreshes.poll().run();
+
+    assertFalse(refreshing.containsKey("key"));
+  }
+
+  @Test
+  void testRejectedRefreshIsCounted() {
+    AtomicLong clock = new AtomicLong();
+    Cache<String, String> refreshing = new Cache<>(10, 50, null, runnable -> {
+      throw new RejectedExecutionException("queue is full");
+    });
+    refreshing.setTicker(clock::get);
+
+    refreshing.get("key", POLICY, tags -> "v1");
+    clock.set(seconds(9));
+
+    assertEquals("v1", refreshing.get("key", POLICY, tags -> "v2"));
+    assertEquals(1, refreshing.getRefreshRejectedCount());
+    assertEquals("v1", refreshing.get("key", POLICY, tags -> "v2"));
+    assertEquals(2, refreshing.getRefreshRejectedCount());
+  }
+
+  @Test
+  void testStatsCountHitsMissesAndEvictionCauses() {
+    Cache<Integer, String> counted = new Cache<>(10);
+    counted.put(1, "one", "country:1");
+    counted.get(1);
+    counted.get(2);
+    counted.getList(3);
+    counted.get(4, tags -> "four");
+    counted.remove(4);
+    counted.invalidateTag("country:1");
+    for (int i = 100; i < 200; i++) {
+      counted.put(i, "value" + i);
+    }
+
+    CacheStats stats = counted.stats();
+    assertEquals(1, stats.hitCount());
+    assertEquals(3, stats.missCount());
+    assertEquals(0.25, stats.hitRate(), 1e-9);
+    assertEquals(1, stats.loadCount());
+    assertEquals(1, stats.loadLatency().count());
+    assertEquals(1L, stats.evictions().get(EvictionCause.REMOVED));
+    assertEquals(1L, stats.evictions().get(EvictionCause.INVALIDATED));
+    assertEquals(90L, stats.evictions().get(EvictionCause.SIZE)
+        + stats.evictions().get(EvictionCause.REJECTED));
+    assertEquals(10, stats.size());
+    assertTrue(stats.estimatedHeapBytes() > 10 * 56);
+    assertEquals(0, stats.offHeapSize());
+  }
+
+  private static long seconds(long seconds) {
+    return TimeUnit.SECONDS.toNanos(seconds);
+  }
+
+  private static CountryDto country(String name) {
+    CountryDto countryDto = new CountryDto();
+    countryDto.setName(name);
+    countryDto.setCapital("Capital of " + name);
+    return countryDto;
+  }
+
+  private static void awaitCoalesced(Cache<?, ?> cache, long expected)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (cache.getCoalescedLoadCount() < expected && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+  }
+
+  private static double[] zipfCumulative(int n, double skew) {
+    double[] cumulative = new double[n];
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += 1.0 / Math.pow(i + 1.0, skew);
+      cumulative[i] = sum;
+    }
+    for (int i = 0; i < n; i++) {
+      cumulative[i] /= sum;
+    }
+    return cumulative;
+  }
+
+  private static int sample(double[] cumulative, double p) {
+    int low = 0;
+    int high = cumulative.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cumulative[mid] < p) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
 }
@@ -0,0 +1,30 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapEstimatorTest {
+
+  @Test
+  void testPrimitiveArraysAreSizedByLength() {
+    assertEquals(16, HeapEstimator.estimate(new byte[0]));
+    assertEquals(1040, HeapEstimator.estimate(new byte[1024]));
+    assertEquals(96, HeapEstimator.estimate(new long[10]));
+  }
+
+  @Test
+  void testObjectArraysIncludeTheirElements() {
+    String[] tags = {"country:1", "language:2"};
+
+    assertEquals(24 + HeapEstimator.estimate("country:1") + HeapEstimator.estimate("language:2"),
+        HeapEstimator.estimate(tags));
+  }
+
+  @Test
+  void testArrayFieldsAreSized() {
+    CachedResponse small = new CachedResponse(null, new byte[16], null, "\"tag\"");
+    CachedResponse large = new CachedResponse(null, new byte[4096], null, "\"tag\"");
+
+    assertEquals(4080, HeapEstimator.estimate(large) - HeapEstimator.estimate(small));
+  }
+}
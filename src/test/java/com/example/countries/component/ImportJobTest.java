@@ -0,0 +1,60 @@
+package com.example.countries.component;
+
+import com.example.countries.dto.BulkResultDto;
+import com.example.countries.dto.ImportJobDto;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportJobTest {
+
+  @Test
+  void testNewJobIsQueued() {
+    ImportJobDto snapshot = new ImportJob("job", 3).snapshot();
+
+    assertEquals(ImportJob.Status.QUEUED, snapshot.getStatus());
+    assertEquals(3, snapshot.getTotal());
+    assertEquals(0, snapshot.getProcessed());
+    assertEquals(0, snapshot.getItemsPerSecond());
+  }
+
+  @Test
+  void testRecordAddsChunkOutcomesWithJobPositions() {
+    ImportJob job = new ImportJob("job", 4);
+    job.start();
+    BulkResultDto first = new BulkResultDto(2);
+    first.add(0, "A", BulkResultDto.Outcome.CREATED, null);
+    first.add(1, "B", BulkResultDto.Outcome.ALREADY_EXISTS, null);
+    BulkResultDto second = new BulkResultDto(2);
+    second.add(0, "C", BulkResultDto.Outcome.FAILED, "error");
+    second.add(1, "D", BulkResultDto.Outcome.CREATED, null);
+
+    job.record(0, first);
+    job.record(2, second);
+    ImportJobDto snapshot = job.snapshot();
+
+    assertEquals(ImportJob.Status.RUNNING, snapshot.getStatus());
+    assertEquals(4, snapshot.getProcessed());
+    assertEquals(2, snapshot.getCreated());
+    assertEquals(1, snapshot.getSkipped());
+    assertEquals(1, snapshot.getFailed());
+    assertEquals(2, snapshot.getFailures().size());
+    assertEquals(1, snapshot.getFailures().get(0).index());
+    assertEquals(2, snapshot.getFailures().get(1).index());
+    assertEquals("error", snapshot.getFailures().get(1).message());
+  }
+
+  @Test
+  void testFinishedJobsExpire() throws InterruptedException {
+    ImportJob job = new ImportJob("job", 0);
+    assertFalse(job.finishedBefore(0));
+    job.start();
+    job.fail("error");
+    Thread.sleep(1);
+
+    assertTrue(job.finishedBefore(0));
+    assertFalse(job.finishedBefore(Long.MAX_VALUE));
+    assertEquals("error", job.snapshot().getError());
+  }
+}
@@ -0,0 +1,95 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a tag invalidation takes to reach the peers over UDP on the loopback
+ * interface. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class InvalidationBusBenchmarkTest {
+
+  private static final CacheRegion<String, String> NAMES =
+      new CacheRegion<>("names", String.class, null);
+  private static final long BATCH_INTERVAL_MS = 5;
+  private static final int NODES = 3;
+  private static final int ROUNDS = 200;
+
+  @Test
+  void testUdpPropagationDelay() throws Exception {
+    InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    List<UdpInvalidationTransport> transports = new ArrayList<>();
+    List<CacheManager> managers = new ArrayList<>();
+    List<InvalidationBus> buses = new ArrayList<>();
+    try {
+      for (int i = 0; i < NODES; i++) {
+        transports.add(new UdpInvalidationTransport(loopback, List.of()));
+      }
+      for (UdpInvalidationTransport transport : transports) {
+        for (UdpInvalidationTransport peer : transports) {
+          if (peer != transport) {
+            transport.addPeer(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                peer.getLocalPort()));
+          }
+        }
+      }
+      for (int i = 0; i < NODES; i++) {
+        CacheManager manager = new CacheManager();
+        managers.add(manager);
+        buses.add(new InvalidationBus("node-" + i, manager, transports.get(i),
+            BATCH_INTERVAL_MS, 512));
+      }
+
+      List<Long> delays = new ArrayList<>(ROUNDS);
+      int lost = 0;
+      for (int round = 0; round < ROUNDS; round++) {
+        String tag = "country:" + round;
+        for (CacheManager manager : managers) {
+          manager.region(NAMES).put("key" + round, "value", tag);
+        }
+        CacheManager writer = managers.get(round % NODES);
+        long start = System.nanoTime();
+        writer.invalidateTag(tag);
+        boolean reached = true;
+        for (CacheManager manager : managers) {
+          reached &= awaitRemoved(manager.region(NAMES), "key" + round);
+        }
+        if (reached) {
+          delays.add(System.nanoTime() - start);
+        } else {
+          lost++;
+        }
+      }
+
+      long[] sorted = delays.stream().mapToLong(Long::longValue).toArray();
+      Arrays.sort(sorted);
+      int count = sorted.length;
+      System.out.printf("UDP invalidation propagation to %d peers over %d rounds "
+              + "(batch interval %d ms): p50=%.2f ms p99=%.2f ms max=%.2f ms, %d lost%n",
+          NODES - 1, ROUNDS, BATCH_INTERVAL_MS, sorted[count / 2] / 1e6,
+          sorted[count * 99 / 100] / 1e6, sorted[count - 1] / 1e6, lost);
+      assertTrue(sorted[count / 2] < TimeUnit.SECONDS.toNanos(1));
+    } finally {
+      buses.forEach(InvalidationBus::close);
+      transports.forEach(UdpInvalidationTransport::close);
+    }
+  }
+
+  private static boolean awaitRemoved(Cache<String, ?> cache, String key)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+    while (cache.containsKey(key) && System.nanoTime() < deadline) {
+      Thread.sleep(0, 100_000);
+    }
+    return !cache.containsKey(key);
+  }
+}
@@ -0,0 +1,223 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+class InvalidationBusTest {
+
+  private static final CacheRegion<String, String> NAMES =
+      new CacheRegion<>("names", String.class, null);
+  private static final CacheRegion<Long, String> IDS =
+      new CacheRegion<>("ids", Long.class, null);
+  private static final long BATCH_INTERVAL_MS = 5;
+
+  @Test
+  void testTagInvalidationReachesPeer() throws Exception {
+    InMemoryInvalidationTransport.Hub hub = new InMemoryInvalidationTransport.Hub();
+    CacheManager first = new CacheManager();
+    CacheManager second = new CacheManager();
+    try (InvalidationBus firstBus = bus("first", first, hub);
+         InvalidationBus secondBus = bus("second", second, hub)) {
+      first.region(NAMES).put("Belarus", "Minsk", "country:1");
+      second.region(NAMES).put("Belarus", "Minsk", "country:1");
+      second.region(NAMES).put("Poland", "Warsaw", "country:2");
+
+      first.invalidateTag("country:1");
+
+      assertNull(first.region(NAMES).get("Belarus"));
+      awaitRemoved(second.region(NAMES), "Belarus");
+      assertEquals("Warsaw", second.region(NAMES).get("Poland"));
+      assertEquals(1, secondBus.getReceivedCount());
+    }
+  }
+
+  @Test
+  void testKeyInvalidationReachesPeer() throws Exception {
+    InMemoryInvalidationTransport.Hub hub = new InMemoryInvalidationTransport.Hub();
+    CacheManager first = new CacheManager();
+    CacheManager second = new CacheManager();
+    try (InvalidationBus firstBus = bus("first", first, hub);
+         InvalidationBus secondBus = bus("second", second, hub)) {
+      second.region(IDS).put(7L, "English");
+      second.region(IDS).put(8L, "French");
+
+      first.invalidate(IDS, 7L);
+
+      awaitRemoved(second.region(IDS), 7L);
+      assertEquals("French", second.region(IDS).get(8L));
+    }
+  }
+
+  @Test
+  void testAddedNameReachesPeerFilter() throws Exception {
+    InMemoryInvalidationTransport.Hub hub = new InMemoryInvalidationTransport.Hub();
+    CacheManager second = new CacheManager();
+    second.region(NAMES).put("belarus", "Minsk");
+    NameFilter secondNames = new NameFilter(0.01, 100);
+    secondNames.rebuild(0, List::of);
+    try (InvalidationBus firstBus = bus("first", new CacheManager(), hub);
+         InvalidationBus secondBus = bus("second", second, hub)) {
+      secondBus.addNameListener((filter, name) -> {
+        if (filter.equals("country")) {
+          secondNames.put(name);
+        }
+      });
+
+      firstBus.nameAdded("country", "belarus");
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (!secondNames.mightContain("belarus") && System.nanoTime() < deadline) {
+        Thread.sleep(0, 100_000);
+      }
+      assertTrue(secondNames.mightContain("belarus"));
+      assertEquals("Minsk", second.region(NAMES).get("belarus"));
+    }
+  }
+
+  @Test
+  void testRepeatedInvalidationsAreSentOnce() {
+    InMemoryInvalidationTransport.Hub hub = new InMemoryInvalidationTransport.Hub();
+    CacheManager first = new CacheManager();
+    CacheManager second = new CacheManager();
+    try (InvalidationBus firstBus = new InvalidationBus("first", first,
+        new InMemoryInvalidationTransport(hub), TimeUnit.HOURS.toMillis(1), 100);
+         InvalidationBus secondBus = bus("second", second, hub)) {
+      for (int i = 0; i < 3; i++) {
+        first.invalidateTag("country:1");
+        first.invalidate(IDS, 7L);
+      }
+      first.invalidateTag("country:2");
+
+      assertEquals(3, firstBus.flush());
+      assertEquals(0, firstBus.flush());
+      assertEquals(3, firstBus.getPublishedCount());
+      assertEquals(4, firstBus.getDeduplicatedCount());
+      assertEquals(1, firstBus.getSentBatchCount());
+      assertEquals(3, secondBus.getReceivedCount());
+    }
+  }
+
+  @Test
+  void testFullBatchIsSentBeforeInterval() throws Exception {
+    InMemoryInvalidationTransport.Hub hub = new InMemoryInvalidationTransport.Hub();
+    CacheManager first = new CacheManager();
+    CacheManager second = new CacheManager();
+    try (InvalidationBus firstBus = new InvalidationBus("first", first,
+        new InMemoryInvalidationTransport(hub), TimeUnit.HOURS.toMillis(1), 10);
+         InvalidationBus secondBus = bus("second", second, hub)) {
+      for (int i = 0; i < 10; i++) {
+        first.invalidateTag("country:" + i);
+      }
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (secondBus.getReceivedCount() < 10 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      assertEquals(10, secondBus.getReceivedCount());
+    }
+  }
+
+  @Test
+  void testReceivedInvalidationsAreNotBroadcastAgain() throws Exception {
+    InMemoryInvalidationTransport.Hub hub = new InMemoryInvalidationTransport.Hub();
+    CacheManager first = new CacheManager();
+    CacheManager second = new CacheManager();
+    try (InvalidationBus firstBus = bus("first", first, hub);
+         InvalidationBus secondBus = bus("second", second, hub)) {
+      second.region(NAMES).put("Belarus", "Minsk", "country:1");
+
+      first.invalidateTag("country:1");
+      awaitRemoved(second.region(NAMES), "Belarus");
+      secondBus.flush();
+
+      assertEquals(0, secondBus.getSentBatchCount());
+      assertEquals(0, firstBus.getReceivedCount());
+    }
+  }
+
+  @Test
+  void testBatchRoundTrip() throws Exception {
+    InvalidationBatch batch = new InvalidationBatch("node", 42L, List.of("country:1", "язык:2"),
+        List.of(new InvalidationBatch.KeyInvalidation("ids", "7")));
+    byte[] data = batch.encode();
+
+    assertEquals(batch, InvalidationBatch.decode(data, data.length));
+    assertEquals(3, batch.split().stream().mapToInt(InvalidationBatch::size).sum());
+    assertThrows(IOException.class,
+        () -> InvalidationBatch.decode(new byte[] {1, 2, 3, 4, 5}, 5));
+  }
+
+  @Test
+  void testOversizedBatchIsSplitIntoDatagrams() throws Exception {
+    InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    try (UdpInvalidationTransport sender = new UdpInvalidationTransport(loopback, List.of());
+         UdpInvalidationTransport receiver = new UdpInvalidationTransport(loopback, List.of())) {
+      List<InvalidationBatch> received = new CopyOnWriteArrayList<>();
+      receiver.start(received::add);
+      sender.addPeer(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+          receiver.getLocalPort()));
+      List<String> tags = new ArrayList<>();
+      for (int i = 0; i < 10_000; i++) {
+        tags.add("country:" + i + ":" + "x".repeat(10));
+      }
+
+      sender.send(new InvalidationBatch("sender", 0L, tags, List.of()));
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (received.stream().mapToInt(InvalidationBatch::size).sum() < tags.size()
+          && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      assertTrue(received.size() > 1);
+      assertEquals(tags.size(), received.stream().mapToInt(InvalidationBatch::size).sum());
+    }
+  }
+
+  @Test
+  void testUdpInvalidationReachesPeer() throws Exception {
+    InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    CacheManager first = new CacheManager();
+    CacheManager second = new CacheManager();
+    UdpInvalidationTransport firstTransport = new UdpInvalidationTransport(loopback, List.of());
+    UdpInvalidationTransport secondTransport = new UdpInvalidationTransport(loopback, List.of());
+    try (InvalidationBus firstBus = new InvalidationBus("first", first, firstTransport,
+             BATCH_INTERVAL_MS, 512);
+         InvalidationBus secondBus = new InvalidationBus("second", second, secondTransport,
+             BATCH_INTERVAL_MS, 512)) {
+      firstTransport.addPeer(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+          secondTransport.getLocalPort()));
+      second.region(NAMES).put("Belarus", "Minsk", "country:1");
+
+      // UDP may drop a datagram, so the invalidation is repeated until one arrives
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (second.region(NAMES).containsKey("Belarus") && System.nanoTime() < deadline) {
+        first.invalidateTag("country:1");
+        Thread.sleep(BATCH_INTERVAL_MS * 4);
+      }
+      assertFalse(second.region(NAMES).containsKey("Belarus"));
+      assertTrue(secondBus.getReceivedCount() > 0);
+    }
+  }
+
+  private static InvalidationBus bus(String nodeId, CacheManager cacheManager,
+                                     InMemoryInvalidationTransport.Hub hub) {
+    return new InvalidationBus(nodeId, cacheManager, new InMemoryInvalidationTransport(hub),
+        BATCH_INTERVAL_MS, 512);
+  }
+
+  private static <K> void awaitRemoved(Cache<K, ?> cache, K key) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (cache.containsKey(key) && System.nanoTime() < deadline) {
+      Thread.sleep(0, 100_000);
+    }
+    assertFalse(cache.containsKey(key), "Entry " + key + " was not invalidated");
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.countries.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonRecordReaderTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void testReadsJsonArray() throws IOException {
+    try (JsonRecordReader<Map> reader = reader("[{\"name\":\"A\"}, {\"name\":\"B\"}]")) {
+      assertTrue(reader.isArray());
+      assertEquals(List.of("A", "B"), names(reader));
+    }
+  }
+
+  @Test
+  void testReadsNewlineDelimitedJson() throws IOException {
+    try (JsonRecordReader<Map> reader = reader("{\"name\":\"A\"}\n{\"name\":\"B\"}\n")) {
+      assertFalse(reader.isArray());
+      assertEquals(List.of("A", "B"), names(reader));
+    }
+  }
+
+  @Test
+  void testEmptyInputHasNoRecords() throws IOException {
+    try (JsonRecordReader<Map> empty = reader(""); JsonRecordReader<Map> array = reader("[]")) {
+      assertFalse(empty.hasNext());
+      assertFalse(array.hasNext());
+    }
+  }
+
+  @Test
+  void testRecordsBeforeMalformedInputAreRead() throws IOException {
+    try (JsonRecordReader<Map> reader = reader("[{\"name\":\"A\"}, 42]")) {
+      assertEquals("A", reader.next().get("name"));
+      assertThrows(UncheckedIOException.class, reader::hasNext);
+    }
+  }
+
+  @Test
+  void testTruncatedInputFails() throws IOException {
+    try (JsonRecordReader<Map> reader = reader("{\"name\":\"A\"}\n{\"name\":")) {
+      reader.next();
+      assertThrows(UncheckedIOException.class, reader::next);
+    }
+  }
+
+  private JsonRecordReader<Map> reader(String json) throws IOException {
+    return new JsonRecordReader<>(objectMapper,
+        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Map.class);
+  }
+
+  private static List<Object> names(JsonRecordReader<Map> reader) {
+    List<Object> names = new ArrayList<>();
+    while (reader.hasNext()) {
+      names.add(reader.next().get("name"));
+    }
+    return names;
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+class LatencyHistogramTest {
+
+  @Test
+  void testLatenciesLandInPowerOfTwoBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(500);
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(4));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(2));
+    histogram.record(TimeUnit.HOURS.toNanos(1));
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertEquals(5, snapshot.count());
+    assertEquals(1L, snapshot.buckets().get("le_1us"));
+    assertEquals(2L, snapshot.buckets().get("le_4us"));
+    assertEquals(1L, snapshot.buckets().get("le_2048us"));
+    assertEquals(1L, snapshot.buckets().get("gt_16777216us"));
+    assertEquals(TimeUnit.HOURS.toMillis(1), snapshot.maxMillis(), 1e-6);
+  }
+
+  @Test
+  void testEmptyHistogram() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+    assertEquals(0, snapshot.count());
+    assertEquals(0.0, snapshot.meanMillis(), 0.0);
+    assertTrue(snapshot.buckets().isEmpty());
+  }
+}
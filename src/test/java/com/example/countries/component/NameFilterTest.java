@@ -0,0 +1,128 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class NameFilterTest {
+
+  @Test
+  void testUnbuiltFilterLetsEveryNameThrough() {
+    NameFilter filter = new NameFilter(0.01, 100);
+
+    assertTrue(filter.mightContain("Atlantis"));
+    assertFalse(filter.stats().built());
+    assertEquals(0, filter.stats().checkCount());
+  }
+
+  @Test
+  void testDefiniteMissSkipsFinder() {
+    NameFilter filter = new NameFilter(0.01, 100);
+    filter.rebuild(1, () -> List.of("Belarus"));
+    AtomicInteger queries = new AtomicInteger();
+
+    assertNull(filter.find("Atlantis", name -> {
+      queries.incrementAndGet();
+      return null;
+    }));
+    assertEquals("Belarus", filter.find("Belarus", name -> {
+      queries.incrementAndGet();
+      return name;
+    }));
+
+    assertEquals(1, queries.get());
+    assertEquals(1, filter.stats().definiteMissCount());
+  }
+
+  @Test
+  void testNamesAreFoldedLikeCaseAndAccentInsensitiveCollation() {
+    NameFilter filter = new NameFilter(0.01, 100);
+    filter.rebuild(3, () -> List.of("Côte d'Ivoire", "Беларусь", "Straße"));
+
+    assertTrue(filter.mightContain("cote d'ivoire"));
+    assertTrue(filter.mightContain(" БЕЛАРУСЬ "));
+    assertTrue(filter.mightContain("STRASSE"));
+  }
+
+  @Test
+  void testInsertedNameIsFound() {
+    NameFilter filter = new NameFilter(0.01, 100);
+    filter.rebuild(0, List::of);
+
+    filter.put("Poland");
+
+    assertTrue(filter.mightContain("Poland"));
+  }
+
+  @Test
+  void testNameInsertedDuringRebuildIsKept() {
+    NameFilter filter = new NameFilter(0.01, 100);
+    filter.rebuild(0, List::of);
+
+    filter.rebuild(1, () -> {
+      filter.put("Poland");
+      return List.of("Belarus");
+    });
+
+    assertTrue(filter.mightContain("Poland"));
+    assertTrue(filter.mightContain("Belarus"));
+  }
+
+  @Test
+  void testNamesPutWhileRebuildingAreNeverLost() throws Exception {
+    NameFilter filter = new NameFilter(0.01, 10_000);
+    Set<String> stored = ConcurrentHashMap.newKeySet();
+    filter.rebuild(0, List::of);
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread rebuilder = new Thread(() -> {
+      while (running.get()) {
+        filter.rebuild(stored.size(), () -> List.copyOf(stored));
+      }
+    });
+    rebuilder.start();
+    try {
+      for (int i = 0; i < 2_000; i++) {
+        stored.add("Country " + i);
+        filter.put("Country " + i);
+        assertTrue(filter.mightContain("Country " + i));
+      }
+    } finally {
+      running.set(false);
+      rebuilder.join();
+    }
+  }
+
+  @Test
+  void testRebuildDropsDeletedNames() {
+    NameFilter filter = new NameFilter(0.01, 100);
+    filter.rebuild(2, () -> List.of("Belarus", "Poland"));
+    filter.markStale();
+    assertTrue(filter.isStale());
+
+    filter.rebuild(1, () -> List.of("Belarus"));
+
+    assertFalse(filter.isStale());
+    assertFalse(filter.mightContain("Poland"));
+  }
+
+  @Test
+  void testObservedFalsePositiveRate() {
+    NameFilter filter = new NameFilter(0.01, 100);
+    filter.rebuild(1, () -> List.of("Belarus"));
+
+    filter.find("Belarus", name -> null);
+    filter.find("Atlantis", name -> null);
+    filter.find("Lemuria", name -> null);
+    filter.find("Mu", name -> null);
+
+    NameFilterStats stats = filter.stats();
+    assertEquals(1, stats.falsePositiveCount());
+    assertEquals(3, stats.definiteMissCount());
+    assertEquals(0.25, stats.observedFalsePositiveRate());
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NameKeyTest {
+
+  @Test
+  void testOfFoldsCaseAndWhitespace() {
+    assertEquals("united states", NameKey.of("  UNITED\t\n States "));
+    assertEquals("united states", NameKey.of("united states"));
+  }
+
+  @Test
+  void testOfStripsDiacritics() {
+    assertEquals("cote d'ivoire", NameKey.of("Côte d'Ivoire"));
+    assertEquals("sao tome and principe", NameKey.of("São Tomé and Príncipe"));
+    assertEquals("еж", NameKey.of("Ёж"));
+  }
+
+  @Test
+  void testOfFoldsCompatibilityForms() {
+    assertEquals("strasse", NameKey.of("Straße"));
+    assertEquals("fiji", NameKey.of("ﬁji"));
+  }
+
+  @Test
+  void testOfKeepsNull() {
+    assertNull(NameKey.of(null));
+    assertEquals("", NameKey.of("   "));
+  }
+}
@@ -0,0 +1,113 @@
+package com.example.countries.component;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.example.countries.dto.CountryDto;
+
+class OffHeapStoreTest {
+
+  private static final int SLAB_SIZE = 1024;
+
+  private OffHeapStore<String> store;
+  private List<String> evicted;
+
+  @BeforeEach
+  public void setUp() {
+    store = new OffHeapStore<>(new CountryDtoCodec(), 4L * SLAB_SIZE, SLAB_SIZE);
+    evicted = new ArrayList<>();
+    store.setEvictionListener((key, tags) -> evicted.add(key));
+  }
+
+  @Test
+  void testTakeRestoresValueAndTags() {
+    assertTrue(store.put("belarus", country("Беларусь", "Минск"), new String[] {"country:1"},
+        0L));
+
+    OffHeapStore.Entry entry = store.take("belarus");
+
+    CountryDto restored = (CountryDto) entry.value();
+    assertEquals("Беларусь", restored.getName());
+    assertEquals("Минск", restored.getCapital());
+    assertArrayEquals(new String[] {"country:1"}, entry.tags());
+    assertNull(store.take("belarus"));
+    assertEquals(0, store.size());
+    assertEquals(0L, store.getLiveBytes());
+  }
+
+  @Test
+  void testListRoundTrip() {
+    List<CountryDto> countries = List.of(country("Poland", "Warsaw"), country("Belarus", null));
+    assertTrue(store.put("language_7", countries, new String[0], 0L));
+
+    List<?> restored = (List<?>) store.take("language_7").value();
+
+    assertEquals(2, restored.size());
+    assertEquals("Warsaw", ((CountryDto) restored.get(0)).getCapital());
+    assertNull(((CountryDto) restored.get(1)).getCapital());
+  }
+
+  @Test
+  void testUnsupportedAndOversizedValuesAreRefused() {
+    assertFalse(store.put("text", "not a country", new String[0], 0L));
+    assertFalse(store.put("huge", country("x".repeat(SLAB_SIZE), "y"), new String[0], 0L));
+    assertEquals(0, store.size());
+    assertEquals(0L, store.getAllocatedBytes());
+  }
+
+  @Test
+  void testRemoveTaggedRequiresTag() {
+    store.put("belarus", country("Belarus", "Minsk"), new String[] {"country:1"}, 0L);
+
+    assertNull(store.removeTagged("belarus", "country:2"));
+    assertTrue(store.containsKey("belarus"));
+    assertArrayEquals(new String[] {"country:1"}, store.removeTagged("belarus", "country:1"));
+    assertFalse(store.containsKey("belarus"));
+  }
+
+  @Test
+  void testRecycledSlabEvictsOldestEntries() {
+    int entries = 1_000;
+    for (int i = 0; i < entries; i++) {
+      assertTrue(store.put("key" + i, country("Country" + i, "Capital" + i), new String[0],
+          0L));
+    }
+
+    assertEquals(4L * SLAB_SIZE, store.getAllocatedBytes());
+    assertTrue(store.getLiveBytes() <= store.getAllocatedBytes());
+    assertEquals(entries, store.size() + store.getEvictionCount());
+    assertEquals(evicted.size(), store.getEvictionCount());
+    assertFalse(store.containsKey("key0"));
+    assertEquals("Capital" + (entries - 1),
+        ((CountryDto) store.take("key" + (entries - 1)).value()).getCapital());
+  }
+
+  @Test
+  void testClearNotifiesListener() {
+    store.put("belarus", country("Belarus", "Minsk"), new String[0], 0L);
+    store.put("poland", country("Poland", "Warsaw"), new String[0], 0L);
+
+    store.clear();
+
+    assertEquals(0, store.size());
+    assertEquals(2, evicted.size());
+    assertTrue(store.put("belarus", country("Belarus", "Minsk"), new String[0], 0L));
+  }
+
+  @Test
+  void testInvalidCapacity() {
+    CountryDtoCodec codec = new CountryDtoCodec();
+    assertThrows(IllegalArgumentException.class,
+        () -> new OffHeapStore<String>(codec, SLAB_SIZE, SLAB_SIZE));
+  }
+
+  private static CountryDto country(String name, String capital) {
+    CountryDto countryDto = new CountryDto();
+    countryDto.setName(name);
+    countryDto.setCapital(capital);
+    return countryDto;
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.countries.component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+  @Test
+  void testRoundTrip() {
+    for (long id : new long[] {0L, 1L, 42L, Long.MAX_VALUE}) {
+      assertEquals(id, PageCursor.decode(PageCursor.encode(id)));
+    }
+  }
+
+  @Test
+  void testMissingCursorStartsAtFirstPage() {
+    assertEquals(0L, PageCursor.decode(null));
+    assertEquals(0L, PageCursor.decode(" "));
+  }
+
+  @Test
+  void testCursorIsUrlSafe() {
+    String cursor = PageCursor.encode(Long.MAX_VALUE - 1);
+
+    assertEquals(cursor, URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testMalformedCursorIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("%%"));
+    assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("AQ"));
+    assertThrows(IllegalArgumentException.class,
+        () -> PageCursor.decode(PageCursor.encode(5L).replace('A', 'B')));
+    assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(PageCursor.encode(-1L)));
+  }
+}
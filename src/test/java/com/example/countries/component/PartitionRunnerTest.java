@@ -0,0 +1,105 @@
+package com.example.countries.component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionRunnerTest {
+
+  private final PartitionRunner runner =
+      new PartitionRunner(2, 3, 3, 0, e -> e instanceof IllegalStateException);
+
+  @AfterEach
+  void tearDown() {
+    runner.shutdown();
+  }
+
+  @Test
+  void testWriteSplitsItemsIntoPartitionsInOrder() {
+    List<Integer> items = IntStream.range(0, 7).boxed().toList();
+
+    List<PartitionRunner.Partition<Integer>> partitions = runner.write(items, partition -> { });
+
+    assertEquals(List.of(0, 3, 6), partitions.stream().map(PartitionRunner.Partition::offset)
+        .toList());
+    assertEquals(List.of(0, 1, 2), partitions.get(0).items());
+    assertEquals(List.of(6), partitions.get(2).items());
+    partitions.forEach(partition -> assertNull(partition.error()));
+  }
+
+  @Test
+  void testWriteRetriesRetryableErrors() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    List<PartitionRunner.Partition<Integer>> partitions = runner.write(List.of(1), partition -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new IllegalStateException("Lock wait timeout");
+      }
+    });
+
+    assertNull(partitions.get(0).error());
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  void testWriteFailsPartitionWhenAttemptsAreExhausted() {
+    AtomicInteger attempts = new AtomicInteger();
+    IllegalStateException error = new IllegalStateException("Lock wait timeout");
+
+    List<PartitionRunner.Partition<Integer>> partitions = runner.write(List.of(1), partition -> {
+      attempts.incrementAndGet();
+      throw error;
+    });
+
+    assertSame(error, partitions.get(0).error());
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  void testWriteDoesNotRetryOtherErrors() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    List<PartitionRunner.Partition<Integer>> partitions = runner.write(List.of(1, 2, 3, 4),
+        partition -> {
+          attempts.incrementAndGet();
+          if (partition.contains(1)) {
+            throw new IllegalArgumentException("Duplicate entry");
+          }
+        });
+
+    assertTrue(partitions.get(0).error() instanceof IllegalArgumentException);
+    assertNull(partitions.get(1).error());
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  void testWriteNeverRunsMorePartitionsThanThreads() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+
+    runner.write(IntStream.range(0, 30).boxed().toList(), partition -> {
+      peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      running.decrementAndGet();
+    });
+
+    assertTrue(peak.get() <= runner.getThreads());
+  }
+
+  @Test
+  void testConstructorRejectsNonPositiveSettings() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new PartitionRunner(0, 3, 3, 0, e -> false));
+  }
+}
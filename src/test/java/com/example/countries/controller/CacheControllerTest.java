@@ -0,0 +1,55 @@
+package com.example.countries.controller;
+
+import com.example.countries.component.Cache;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegion;
+import com.example.countries.component.CacheStats;
+import com.example.countries.component.NameFilterStats;
+import com.example.countries.service.CacheStatsService;
+import com.example.countries.service.NameFilterService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CacheControllerTest {
+
+  @Test
+  void getStats_ReturnsStatsOfEveryRegion() {
+    CacheManager cacheManager = new CacheManager();
+    Cache<String, String> cache =
+        cacheManager.region(new CacheRegion<String, String>("names", String.class, null));
+    cache.put("key", "value");
+    cache.get("key");
+    cache.get("missing");
+    CacheController cacheController = new CacheController(new CacheStatsService(cacheManager),
+        new NameFilterService(null, null, true, 0.01, 100));
+
+    ResponseEntity<Map<String, CacheStats>> response = cacheController.getStats();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    CacheStats stats = response.getBody().get("names");
+    assertEquals(1, stats.hitCount());
+    assertEquals(1, stats.missCount());
+    assertEquals(1, stats.size());
+  }
+
+  @Test
+  void getNameFilterStats_ReportsSavedQueries() {
+    NameFilterService nameFilterService = new NameFilterService(null, null, true, 0.01, 100);
+    nameFilterService.countries().rebuild(1, () -> List.of("Belarus"));
+    nameFilterService.countries().mightContain("Atlantis");
+    CacheController cacheController =
+        new CacheController(new CacheStatsService(new CacheManager()), nameFilterService);
+
+    ResponseEntity<Map<String, NameFilterStats>> response = cacheController.getNameFilterStats();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(1, response.getBody().get("country").definiteMissCount());
+    assertFalse(response.getBody().get("language").built());
+    assertFalse(response.getBody().containsKey("city"));
+  }
+}
@@ -1,5 +1,8 @@
 package com.example.countries.controller;
 
+import com.example.countries.dto.BulkResultDto;
+import com.example.countries.dto.CityDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.City;
 import com.example.countries.exception.CityAlreadyExistException;
 import com.example.countries.exception.CityNotFoundException;
@@ -14,6 +17,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -64,7 +69,7 @@ class CityControllerTest {
   }
 
   @Test
-  void testUpdateCity_Success() throws CityNotFoundException {
+  void testUpdateCity_Success() throws CityNotFoundException, CityAlreadyExistException {
     City city = new City();
     doNothing().when(cityService).updateCity(anyLong(), any());
 
@@ -76,7 +81,8 @@ class CityControllerTest {
   }
 
   @Test
-  void testUpdateCity_CityNotFoundException() throws CityNotFoundException {
+  void testUpdateCity_CityNotFoundException()
+      throws CityNotFoundException, CityAlreadyExistException {
     City city = new City();
     doThrow(new CityNotFoundException("City not found")).when(cityService).updateCity(anyLong(), any());
 
@@ -104,4 +110,37 @@ class CityControllerTest {
       cityController.deleteCity(1L);
     });
   }
+
+  @Test
+  void testGetCities_ReturnsPage() {
+    PageDto<CityDto> page = new PageDto<>(List.of(new CityDto()), null);
+    when(cityService.getCities(7L, null, null)).thenReturn(page);
+
+    ResponseEntity<?> response = cityController.getCities(7L, null, null);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  void testAddCitiesBulk_ReturnsReport() throws CountryNotFoundException {
+    List<City> cities = List.of(new City());
+    BulkResultDto result = new BulkResultDto(1);
+    result.add(0, "City", BulkResultDto.Outcome.CREATED, null);
+    when(cityService.addCitiesBulk(1L, cities)).thenReturn(result);
+
+    ResponseEntity<?> response = cityController.addCitiesBulk(1L, cities);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(result, response.getBody());
+  }
+
+  @Test
+  void testAddCitiesBulk_CountryNotFoundException() throws CountryNotFoundException {
+    when(cityService.addCitiesBulk(anyLong(), anyList()))
+        .thenThrow(new CountryNotFoundException("Country not found"));
+
+    assertThrows(HttpClientErrorException.class,
+        () -> cityController.addCitiesBulk(1L, List.of(new City())));
+  }
 }
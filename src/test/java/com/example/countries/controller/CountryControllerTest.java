@@ -1,21 +1,35 @@
 package com.example.countries.controller;
 
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.ResponseCache;
 import com.example.countries.dto.CountryDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.Country;
 import com.example.countries.exception.CountryAlreadyExistException;
 import com.example.countries.exception.CountryNotFoundException;
 import com.example.countries.service.CountryService;
+import com.example.countries.service.RequestCounterService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +39,13 @@ class CountryControllerTest {
   @Mock
   private CountryService countryService;
 
+  @Mock
+  private RequestCounterService requestCounterService;
+
+  @Spy
+  private ResponseCache responseCache =
+      new ResponseCache(new ObjectMapper(), new CacheManager(), true, 64);
+
   @InjectMocks
   private CountryController countryController;
 
@@ -57,29 +78,47 @@ class CountryControllerTest {
     assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
   }
 
+  // Similar tests for other methods
+
   @Test
-  void addCountriesBulk_ValidCountries_ReturnsSuccessResponse()
-      throws CountryAlreadyExistException {
-    List<Country> countries = Collections.singletonList(new Country());
-    doNothing().when(countryService).addCountriesBulk(anyList());
+  void getCountry_ValidName_ReturnsCountry() throws CountryNotFoundException, IOException {
+    CountryDto countryDto = new CountryDto();
+    countryDto.setName("CountryName");
+    when(countryService.getCountry(anyString())).thenReturn(countryDto);
 
-    ResponseEntity<?> response = countryController.addCountriesBulk(countries);
+    ResponseEntity<?> response = countryController.getCountry("CountryName", null, null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals("Страны были успешно сохранены!", response.getBody());
+    CountryDto body = new ObjectMapper().readValue((byte[]) response.getBody(), CountryDto.class);
+    assertEquals("CountryName", body.getName());
+    assertEquals(countryDto.getCapital(), body.getCapital());
   }
 
-  // Similar tests for other methods
+  @Test
+  void getCountry_MatchingEtag_ReturnsNotModified() throws CountryNotFoundException {
+    when(countryService.getCountry(anyString())).thenReturn(new CountryDto());
+    String etag = countryController.getCountry("CountryName", null, null).getHeaders().getETag();
+
+    ResponseEntity<?> response = countryController.getCountry("CountryName", etag, null);
+
+    assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    assertEquals(etag, response.getHeaders().getETag());
+    assertNull(response.getBody());
+  }
 
   @Test
-  void getCountry_ValidName_ReturnsCountry() throws CountryNotFoundException {
-    CountryDto countryDto = new CountryDto();
-    when(countryService.getCountry(anyString())).thenReturn(countryDto);
+  void getCountry_ChangedCountry_ChangesEtag() throws CountryNotFoundException {
+    CountryDto before = new CountryDto();
+    before.setCapital("Old");
+    CountryDto after = new CountryDto();
+    after.setCapital("New");
+    when(countryService.getCountry(anyString())).thenReturn(before, after);
 
-    ResponseEntity<?> response = countryController.getCountry("CountryName");
+    String oldEtag = countryController.getCountry("CountryName", null, null).getHeaders().getETag();
+    ResponseEntity<?> response = countryController.getCountry("CountryName", oldEtag, null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals(countryDto, response.getBody());
+    assertNotEquals(oldEtag, response.getHeaders().getETag());
   }
 
   @Test
@@ -87,21 +126,112 @@ class CountryControllerTest {
     when(countryService.getCountry(anyString())).thenThrow(new CountryNotFoundException("Country not found"));
 
     HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> {
-      countryController.getCountry("NonExistentCountry");
+      countryController.getCountry("NonExistentCountry", null, null);
     });
 
     assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
   }
 
+  @Test
+  void getCountry_MissingName_ThrowsBadRequestException() throws CountryNotFoundException {
+    HttpClientErrorException exception = assertThrows(HttpClientErrorException.class,
+        () -> countryController.getCountry(null, null, null));
+
+    assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    verify(countryService, never()).getCountry(any());
+  }
+
   @Test
   void getCountriesWithLanguage_ValidLanguageId_ReturnsListOfCountries()
-      throws CountryNotFoundException {
+      throws CountryNotFoundException, IOException {
     List<CountryDto> countryDtos = Collections.singletonList(new CountryDto());
     when(countryService.getCountriesWithLanguage(anyLong())).thenReturn(countryDtos);
 
-    ResponseEntity<?> response = countryController.getCountriesWithLanguage(1L);
+    ResponseEntity<?> response = countryController.getCountriesWithLanguage(1L, null, null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    assertEquals(countryDtos, response.getBody());
+    CountryDto[] body = new ObjectMapper().readValue((byte[]) response.getBody(), CountryDto[].class);
+    assertEquals(1, body.length);
+  }
+
+  @Test
+  void getCountriesWithLanguage_AcceptsGzip_ReturnsCompressedBody()
+      throws CountryNotFoundException, IOException {
+    List<CountryDto> countryDtos = Collections.nCopies(20, new CountryDto());
+    when(countryService.getCountriesWithLanguage(anyLong())).thenReturn(countryDtos);
+
+    byte[] plain = (byte[]) countryController.getCountriesWithLanguage(1L, null, null).getBody();
+    ResponseEntity<?> response = countryController.getCountriesWithLanguage(1L, null,
+        "deflate, gzip;q=0.8");
+
+    assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    try (GZIPInputStream in =
+             new GZIPInputStream(new ByteArrayInputStream((byte[]) response.getBody()))) {
+      assertArrayEquals(plain, in.readAllBytes());
+    }
+  }
+
+  @Test
+  void getCountriesWithLanguage_GzippedBody_HasOwnEtag() throws CountryNotFoundException {
+    List<CountryDto> countryDtos = Collections.nCopies(20, new CountryDto());
+    when(countryService.getCountriesWithLanguage(anyLong())).thenReturn(countryDtos);
+
+    String plainEtag =
+        countryController.getCountriesWithLanguage(1L, null, null).getHeaders().getETag();
+    ResponseEntity<?> gzipped = countryController.getCountriesWithLanguage(1L, null, "gzip");
+    String gzipEtag = gzipped.getHeaders().getETag();
+
+    assertEquals(plainEtag.substring(0, plainEtag.length() - 1) + "-gzip\"", gzipEtag);
+    assertEquals(HttpHeaders.ACCEPT_ENCODING, gzipped.getHeaders().getFirst(HttpHeaders.VARY));
+    assertEquals(HttpStatus.NOT_MODIFIED,
+        countryController.getCountriesWithLanguage(1L, gzipEtag, "gzip").getStatusCode());
+    assertEquals(HttpStatus.OK,
+        countryController.getCountriesWithLanguage(1L, gzipEtag, null).getStatusCode());
+  }
+
+  @Test
+  void getCountries_ReturnsPage() {
+    PageDto<CountryDto> page = new PageDto<>(List.of(new CountryDto()), "cursor");
+    when(countryService.getCountries("previous", 10)).thenReturn(page);
+
+    ResponseEntity<?> response = countryController.getCountries("previous", 10);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  void getCountriesByNames_ReturnsCountriesFound() {
+    List<CountryDto> countries = List.of(new CountryDto(1L, "Belarus", "Minsk"));
+    when(countryService.getCountriesByNames(List.of("Belarus", "Atlantis")))
+        .thenReturn(countries);
+
+    ResponseEntity<?> response = countryController.getCountriesByNames(
+        List.of("Belarus", "Atlantis"));
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(countries, response.getBody());
+  }
+
+  @Test
+  void postCountriesByNames_TooManyNames_ThrowsBadRequest() {
+    when(countryService.getCountriesByNames(anyCollection()))
+        .thenThrow(new IllegalArgumentException("At most 100 names can be requested at once"));
+
+    HttpClientErrorException exception = assertThrows(HttpClientErrorException.class,
+        () -> countryController.postCountriesByNames(List.of("Belarus")));
+
+    assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+  }
+
+  @Test
+  void getCountriesWithLanguagePage_MalformedCursor_ThrowsBadRequest() {
+    when(countryService.getCountriesWithLanguage(1L, "%%", null))
+        .thenThrow(new IllegalArgumentException("Invalid page cursor: %%"));
+
+    HttpClientErrorException exception = assertThrows(HttpClientErrorException.class,
+        () -> countryController.getCountriesWithLanguagePage(1L, "%%", null));
+
+    assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
   }
 }
@@ -0,0 +1,134 @@
+package com.example.countries.controller;
+
+import com.example.countries.component.ImportJob;
+import com.example.countries.dto.BulkResultDto;
+import com.example.countries.dto.ImportJobDto;
+import com.example.countries.dto.SyncReportDto;
+import com.example.countries.entity.Country;
+import com.example.countries.service.ImportJobService;
+import com.example.countries.service.RestCountriesSyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+class ImportControllerTest {
+
+  @Mock
+  private ImportJobService importJobService;
+
+  @Mock
+  private RestCountriesSyncService restCountriesSyncService;
+
+  @InjectMocks
+  private ImportController importController;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void addCountriesBulk_CountriesCreated_ReturnsSuccessResponse() {
+    InputStream body = new ByteArrayInputStream(new byte[0]);
+    ImportJob job = new ImportJob("job-1", -1);
+    job.start();
+    BulkResultDto result = new BulkResultDto(1);
+    result.add(0, "CountryName", BulkResultDto.Outcome.CREATED, null);
+    job.record(0, result);
+    job.complete();
+    when(importJobService.ingest(body)).thenReturn(job);
+
+    ResponseEntity<?> response = importController.addCountriesBulk(body);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(1, ((ImportJobDto) response.getBody()).getCreated());
+  }
+
+  @Test
+  void addCountriesBulk_MalformedBody_ReturnsBadRequestWithReport() {
+    InputStream body = new ByteArrayInputStream(new byte[0]);
+    ImportJob job = new ImportJob("job-1", -1);
+    job.fail("Unexpected end-of-input");
+    when(importJobService.ingest(body)).thenReturn(job);
+
+    ResponseEntity<?> response = importController.addCountriesBulk(body);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Unexpected end-of-input", ((ImportJobDto) response.getBody()).getError());
+  }
+
+  @Test
+  void submit_ReturnsAcceptedWithJobLocation() {
+    ImportJob job = new ImportJob("job-1", 1);
+    when(importJobService.submit(anyList())).thenReturn(job);
+
+    ResponseEntity<?> response = importController.submit(List.of(new Country("Country")));
+
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    assertEquals("/countries/bulk/jobs/job-1", response.getHeaders().getLocation().toString());
+    assertEquals("job-1", ((ImportJobDto) response.getBody()).getId());
+  }
+
+  @Test
+  void submit_QueueFull_ReturnsTooManyRequests() {
+    when(importJobService.submit(anyList())).thenThrow(new RejectedExecutionException());
+
+    ResponseEntity<?> response = importController.submit(List.of(new Country("Country")));
+
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    assertEquals(ImportController.RETRY_AFTER_SECONDS,
+        response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+  }
+
+  @Test
+  void getJob_ReturnsProgress() {
+    ImportJob job = new ImportJob("job-1", 1);
+    when(importJobService.getJob("job-1")).thenReturn(job);
+
+    ResponseEntity<?> response = importController.getJob("job-1");
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(ImportJob.Status.QUEUED, ((ImportJobDto) response.getBody()).getStatus());
+  }
+
+  @Test
+  void getJob_UnknownId_ThrowsBadRequest() {
+    assertThrows(HttpClientErrorException.class, () -> importController.getJob("unknown"));
+  }
+
+  @Test
+  void syncRestCountries_ReturnsReport() throws IOException {
+    SyncReportDto report = new SyncReportDto();
+    report.setUnchanged(250);
+    when(restCountriesSyncService.sync()).thenReturn(report);
+
+    ResponseEntity<SyncReportDto> response = importController.syncRestCountries();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(250, response.getBody().getUnchanged());
+  }
+
+  @Test
+  void syncRestCountries_NoDump_ThrowsBadRequest() throws IOException {
+    when(restCountriesSyncService.sync()).thenThrow(new IllegalStateException("no dump"));
+
+    assertThrows(HttpClientErrorException.class, () -> importController.syncRestCountries());
+  }
+}
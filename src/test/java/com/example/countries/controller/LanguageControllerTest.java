@@ -1,6 +1,8 @@
 package com.example.countries.controller;
 
+import com.example.countries.dto.BulkResultDto;
 import com.example.countries.dto.LanguageDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.Language;
 import com.example.countries.exception.CountryNotFoundException;
 import com.example.countries.exception.LanguageAlreadyExistException;
@@ -16,6 +18,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -51,7 +55,7 @@ class LanguageControllerTest {
   }
 
   @Test
-  void updateLanguage_Success() throws LanguageNotFoundException {
+  void updateLanguage_Success() throws LanguageNotFoundException, LanguageAlreadyExistException {
     doNothing().when(languageService).updateLanguage(LANGUAGE_ID, TEST_LANGUAGE);
 
     ResponseEntity<?> response = languageController.updateLanguage(LANGUAGE_ID, TEST_LANGUAGE);
@@ -71,4 +75,37 @@ class LanguageControllerTest {
     assertEquals("Язык был успешно удален!", response.getBody());
     verify(languageService, times(1)).deleteLanguage(COUNTRY_ID, LANGUAGE_ID);
   }
+
+  @Test
+  void getLanguages_InvalidSize_ThrowsBadRequest() {
+    when(languageService.getLanguages(null, 0))
+        .thenThrow(new IllegalArgumentException("Page size must be positive: 0"));
+
+    HttpClientErrorException exception = assertThrows(HttpClientErrorException.class,
+        () -> languageController.getLanguages(null, 0));
+
+    assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+  }
+
+  @Test
+  void addLanguagesBulk_NothingAdded_ReturnsBadRequest() throws CountryNotFoundException {
+    List<Language> languages = List.of(TEST_LANGUAGE);
+    BulkResultDto result = new BulkResultDto(1);
+    result.add(0, "Language", BulkResultDto.Outcome.ALREADY_EXISTS, null);
+    when(languageService.addLanguagesBulk(COUNTRY_ID, languages)).thenReturn(result);
+
+    ResponseEntity<?> response = languageController.addLanguagesBulk(COUNTRY_ID, languages);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals(result, response.getBody());
+  }
+
+  @Test
+  void addLanguagesBulk_CountryNotFound_ThrowsBadRequest() throws CountryNotFoundException {
+    when(languageService.addLanguagesBulk(COUNTRY_ID, List.of(TEST_LANGUAGE)))
+        .thenThrow(new CountryNotFoundException("Country not found"));
+
+    assertThrows(HttpClientErrorException.class,
+        () -> languageController.addLanguagesBulk(COUNTRY_ID, List.of(TEST_LANGUAGE)));
+  }
 }
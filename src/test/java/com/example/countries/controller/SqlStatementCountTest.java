@@ -0,0 +1,202 @@
+package com.example.countries.controller;
+
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.PageCursor;
+import com.example.countries.entity.City;
+import com.example.countries.entity.Country;
+import com.example.countries.entity.Language;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each endpoint runs against an in-memory database, so that a mapping
+ * change bringing back eager loading or a per-row query fails the build.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:statement-count;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "cache.snapshot.enabled=false",
+    "cache.name-filter.enabled=false"})
+@AutoConfigureMockMvc
+class SqlStatementCountTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  private Statistics statistics;
+  private Country belarus;
+  private Language russian;
+  private City brest;
+
+  @BeforeEach
+  void setUp() {
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      entityManager.createNativeQuery("DELETE FROM country_language_mapping").executeUpdate();
+      entityManager.createQuery("DELETE FROM City").executeUpdate();
+      entityManager.createQuery("DELETE FROM Country").executeUpdate();
+      entityManager.createQuery("DELETE FROM Language").executeUpdate();
+
+      Language belarusian = language("Belarusian");
+      russian = language("Russian");
+      belarus = country("Belarus", "Minsk", belarusian, russian);
+      Country russia = country("Russia", "Moscow", russian);
+      entityManager.persist(belarus);
+      entityManager.persist(russia);
+      entityManager.persist(city("Minsk", belarus));
+      brest = city("Brest", belarus);
+      entityManager.persist(brest);
+    });
+    cacheManager.clear();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void getCountry_RunsOneStatement() throws Exception {
+    mockMvc.perform(get("/countries").param("name", "Belarus")).andExpect(status().isOk());
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void getCountriesWithLanguage_RunsOneStatement() throws Exception {
+    mockMvc.perform(get("/countries/with-language")
+        .param("languageId", russian.getId().toString())).andExpect(status().isOk());
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void getCountriesPage_RunsOneStatementAfterCursor() throws Exception {
+    mockMvc.perform(get("/countries/page")
+        .param("cursor", PageCursor.encode(belarus.getId())).param("size", "1"))
+        .andExpect(status().isOk());
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void getCity_RunsOneStatement() throws Exception {
+    mockMvc.perform(get("/cities").param("id", brest.getId().toString()))
+        .andExpect(status().isOk());
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void getLanguage_RunsOneStatement() throws Exception {
+    mockMvc.perform(get("/languages").param("id", russian.getId().toString()))
+        .andExpect(status().isOk());
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void addLanguage_LoadsCountryAndLanguagesInOneQuery() throws Exception {
+    mockMvc.perform(post("/languages").param("countryId", belarus.getId().toString())
+            .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"English\"}"))
+        .andExpect(status().isOk());
+
+    assertEquals(2, statistics.getQueryExecutionCount());
+    assertEquals(0, statistics.getEntityFetchCount());
+    assertEquals(0, statistics.getCollectionFetchCount());
+    assertEquals(1, statistics.getEntityInsertCount());
+  }
+
+  @Test
+  void deleteCity_LoadsCityAndCountryInOneQuery() throws Exception {
+    mockMvc.perform(delete("/cities").param("id", brest.getId().toString()))
+        .andExpect(status().isOk());
+
+    assertEquals(1, statistics.getQueryExecutionCount());
+    assertEquals(0, statistics.getEntityFetchCount());
+    assertEquals(0, statistics.getCollectionFetchCount());
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void addCitiesBulk_InsertsInBatches() throws Exception {
+    StringBuilder cities = new StringBuilder("[");
+    for (int i = 0; i < 250; i++) {
+      cities.append(i == 0 ? "" : ",").append("{\"name\":\"City ").append(i).append("\"}");
+    }
+    mockMvc.perform(post("/cities/bulk").param("countryId", belarus.getId().toString())
+            .contentType(MediaType.APPLICATION_JSON).content(cities.append("]").toString()))
+        .andExpect(status().isOk());
+
+    assertEquals(250, statistics.getEntityInsertCount());
+    assertEquals(0, statistics.getEntityFetchCount());
+    assertTrue(statistics.getPrepareStatementCount() < 10);
+  }
+
+  @Test
+  void addLanguagesBulk_InsertsJoinRowsWithoutLoadingCountry() throws Exception {
+    mockMvc.perform(post("/languages/bulk").param("countryId", belarus.getId().toString())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"name\":\"Russian\"},{\"name\":\"English\"},{\"name\":\"German\"}]"))
+        .andExpect(status().isOk());
+
+    assertEquals(2, statistics.getEntityInsertCount());
+    assertEquals(0, statistics.getEntityFetchCount());
+    assertEquals(0, statistics.getCollectionFetchCount());
+    assertEquals(4L, ((Number) entityManager.createNativeQuery(
+        "SELECT COUNT(*) FROM country_language_mapping WHERE country_id = " + belarus.getId())
+        .getSingleResult()).longValue());
+  }
+
+  private static Language language(String name) {
+    Language language = new Language();
+    language.setName(name);
+    return language;
+  }
+
+  private static Country country(String name, String capital, Language... languages) {
+    Country country = new Country(name);
+    country.setCapital(capital);
+    country.getLanguageList().addAll(List.of(languages));
+    return country;
+  }
+
+  private static City city(String name, Country country) {
+    City city = new City();
+    city.setName(name);
+    city.setCountry(country);
+    country.getCityList().add(city);
+    return city;
+  }
+}
@@ -1,6 +1,7 @@
 package com.example.countries.dto;
 
 import com.example.countries.entity.Country;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -20,6 +21,23 @@ class CountryDtoTest {
     assertEquals("TestCapital", countryDto.getCapital());
   }
 
+  @Test
+  void testProjectionConstructor() {
+    CountryDto countryDto = new CountryDto(3L, "TestCountry", "TestCapital");
+
+    assertEquals(3L, countryDto.getId());
+    assertEquals("TestCountry", countryDto.getName());
+    assertEquals("TestCapital", countryDto.getCapital());
+  }
+
+  @Test
+  void testIdIsNotSerialized() throws Exception {
+    String json = new ObjectMapper().writeValueAsString(
+        new CountryDto(3L, "TestCountry", "TestCapital"));
+
+    assertEquals("{\"name\":\"TestCountry\",\"capital\":\"TestCapital\"}", json);
+  }
+
   @Test
   void testGetName() {
     CountryDto countryDto = new CountryDto();
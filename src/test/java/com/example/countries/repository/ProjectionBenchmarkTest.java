@@ -0,0 +1,130 @@
+package com.example.countries.repository;
+
+import com.example.countries.dto.CountryDto;
+import com.example.countries.entity.Country;
+import com.example.countries.entity.Language;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the entity read path with the constructor projections of {@link CountryRepository}:
+ * rows read, entities loaded into the persistence context and bytes allocated per request. Run
+ * with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:projection-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "cache.snapshot.enabled=false",
+    "cache.name-filter.enabled=false"})
+class ProjectionBenchmarkTest {
+
+  private static final int COUNTRIES = 500;
+  private static final int SPEAKING_COUNTRIES = 100;
+  private static final int WARMUP = 2_000;
+  private static final int REQUESTS = 10_000;
+
+  @Autowired
+  private CountryRepository countryRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void testProjectionsReadFewerObjects() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    Long languageId = transaction.execute(status -> seed());
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    long[] entityByName = run(statistics, transaction, () -> {
+      Country country = countryRepository.findByNameKey("country 250");
+      return List.of(CountryDto.toModel(country));
+    });
+    long[] projectionByName = run(statistics, transaction,
+        () -> List.of(countryRepository.findDtoByNameKey("country 250")));
+    long[] entityByLanguage = run(statistics, transaction, () -> entityManager
+        .createQuery("SELECT d FROM Country d JOIN d.languageList i WHERE i.id = :languageId",
+            Country.class)
+        .setParameter("languageId", languageId)
+        .getResultList().stream().map(CountryDto::toModel).toList());
+    long[] projectionByLanguage = run(statistics, transaction,
+        () -> countryRepository.findDtosByLanguageList_Id(languageId));
+
+    print("by name, entity", entityByName);
+    print("by name, projection", projectionByName);
+    print("by language, entity", entityByLanguage);
+    print("by language, projection", projectionByLanguage);
+    assertEquals(0, projectionByName[1]);
+    assertEquals(0, projectionByLanguage[1]);
+    assertEquals(entityByLanguage[0], projectionByLanguage[0]);
+    assertTrue(projectionByName[2] < entityByName[2]);
+    assertTrue(projectionByLanguage[2] < entityByLanguage[2]);
+  }
+
+  private Long seed() {
+    Language language = new Language();
+    language.setName("Common");
+    entityManager.persist(language);
+    for (int i = 0; i < COUNTRIES; i++) {
+      Country country = new Country("Country " + i);
+      country.setCapital("Capital " + i);
+      if (i < SPEAKING_COUNTRIES) {
+        country.getLanguageList().add(language);
+      }
+      entityManager.persist(country);
+    }
+    return language.getId();
+  }
+
+  /**
+   * Runs a read in its own transaction, as a request would, and returns the rows read, the
+   * entities loaded and the bytes allocated per request.
+   */
+  private static long[] run(Statistics statistics, TransactionTemplate transaction,
+                            Supplier<List<CountryDto>> read) {
+    for (int i = 0; i < WARMUP; i++) {
+      transaction.execute(status -> read.get());
+    }
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    statistics.clear();
+    long rows = 0;
+    long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < REQUESTS; i++) {
+      rows += transaction.execute(status -> read.get()).size();
+    }
+    long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+    return new long[] {rows / REQUESTS, statistics.getEntityLoadCount() / REQUESTS,
+        allocated / REQUESTS};
+  }
+
+  private static void print(String name, long[] result) {
+    System.out.printf("%-24s %4d rows, %4d entities, %8d bytes per request%n", name,
+        result[0], result[1], result[2]);
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.countries.service;
+
+import com.example.countries.dto.BulkResultDto;
+import com.example.countries.entity.Country;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports 100k countries through {@link CountryService#addCountriesBulk} and then imports them
+ * again, printing the time and the number of statements of each run. Run with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:bulk-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "cache.snapshot.enabled=false",
+    "cache.name-filter.enabled=false"})
+class BulkImportBenchmarkTest {
+
+  private static final int COUNTRIES = 100_000;
+
+  @Autowired
+  private CountryService countryService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void testImportBatchesInserts() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    statistics.clear();
+    long start = System.nanoTime();
+    BulkResultDto imported = countryService.addCountriesBulk(countries());
+    print("import", start, statistics);
+    assertEquals(COUNTRIES, imported.getCreated());
+    assertEquals(COUNTRIES, statistics.getEntityInsertCount());
+    assertTrue(statistics.getPrepareStatementCount() < COUNTRIES / 10);
+
+    statistics.clear();
+    start = System.nanoTime();
+    BulkResultDto repeated = countryService.addCountriesBulk(countries());
+    print("repeated import", start, statistics);
+    assertEquals(COUNTRIES, repeated.getSkipped());
+    assertEquals(0, statistics.getEntityInsertCount());
+    assertEquals(COUNTRIES / CountryService.BULK_CHUNK_SIZE,
+        statistics.getPrepareStatementCount());
+  }
+
+  private static List<Country> countries() {
+    List<Country> countries = new ArrayList<>(COUNTRIES);
+    for (int i = 0; i < COUNTRIES; i++) {
+      Country country = new Country("Country " + i);
+      country.setCapital("Capital " + i);
+      countries.add(country);
+    }
+    return countries;
+  }
+
+  private static void print(String name, long start, Statistics statistics) {
+    System.out.printf("%-16s %6d ms, %6d statements, %6d inserts, %6d queries%n", name,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+        statistics.getPrepareStatementCount(), statistics.getEntityInsertCount(),
+        statistics.getQueryExecutionCount());
+  }
+}
@@ -0,0 +1,161 @@
+package com.example.countries.service;
+
+import com.example.countries.component.Cache;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegions;
+import com.example.countries.dto.CountryDto;
+import com.example.countries.repository.CityRepository;
+import com.example.countries.repository.CountryRepository;
+import com.example.countries.repository.LanguageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheSnapshotServiceTest {
+
+  @Mock
+  private CountryRepository countryRepository;
+
+  @Mock
+  private CityRepository cityRepository;
+
+  @Mock
+  private LanguageRepository languageRepository;
+
+  @TempDir
+  Path directory;
+
+  private Path file;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    file = directory.resolve("country-cache.snapshot");
+    when(countryRepository.count()).thenReturn(2L);
+    when(cityRepository.count()).thenReturn(3L);
+    when(languageRepository.count()).thenReturn(1L);
+    when(countryRepository.countLanguageMappings()).thenReturn(2L);
+    when(countryRepository.checksumContent()).thenReturn(123L);
+    when(countryRepository.checksumLanguageMappings()).thenReturn(456L);
+  }
+
+  @Test
+  void warmUp_LoadsValidSnapshot() {
+    Cache<String, CountryDto> cache = new Cache<>();
+    cache.put("Belarus", country("Belarus", "Minsk"), "country:1");
+    assertEquals(1, service(cache, 1440).save());
+
+    Cache<String, CountryDto> restarted = new Cache<>();
+    assertEquals(1, service(restarted, 1440).warmUp());
+
+    assertEquals("Minsk", restarted.get("Belarus").getCapital());
+    assertEquals(1, restarted.invalidateTag("country:1"));
+  }
+
+  @Test
+  void warmUp_LoadsCountriesByLanguage() {
+    CacheManager cacheManager = new CacheManager();
+    cacheManager.region(CacheRegions.COUNTRIES_BY_LANGUAGE)
+        .put(2L, List.of(country("Belarus", "Minsk")), "language:2", "country:1");
+    assertEquals(1, service(cacheManager).save());
+
+    CacheManager restarted = new CacheManager();
+    assertEquals(1, service(restarted).warmUp());
+
+    Cache<Long, List<CountryDto>> cache = restarted.region(CacheRegions.COUNTRIES_BY_LANGUAGE);
+    assertEquals("Minsk", cache.get(2L).get(0).getCapital());
+    assertEquals(1, cache.invalidateTag("country:1"));
+  }
+
+  @Test
+  void warmUp_DiscardsSnapshotWhenTableCountsChanged() {
+    Cache<String, CountryDto> cache = new Cache<>();
+    cache.put("Belarus", country("Belarus", "Minsk"), "country:1");
+    service(cache, 1440).save();
+    when(cityRepository.count()).thenReturn(4L);
+
+    Cache<String, CountryDto> restarted = new Cache<>();
+    assertEquals(0, service(restarted, 1440).warmUp());
+
+    assertEquals(0, restarted.size());
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  void warmUp_DiscardsSnapshotWhenCountryUpdatedInPlace() {
+    Cache<String, CountryDto> cache = new Cache<>();
+    cache.put("Belarus", country("Belarus", "Minsk"), "country:1");
+    service(cache, 1440).save();
+    when(countryRepository.checksumContent()).thenReturn(124L);
+
+    Cache<String, CountryDto> restarted = new Cache<>();
+    assertEquals(0, service(restarted, 1440).warmUp());
+
+    assertEquals(0, restarted.size());
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  void warmUp_DiscardsSnapshotWhenTableCountsFail() {
+    Cache<String, CountryDto> cache = new Cache<>();
+    cache.put("Belarus", country("Belarus", "Minsk"), "country:1");
+    service(cache, 1440).save();
+    when(countryRepository.countLanguageMappings())
+        .thenThrow(new IllegalStateException("Table doesn't exist"));
+
+    Cache<String, CountryDto> restarted = new Cache<>();
+    assertEquals(0, service(restarted, 1440).warmUp());
+
+    assertEquals(0, restarted.size());
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  void warmUp_DiscardsExpiredSnapshot() {
+    Cache<String, CountryDto> cache = new Cache<>();
+    cache.put("Belarus", country("Belarus", "Minsk"), "country:1");
+    service(cache, -1).save();
+
+    assertEquals(0, service(new Cache<>(), -1).warmUp());
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  void warmUp_WithoutSnapshotLeavesCacheEmpty() {
+    Cache<String, CountryDto> cache = new Cache<>();
+
+    assertEquals(0, service(cache, 1440).warmUp());
+    assertEquals(0, cache.size());
+  }
+
+  private CacheSnapshotService service(Cache<String, CountryDto> cache, long maxAgeMinutes) {
+    CacheManager cacheManager = new CacheManager();
+    cacheManager.register(CacheRegions.COUNTRY_BY_NAME, cache);
+    return service(cacheManager, maxAgeMinutes);
+  }
+
+  private CacheSnapshotService service(CacheManager cacheManager) {
+    return service(cacheManager, 1440);
+  }
+
+  private CacheSnapshotService service(CacheManager cacheManager, long maxAgeMinutes) {
+    return new CacheSnapshotService(cacheManager, countryRepository, cityRepository, languageRepository,
+        true, file, 1000, maxAgeMinutes);
+  }
+
+  private static CountryDto country(String name, String capital) {
+    CountryDto countryDto = new CountryDto();
+    countryDto.setName(name);
+    countryDto.setCapital(capital);
+    return countryDto;
+  }
+}
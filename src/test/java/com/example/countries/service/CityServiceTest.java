@@ -1,6 +1,13 @@
 package com.example.countries.service;
 
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheTags;
+import com.example.countries.component.PageCursor;
+import com.example.countries.component.PartitionRunner;
+import com.example.countries.config.PaginationProperties;
+import com.example.countries.dto.BulkResultDto;
 import com.example.countries.dto.CityDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.City;
 import com.example.countries.entity.Country;
 import com.example.countries.exception.CityAlreadyExistException;
@@ -13,7 +20,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +38,15 @@ class CityServiceTest {
   @Mock
   private CountryRepository countryRepository;
 
+  @Spy
+  private CacheManager cacheManager = new CacheManager();
+
+  @Spy
+  private PaginationProperties paginationProperties = new PaginationProperties();
+
+  @Spy
+  private PartitionRunner partitionRunner = new PartitionRunner(2, 2, 1, 0, e -> false);
+
   @InjectMocks
   private CityService cityService;
 
@@ -44,8 +64,6 @@ class CityServiceTest {
     City city = new City();
     city.setName("Test City");
 
-    when(cityRepository.findByName("Test City")).thenReturn(null);
-
     cityService.addCity(1L, city);
 
     verify(cityRepository, times(1)).save(city);
@@ -57,16 +75,12 @@ class CityServiceTest {
     country.setId(1L);
     when(countryRepository.findById(1L)).thenReturn(Optional.of(country));
 
-    City existingCity = new City();
-    existingCity.setName("Test City");
-    when(cityRepository.findByName("Test City")).thenReturn(existingCity);
-
     City city = new City();
     city.setName("Test City");
+    when(cityRepository.save(city)).thenThrow(new DataIntegrityViolationException(
+        "Unique index or primary key violation: \"PUBLIC.UK_CITY_NAME_INDEX_2 ON PUBLIC.CITY\""));
 
     assertThrows(CityAlreadyExistException.class, () -> cityService.addCity(1L, city));
-
-    verify(cityRepository, never()).save(city);
   }
 
   @Test
@@ -83,26 +97,89 @@ class CityServiceTest {
 
   @Test
   void testGetCity() throws CityNotFoundException {
-    City city = new City();
-    city.setId(1L);
-    city.setName("Test City");
-    when(cityRepository.findById(1L)).thenReturn(Optional.of(city));
+    when(cityRepository.findDtoById(1L))
+        .thenReturn(Optional.of(new CityDto(1L, "Test City", null)));
 
     CityDto cityDto = cityService.getCity(1L);
 
     assertNotNull(cityDto);
     assertEquals("Test City", cityDto.getName());
+    verify(cityRepository, never()).findById(any());
   }
 
   @Test
   void testGetCityNotFound() {
-    when(cityRepository.findById(1L)).thenReturn(Optional.empty());
+    when(cityRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
     assertThrows(CityNotFoundException.class, () -> cityService.getCity(1L));
   }
 
   @Test
-  void testUpdateCity() throws CityNotFoundException {
+  void testGetCityServedFromCache() throws CityNotFoundException {
+    when(cityRepository.findDtoById(1L))
+        .thenReturn(Optional.of(new CityDto(1L, "Test City", null)));
+
+    CityDto cityDto = cityService.getCity(1L);
+
+    assertSame(cityDto, cityService.getCity(1L));
+    verify(cityRepository, times(1)).findDtoById(1L);
+  }
+
+  @Test
+  void testGetCityEvictedWithItsCountry() throws CityNotFoundException {
+    when(cityRepository.findDtoById(1L))
+        .thenReturn(Optional.of(new CityDto(1L, "Test City", 7L)));
+    cityService.getCity(1L);
+
+    cacheManager.invalidateTag(CacheTags.country(7L));
+    cityService.getCity(1L);
+
+    verify(cityRepository, times(2)).findDtoById(1L);
+  }
+
+  @Test
+  void testGetCitiesOfCountry() {
+    when(cityRepository.findDtosByCountryAfter(7L, 0L, Limit.of(3))).thenReturn(List.of(
+        new CityDto(1L, "Minsk", 7L), new CityDto(4L, "Brest", 7L), new CityDto(9L, "Grodno", 7L)));
+
+    PageDto<CityDto> page = cityService.getCities(7L, null, 2);
+
+    assertEquals(2, page.getItems().size());
+    assertEquals(PageCursor.encode(4L), page.getNextCursor());
+    verify(cityRepository, never()).findDtosAfter(anyLong(), any());
+  }
+
+  @Test
+  void testGetCitiesOfAllCountries() {
+    when(cityRepository.findDtosAfter(4L, Limit.of(3)))
+        .thenReturn(List.of(new CityDto(9L, "Grodno", 7L)));
+
+    PageDto<CityDto> page = cityService.getCities(null, PageCursor.encode(4L), 2);
+
+    assertEquals("Grodno", page.getItems().get(0).getName());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  void testUpdateCityEvictsCachedCity() throws CityNotFoundException, CityAlreadyExistException {
+    City city = new City();
+    city.setId(1L);
+    city.setName("Old City Name");
+    when(cityRepository.findById(1L)).thenReturn(Optional.of(city));
+    when(cityRepository.findDtoById(1L)).thenReturn(
+        Optional.of(new CityDto(1L, "Old City Name", null)),
+        Optional.of(new CityDto(1L, "New City Name", null)));
+    cityService.getCity(1L);
+
+    City updatedCity = new City();
+    updatedCity.setName("New City Name");
+    cityService.updateCity(1L, updatedCity);
+
+    assertEquals("New City Name", cityService.getCity(1L).getName());
+  }
+
+  @Test
+  void testUpdateCity() throws CityNotFoundException, CityAlreadyExistException {
     City city = new City();
     city.setId(1L);
     city.setName("Old City Name");
@@ -117,6 +194,21 @@ class CityServiceTest {
     verify(cityRepository, times(1)).save(city);
   }
 
+  @Test
+  void testUpdateCityToStoredName() {
+    City city = new City();
+    city.setId(1L);
+    city.setName("Old City Name");
+    when(cityRepository.findById(1L)).thenReturn(Optional.of(city));
+    when(cityRepository.save(city)).thenThrow(new DataIntegrityViolationException(
+        "Duplicate entry 'Taken' for key 'city.uk_city_name'"));
+
+    City updatedCity = new City();
+    updatedCity.setName("Taken");
+
+    assertThrows(CityAlreadyExistException.class, () -> cityService.updateCity(1L, updatedCity));
+  }
+
   @Test
   void testUpdateCityNotFound() {
     when(cityRepository.findById(1L)).thenReturn(Optional.empty());
@@ -134,7 +226,7 @@ class CityServiceTest {
     Country country = new Country();
     country.setId(1L);
     city.setCountry(country);
-    when(cityRepository.findById(1L)).thenReturn(Optional.of(city));
+    when(cityRepository.findWithCountryCitiesById(1L)).thenReturn(Optional.of(city));
 
     cityService.deleteCity(1L);
 
@@ -145,8 +237,55 @@ class CityServiceTest {
 
   @Test
   void testDeleteCityNotFound() {
-    when(cityRepository.findById(1L)).thenReturn(Optional.empty());
+    when(cityRepository.findWithCountryCitiesById(1L)).thenReturn(Optional.empty());
 
     assertThrows(CityNotFoundException.class, () -> cityService.deleteCity(1L));
   }
+
+  @Test
+  void testAddCitiesBulk() throws CountryNotFoundException {
+    List<City> cities = List.of(city("Minsk"), city(""), city("Brest"), city("Minsk"),
+        city("Grodno"));
+    when(countryRepository.existsById(1L)).thenReturn(true);
+    when(cityRepository.findExistingNames(anyCollection())).thenReturn(List.of("Brest"));
+
+    BulkResultDto result = cityService.addCitiesBulk(1L, cities);
+
+    assertEquals(List.of(BulkResultDto.Outcome.CREATED, BulkResultDto.Outcome.INVALID,
+            BulkResultDto.Outcome.ALREADY_EXISTS, BulkResultDto.Outcome.DUPLICATE,
+            BulkResultDto.Outcome.CREATED),
+        result.getItems().stream().map(BulkResultDto.Item::outcome).toList());
+    verify(cityRepository, times(1)).findExistingNames(List.of("Minsk", "Brest", "Grodno"));
+    verify(cityRepository, times(1)).insertAll(1L, List.of(cities.get(0), cities.get(4)));
+    verify(cityRepository, never()).save(any());
+  }
+
+  @Test
+  void testAddCitiesBulkReportsFailedPartition() throws CountryNotFoundException {
+    List<City> cities = List.of(city("A"), city("B"), city("C"));
+    when(countryRepository.existsById(1L)).thenReturn(true);
+    doThrow(new DataIntegrityViolationException("Duplicate entry"))
+        .when(cityRepository).insertAll(1L, List.of(cities.get(2)));
+
+    BulkResultDto result = cityService.addCitiesBulk(1L, cities);
+
+    assertEquals(2, result.getCreated());
+    assertEquals(1, result.getFailed());
+    assertEquals(BulkResultDto.Outcome.FAILED, result.getItems().get(2).outcome());
+  }
+
+  @Test
+  void testAddCitiesBulkCountryNotFound() {
+    when(countryRepository.existsById(1L)).thenReturn(false);
+
+    assertThrows(CountryNotFoundException.class,
+        () -> cityService.addCitiesBulk(1L, List.of(city("Minsk"))));
+    verify(cityRepository, never()).insertAll(anyLong(), anyList());
+  }
+
+  private static City city(String name) {
+    City city = new City();
+    city.setName(name);
+    return city;
+  }
 }
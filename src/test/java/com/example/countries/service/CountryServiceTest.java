@@ -1,17 +1,38 @@
 package com.example.countries.service;
 
 import com.example.countries.component.Cache;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegions;
+import com.example.countries.component.CacheTags;
+import com.example.countries.component.NameKey;
+import com.example.countries.component.PageCursor;
+import com.example.countries.component.PartitionRunner;
+import com.example.countries.config.PaginationProperties;
+import com.example.countries.dto.BulkResultDto;
 import com.example.countries.dto.CountryDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.Country;
+import com.example.countries.entity.Language;
 import com.example.countries.exception.CountryAlreadyExistException;
 import com.example.countries.exception.CountryNotFoundException;
 import com.example.countries.repository.CountryRepository;
+import com.example.countries.repository.LanguageRepository;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -29,14 +50,34 @@ class CountryServiceTest {
   private CountryRepository countryRepository;
 
   @Mock
-  private Cache<String, CountryDto> countryCache;
+  private LanguageRepository languageRepository;
+
+  @Spy
+  private CacheManager cacheManager = new CacheManager();
+
+  @Spy
+  private NameFilterService nameFilterService =
+      new NameFilterService(null, null, true, 0.01, 100);
+
+  @Spy
+  private PaginationProperties paginationProperties = new PaginationProperties();
+
+  @Spy
+  private PartitionRunner partitionRunner = new PartitionRunner(2, CountryService.BULK_CHUNK_SIZE,
+      2, 0, e -> e instanceof TransientDataAccessException);
 
   @InjectMocks
   private CountryService countryService;
 
+  private Cache<String, CountryDto> countryCache;
+
+  private Cache<Long, List<CountryDto>> languageCountriesCache;
+
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    countryCache = cacheManager.region(CacheRegions.COUNTRY_BY_NAME);
+    languageCountriesCache = cacheManager.region(CacheRegions.COUNTRIES_BY_LANGUAGE);
   }
 
   @Test
@@ -44,23 +85,49 @@ class CountryServiceTest {
     Country country = new Country();
     country.setName("Test Country");
 
-    when(countryRepository.findByName("Test Country")).thenReturn(null);
-
     assertDoesNotThrow(() -> countryService.addCountry(country));
     verify(countryRepository, times(1)).save(country);
-    verify(countryCache, times(1)).clear();
+    verify(countryRepository, never()).findByNameKey(any());
+    verify(cacheManager, never()).clear();
+  }
+
+  @Test
+  void addCountry_EvictsOnlyListsOfItsLanguages() {
+    Language english = new Language();
+    english.setId(1L);
+    Country country = new Country("New Country");
+    country.getLanguageList().add(english);
+    cacheCountry("Other Country", 2L);
+    cacheLanguageList(1L, 2L);
+    cacheLanguageList(3L, 2L);
+
+    assertDoesNotThrow(() -> countryService.addCountry(country));
+
+    assertFalse(languageCountriesCache.containsKey(1L));
+    assertTrue(languageCountriesCache.containsKey(3L));
+    assertTrue(countryCache.containsKey("other country"));
   }
 
   @Test
   void addCountry_AlreadyExists() {
     Country country = new Country();
     country.setName("Existing Country");
-
-    when(countryRepository.findByName("Existing Country")).thenReturn(country);
+    when(countryRepository.save(country)).thenThrow(new DataIntegrityViolationException(
+        "Duplicate entry 'Existing Country' for key 'country.uk_country_name'"));
 
     assertThrows(CountryAlreadyExistException.class, () -> countryService.addCountry(country));
-    verify(countryRepository, never()).save(any());
-    verify(countryCache, never()).clear();
+    verify(cacheManager, never()).clear();
+  }
+
+  @Test
+  void addCountry_OtherIntegrityViolationIsRethrown() {
+    Country country = new Country("New Country");
+    DataIntegrityViolationException violation =
+        new DataIntegrityViolationException("Column 'name' cannot be null");
+    when(countryRepository.save(country)).thenThrow(violation);
+
+    assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+        () -> countryService.addCountry(country)));
   }
 
   @Test
@@ -69,9 +136,38 @@ class CountryServiceTest {
     countriesToAdd.add(new Country("NewCountry1"));
     countriesToAdd.add(new Country("NewCountry2"));
 
-    when(countryRepository.saveAll(any())).thenReturn(countriesToAdd);
+    BulkResultDto result = countryService.addCountriesBulk(countriesToAdd);
 
-    assertDoesNotThrow(() -> countryService.addCountriesBulk(countriesToAdd));
+    assertEquals(2, result.getCreated());
+    assertEquals(BulkResultDto.Outcome.CREATED, result.getItems().get(1).outcome());
+    verify(countryRepository).findExistingNameKeys(List.of("newcountry1", "newcountry2"));
+    verify(countryRepository).insertAll(countriesToAdd);
+    verify(countryRepository, never()).findAll();
+  }
+
+  @Test
+  void addCountriesBulk_CountriesSharingLanguageLinkOneRow() {
+    Country first = new Country("First");
+    first.getLanguageList().add(language("English"));
+    first.getLanguageList().add(language("French"));
+    Country second = new Country("Second");
+    second.getLanguageList().add(language("English"));
+    when(languageRepository.findIdsByNames(anyCollection()))
+        .thenReturn(List.<Object[]>of(new Object[] {5L, "French"}));
+    when(languageRepository.save(any(Language.class))).thenAnswer(invocation -> {
+      Language saved = invocation.getArgument(0);
+      saved.setId(7L);
+      return saved;
+    });
+
+    BulkResultDto result = countryService.addCountriesBulk(List.of(first, second));
+
+    assertEquals(2, result.getCreated());
+    verify(languageRepository, times(1)).save(any(Language.class));
+    assertSame(first.getLanguageList().get(0), second.getLanguageList().get(0));
+    assertEquals(7L, second.getLanguageList().get(0).getId());
+    assertEquals(5L, first.getLanguageList().get(1).getId());
+    verify(countryRepository).insertAll(List.of(first, second));
   }
 
   @Test
@@ -79,24 +175,78 @@ class CountryServiceTest {
     List<Country> countriesToAdd = new ArrayList<>();
     countriesToAdd.add(new Country("Country1"));
     countriesToAdd.add(new Country("Country2"));
+    when(countryRepository.findExistingNameKeys(anyCollection()))
+        .thenReturn(List.of("country1", "country2"));
+
+    BulkResultDto result = countryService.addCountriesBulk(countriesToAdd);
 
-    CountryAlreadyExistException exception = assertThrows(CountryAlreadyExistException.class, () -> countryService.addCountriesBulk(countriesToAdd));
-    assertEquals("Все страны из списка уже есть в базе.", exception.getMessage());
+    assertEquals(0, result.getCreated());
+    assertEquals(2, result.getSkipped());
+    assertEquals(BulkResultDto.Outcome.ALREADY_EXISTS, result.getItems().get(0).outcome());
+    verify(countryRepository, never()).insertAll(anyList());
   }
 
   @Test
-  void addCountriesBulk_PartiallySuccessful() {
+  void addCountriesBulk_ReportsDuplicatesAndInvalidItems() {
     List<Country> countriesToAdd = new ArrayList<>();
     countriesToAdd.add(new Country("Country1"));
+    countriesToAdd.add(new Country(" "));
     countriesToAdd.add(new Country("NewCountry1"));
-    countriesToAdd.add(new Country("NewCountry2"));
+    countriesToAdd.add(new Country("NewCountry1"));
+    when(countryRepository.findExistingNameKeys(anyCollection()))
+        .thenReturn(List.of("country1"));
+
+    BulkResultDto result = countryService.addCountriesBulk(countriesToAdd);
+
+    assertEquals(List.of(BulkResultDto.Outcome.ALREADY_EXISTS, BulkResultDto.Outcome.INVALID,
+            BulkResultDto.Outcome.CREATED, BulkResultDto.Outcome.DUPLICATE),
+        result.getItems().stream().map(BulkResultDto.Item::outcome).toList());
+    verify(countryRepository).insertAll(List.of(countriesToAdd.get(2)));
+  }
+
+  @Test
+  void addCountriesBulk_QueriesNamesAndInsertsInChunks() {
+    List<Country> countriesToAdd = new ArrayList<>();
+    for (int i = 0; i < CountryService.BULK_CHUNK_SIZE * 2 + 1; i++) {
+      countriesToAdd.add(new Country("NewCountry" + i));
+    }
+
+    BulkResultDto result = countryService.addCountriesBulk(countriesToAdd);
+
+    assertEquals(countriesToAdd.size(), result.getCreated());
+    verify(countryRepository, times(3)).findExistingNameKeys(anyCollection());
+    verify(countryRepository, times(3)).insertAll(anyList());
+  }
+
+  @Test
+  void addCountriesBulk_PartiallySuccessful() {
+    List<Country> countriesToAdd = new ArrayList<>();
+    for (int i = 0; i < CountryService.BULK_CHUNK_SIZE + 1; i++) {
+      countriesToAdd.add(new Country("NewCountry" + i));
+    }
+    doThrow(new DataIntegrityViolationException("Duplicate entry"))
+        .when(countryRepository).insertAll(argThat(partition -> partition.size() == 1));
+
+    BulkResultDto result = countryService.addCountriesBulk(countriesToAdd);
+
+    assertEquals(CountryService.BULK_CHUNK_SIZE, result.getCreated());
+    assertEquals(1, result.getFailed());
+    assertEquals(BulkResultDto.Outcome.FAILED,
+        result.getItems().get(CountryService.BULK_CHUNK_SIZE).outcome());
+    verify(countryRepository, times(2)).insertAll(anyList());
+  }
 
-    List<Country> savedCountries = new ArrayList<>();
-    savedCountries.add(new Country("Country1"));
-    when(countryRepository.saveAll(any())).thenReturn(savedCountries);
+  @Test
+  void addCountriesBulk_RetriesPartitionOnTransientError() {
+    List<Country> countriesToAdd = List.of(new Country("NewCountry1"), new Country("NewCountry2"));
+    doThrow(new CannotAcquireLockException("Lock wait timeout")).doNothing()
+        .when(countryRepository).insertAll(anyList());
+
+    BulkResultDto result = countryService.addCountriesBulk(countriesToAdd);
 
-    RuntimeException exception = assertThrows(RuntimeException.class, () -> countryService.addCountriesBulk(countriesToAdd));
-    assertEquals("Ошибка при добавлении новых стран.", exception.getMessage());
+    assertEquals(2, result.getCreated());
+    assertEquals(0, result.getFailed());
+    verify(countryRepository, times(2)).insertAll(countriesToAdd);
   }
 
   @Test
@@ -105,59 +255,233 @@ class CountryServiceTest {
     CountryDto countryDto = new CountryDto();
     countryDto.setName(countryName);
 
-    when(countryCache.containsKey(countryName)).thenReturn(true);
-    when(countryCache.get(countryName)).thenReturn(countryDto);
+    countryCache.put(NameKey.of(countryName), countryDto);
 
     assertEquals(countryDto, countryService.getCountry(countryName));
-    verify(countryRepository, never()).findByName(any());
+    verify(countryRepository, never()).findDtoByNameKey(any());
   }
 
   @Test
   void getCountry_NotExistsInCache() throws CountryNotFoundException {
     String countryName = "Test Country";
-    Country country = new Country();
-    country.setName(countryName);
-    CountryDto countryDto = new CountryDto();
-    countryDto.setName(countryName);
+    CountryDto countryDto = new CountryDto(1L, countryName, "Test Capital");
 
-    when(countryCache.containsKey(countryName)).thenReturn(false);
-    when(countryRepository.findByName(countryName)).thenReturn(country);
+    when(countryRepository.findDtoByNameKey(NameKey.of(countryName))).thenReturn(countryDto);
 
     CountryDto retrievedCountryDto = countryService.getCountry(countryName);
 
-    assertEquals(countryDto.getName(), retrievedCountryDto.getName());
-    assertEquals(countryDto.getCapital(), retrievedCountryDto.getCapital());
+    assertEquals(countryName, retrievedCountryDto.getName());
+    assertEquals("Test Capital", retrievedCountryDto.getCapital());
+    verify(countryRepository, never()).findByNameKey(any());
+
+    assertSame(retrievedCountryDto, countryCache.get(NameKey.of(countryName)));
+  }
+
+  @Test
+  void getCountry_SpellingsOfOneNameShareCacheEntry() throws CountryNotFoundException {
+    CountryDto countryDto = new CountryDto(1L, "Côte d'Ivoire", "Yamoussoukro");
+    when(countryRepository.findDtoByNameKey("cote d'ivoire")).thenReturn(countryDto);
+
+    assertSame(countryDto, countryService.getCountry("Côte d'Ivoire"));
+    assertSame(countryDto, countryService.getCountry("  COTE   D'IVOIRE "));
+    verify(countryRepository, times(1)).findDtoByNameKey(anyString());
+  }
+
+  @Test
+  void getCountriesByNames_LoadsAllMissesWithOneQuery() {
+    CountryDto belarus = new CountryDto(1L, "Belarus", "Minsk");
+    CountryDto poland = new CountryDto(2L, "Poland", "Warsaw");
+    countryCache.put("belarus", belarus);
+    when(countryRepository.findDtosByNameKeys(anyCollection())).thenReturn(List.of(poland));
+
+    List<CountryDto> countries = countryService.getCountriesByNames(
+        List.of("Poland", "BELARUS", "Atlantis", " poland "));
+
+    assertEquals(List.of(poland, belarus), countries);
+    verify(countryRepository).findDtosByNameKeys(List.of("poland", "atlantis"));
+    assertSame(poland, countryCache.get("poland"));
+    cacheManager.invalidateTag(CacheTags.country(2L));
+    assertFalse(countryCache.containsKey("poland"));
+  }
+
+  @Test
+  void getCountriesByNames_InvalidationDuringQueryIsNotOverwritten() {
+    CountryDto poland = new CountryDto(2L, "Poland", "Warsaw");
+    when(countryRepository.findDtosByNameKeys(anyCollection())).thenAnswer(invocation -> {
+      cacheManager.invalidateTag(CacheTags.country(2L));
+      return List.of(poland);
+    });
+
+    assertEquals(List.of(poland), countryService.getCountriesByNames(List.of("Poland")));
+    assertFalse(countryCache.containsKey("poland"));
+  }
+
+  @Test
+  void getCountriesByNames_AllCachedSkipsRepository() {
+    cacheCountry("Belarus", 1L);
+    cacheCountry("Poland", 2L);
+
+    assertEquals(2, countryService.getCountriesByNames(List.of("Belarus", "Poland")).size());
+    verify(countryRepository, never()).findDtosByNameKeys(anyCollection());
+  }
+
+  @Test
+  void getCountriesByNames_DefiniteMissesSkipRepository() {
+    nameFilterService.countries().rebuild(1, () -> List.of("Belarus"));
+
+    assertTrue(countryService.getCountriesByNames(List.of("Atlantis", "Lemuria")).isEmpty());
+    verify(countryRepository, never()).findDtosByNameKeys(anyCollection());
+  }
+
+  @Test
+  void getCountriesByNames_TooManyNames() {
+    paginationProperties.setMaxPageSize(2);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> countryService.getCountriesByNames(List.of("A", "B", "C")));
+    verify(countryRepository, never()).findDtosByNameKeys(anyCollection());
+  }
+
+  @Test
+  void getCountry_NullOrBlankNameIsNotFound() {
+    assertThrows(CountryNotFoundException.class, () -> countryService.getCountry(null));
+    assertThrows(CountryNotFoundException.class, () -> countryService.getCountry("  "));
+    verify(countryRepository, never()).findDtoByNameKey(any());
+  }
+
+  @Test
+  void getCountry_DefiniteMissSkipsRepository() {
+    nameFilterService.countries().rebuild(1, () -> List.of("Belarus"));
 
-    verify(countryCache).put(eq(countryName), any(CountryDto.class));
+    assertThrows(CountryNotFoundException.class, () -> countryService.getCountry("Atlantis"));
+    verify(countryRepository, never()).findDtoByNameKey(any());
+    assertEquals(1, nameFilterService.countries().stats().definiteMissCount());
+  }
+
+  @Test
+  void addCountry_AddsNameToFilter() {
+    nameFilterService.countries().rebuild(0, List::of);
+    Country country = new Country("New Country");
+
+    assertDoesNotThrow(() -> countryService.addCountry(country));
+
+    assertTrue(nameFilterService.countries().mightContain("New Country"));
+  }
+
+  @Test
+  void getCountry_ConcurrentMissesQueryRepositoryOnce() throws Exception {
+    String countryName = "Test Country";
+    CountryDto country = new CountryDto(1L, countryName, null);
+    CountDownLatch release = new CountDownLatch(1);
+    when(countryRepository.findDtoByNameKey(NameKey.of(countryName))).thenAnswer(invocation -> {
+      release.await();
+      return country;
+    });
+
+    int callers = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    List<Future<CountryDto>> results = new ArrayList<>();
+    for (int i = 0; i < callers; i++) {
+      results.add(executor.submit(() -> countryService.getCountry(countryName)));
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (countryCache.getCoalescedLoadCount() < callers - 1 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+
+    for (Future<CountryDto> result : results) {
+      assertEquals(countryName, result.get(10, TimeUnit.SECONDS).getName());
+    }
+    executor.shutdown();
+    verify(countryRepository, times(1)).findDtoByNameKey(NameKey.of(countryName));
   }
 
   @Test
   void getCountriesWithLanguage_ExistsInCache() throws CountryNotFoundException {
     Long languageId = 1L;
-    String cacheKey = "language_" + languageId;
     List<CountryDto> countryDtos = new ArrayList<>();
 
-    when(countryCache.containsKey(cacheKey)).thenReturn(true);
-    when(countryCache.getList(cacheKey)).thenReturn(countryDtos);
+    languageCountriesCache.put(languageId, countryDtos);
 
     assertEquals(countryDtos, countryService.getCountriesWithLanguage(languageId));
-    verify(countryRepository, never()).findCountriesByLanguageList_Id(any());
+    verify(countryRepository, never()).findDtosByLanguageList_Id(any());
   }
 
   @Test
   void getCountriesWithLanguage_NotExistsInCache() {
     Long languageId = 1L;
-    String cacheKey = "language_" + languageId;
 
-    when(countryCache.containsKey(cacheKey)).thenReturn(false);
-
-    when(countryRepository.findCountriesByLanguageList_Id(anyLong())).thenReturn(Collections.emptyList());
+    when(countryRepository.findDtosByLanguageList_Id(anyLong())).thenReturn(Collections.emptyList());
 
     assertThrows(CountryNotFoundException.class, () -> {
       countryService.getCountriesWithLanguage(languageId);
     });
 
-    verify(countryCache, never()).putList(anyString(), anyList());
+    assertFalse(languageCountriesCache.containsKey(languageId));
+  }
+
+  @Test
+  void getCountries_ReturnsCursorWhenMoreRowsFollow() {
+    when(countryRepository.findDtosAfter(0L, Limit.of(3))).thenReturn(List.of(
+        new CountryDto(1L, "Belarus", "Minsk"), new CountryDto(2L, "Poland", "Warsaw"),
+        new CountryDto(3L, "Latvia", "Riga")));
+
+    PageDto<CountryDto> page = countryService.getCountries(null, 2);
+
+    assertEquals(List.of("Belarus", "Poland"),
+        page.getItems().stream().map(CountryDto::getName).toList());
+    assertEquals(PageCursor.encode(2L), page.getNextCursor());
+  }
+
+  @Test
+  void getCountries_ContinuesAfterCursorAndEndsOnShortPage() {
+    when(countryRepository.findDtosAfter(2L, Limit.of(3)))
+        .thenReturn(List.of(new CountryDto(3L, "Latvia", "Riga")));
+
+    PageDto<CountryDto> page = countryService.getCountries(PageCursor.encode(2L), 2);
+
+    assertEquals(1, page.getItems().size());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  void getCountries_CapsPageSize() {
+    paginationProperties.setMaxPageSize(5);
+
+    countryService.getCountries(null, 1000);
+
+    verify(countryRepository).findDtosAfter(0L, Limit.of(6));
+  }
+
+  @Test
+  void getCountries_RejectsMalformedCursorAndSize() {
+    assertThrows(IllegalArgumentException.class, () -> countryService.getCountries("%%", null));
+    assertThrows(IllegalArgumentException.class, () -> countryService.getCountries(null, 0));
+    verify(countryRepository, never()).findDtosAfter(anyLong(), any());
+  }
+
+  @Test
+  void getCountriesWithLanguage_ReadsPageOfLanguage() {
+    when(countryRepository.findDtosByLanguageAfter(4L, 0L, Limit.of(21)))
+        .thenReturn(List.of(new CountryDto(1L, "Belarus", "Minsk")));
+
+    PageDto<CountryDto> page = countryService.getCountriesWithLanguage(4L, null, null);
+
+    assertEquals("Belarus", page.getItems().get(0).getName());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  void getCountriesWithLanguage_TagsEntryWithProjectedCountries() throws CountryNotFoundException {
+    Long languageId = 1L;
+    List<CountryDto> countryDtos = List.of(new CountryDto(5L, "Belarus", "Minsk"));
+    when(countryRepository.findDtosByLanguageList_Id(languageId)).thenReturn(countryDtos);
+
+    assertEquals(countryDtos, countryService.getCountriesWithLanguage(languageId));
+
+    cacheManager.invalidateTag(CacheTags.country(5L));
+    assertFalse(languageCountriesCache.containsKey(languageId));
   }
 
   @Test
@@ -166,11 +490,67 @@ class CountryServiceTest {
     Country country = new Country();
     country.setName(countryName);
 
-    when(countryRepository.findByName(countryName)).thenReturn(country);
+    when(countryRepository.findByNameKey(NameKey.of(countryName))).thenReturn(country);
 
     assertDoesNotThrow(() -> countryService.updateCountry(countryName, country));
     verify(countryRepository, times(1)).save(country);
-    verify(countryCache, times(1)).clear();
+    verify(cacheManager, never()).clear();
+  }
+
+  @Test
+  void updateCountry_EvictsOnlyEntriesOfUpdatedCountry()
+      throws CountryNotFoundException, CountryAlreadyExistException {
+    Country country = new Country("Old Name");
+    country.setId(1L);
+    cacheCountry("Old Name", 1L);
+    cacheCountry("Other Country", 2L);
+    cacheLanguageList(10L, 1L, 2L);
+    cacheLanguageList(20L, 2L);
+    when(countryRepository.findByNameKey("old name")).thenReturn(country);
+
+    Country updated = new Country("New Name");
+    updated.setCapital("New Capital");
+    countryService.updateCountry("Old Name", updated);
+
+    assertFalse(countryCache.containsKey("old name"));
+    assertFalse(languageCountriesCache.containsKey(10L));
+    assertEquals("New Capital", countryCache.get("new name").getCapital());
+    assertTrue(countryCache.containsKey("other country"));
+    assertTrue(languageCountriesCache.containsKey(20L));
+  }
+
+  @Test
+  void deleteCountry_EvictsOnlyEntriesOfDeletedCountry() throws CountryNotFoundException {
+    Country country = new Country("Doomed");
+    country.setId(1L);
+    cacheCountry("Doomed", 1L);
+    cacheCountry("Other Country", 2L);
+    cacheLanguageList(10L, 1L, 2L);
+    cacheLanguageList(20L, 2L);
+    when(countryRepository.findByNameKey("doomed")).thenReturn(country);
+
+    countryService.deleteCountryByName("Doomed");
+
+    verify(countryRepository).delete(country);
+    assertFalse(countryCache.containsKey("doomed"));
+    assertFalse(languageCountriesCache.containsKey(10L));
+    assertTrue(countryCache.containsKey("other country"));
+    assertTrue(languageCountriesCache.containsKey(20L));
+  }
+
+  @Test
+  void updateCountry_RenameToStoredName_ThrowsAlreadyExists() {
+    Country stored = new Country("Old Name");
+    stored.setId(1L);
+    when(countryRepository.findByNameKey(NameKey.of("Old Name"))).thenReturn(stored);
+    when(countryRepository.save(stored)).thenThrow(new DataIntegrityViolationException(
+        "Duplicate entry 'taken' for key 'country.uk_country_name_key'"));
+    cacheCountry("Old Name", 1L);
+
+    Country renamed = new Country("Taken");
+    assertThrows(CountryAlreadyExistException.class,
+        () -> countryService.updateCountry("Old Name", renamed));
+    assertTrue(countryCache.containsKey(NameKey.of("Old Name")));
   }
 
   @Test
@@ -179,10 +559,31 @@ class CountryServiceTest {
     Country country = new Country();
     country.setName(countryName);
 
-    when(countryRepository.findByName(countryName)).thenReturn(null);
+    when(countryRepository.findByNameKey(NameKey.of(countryName))).thenReturn(null);
 
     assertThrows(CountryNotFoundException.class, () -> countryService.updateCountry(countryName, country));
     verify(countryRepository, never()).save(any());
-    verify(countryCache, never()).clear();
+    verify(cacheManager, never()).clear();
+  }
+
+  private static Language language(String name) {
+    Language language = new Language();
+    language.setName(name);
+    return language;
+  }
+
+  private void cacheCountry(String name, Long countryId) {
+    CountryDto countryDto = new CountryDto();
+    countryDto.setName(name);
+    countryCache.put(NameKey.of(name), countryDto, CacheTags.country(countryId));
+  }
+
+  private void cacheLanguageList(Long languageId, Long... countryIds) {
+    List<String> tags = new ArrayList<>();
+    tags.add(CacheTags.language(languageId));
+    for (Long countryId : countryIds) {
+      tags.add(CacheTags.country(countryId));
+    }
+    languageCountriesCache.put(languageId, new ArrayList<>(), tags.toArray(new String[0]));
   }
 }
@@ -0,0 +1,134 @@
+package com.example.countries.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports a synthetic dataset of millions of cities and checks that the heap retained during the
+ * export stays flat. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:export-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+        + "LAZY_QUERY_EXECUTION=1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "cache.snapshot.enabled=false",
+    "cache.name-filter.enabled=false"})
+class ExportBenchmarkTest {
+
+  private static final int COUNTRIES = 250;
+  private static final int CITIES = 3_000_000;
+  private static final int LANGUAGES = 20;
+  private static final long MAX_RETAINED_GROWTH = 64L << 20;
+
+  @Autowired
+  private ExportService exportService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testExportKeepsMemoryFlat() throws Exception {
+    seed();
+    for (ExportService.Format format : ExportService.Format.values()) {
+      System.gc();
+      long baseline = retainedHeap();
+      AtomicLong peak = new AtomicLong(baseline);
+      AtomicBoolean running = new AtomicBoolean(true);
+      Thread sampler = new Thread(() -> {
+        while (running.get()) {
+          peak.accumulateAndGet(retainedHeap(), Math::max);
+          try {
+            Thread.sleep(5);
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+      });
+      sampler.start();
+      CountingOutputStream out = new CountingOutputStream();
+      long start = System.nanoTime();
+      long countries = exportService.export(format, out);
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      running.set(false);
+      sampler.join();
+
+      System.out.printf(
+          "%s: %d countries, %d lines, %d MB in %d ms, retained heap growth %d MB%n", format,
+          countries, out.lines, out.bytes >> 20, elapsed, (peak.get() - baseline) >> 20);
+      assertEquals(COUNTRIES, countries);
+      assertEquals(format == ExportService.Format.NDJSON ? COUNTRIES : CITIES + 1, out.lines);
+      assertTrue(peak.get() - baseline < MAX_RETAINED_GROWTH);
+    }
+  }
+
+  private void seed() {
+    jdbcTemplate.update("INSERT INTO country (id, name, capital) "
+        + "SELECT X, CONCAT('Country ', X), CONCAT('Capital ', X) FROM SYSTEM_RANGE(1, ?)",
+        COUNTRIES);
+    jdbcTemplate.update("INSERT INTO language (id, name) "
+        + "SELECT X, CONCAT('Language ', X) FROM SYSTEM_RANGE(1, ?)", LANGUAGES);
+    jdbcTemplate.update("INSERT INTO country_language_mapping (country_id, language_id) "
+        + "SELECT X, MOD(X, ?) + 1 FROM SYSTEM_RANGE(1, ?)", LANGUAGES, COUNTRIES);
+    jdbcTemplate.update("INSERT INTO city (id, name, country_id) "
+        + "SELECT X, CONCAT('City ', X), MOD(X, ?) + 1 FROM SYSTEM_RANGE(1, ?)",
+        COUNTRIES, CITIES);
+  }
+
+  /**
+   * Returns the heap in use after the most recent collection of each pool, which leaves out
+   * garbage that has not been collected yet.
+   */
+  private static long retainedHeap() {
+    long retained = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (pool.getType() == MemoryType.HEAP && usage != null) {
+        retained += usage.getUsed();
+      }
+    }
+    return retained;
+  }
+
+  private static final class CountingOutputStream extends OutputStream {
+    private long bytes;
+    private long lines;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+      if (b == '\n') {
+        lines++;
+      }
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) {
+      bytes += length;
+      for (int i = offset; i < offset + length; i++) {
+        if (buffer[i] == '\n') {
+          lines++;
+        }
+      }
+    }
+  }
+}
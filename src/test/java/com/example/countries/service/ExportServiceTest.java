@@ -0,0 +1,104 @@
+package com.example.countries.service;
+
+import com.example.countries.dto.CityDto;
+import com.example.countries.entity.Country;
+import com.example.countries.repository.CityRepository;
+import com.example.countries.repository.CountryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExportServiceTest {
+
+  @Mock
+  private CountryRepository countryRepository;
+
+  @Mock
+  private CityRepository cityRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private ExportService exportService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(countryRepository.streamAll()).thenReturn(Stream.of(country(1L, "Belarus", "Minsk"),
+        country(2L, "Atlantis", null), country(3L, "Poland, Republic of", "Warsaw")));
+    when(cityRepository.streamAllByCountry()).thenReturn(Stream.of(
+        new CityDto(1L, "Minsk", 1L), new CityDto(2L, "Brest", 1L),
+        new CityDto(5L, "Krakow", 3L), new CityDto(7L, "Lost", 4L)));
+    when(countryRepository.streamLanguageNames()).thenReturn(Stream.of(
+        new Object[] {1L, "Belarusian"}, new Object[] {1L, "Russian"},
+        new Object[] {3L, "Polish"}));
+  }
+
+  @Test
+  void export_WritesOneJsonLinePerCountry() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long written = exportService.export(ExportService.Format.NDJSON, out);
+
+    assertEquals(3, written);
+    assertEquals("{\"name\":\"Belarus\",\"capital\":\"Minsk\","
+        + "\"languages\":[\"Belarusian\",\"Russian\"],\"cities\":[\"Minsk\",\"Brest\"]}\n"
+        + "{\"name\":\"Atlantis\",\"capital\":null,\"languages\":[],\"cities\":[]}\n"
+        + "{\"name\":\"Poland, Republic of\",\"capital\":\"Warsaw\","
+        + "\"languages\":[\"Polish\"],\"cities\":[\"Krakow\"]}\n",
+        out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void export_WritesOneCsvLinePerCity() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    exportService.export(ExportService.Format.CSV, out);
+
+    assertEquals("country,capital,languages,city\n"
+        + "Belarus,Minsk,Belarusian;Russian,Minsk\n"
+        + "Belarus,Minsk,Belarusian;Russian,Brest\n"
+        + "Atlantis,,,\n"
+        + "\"Poland, Republic of\",Warsaw,Polish,Krakow\n",
+        out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void export_DetachesEveryCountry() throws IOException {
+    exportService.export(ExportService.Format.NDJSON, new ByteArrayOutputStream());
+
+    verify(entityManager, times(3)).detach(any(Country.class));
+  }
+
+  @Test
+  void csv_QuotesSpecialCharacters() {
+    assertEquals("plain", ExportService.csv("plain"));
+    assertEquals("\"a \"\"b\"\"\"", ExportService.csv("a \"b\""));
+    assertEquals("\"line\nbreak\"", ExportService.csv("line\nbreak"));
+    assertEquals("", ExportService.csv(null));
+  }
+
+  private static Country country(Long id, String name, String capital) {
+    Country country = new Country(name);
+    country.setId(id);
+    country.setCapital(capital);
+    return country;
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.countries.service;
+
+import com.example.countries.entity.Country;
+import com.example.countries.exception.CountryAlreadyExistException;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the insert throughput of the bulk and single add paths of {@link CountryService} with
+ * the ID block size set by the subclass, printing the inserts per second and the statements run
+ * per insert. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "cache.snapshot.enabled=false",
+    "cache.name-filter.enabled=false"})
+abstract class IdAllocationBenchmark {
+
+  private static final int BULK_COUNTRIES = 50_000;
+  private static final int SINGLE_COUNTRIES = 5_000;
+
+  @Autowired
+  private CountryService countryService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void testInsertThroughput() throws CountryAlreadyExistException {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    statistics.clear();
+    long start = System.nanoTime();
+    assertEquals(BULK_COUNTRIES,
+        countryService.addCountriesBulk(countries("Bulk ", BULK_COUNTRIES)).getCreated());
+    print("bulk", BULK_COUNTRIES, start, statistics);
+
+    statistics.clear();
+    start = System.nanoTime();
+    for (Country country : countries("Single ", SINGLE_COUNTRIES)) {
+      countryService.addCountry(country);
+    }
+    print("single", SINGLE_COUNTRIES, start, statistics);
+  }
+
+  private static List<Country> countries(String prefix, int count) {
+    List<Country> countries = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Country country = new Country(prefix + i);
+      country.setCapital("Capital " + i);
+      countries.add(country);
+    }
+    return countries;
+  }
+
+  private void print(String path, int count, long start, Statistics statistics) {
+    long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    System.out.printf("%s, %-6s %6d inserts in %6d ms, %8d inserts/s, %.3f statements/insert%n",
+        getClass().getSimpleName(), path, count, elapsed, count * 1000L / elapsed,
+        (double) statistics.getPrepareStatementCount() / count);
+  }
+}
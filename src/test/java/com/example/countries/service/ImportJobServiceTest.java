@@ -0,0 +1,167 @@
+package com.example.countries.service;
+
+import com.example.countries.component.ImportJob;
+import com.example.countries.dto.BulkResultDto;
+import com.example.countries.dto.ImportJobDto;
+import com.example.countries.entity.Country;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportJobServiceTest {
+
+  @Mock
+  private CountryService countryService;
+
+  private ThreadPoolExecutor executor;
+
+  private ImportJobService importJobService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1));
+    importJobService = new ImportJobService(countryService, new ObjectMapper(), executor, 2, 60);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void run_ProcessesPayloadInChunks() {
+    List<Country> countries = countries(5);
+    when(countryService.addCountriesBulk(anyList())).thenAnswer(invocation -> {
+      List<Country> chunk = invocation.getArgument(0);
+      BulkResultDto result = new BulkResultDto(chunk.size());
+      for (int i = 0; i < chunk.size(); i++) {
+        result.add(i, chunk.get(i).getName(), chunk.get(i).getName().equals("Country3")
+            ? BulkResultDto.Outcome.ALREADY_EXISTS : BulkResultDto.Outcome.CREATED, null);
+      }
+      return result;
+    });
+    ImportJob job = new ImportJob("job", countries.size());
+
+    importJobService.run(job, countries.iterator());
+    ImportJobDto snapshot = job.snapshot();
+
+    verify(countryService, times(3)).addCountriesBulk(anyList());
+    assertEquals(ImportJob.Status.COMPLETED, snapshot.getStatus());
+    assertEquals(5, snapshot.getProcessed());
+    assertEquals(4, snapshot.getCreated());
+    assertEquals(1, snapshot.getFailures().size());
+    assertEquals(3, snapshot.getFailures().get(0).index());
+  }
+
+  @Test
+  void run_UnexpectedErrorFailsJob() {
+    when(countryService.addCountriesBulk(anyList())).thenThrow(new IllegalStateException("boom"));
+    ImportJob job = new ImportJob("job", 1);
+
+    importJobService.run(job, countries(1).iterator());
+
+    assertEquals(ImportJob.Status.FAILED, job.snapshot().getStatus());
+    assertEquals("boom", job.snapshot().getError());
+  }
+
+  @Test
+  void ingest_StoresChunksWhileReadingBody() {
+    when(countryService.addCountriesBulk(anyList())).thenAnswer(invocation -> {
+      List<Country> chunk = invocation.getArgument(0);
+      BulkResultDto result = new BulkResultDto(chunk.size());
+      for (int i = 0; i < chunk.size(); i++) {
+        result.add(i, chunk.get(i).getName(), BulkResultDto.Outcome.CREATED, null);
+      }
+      return result;
+    });
+
+    ImportJobDto snapshot = importJobService.ingest(body(
+        "{\"name\":\"A\"}\n{\"name\":\"B\"}\n{\"name\":\"C\"}\n")).snapshot();
+
+    verify(countryService, times(2)).addCountriesBulk(anyList());
+    assertEquals(ImportJob.Status.COMPLETED, snapshot.getStatus());
+    assertEquals(3, snapshot.getTotal());
+    assertEquals(3, snapshot.getCreated());
+  }
+
+  @Test
+  void ingest_MalformedBodyKeepsStoredChunksAndFailsJob() {
+    when(countryService.addCountriesBulk(anyList())).thenReturn(new BulkResultDto(0));
+
+    ImportJobDto snapshot = importJobService.ingest(body(
+        "[{\"name\":\"A\"}, {\"name\":\"B\"}, {\"name\":\"C\"}, 42]")).snapshot();
+
+    verify(countryService, times(1)).addCountriesBulk(anyList());
+    assertEquals(ImportJob.Status.FAILED, snapshot.getStatus());
+  }
+
+  @Test
+  void submit_ReturnsJobAndRunsItInBackground() throws InterruptedException {
+    when(countryService.addCountriesBulk(anyList())).thenReturn(new BulkResultDto(0));
+
+    ImportJob job = importJobService.submit(countries(1));
+
+    assertSame(job, importJobService.getJob(job.getId()));
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(ImportJob.Status.COMPLETED, job.snapshot().getStatus());
+  }
+
+  @Test
+  void submit_QueueFull_RejectsJob() {
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    executor.execute(() -> { });
+
+    assertThrows(RejectedExecutionException.class,
+        () -> importJobService.submit(countries(1)));
+    release.countDown();
+  }
+
+  @Test
+  void getJob_UnknownId_ReturnsNull() {
+    assertNull(importJobService.getJob("unknown"));
+  }
+
+  private static InputStream body(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<Country> countries(int count) {
+    List<Country> countries = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      countries.add(new Country("Country" + i));
+    }
+    return countries;
+  }
+}
@@ -0,0 +1,130 @@
+package com.example.countries.service;
+
+import com.example.countries.dto.ImportJobDto;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streams a generated newline-delimited JSON body of half a million countries into
+ * {@link ImportJobService#ingest} and checks that the heap retained during the import stays flat.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:ingest-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "cache.snapshot.enabled=false",
+    "cache.name-filter.enabled=false"})
+class IngestBenchmarkTest {
+
+  private static final int COUNTRIES = 500_000;
+  private static final long MAX_RETAINED_GROWTH = 64L << 20;
+
+  @Autowired
+  private ImportJobService importJobService;
+
+  @Test
+  void testIngestKeepsMemoryFlat() throws Exception {
+    System.gc();
+    long baseline = retainedHeap();
+    AtomicLong peak = new AtomicLong(baseline);
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread sampler = new Thread(() -> {
+      while (running.get()) {
+        peak.accumulateAndGet(retainedHeap(), Math::max);
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    });
+    sampler.start();
+    GeneratedBody body = new GeneratedBody();
+    long start = System.nanoTime();
+    ImportJobDto result = importJobService.ingest(body).snapshot();
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    running.set(false);
+    sampler.join();
+
+    System.out.printf("%d countries, %d MB in %d ms, %d countries/s, retained heap growth %d MB%n",
+        result.getCreated(), body.bytes >> 20, elapsed, result.getItemsPerSecond(),
+        (peak.get() - baseline) >> 20);
+    assertEquals(COUNTRIES, result.getCreated());
+    assertTrue(peak.get() - baseline < MAX_RETAINED_GROWTH);
+  }
+
+  /**
+   * Returns the heap in use after the most recent collection of each pool, which leaves out
+   * garbage that has not been collected yet.
+   */
+  private static long retainedHeap() {
+    long retained = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (pool.getType() == MemoryType.HEAP && usage != null) {
+        retained += usage.getUsed();
+      }
+    }
+    return retained;
+  }
+
+  /**
+   * A request body producing one country per line on demand, never holding more than a line.
+   */
+  private static final class GeneratedBody extends InputStream {
+    private byte[] line = new byte[0];
+    private int position;
+    private int written;
+    private long bytes;
+
+    @Override
+    public int read() {
+      if (position == line.length && !nextLine()) {
+        return -1;
+      }
+      bytes++;
+      return line[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+      if (position == line.length && !nextLine()) {
+        return -1;
+      }
+      int count = Math.min(length, line.length - position);
+      System.arraycopy(line, position, buffer, offset, count);
+      position += count;
+      bytes += count;
+      return count;
+    }
+
+    private boolean nextLine() {
+      if (written == COUNTRIES) {
+        return false;
+      }
+      line = ("{\"name\":\"Country " + written + "\",\"capital\":\"Capital " + written + "\"}\n")
+          .getBytes(StandardCharsets.UTF_8);
+      position = 0;
+      written++;
+      return true;
+    }
+  }
+}
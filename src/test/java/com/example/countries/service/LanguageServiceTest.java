@@ -1,8 +1,16 @@
 package com.example.countries.service;
 
 import com.example.countries.component.Cache;
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheRegions;
+import com.example.countries.component.CacheTags;
+import com.example.countries.component.PageCursor;
+import com.example.countries.component.PartitionRunner;
+import com.example.countries.config.PaginationProperties;
+import com.example.countries.dto.BulkResultDto;
 import com.example.countries.dto.CountryDto;
 import com.example.countries.dto.LanguageDto;
+import com.example.countries.dto.PageDto;
 import com.example.countries.entity.Country;
 import com.example.countries.entity.Language;
 import com.example.countries.exception.CountryNotFoundException;
@@ -15,8 +23,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,15 +45,31 @@ class LanguageServiceTest {
   @Mock
   private CountryRepository countryRepository;
 
-  @Mock
-  private Cache<String, CountryDto> countryCache;
+  @Spy
+  private CacheManager cacheManager = new CacheManager();
+
+  @Spy
+  private NameFilterService nameFilterService =
+      new NameFilterService(null, null, true, 0.01, 100);
+
+  @Spy
+  private PaginationProperties paginationProperties = new PaginationProperties();
+
+  @Spy
+  private PartitionRunner partitionRunner = new PartitionRunner(2, 1000, 1, 0, e -> false);
 
   @InjectMocks
   private LanguageService languageService;
 
+  private Cache<String, CountryDto> countryCache;
+
+  private Cache<Long, List<CountryDto>> languageCountriesCache;
+
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    countryCache = cacheManager.region(CacheRegions.COUNTRY_BY_NAME);
+    languageCountriesCache = cacheManager.region(CacheRegions.COUNTRIES_BY_LANGUAGE);
   }
 
   @Test
@@ -46,36 +77,93 @@ class LanguageServiceTest {
     Country country = new Country();
     Language language = new Language();
     language.setName("English");
-    when(countryRepository.findById(anyLong())).thenReturn(Optional.of(country));
+    when(countryRepository.findWithLanguagesById(anyLong())).thenReturn(Optional.of(country));
     when(languageRepository.findByName(anyString())).thenReturn(null);
 
     assertDoesNotThrow(() -> languageService.addLanguage(1L, language));
 
-    verify(countryRepository, times(1)).findById(anyLong());
+    verify(countryRepository, times(1)).findWithLanguagesById(anyLong());
     verify(languageRepository, times(1)).findByName(anyString());
-    verify(languageRepository, times(1)).save(any(Language.class));
+    verify(languageRepository, times(1)).saveAndFlush(any(Language.class));
     verify(countryRepository, times(1)).save(any(Country.class));
-    verify(countryCache, times(1)).clear();
+    verify(cacheManager, never()).clear();
+  }
+
+  @Test
+  void addLanguage_ConcurrentInsertOfSameName_ThrowsAlreadyExists() {
+    Country country = new Country();
+    when(countryRepository.findWithLanguagesById(1L)).thenReturn(Optional.of(country));
+    Language language = new Language();
+    language.setName("English");
+    when(languageRepository.saveAndFlush(language)).thenThrow(new DataIntegrityViolationException(
+        "Duplicate entry 'English' for key 'language.uk_language_name'"));
+
+    assertThrows(LanguageAlreadyExistException.class,
+        () -> languageService.addLanguage(1L, language));
+    assertTrue(country.getLanguageList().isEmpty());
+    verify(countryRepository, never()).save(any(Country.class));
+  }
+
+  @Test
+  void addLanguage_AddsNameToFilterAfterCommit() throws Exception {
+    nameFilterService.languages().rebuild(0, List::of);
+    when(countryRepository.findWithLanguagesById(1L)).thenReturn(Optional.of(new Country()));
+    Language language = new Language();
+    language.setName("Belarusian");
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      languageService.addLanguage(1L, language);
+      assertFalse(nameFilterService.languages().mightContain("Belarusian"));
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertTrue(nameFilterService.languages().mightContain("Belarusian"));
+  }
+
+  @Test
+  void addLanguage_EvictsOnlyListOfAddedLanguage() {
+    Country country = new Country();
+    country.setId(1L);
+    Language existing = new Language();
+    existing.setId(10L);
+    existing.setName("English");
+    when(countryRepository.findWithLanguagesById(1L)).thenReturn(Optional.of(country));
+    when(languageRepository.findByName("English")).thenReturn(existing);
+    cacheCountry("Country", 1L);
+    cacheLanguageList(10L, 2L);
+    cacheLanguageList(20L, 1L);
+
+    Language language = new Language();
+    language.setName("English");
+    assertDoesNotThrow(() -> languageService.addLanguage(1L, language));
+
+    assertFalse(languageCountriesCache.containsKey(10L));
+    assertTrue(languageCountriesCache.containsKey(20L));
+    assertTrue(countryCache.containsKey("Country"));
   }
 
   @Test
   void addLanguage_CountryNotFound() {
-    when(countryRepository.findById(anyLong())).thenReturn(Optional.empty());
+    when(countryRepository.findWithLanguagesById(anyLong())).thenReturn(Optional.empty());
 
     assertThrows(CountryNotFoundException.class, () -> languageService.addLanguage(1L, new Language()));
 
-    verify(countryRepository, times(1)).findById(anyLong());
+    verify(countryRepository, times(1)).findWithLanguagesById(anyLong());
     verify(languageRepository, never()).findByName(anyString());
-    verify(languageRepository, never()).save(any(Language.class));
+    verify(languageRepository, never()).saveAndFlush(any(Language.class));
     verify(countryRepository, never()).save(any(Country.class));
-    verify(countryCache, never()).clear();
+    verify(cacheManager, never()).clear();
   }
 
   @Test
   void getLanguage_Successfully() throws LanguageNotFoundException {
-    Language language = new Language();
-    language.setName("English");
-    when(languageRepository.findById(anyLong())).thenReturn(Optional.of(language));
+    when(languageRepository.findDtoById(anyLong()))
+        .thenReturn(Optional.of(new LanguageDto(1L, "English")));
 
     LanguageDto languageDto = languageService.getLanguage(1L);
 
@@ -85,11 +173,43 @@ class LanguageServiceTest {
 
   @Test
   void getLanguage_NotFound() {
-    when(languageRepository.findById(anyLong())).thenReturn(Optional.empty());
+    when(languageRepository.findDtoById(anyLong())).thenReturn(Optional.empty());
 
     assertThrows(LanguageNotFoundException.class, () -> languageService.getLanguage(1L));
   }
 
+  @Test
+  void getLanguages_ReturnsCursorWhenMoreRowsFollow() {
+    when(languageRepository.findDtosAfter(0L, Limit.of(2)))
+        .thenReturn(List.of(new LanguageDto(3L, "English"), new LanguageDto(5L, "French")));
+
+    PageDto<LanguageDto> page = languageService.getLanguages(null, 1);
+
+    assertEquals(1, page.getItems().size());
+    assertEquals(PageCursor.encode(3L), page.getNextCursor());
+  }
+
+  @Test
+  void getLanguage_ServedFromCacheUntilUpdated()
+      throws LanguageNotFoundException, LanguageAlreadyExistException {
+    Language language = new Language();
+    language.setName("English");
+    when(languageRepository.findById(1L)).thenReturn(Optional.of(language));
+    when(languageRepository.findDtoById(1L)).thenReturn(
+        Optional.of(new LanguageDto(1L, "English")),
+        Optional.of(new LanguageDto(1L, "British English")));
+
+    LanguageDto first = languageService.getLanguage(1L);
+    assertSame(first, languageService.getLanguage(1L));
+    verify(languageRepository, times(1)).findDtoById(1L);
+
+    Language renamed = new Language();
+    renamed.setName("British English");
+    languageService.updateLanguage(1L, renamed);
+
+    assertEquals("British English", languageService.getLanguage(1L).getName());
+  }
+
   @Test
   void updateLanguage_Successfully() throws LanguageNotFoundException {
     Language language = new Language();
@@ -100,7 +220,91 @@ class LanguageServiceTest {
 
     verify(languageRepository, times(1)).findById(anyLong());
     verify(languageRepository, times(1)).save(any(Language.class));
-    verify(countryCache, times(1)).clear();
+    verify(cacheManager, never()).clear();
+  }
+
+  @Test
+  void updateLanguage_KeepsCachedCountries()
+      throws LanguageNotFoundException, LanguageAlreadyExistException {
+    Language language = new Language();
+    language.setId(10L);
+    language.setName("English");
+    when(languageRepository.findById(10L)).thenReturn(Optional.of(language));
+    cacheCountry("Country", 1L);
+    cacheLanguageList(10L, 1L);
+
+    Language renamed = new Language();
+    renamed.setName("British English");
+    languageService.updateLanguage(10L, renamed);
+
+    assertTrue(languageCountriesCache.containsKey(10L));
+    assertTrue(countryCache.containsKey("Country"));
+  }
+
+  @Test
+  void deleteLanguage_EvictsOnlyListOfDeletedLanguage()
+      throws LanguageNotFoundException, CountryNotFoundException {
+    Country country = new Country();
+    country.setId(1L);
+    Language language = new Language();
+    language.setId(10L);
+    country.getLanguageList().add(language);
+    language.getCountryList().add(country);
+    when(countryRepository.findWithLanguagesById(1L)).thenReturn(Optional.of(country));
+    when(languageRepository.findWithCountriesById(10L)).thenReturn(Optional.of(language));
+    cacheCountry("Country", 1L);
+    cacheLanguageList(10L, 1L);
+    cacheLanguageList(20L, 1L);
+
+    languageService.deleteLanguage(1L, 10L);
+
+    assertFalse(languageCountriesCache.containsKey(10L));
+    assertTrue(languageCountriesCache.containsKey(20L));
+    assertTrue(countryCache.containsKey("Country"));
+    assertTrue(country.getLanguageList().isEmpty());
+  }
+
+  @Test
+  void deleteLanguage_EvictsListAfterCommit()
+      throws LanguageNotFoundException, CountryNotFoundException {
+    Country country = new Country();
+    country.setId(1L);
+    Language language = new Language();
+    language.setId(10L);
+    country.getLanguageList().add(language);
+    language.getCountryList().add(country);
+    when(countryRepository.findWithLanguagesById(1L)).thenReturn(Optional.of(country));
+    when(languageRepository.findWithCountriesById(10L)).thenReturn(Optional.of(language));
+    cacheLanguageList(10L, 1L);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      languageService.deleteLanguage(1L, 10L);
+      assertTrue(languageCountriesCache.containsKey(10L));
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertFalse(languageCountriesCache.containsKey(10L));
+  }
+
+  @Test
+  void updateLanguage_RenameToStoredName_ThrowsAlreadyExists() {
+    nameFilterService.languages().rebuild(0, List::of);
+    Language language = new Language();
+    language.setName("English");
+    when(languageRepository.findById(1L)).thenReturn(Optional.of(language));
+    when(languageRepository.save(language)).thenThrow(new DataIntegrityViolationException(
+        "Duplicate entry 'French' for key 'language.uk_language_name'"));
+
+    Language renamed = new Language();
+    renamed.setName("French");
+    assertThrows(LanguageAlreadyExistException.class,
+        () -> languageService.updateLanguage(1L, renamed));
+    assertFalse(nameFilterService.languages().mightContain("French"));
   }
 
   @Test
@@ -111,34 +315,81 @@ class LanguageServiceTest {
 
     verify(languageRepository, times(1)).findById(anyLong());
     verify(languageRepository, never()).save(any(Language.class));
-    verify(countryCache, never()).clear();
+    verify(cacheManager, never()).clear();
   }
 
   @Test
   void deleteLanguage_CountryNotFound() {
-    when(countryRepository.findById(anyLong())).thenReturn(Optional.empty());
+    when(countryRepository.findWithLanguagesById(anyLong())).thenReturn(Optional.empty());
 
     assertThrows(CountryNotFoundException.class, () -> languageService.deleteLanguage(1L, 1L));
 
-    verify(countryRepository, times(1)).findById(anyLong());
-    verify(languageRepository, never()).findById(anyLong());
+    verify(countryRepository, times(1)).findWithLanguagesById(anyLong());
+    verify(languageRepository, never()).findWithCountriesById(anyLong());
     verify(countryRepository, never()).save(any(Country.class));
     verify(languageRepository, never()).save(any(Language.class));
-    verify(countryCache, never()).clear();
+    verify(cacheManager, never()).clear();
   }
 
   @Test
   void deleteLanguage_LanguageNotFound() {
     Country country = new Country();
-    when(countryRepository.findById(anyLong())).thenReturn(Optional.of(country));
-    when(languageRepository.findById(anyLong())).thenReturn(Optional.empty());
+    when(countryRepository.findWithLanguagesById(anyLong())).thenReturn(Optional.of(country));
+    when(languageRepository.findWithCountriesById(anyLong())).thenReturn(Optional.empty());
 
     assertThrows(LanguageNotFoundException.class, () -> languageService.deleteLanguage(1L, 1L));
 
-    verify(countryRepository, times(1)).findById(anyLong());
-    verify(languageRepository, times(1)).findById(anyLong());
+    verify(countryRepository, times(1)).findWithLanguagesById(anyLong());
+    verify(languageRepository, times(1)).findWithCountriesById(anyLong());
     verify(countryRepository, never()).save(any(Country.class));
     verify(languageRepository, never()).save(any(Language.class));
-    verify(countryCache, never()).clear();
+    verify(cacheManager, never()).clear();
+  }
+
+  @Test
+  void addLanguagesBulk_LinksStoredAndInsertsNewLanguages() throws CountryNotFoundException {
+    List<Language> languages = List.of(language("English"), language("French"),
+        language("Belarusian"), language(" "));
+    when(countryRepository.existsById(1L)).thenReturn(true);
+    when(languageRepository.findIdsByNames(anyCollection())).thenReturn(List.of(
+        new Object[] {5L, "English"}, new Object[] {6L, "French"}));
+    when(languageRepository.findLinkedIds(eq(1L), anyCollection())).thenReturn(List.of(6L));
+    cacheLanguageList(5L, 2L);
+
+    BulkResultDto result = languageService.addLanguagesBulk(1L, languages);
+
+    assertEquals(List.of(BulkResultDto.Outcome.CREATED, BulkResultDto.Outcome.ALREADY_EXISTS,
+            BulkResultDto.Outcome.CREATED, BulkResultDto.Outcome.INVALID),
+        result.getItems().stream().map(BulkResultDto.Item::outcome).toList());
+    verify(languageRepository, times(1)).linkAll(eq(1L), argThat(linked -> linked.size() == 2
+        && linked.get(0).getId() == 5L && linked.get(1) == languages.get(2)));
+    verify(countryRepository, never()).findWithLanguagesById(anyLong());
+    assertFalse(languageCountriesCache.containsKey(5L));
+  }
+
+  @Test
+  void addLanguagesBulk_CountryNotFound() {
+    when(countryRepository.existsById(1L)).thenReturn(false);
+
+    assertThrows(CountryNotFoundException.class,
+        () -> languageService.addLanguagesBulk(1L, List.of(language("English"))));
+    verify(languageRepository, never()).linkAll(anyLong(), anyList());
+  }
+
+  private static Language language(String name) {
+    Language language = new Language();
+    language.setName(name);
+    return language;
+  }
+
+  private void cacheCountry(String name, Long countryId) {
+    CountryDto countryDto = new CountryDto();
+    countryDto.setName(name);
+    countryCache.put(name, countryDto, CacheTags.country(countryId));
+  }
+
+  private void cacheLanguageList(Long languageId, Long countryId) {
+    languageCountriesCache.put(languageId, new ArrayList<>(),
+        CacheTags.language(languageId), CacheTags.country(countryId));
   }
 }
@@ -0,0 +1,11 @@
+package com.example.countries.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs {@link IdAllocationBenchmark} with the ID block size of {@code application.properties}.
+ */
+@TestPropertySource(properties =
+    "spring.datasource.url=jdbc:h2:mem:pooled-id-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class PooledIdAllocationBenchmarkTest extends IdAllocationBenchmark {
+}
@@ -0,0 +1,148 @@
+package com.example.countries.service;
+
+import com.example.countries.component.CacheManager;
+import com.example.countries.component.CacheTags;
+import com.example.countries.component.PartitionRunner;
+import com.example.countries.dto.SyncReportDto;
+import com.example.countries.entity.Country;
+import com.example.countries.repository.CountryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RestCountriesSyncServiceTest {
+
+  private static final String DUMP = "["
+      + "{\"name\":{\"common\":\"Belarus\"},\"capital\":[\"Minsk\"],\"population\":9000000},"
+      + "{\"name\":{\"common\":\"Russia\"},\"capital\":[\"Moscow\"]},"
+      + "{\"name\":{\"common\":\"Poland\"},\"capital\":[\"Warsaw\"]},"
+      + "{\"name\":{\"common\":\"Antarctica\"}},"
+      + "{\"name\":{}}]";
+
+  @Mock
+  private CountryRepository countryRepository;
+
+  private final CacheManager cacheManager = spy(new CacheManager());
+
+  private RestCountriesSyncService syncService;
+
+  @TempDir
+  Path dir;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    syncService = new RestCountriesSyncService(countryRepository, cacheManager,
+        new NameFilterService(null, null, true, 0.01, 100),
+        new PartitionRunner(2, 1000, 1, 0, e -> false), new ObjectMapper(), "", 2);
+  }
+
+  @Test
+  void sync_UpsertsOnlyNewAndChangedCountries() throws IOException {
+    Path dump = Files.writeString(dir.resolve("countries.json"), DUMP);
+    when(countryRepository.findContentHashes(anyCollection())).thenReturn(List.of(
+        new Object[] {1L, "belarus", hash("Belarus", "Minsk")},
+        new Object[] {2L, "russia", hash("Russia", "St Petersburg")}));
+
+    SyncReportDto report = syncService.sync(dump);
+
+    assertEquals(2, report.getCreated());
+    assertEquals(1, report.getChanged());
+    assertEquals(1, report.getUnchanged());
+    assertEquals(1, report.getInvalid());
+    ArgumentCaptor<List<Country>> changed = ArgumentCaptor.forClass(List.class);
+    verify(countryRepository).updateContentAll(changed.capture());
+    assertEquals(1, changed.getValue().size());
+    assertEquals(2L, changed.getValue().get(0).getId());
+    assertEquals("Russia", changed.getValue().get(0).getName());
+    assertEquals("russia", changed.getValue().get(0).getNameKey());
+    assertEquals("Moscow", changed.getValue().get(0).getCapital());
+    assertEquals(hash("Russia", "Moscow"), changed.getValue().get(0).getContentHash());
+    verify(cacheManager).invalidateTag(CacheTags.country(2L));
+    ArgumentCaptor<List<Country>> created = ArgumentCaptor.forClass(List.class);
+    verify(countryRepository).insertAll(created.capture());
+    assertEquals("Poland", created.getValue().get(0).getName());
+    assertEquals("Warsaw", created.getValue().get(0).getCapital());
+    assertEquals(hash("Poland", "Warsaw"), created.getValue().get(0).getContentHash());
+    assertNull(created.getValue().get(1).getCapital());
+  }
+
+  @Test
+  void sync_UnchangedDumpWritesNothing() throws IOException {
+    Path dump = Files.writeString(dir.resolve("countries.json"),
+        "[{\"name\":{\"common\":\"Belarus\"},\"capital\":[\"Minsk\"]}]");
+    when(countryRepository.findContentHashes(anyCollection())).thenReturn(List.<Object[]>of(
+        new Object[] {1L, "belarus", hash("Belarus", "Minsk")}));
+
+    SyncReportDto report = syncService.sync(dump);
+
+    assertEquals(1, report.getUnchanged());
+    verify(countryRepository, never()).insertAll(anyList());
+    verify(countryRepository, never()).updateContentAll(anyList());
+  }
+
+  @Test
+  void sync_FailedInsertIsCountedAndOtherChunksAreKept() throws IOException {
+    Path dump = Files.writeString(dir.resolve("countries.json"), DUMP);
+    doThrow(new DataIntegrityViolationException("Duplicate entry 'belarus'"))
+        .when(countryRepository).insertAll(
+            argThat(countries -> countries.get(0).getName().equals("Belarus")));
+
+    SyncReportDto report = syncService.sync(dump);
+
+    assertEquals(2, report.getCreated());
+    assertEquals(2, report.getFailed());
+    assertEquals(1, report.getInvalid());
+  }
+
+  @Test
+  void sync_MalformedDumpThrows() throws IOException {
+    Path dump = Files.writeString(dir.resolve("countries.json"), "[{\"name\":");
+
+    assertThrows(IOException.class, () -> syncService.sync(dump));
+  }
+
+  @Test
+  void sync_NoConfiguredDumpThrows() {
+    assertThrows(IllegalStateException.class, () -> syncService.sync());
+  }
+
+  @Test
+  void contentHash_DependsOnImportedFieldsOnly() {
+    Country withoutCapital = new Country("Antarctica");
+    Country withEmptyCapital = new Country("Antarctica");
+    withEmptyCapital.setCapital("");
+
+    assertEquals(hash("Belarus", "Minsk"), hash("Belarus", "Minsk"));
+    assertNotEquals(hash("Belarus", "Minsk"), hash("Belarus", "Brest"));
+    assertNotEquals(RestCountriesSyncService.contentHash(withoutCapital),
+        RestCountriesSyncService.contentHash(withEmptyCapital));
+  }
+
+  private static String hash(String name, String capital) {
+    Country country = new Country(name);
+    country.setCapital(capital);
+    return RestCountriesSyncService.contentHash(country);
+  }
+}
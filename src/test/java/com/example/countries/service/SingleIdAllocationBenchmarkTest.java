@@ -0,0 +1,13 @@
+package com.example.countries.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs {@link IdAllocationBenchmark} reserving one ID at a time, the baseline of one database
+ * round trip per insert.
+ */
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:single-id-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.countries.id.block-size=1"})
+class SingleIdAllocationBenchmarkTest extends IdAllocationBenchmark {
+}